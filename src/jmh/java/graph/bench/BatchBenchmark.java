@@ -0,0 +1,70 @@
+package graph.bench;
+
+import app.BatchRunner;
+import app.Main;
+import graph.gen.GraphGenerator;
+import graph.model.Condensation;
+import graph.scc.SccAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Batch mode over 32 generated inputs in a temporary directory, outputs overwritten on every
+ * invocation. Graphs per second is the input count over the score; parallelism 1 is the
+ * one-after-another baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BatchBenchmark {
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private Path dir;
+    private List<Path> inputs;
+    private BatchRunner runner;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("batch-bench");
+        Path in = Files.createDirectories(dir.resolve("in"));
+        for (int i = 0; i < 32; i++)
+            GraphGenerator.clustered(20_000 + 1_000 * i, 8, 2, i).writeJson(in.resolve("district" + i + ".json"), 0);
+        inputs = BatchRunner.inputs(in);
+        runner = new BatchRunner(parallelism, SccAlgorithm.TARJAN, Condensation.WeightPolicy.FIRST, Main.PathEncoding.PARENTS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public BatchRunner.Summary batch() throws IOException, InterruptedException {
+        return runner.run(inputs, dir.resolve("out"));
+    }
+}
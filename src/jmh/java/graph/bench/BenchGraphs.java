@@ -0,0 +1,94 @@
+package graph.bench;
+
+import graph.model.CsrGraph;
+import graph.model.Graph;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Deterministic benchmark inputs. Every shape is generated as plain arc arrays first, so the
+ * legacy {@link Graph} and the {@link CsrGraph} views of one parameter set hold the same arcs.
+ */
+final class BenchGraphs {
+    private BenchGraphs() { }
+
+    enum Shape {
+        /** Random DAG: 4 forward arcs per vertex, targets at most 1000 ids ahead. */
+        DAG,
+        /** Cycles of 16 vertices plus 3 forward arcs per vertex between clusters. */
+        CLUSTERED,
+        /** Single path 0->1->...->n-1: deepest possible DFS, n singleton SCCs. */
+        CHAIN;
+
+        static Shape fromName(String name) { return valueOf(name.toUpperCase(Locale.ROOT)); }
+    }
+
+    /** Arc list in insertion order. */
+    static final class Arcs {
+        final int n;
+        final int[] u, v, w;
+
+        Arcs(int n, int[] u, int[] v, int[] w) {
+            this.n = n;
+            this.u = u;
+            this.v = v;
+            this.w = w;
+        }
+
+        int m() { return u.length; }
+
+        Graph toGraph() {
+            Graph g = new Graph(n, true);
+            for (int i = 0; i < u.length; i++) g.addEdge(u[i], v[i], w[i]);
+            return g;
+        }
+
+        CsrGraph toCsr() {
+            CsrGraph.Builder b = new CsrGraph.Builder(n, true, u.length);
+            for (int i = 0; i < u.length; i++) b.addEdge(u[i], v[i], w[i]);
+            return b.build();
+        }
+
+        /** Same schema as src/main/resources/data/*.json. */
+        String toJson(int source) {
+            StringBuilder sb = new StringBuilder(32 + 32 * u.length);
+            sb.append("{\"directed\": true, \"n\": ").append(n).append(", \"edges\": [");
+            for (int i = 0; i < u.length; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append("{\"u\": ").append(u[i]).append(", \"v\": ").append(v[i])
+                  .append(", \"w\": ").append(w[i]).append('}');
+            }
+            return sb.append("], \"source\": ").append(source).append(", \"weight_model\": \"edge\"}").toString();
+        }
+    }
+
+    static Arcs generate(Shape shape, int n, long seed) {
+        Random rnd = new Random(seed);
+        int cap = shape == Shape.CHAIN ? n : 4 * n;
+        int[] u = new int[cap], v = new int[cap], w = new int[cap];
+        int m = 0;
+        for (int x = 0; x < n; x++) {
+            switch (shape) {
+                case DAG:
+                    for (int k = 0; k < 4 && x + 1 < n; k++) {
+                        u[m] = x; v[m] = x + 1 + rnd.nextInt(Math.min(n - x - 1, 1000)); w[m++] = 1 + rnd.nextInt(50);
+                    }
+                    break;
+                case CLUSTERED: {
+                    int base = x - x % 16, next = Math.min(n - 1, base + 15);
+                    u[m] = x; v[m] = x == next ? base : x + 1; w[m++] = 1 + rnd.nextInt(50); // cycle inside the cluster
+                    for (int k = 0; k < 3 && next + 1 < n; k++) {
+                        u[m] = x; v[m] = next + 1 + rnd.nextInt(Math.min(n - next - 1, 1000)); w[m++] = 1 + rnd.nextInt(50);
+                    }
+                    break;
+                }
+                case CHAIN:
+                    if (x + 1 < n) { u[m] = x; v[m] = x + 1; w[m++] = 1 + rnd.nextInt(50); }
+                    break;
+            }
+        }
+        return new Arcs(n, Arrays.copyOf(u, m), Arrays.copyOf(v, m), Arrays.copyOf(w, m));
+    }
+}
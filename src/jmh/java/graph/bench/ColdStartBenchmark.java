@@ -0,0 +1,97 @@
+package graph.bench;
+
+import graph.io.BinaryGraphFile;
+import graph.io.JsonGraphLoader;
+import graph.io.MappedGraph;
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.model.OffHeapGraph;
+import graph.scc.Components;
+import graph.scc.TarjanSCC;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Getting a 1M-edge graph from disk into a usable {@link graph.model.GraphView}: parsing the JSON
+ * file vs mapping the binary file ({@link BinaryGraphFile#map}) or loading it off-heap, plus
+ * Tarjan straight over the mapping. Both files stay in the OS page cache between invocations, so
+ * this measures parsing and copying, not the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ColdStartBenchmark {
+    @Param({"1000000"})
+    public int m;
+
+    private Path dir, json, bin;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        int n = m / 10;
+        Random rnd = new Random(11);
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true, m);
+        StringBuilder sb = new StringBuilder(m * 32).append("{\"directed\": true, \"n\": ").append(n).append(", \"edges\": [");
+        for (int i = 0; i < m; i++) {
+            int u = rnd.nextInt(n), v = rnd.nextInt(n), w = 1 + rnd.nextInt(100);
+            b.addEdge(u, v, w);
+            sb.append(i > 0 ? ",\n" : "\n").append("{\"u\": ").append(u).append(", \"v\": ").append(v)
+              .append(", \"w\": ").append(w).append('}');
+        }
+        sb.append("], \"source\": 0}");
+        dir = Files.createTempDirectory("cold-start-bench");
+        json = dir.resolve("g.json");
+        bin = dir.resolve("g.bin");
+        Files.writeString(json, sb);
+        BinaryGraphFile.write(b.build(), 0, bin);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(json);
+        Files.deleteIfExists(bin);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public CsrGraph jsonLoad() throws IOException {
+        return JsonGraphLoader.load(json).graph;
+    }
+
+    @Benchmark
+    public MappedGraph binaryMap() throws IOException {
+        return BinaryGraphFile.map(bin);
+    }
+
+    @Benchmark
+    public int binaryLoadOffHeap() throws IOException {
+        try (OffHeapGraph g = BinaryGraphFile.load(bin)) {
+            return g.m();
+        }
+    }
+
+    @Benchmark
+    public Components tarjanOverMap() throws IOException {
+        return TarjanSCC.run(BinaryGraphFile.map(bin), Metrics.NOOP);
+    }
+}
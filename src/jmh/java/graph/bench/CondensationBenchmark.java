@@ -0,0 +1,33 @@
+package graph.bench;
+
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.model.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Building the condensation DAG from a finished SCC partition. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss512m")
+public class CondensationBenchmark {
+
+    @Benchmark
+    public Graph graphCondensation(GraphState s) {
+        return Graph.condensation(s.graph, s.legacyScc.compId, s.legacyScc.compCount);
+    }
+
+    @Benchmark
+    public CsrGraph csrCondensation(GraphState s) {
+        return Condensation.build(s.csr, s.scc.compId, s.scc.compCount, Condensation.WeightPolicy.FIRST);
+    }
+}
@@ -0,0 +1,51 @@
+package graph.bench;
+
+import graph.dagsp.CriticalPathMethod;
+import graph.dagsp.WeightModel;
+import graph.gen.GraphGenerator;
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Full CPM schedule (forward and backward sweep) of a generated layered DAG with random task durations. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CpmBenchmark {
+    @Param({"100000", "3000000"})
+    public int n;
+
+    private CsrGraph dag;
+    private int[] topo;
+    private WeightModel durations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dag = GraphGenerator.layered(n, 1000, 3, 4).toCsr();
+        topo = TopologicalSort.kahn(dag, new Metrics());
+        durations = WeightModel.nodes(new Random(6).longs(n, 1, 100).toArray());
+    }
+
+    @Benchmark
+    public CriticalPathMethod.Schedule schedule() {
+        return CriticalPathMethod.run(dag, topo, durations, Metrics.NOOP);
+    }
+}
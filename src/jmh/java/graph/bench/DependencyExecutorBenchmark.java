@@ -0,0 +1,84 @@
+package graph.bench;
+
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.scc.KosarajuSCC;
+import graph.topo.DependencyExecutor;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 200 000 small tasks (100 layers of 2 000, three random dependencies each) run by
+ * {@link DependencyExecutor} on a pool of {@code parallelism} threads vs one after another in
+ * topological order. The difference at parallelism 1 is the scheduling overhead; the run's own
+ * report (makespan, utilization, overhead per task) is in {@link DependencyExecutor.Report}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DependencyExecutorBenchmark {
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private CsrGraph g;
+    private KosarajuSCC.Result scc;
+    private int[] topo;
+    private long[] sink;
+    private DependencyExecutor.Task work;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int layers = 100, width = 2_000, n = layers * width;
+        Random rnd = new Random(4);
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true, 3 * n);
+        for (int l = 0; l + 1 < layers; l++)
+            for (int i = 0; i < width; i++)
+                for (int k = 0; k < 3; k++) b.addEdge(l * width + i, (l + 1) * width + rnd.nextInt(width), 1);
+        g = b.build();
+        scc = KosarajuSCC.run(g, new Metrics());
+        topo = TopologicalSort.kahn(g, new Metrics());
+        sink = new long[n];
+        work = v -> {
+            long x = v;
+            for (int i = 0; i < 200; i++) x = x * 6364136223846793005L + 1442695040888963407L;
+            sink[v] = x;
+        };
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public DependencyExecutor.Report executor() throws Exception {
+        return DependencyExecutor.run(g, scc, null, work, pool, Metrics.NOOP);
+    }
+
+    @Benchmark
+    public long[] sequential() throws Exception {
+        for (int v : topo) work.run(v);
+        return sink;
+    }
+}
@@ -0,0 +1,67 @@
+package graph.bench;
+
+import graph.metrics.Metrics;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.scc.Components;
+import graph.scc.TarjanSCC;
+import graph.topo.DynamicCondensation;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One arc insertion that closes an 11-cycle in the middle of a long chain: the incremental repair
+ * of {@link DynamicCondensation} vs SCC + condensation + Kahn from scratch on the updated graph.
+ * An insertion changes the structure, so each measurement is a single shot on a fresh copy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DynamicCondensationBenchmark {
+    @Param({"500000"})
+    public int n;
+
+    private CsrGraph chain, updated;
+    private DynamicCondensation dyn;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true, n);
+        for (int i = 0; i + 1 < n; i++) b.addEdge(i, i + 1, 1);
+        chain = b.build();
+        updated = b.addEdge(n / 2 + 10, n / 2, 1).build();
+    }
+
+    @Setup(Level.Iteration)
+    public void fresh() {
+        dyn = new DynamicCondensation(chain, Metrics.NOOP);
+    }
+
+    @Benchmark
+    public DynamicCondensation.Update incremental() {
+        return dyn.addEdge(n / 2 + 10, n / 2, 1);
+    }
+
+    @Benchmark
+    public int[] recompute() {
+        Components c = TarjanSCC.run(updated, Metrics.NOOP);
+        CsrGraph dag = Condensation.build(updated, c.compId, c.compCount, Condensation.WeightPolicy.FIRST);
+        return TopologicalSort.kahn(dag, Metrics.NOOP);
+    }
+}
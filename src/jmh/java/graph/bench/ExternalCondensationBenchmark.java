@@ -0,0 +1,77 @@
+package graph.bench;
+
+import graph.gen.GraphGenerator;
+import graph.io.BinaryGraphFile;
+import graph.io.ExternalCondensation;
+import graph.metrics.Metrics;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.scc.Components;
+import graph.scc.TarjanSCC;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * SCC + condensation of a clustered graph stored as a binary CSR file: {@link ExternalCondensation}
+ * with an arc budget of about 1/8 of the arcs vs Tarjan and {@link Condensation} on the graph in
+ * memory. Each external run streams the file several times, so a measurement is a single shot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ExternalCondensationBenchmark {
+    @Param({"1000000"})
+    public int n;
+
+    private CsrGraph g;
+    private Path dir, bin;
+    private long budget;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        g = GraphGenerator.clustered(n, 8, 4, 5).toCsr();
+        dir = Files.createTempDirectory("external-bench");
+        bin = dir.resolve("g.bin");
+        BinaryGraphFile.write(g, 0, bin);
+        budget = Math.max(ExternalCondensation.MIN_BUDGET, 12L * g.m() / 8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+
+    @Benchmark
+    public ExternalCondensation.Result external() throws IOException {
+        return new ExternalCondensation(budget, Condensation.WeightPolicy.MIN, Metrics.NOOP).run(bin, dir.resolve("out"));
+    }
+
+    @Benchmark
+    public CsrGraph inMemory() {
+        Components c = TarjanSCC.run(g, Metrics.NOOP);
+        return Condensation.build(g, c.compId, c.compCount, Condensation.WeightPolicy.MIN);
+    }
+}
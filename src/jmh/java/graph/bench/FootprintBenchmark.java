@@ -0,0 +1,89 @@
+package graph.bench;
+
+import graph.model.CsrGraph;
+import graph.model.Edge;
+import graph.model.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A random graph as an object {@link Graph} and as a {@link CsrGraph}. The build methods' GC
+ * profiler gc.alloc.rate.norm is the heap each representation costs to build (for the CSR graph,
+ * the builder's staging arrays plus the {@link CsrGraph#bytes} it keeps); the scan methods time
+ * one full adjacency scan of a prebuilt graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FootprintBenchmark {
+    @Param({"200000"})
+    public int n;
+
+    @Param({"1000000"})
+    public int m;
+
+    private int[] us, vs, ws;
+    private Graph graph;
+    private CsrGraph csr;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random rnd = new Random(42);
+        us = new int[m];
+        vs = new int[m];
+        ws = new int[m];
+        for (int i = 0; i < m; i++) {
+            us[i] = rnd.nextInt(n);
+            vs[i] = rnd.nextInt(n);
+            ws[i] = 1 + rnd.nextInt(100);
+        }
+        graph = buildGraph();
+        csr = buildCsr();
+    }
+
+    @Benchmark
+    public Graph buildGraph() {
+        Graph g = new Graph(n, true);
+        for (int i = 0; i < m; i++) g.addEdge(us[i], vs[i], ws[i]);
+        return g;
+    }
+
+    @Benchmark
+    public CsrGraph buildCsr() {
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true, m);
+        for (int i = 0; i < m; i++) b.addEdge(us[i], vs[i], ws[i]);
+        return b.build();
+    }
+
+    @Benchmark
+    public long scanGraph() {
+        long sum = 0;
+        for (int u = 0; u < n; u++)
+            for (Edge e : graph.adj().get(u)) sum += e.v + e.w;
+        return sum;
+    }
+
+    @Benchmark
+    public long scanCsr() {
+        long sum = 0;
+        for (int u = 0; u < n; u++)
+            for (int a = csr.begin(u); a < csr.end(u); a++) sum += csr.target(a) + csr.weight(a);
+        return sum;
+    }
+}
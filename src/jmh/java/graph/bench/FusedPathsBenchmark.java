@@ -0,0 +1,59 @@
+package graph.bench;
+
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGPaths;
+import graph.dagsp.DAGShortestPath;
+import graph.gen.GraphGenerator;
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shortest and longest paths from one source of a generated layered DAG: the fused sweep
+ * ({@link DAGPaths}, one pass over the adjacency) vs the two single-objective sweeps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FusedPathsBenchmark {
+    @Param({"1000000"})
+    public int n;
+
+    private CsrGraph dag;
+    private int[] topo;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dag = GraphGenerator.layered(n, 1000, 4, 5).toCsr();
+        topo = TopologicalSort.kahn(dag, new Metrics());
+    }
+
+    @Benchmark
+    public DAGPaths.Result fused() {
+        return DAGPaths.run(dag, topo, topo[0], Metrics.NOOP);
+    }
+
+    @Benchmark
+    public void separate(Blackhole bh) {
+        bh.consume(DAGShortestPath.run(dag, topo, topo[0], Metrics.NOOP));
+        bh.consume(DAGLongestPath.run(dag, topo, topo[0], Metrics.NOOP));
+    }
+}
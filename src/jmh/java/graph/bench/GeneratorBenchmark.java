@@ -0,0 +1,71 @@
+package graph.bench;
+
+import graph.gen.GraphGenerator;
+import graph.model.CsrGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Graph generation at a few million arcs: straight into a {@link CsrGraph} and into a binary
+ * graph file in a temporary directory. Arcs per second is about {@code n * degree} over the score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class GeneratorBenchmark {
+    @Param({"1000000"})
+    public int n;
+
+    @Param({"layered", "scale_free", "clustered"})
+    public String shape;
+
+    private GraphGenerator gen;
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        switch (GraphGenerator.Shape.fromName(shape)) {
+            case LAYERED:    gen = GraphGenerator.layered(n, 1000, 8, 5); break;
+            case SCALE_FREE: gen = GraphGenerator.scaleFree(n, 8, 5); break;
+            default:         gen = GraphGenerator.clustered(n, 8, 8, 5); break;
+        }
+        dir = Files.createTempDirectory("gen-bench");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dir.resolve("g.bin"));
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public CsrGraph toCsr() {
+        return gen.toCsr();
+    }
+
+    @Benchmark
+    public long writeBinary() throws IOException {
+        Path file = dir.resolve("g.bin");
+        gen.writeBinary(file, 0);
+        return Files.size(file);
+    }
+}
@@ -0,0 +1,63 @@
+package graph.bench;
+
+import graph.metrics.Metrics;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.model.Graph;
+import graph.scc.Components;
+import graph.scc.KosarajuSCC;
+import graph.scc.TarjanSCC;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * One input per (shape, n), in both representations, with every phase's input precomputed so
+ * each benchmark measures a single phase.
+ */
+@State(Scope.Benchmark)
+public class GraphState {
+    @Param({"1000", "100000"})
+    public int n;
+
+    @Param({"dag", "clustered", "chain"})
+    public String shape;
+
+    // phase inputs: original graph
+    Graph graph;
+    CsrGraph csr;
+
+    // condensation inputs
+    KosarajuSCC.Result legacyScc;
+    Components scc;
+
+    // topo / path inputs
+    Graph legacyDag;
+    CsrGraph dag;
+    List<Integer> legacyTopo;
+    int[] topo;
+    int legacySourceComp;
+    int sourceComp;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchGraphs.Arcs arcs = BenchGraphs.generate(BenchGraphs.Shape.fromName(shape), n, 42);
+        graph = arcs.toGraph();
+        csr = arcs.toCsr();
+
+        legacyScc = KosarajuSCC.run(graph, new Metrics());
+        scc = TarjanSCC.run(csr, new Metrics());
+
+        legacyDag = Graph.condensation(graph, legacyScc.compId, legacyScc.compCount);
+        dag = Condensation.build(csr, scc.compId, scc.compCount, Condensation.WeightPolicy.FIRST);
+        legacyTopo = TopologicalSort.kahn(legacyDag, new Metrics());
+        topo = TopologicalSort.kahn(dag, new Metrics());
+        legacySourceComp = legacyTopo.get(0);
+        sourceComp = topo[0];
+    }
+}
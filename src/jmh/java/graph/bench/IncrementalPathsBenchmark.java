@@ -0,0 +1,72 @@
+package graph.bench;
+
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.IncrementalDAGPaths;
+import graph.dagsp.MultiSourcePaths;
+import graph.gen.GraphGenerator;
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Longest paths on a generated layered DAG kept up to date under weight changes: one
+ * {@link IncrementalDAGPaths#setWeight} on an arc near the sinks vs a full sweep. The updates
+ * cycle through a fixed random sequence, so every invocation leaves a valid state behind.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IncrementalPathsBenchmark {
+    @Param({"500000"})
+    public int n;
+
+    private int[] topo, arcs, weights;
+    private IncrementalDAGPaths inc;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CsrGraph dag = GraphGenerator.layered(n, 500, 4, 42).toCsr();
+        topo = TopologicalSort.kahn(dag, new Metrics());
+        inc = new IncrementalDAGPaths(dag, topo, topo[0], MultiSourcePaths.Objective.LONGEST, new Metrics());
+
+        Random rnd = new Random(6);
+        arcs = new int[1024];
+        weights = new int[arcs.length];
+        for (int i = 0; i < arcs.length; i++) {
+            int u;
+            do u = topo[n - 1 - rnd.nextInt(Math.min(n, 20_000))]; while (dag.outDegree(u) == 0);
+            arcs[i] = dag.begin(u) + rnd.nextInt(dag.outDegree(u));
+            weights[i] = 1 + rnd.nextInt(50);
+        }
+    }
+
+    @Benchmark
+    public IncrementalDAGPaths.Update incremental() {
+        int i = next++ & (arcs.length - 1);
+        return inc.setWeight(arcs[i], weights[i]);
+    }
+
+    @Benchmark
+    public DAGLongestPath.Result fullSweep() {
+        return DAGLongestPath.run(inc.graph(), topo, topo[0], Metrics.NOOP);
+    }
+}
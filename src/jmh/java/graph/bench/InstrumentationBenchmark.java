@@ -0,0 +1,55 @@
+package graph.bench;
+
+import graph.dagsp.DAGShortestPath;
+import graph.gen.GraphGenerator;
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of instrumentation: the same shortest-path sweep publishing into a shared {@link Metrics}
+ * (counters and the phase histogram) vs into {@link Metrics#NOOP}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InstrumentationBenchmark {
+    @Param({"1000000"})
+    public int n;
+
+    @Param({"on", "off"})
+    public String metrics;
+
+    private CsrGraph dag;
+    private int[] topo;
+    private Metrics m;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dag = GraphGenerator.layered(n, 200, 4, 3).toCsr();
+        topo = TopologicalSort.kahn(dag, Metrics.NOOP);
+        m = metrics.equals("on") ? new Metrics() : Metrics.NOOP;
+    }
+
+    @Benchmark
+    public DAGShortestPath.Result shortestPaths() {
+        return DAGShortestPath.run(dag, topo, 0, m);
+    }
+}
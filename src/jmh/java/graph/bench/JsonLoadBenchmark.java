@@ -0,0 +1,75 @@
+package graph.bench;
+
+import graph.io.JsonGraphLoader;
+import graph.model.CsrGraph;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a synthetic JSON graph document from bytes: the streaming {@link JsonGraphLoader} vs
+ * the org.json DOM plus a {@link CsrGraph.Builder}. Edges per second is {@code m} over the score;
+ * gc.alloc.rate.norm shows the DOM's extra heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JsonLoadBenchmark {
+    @Param({"1000000"})
+    public int m;
+
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int n = m / 10;
+        Random rnd = new Random(7);
+        StringBuilder sb = new StringBuilder(m * 32);
+        sb.append("{\"directed\": true, \"n\": ").append(n).append(", \"edges\": [\n");
+        for (int i = 0; i < m; i++) {
+            if (i > 0) sb.append(",\n");
+            sb.append("{\"u\": ").append(rnd.nextInt(n)).append(", \"v\": ").append(rnd.nextInt(n))
+              .append(", \"w\": ").append(1 + rnd.nextInt(100)).append('}');
+        }
+        sb.append("\n], \"source\": 0, \"weight_model\": \"edge\"}");
+        json = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public CsrGraph streaming() throws IOException {
+        return JsonGraphLoader.load(new ByteArrayInputStream(json)).graph;
+    }
+
+    @Benchmark
+    public CsrGraph dom() {
+        JSONObject obj = new JSONObject(new JSONTokener(new ByteArrayInputStream(json)));
+        JSONArray edges = obj.getJSONArray("edges");
+        CsrGraph.Builder b = new CsrGraph.Builder(obj.getInt("n"), obj.optBoolean("directed", true), edges.length());
+        for (int i = 0; i < edges.length(); i++) {
+            JSONObject e = edges.getJSONObject(i);
+            b.addEdge(e.getInt("u"), e.getInt("v"), e.getInt("w"));
+        }
+        return b.build();
+    }
+}
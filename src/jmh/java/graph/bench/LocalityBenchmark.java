@@ -0,0 +1,105 @@
+package graph.bench;
+
+import graph.dagsp.DAGPaths;
+import graph.gen.GraphGenerator;
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.model.VertexOrder;
+import graph.scc.Components;
+import graph.scc.KosarajuSCC;
+import graph.scc.SccAlgorithm;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated graphs with randomly permuted vertex ids (as assigned by external systems), relabeled
+ * by each {@link VertexOrder.Strategy}: the relabeling itself, SCC on the result (mapped back to
+ * the input ids, as app.Main does), and the fused path sweep over a condensation-sized DAG with
+ * random vs topological ids. With Linux perf available, {@code -prof perfnorm} adds cache misses
+ * per operation (L1-dcache-load-misses, LLC-load-misses) next to the times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LocalityBenchmark {
+    @Param({"1000000"})
+    public int n;
+
+    @Param({"none", "bfs", "rcm", "degree"})
+    public String order;
+
+    private CsrGraph shuffled, local, dag, forward;
+    private VertexOrder relabeling;
+    private int[] topo, identity;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        shuffled = shuffle(GraphGenerator.clustered(n, 8, 4, 42).toCsr(), 1);
+        relabeling = VertexOrder.compute(VertexOrder.Strategy.fromName(order), shuffled);
+        local = relabeling.apply(shuffled);
+
+        dag = shuffle(GraphGenerator.layered(n, 1000, 4, 42).toCsr(), 2);
+        topo = TopologicalSort.kahn(dag, Metrics.NOOP);
+        forward = VertexOrder.topological(topo).apply(dag);
+        identity = new int[n];
+        for (int i = 0; i < n; i++) identity[i] = i;
+    }
+
+    private static CsrGraph shuffle(CsrGraph g, long seed) {
+        Random rnd = new Random(seed);
+        int[] p = new int[g.n()];
+        for (int i = 0; i < p.length; i++) p[i] = i;
+        for (int i = p.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1), t = p[i];
+            p[i] = p[j];
+            p[j] = t;
+        }
+        return VertexOrder.of(p).apply(g);
+    }
+
+    /** Cost of computing the order and building the relabeled graph. */
+    @Benchmark
+    public CsrGraph reorder() {
+        return VertexOrder.compute(VertexOrder.Strategy.fromName(order), shuffled).apply(shuffled);
+    }
+
+    @Benchmark
+    public KosarajuSCC.Result kosaraju() {
+        return KosarajuSCC.run(local, Metrics.NOOP);
+    }
+
+    /** Tarjan on the relabeled graph, partition mapped back to the input ids. */
+    @Benchmark
+    public Components tarjan() {
+        return SccAlgorithm.TARJAN.run(local, Metrics.NOOP).toOriginal(relabeling);
+    }
+
+    /** Independent of {@code order}: the DAG sweep with random ids. */
+    @Benchmark
+    public DAGPaths.Result pathsRandomIds() {
+        return DAGPaths.run(dag, topo, topo[0], Metrics.NOOP);
+    }
+
+    /** Independent of {@code order}: the same sweep after relabeling by topological position. */
+    @Benchmark
+    public DAGPaths.Result pathsTopologicalIds() {
+        return DAGPaths.run(forward, identity, 0, Metrics.NOOP);
+    }
+}
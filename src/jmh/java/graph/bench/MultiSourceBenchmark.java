@@ -0,0 +1,63 @@
+package graph.bench;
+
+import graph.dagsp.DAGShortestPath;
+import graph.dagsp.MultiSourcePaths;
+import graph.gen.GraphGenerator;
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shortest distances from many sources on a generated layered DAG: one batched sweep per block of
+ * 64 sources vs one single-source sweep per source. Sources per second is {@code sources} divided
+ * by the score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MultiSourceBenchmark {
+    @Param({"200000"})
+    public int n;
+
+    @Param({"64", "256"})
+    public int sources;
+
+    private CsrGraph dag;
+    private int[] topo, src;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dag = GraphGenerator.layered(n, 500, 5, 42).toCsr();
+        topo = TopologicalSort.kahn(dag, new Metrics());
+        src = new Random(2).ints(sources, 0, n / 4).toArray();
+    }
+
+    @Benchmark
+    public MultiSourcePaths.DistanceMatrix batched() {
+        return MultiSourcePaths.run(dag, topo, src, MultiSourcePaths.Objective.SHORTEST, Metrics.NOOP);
+    }
+
+    @Benchmark
+    public void singleSource(Blackhole bh) {
+        for (int s : src) bh.consume(DAGShortestPath.run(dag, topo, s, Metrics.NOOP));
+    }
+}
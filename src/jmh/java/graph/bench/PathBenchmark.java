@@ -0,0 +1,43 @@
+package graph.bench;
+
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGShortestPath;
+import graph.metrics.Metrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Single-source shortest and longest paths from the first component in topological order. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss512m")
+public class PathBenchmark {
+
+    @Benchmark
+    public DAGShortestPath.Result shortestGraph(GraphState s) {
+        return DAGShortestPath.run(s.legacyDag, s.legacyTopo, s.legacySourceComp, new Metrics());
+    }
+
+    @Benchmark
+    public DAGShortestPath.Result shortestCsr(GraphState s) {
+        return DAGShortestPath.run(s.dag, s.topo, s.sourceComp, new Metrics());
+    }
+
+    @Benchmark
+    public DAGLongestPath.Result longestGraph(GraphState s) {
+        return DAGLongestPath.run(s.legacyDag, s.legacyTopo, s.legacySourceComp, new Metrics());
+    }
+
+    @Benchmark
+    public DAGLongestPath.Result longestCsr(GraphState s) {
+        return DAGLongestPath.run(s.dag, s.topo, s.sourceComp, new Metrics());
+    }
+}
@@ -0,0 +1,71 @@
+package graph.bench;
+
+import graph.dagsp.DAGShortestPath;
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.service.PathQueryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path queries from a small set of hot sources (40, so their results fit the default cache
+ * budget) on a mostly-forward graph with short cycles: {@link PathQueryService} with a warm cache
+ * vs one single-source sweep per query on the same condensation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PathQueryBenchmark {
+    @Param({"100000"})
+    public int n;
+
+    private PathQueryService svc;
+    private PathQueryService.Snapshot snapshot;
+    private int[] from, to;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random rnd = new Random(5);
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true, 3 * n);
+        for (int u = 0; u < n; u++)
+            for (int k = 0; k < 3; k++) {
+                int v = rnd.nextInt(20) == 0 ? Math.max(0, u - 1 - rnd.nextInt(5)) : Math.min(n - 1, u + 1 + rnd.nextInt(500));
+                b.addEdge(u, v, 1 + rnd.nextInt(50));
+            }
+        svc = new PathQueryService();
+        snapshot = svc.snapshot(svc.publish(b.build()));
+        from = rnd.ints(2048, 0, 40).toArray();
+        to = rnd.ints(2048, 0, n).toArray();
+    }
+
+    @Benchmark
+    public PathQueryService.PathAnswer cached() {
+        int i = next++ & 2047;
+        return svc.shortestPath(from[i], to[i]);
+    }
+
+    @Benchmark
+    public List<Integer> recompute() {
+        int i = next++ & 2047;
+        int[] compId = snapshot.components.compId;
+        return DAGShortestPath.run(snapshot.dag, snapshot.topoOrder, compId[from[i]], Metrics.NOOP).buildPathTo(compId[to[i]]);
+    }
+}
@@ -0,0 +1,70 @@
+package graph.bench;
+
+import app.Main;
+import graph.io.JsonGraphLoader;
+import graph.io.JsonResultWriter;
+import graph.model.Condensation;
+import graph.scc.SccAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole {@link Main} pipeline from JSON bytes to the serialized output document (streamed to a
+ * discarding sink). Sizes stay small because the expanded encoding lists a path to every component.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+    @Param({"1000", "5000"})
+    public int n;
+
+    @Param({"dag", "clustered"})
+    public String shape;
+
+    @Param({"kosaraju", "tarjan"})
+    public String scc;
+
+    @Param({"expanded", "parents"})
+    public String paths;
+
+    private byte[] json;
+    private SccAlgorithm algorithm;
+    private Main.PathEncoding encoding;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        json = BenchGraphs.generate(BenchGraphs.Shape.fromName(shape), n, 42).toJson(0)
+                .getBytes(StandardCharsets.UTF_8);
+        algorithm = SccAlgorithm.fromName(scc);
+        encoding = Main.PathEncoding.fromName(paths);
+    }
+
+    @Benchmark
+    public long pipeline() throws IOException {
+        JsonGraphLoader.Result in = JsonGraphLoader.load(new ByteArrayInputStream(json));
+        JsonResultWriter out = JsonResultWriter.to(OutputStream.nullOutputStream());
+        Main.analyze(in, algorithm, Condensation.WeightPolicy.FIRST, encoding, out);
+        out.close();
+        return out.bytesWritten();
+    }
+}
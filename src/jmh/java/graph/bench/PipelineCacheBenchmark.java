@@ -0,0 +1,79 @@
+package graph.bench;
+
+import graph.gen.GraphGenerator;
+import graph.io.PipelineCache;
+import graph.metrics.Metrics;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.scc.Components;
+import graph.scc.SccAlgorithm;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The stages {@link PipelineCache} stores (Tarjan, condensation, Kahn) on a clustered graph: a
+ * cache hit, which hashes the graph and reads the entry back, vs computing them again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PipelineCacheBenchmark {
+    @Param({"1000000"})
+    public int n;
+
+    private CsrGraph g;
+    private Path dir;
+    private PipelineCache cache;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        g = GraphGenerator.clustered(n, 4, 3, 13).toCsr();
+        dir = Files.createTempDirectory("cache-bench");
+        cache = new PipelineCache(dir);
+        cache.get(g, "bench", () -> compute(g));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(cache.file(PipelineCache.key(g, "bench")));
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public PipelineCache.Result hit() throws IOException {
+        return cache.get(g, "bench", () -> {
+            throw new IllegalStateException("entry missing");
+        });
+    }
+
+    @Benchmark
+    public PipelineCache.Entry recompute() {
+        return compute(g);
+    }
+
+    private static PipelineCache.Entry compute(CsrGraph g) {
+        Components c = SccAlgorithm.TARJAN.run(g, Metrics.NOOP);
+        CsrGraph dag = Condensation.build(g, c.compId, c.compCount, Condensation.WeightPolicy.FIRST);
+        return new PipelineCache.Entry(c, dag, TopologicalSort.kahn(dag, Metrics.NOOP));
+    }
+}
@@ -0,0 +1,78 @@
+package graph.bench;
+
+import graph.gen.GraphGenerator;
+import graph.metrics.Metrics;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.scc.Components;
+import graph.scc.TarjanSCC;
+import graph.topo.ReachabilityIndex;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a {@link ReachabilityIndex} over the condensation of a generated clustered graph, and
+ * answering random vertex-pair queries with it (reported per query).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReachabilityBenchmark {
+    private static final int QUERIES = 1 << 16;
+
+    @Param({"100000", "1000000"})
+    public int n;
+
+    private CsrGraph dag;
+    private int[] topo, compId, qu, qv;
+    private ReachabilityIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CsrGraph g = GraphGenerator.clustered(n, 8, 4, 42).toCsr();
+        Components c = TarjanSCC.run(g, new Metrics());
+        dag = Condensation.build(g, c.compId, c.compCount, Condensation.WeightPolicy.FIRST);
+        topo = TopologicalSort.kahn(dag, new Metrics());
+        compId = c.compId;
+        index = ReachabilityIndex.build(dag, topo, compId, new Metrics());
+        Random rnd = new Random(7);
+        qu = new int[QUERIES];
+        qv = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            qu[i] = rnd.nextInt(n);
+            qv[i] = rnd.nextInt(n);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ReachabilityIndex build() {
+        return ReachabilityIndex.build(dag, topo, compId, Metrics.NOOP);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int query() {
+        int yes = 0;
+        for (int i = 0; i < QUERIES; i++) if (index.reachable(qu[i], qv[i])) yes++;
+        return yes;
+    }
+}
@@ -0,0 +1,74 @@
+package graph.bench;
+
+import graph.metrics.Metrics;
+import graph.scc.Components;
+import graph.scc.KosarajuSCC;
+import graph.scc.ParallelSCC;
+import graph.scc.TarjanSCC;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SCC variants on the same input; the legacy Kosaraju recurses, hence the large thread stack.
+ * {@code parallelCsr} runs on a pool of {@code parallelism} threads, so its scores over the
+ * parallelism values, divided into {@code tarjanCsr}, give the speedup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss512m")
+public class SccBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Pool {
+        @Param({"1", "2", "4", "8"})
+        public int parallelism;
+
+        ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            pool = new ForkJoinPool(parallelism);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public KosarajuSCC.Result kosarajuGraph(GraphState s) {
+        return KosarajuSCC.run(s.graph, new Metrics());
+    }
+
+    @Benchmark
+    public KosarajuSCC.Result kosarajuCsr(GraphState s) {
+        return KosarajuSCC.run(s.csr, new Metrics());
+    }
+
+    @Benchmark
+    public Components tarjanCsr(GraphState s) {
+        return TarjanSCC.run(s.csr, new Metrics());
+    }
+
+    @Benchmark
+    public ParallelSCC.Result parallelCsr(GraphState s, Pool p) {
+        return ParallelSCC.run(s.csr, p.pool, new Metrics());
+    }
+}
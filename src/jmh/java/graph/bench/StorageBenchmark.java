@@ -0,0 +1,106 @@
+package graph.bench;
+
+import graph.dagsp.DAGPaths;
+import graph.metrics.Metrics;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.model.GraphView;
+import graph.model.OffHeapGraph;
+import graph.scc.KosarajuSCC;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same random graph stored on-heap ({@link CsrGraph}) and off-heap ({@link OffHeapGraph}):
+ * Kosaraju, condensation, Kahn and the fused path sweep through {@link GraphView}. The GC
+ * profiler's gc.alloc.rate.norm is the heap each call still allocates: off-heap, Kosaraju's
+ * transpose is off-heap too, leaving its O(n) vertex arrays and component lists, while the
+ * condensation stages its arcs on the heap either way. gc.count / gc.time show what that costs.
+ * <p>
+ * {@code graphs} graphs of {@code n} vertices and 8n arcs stay resident for the whole trial (the
+ * algorithms run on the first). {@code churn} is the rest of an application meanwhile: short-lived
+ * scratch arrays plus 64 KB buffers kept for the next 4096 calls (a 256 MB window, long enough to
+ * be promoted), so its gc.time / gc.count compare the pause cost of holding the graphs on-heap vs
+ * off-heap. For graphs of 10^8 arcs and more, pass e.g. {@code -p n=12500000 -jvmArgsAppend -Xmx16g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StorageBenchmark {
+    @Param({"1000000"})
+    public int n;
+
+    @Param({"heap", "offheap"})
+    public String storage;
+
+    @Param({"1", "4"})
+    public int graphs;
+
+    private GraphView[] resident;
+    private GraphView graph;
+    private byte[][] window;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        resident = new GraphView[graphs];
+        for (int k = 0; k < graphs; k++) resident[k] = build(new Random(42 + k));
+        graph = resident[0];
+        window = new byte[4096][];
+    }
+
+    private GraphView build(Random rnd) {
+        int m = 8 * n;
+        if (storage.equals("heap")) {
+            CsrGraph.Builder b = new CsrGraph.Builder(n, true, m);
+            for (int i = 0; i < m; i++) b.addEdge(rnd.nextInt(n), rnd.nextInt(n), 1 + rnd.nextInt(100));
+            return b.build();
+        }
+        OffHeapGraph.Builder b = new OffHeapGraph.Builder(n, true, m);
+        for (int i = 0; i < m; i++) b.addEdge(rnd.nextInt(n), rnd.nextInt(n), 1 + rnd.nextInt(100));
+        return b.build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (GraphView g : resident) if (g instanceof OffHeapGraph) ((OffHeapGraph) g).close();
+    }
+
+    @Benchmark
+    public KosarajuSCC.Result scc() {
+        return KosarajuSCC.run(graph, Metrics.NOOP);
+    }
+
+    @Benchmark
+    public DAGPaths.Result pipeline() {
+        KosarajuSCC.Result r = KosarajuSCC.run(graph, Metrics.NOOP);
+        CsrGraph dag = Condensation.build(graph, r.compId, r.compCount, Condensation.WeightPolicy.FIRST);
+        int[] topo = TopologicalSort.kahn(dag, Metrics.NOOP);
+        return DAGPaths.run(dag, topo, topo[0], Metrics.NOOP);
+    }
+
+    @Benchmark
+    public void churn(Blackhole bh) {
+        for (int i = 0; i < 16; i++) bh.consume(new int[256]); // short-lived
+        window[next++ & (window.length - 1)] = new byte[1 << 16]; // medium-lived
+    }
+}
@@ -0,0 +1,59 @@
+package graph.bench;
+
+import graph.dagsp.MultiSourcePaths;
+import graph.dagsp.TopKPaths;
+import graph.gen.GraphGenerator;
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-k shortest and critical paths from the first vertex of a generated layered DAG, to show how
+ * cost grows with k (expected: flat while the transpose dominates, then about k·log(in-degree)).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TopKBenchmark {
+    @Param({"100000", "1000000"})
+    public int n;
+
+    @Param({"1", "4", "16", "64"})
+    public int k;
+
+    private CsrGraph dag;
+    private int[] topo;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dag = GraphGenerator.layered(n, 500, 4, 42).toCsr();
+        topo = TopologicalSort.kahn(dag, new Metrics());
+    }
+
+    @Benchmark
+    public TopKPaths.Result shortest() {
+        return TopKPaths.run(dag, topo, topo[0], k, MultiSourcePaths.Objective.SHORTEST, Metrics.NOOP);
+    }
+
+    @Benchmark
+    public TopKPaths.Result critical() {
+        return TopKPaths.run(dag, topo, topo[0], k, MultiSourcePaths.Objective.LONGEST, Metrics.NOOP);
+    }
+}
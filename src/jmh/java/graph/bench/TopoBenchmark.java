@@ -0,0 +1,98 @@
+package graph.bench;
+
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Topological order of the condensation DAG. {@code kahnWide} / {@code levelsWide} compare
+ * sequential Kahn with level-synchronous Kahn on a pool of {@code parallelism} threads, on a
+ * 10^6-vertex DAG of 20 layers whose waves are wide enough to be expanded in parallel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss512m")
+public class TopoBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Wide {
+        CsrGraph dag;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            int layers = 20, width = 50_000, n = layers * width;
+            Random rnd = new Random(5);
+            CsrGraph.Builder b = new CsrGraph.Builder(n, true, 3 * n);
+            for (int l = 0; l + 1 < layers; l++)
+                for (int i = 0; i < width; i++)
+                    for (int k = 0; k < 3; k++) {
+                        int to = (l + 1 + (k == 2 ? rnd.nextInt(layers - l - 1) : 0)) * width + rnd.nextInt(width);
+                        b.addEdge(l * width + i, to, 1);
+                    }
+            dag = b.build();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Pool {
+        @Param({"1", "2", "4", "8"})
+        public int parallelism;
+
+        ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            pool = new ForkJoinPool(parallelism);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public List<Integer> kahnGraph(GraphState s) {
+        return TopologicalSort.kahn(s.legacyDag, new Metrics());
+    }
+
+    @Benchmark
+    public int[] kahnCsr(GraphState s) {
+        return TopologicalSort.kahn(s.dag, new Metrics());
+    }
+
+    @Benchmark
+    public TopologicalSort.Levels levelsCsr(GraphState s) {
+        return TopologicalSort.levels(s.dag, new Metrics());
+    }
+
+    @Benchmark
+    public int[] kahnWide(Wide w) {
+        return TopologicalSort.kahn(w.dag, new Metrics());
+    }
+
+    @Benchmark
+    public TopologicalSort.Levels levelsWide(Wide w, Pool p) {
+        return TopologicalSort.levels(w.dag, p.pool, new Metrics());
+    }
+}
@@ -0,0 +1,299 @@
+package app;
+
+import graph.io.JsonGraphLoader;
+import graph.io.JsonResultWriter;
+import graph.io.PipelineCache;
+import graph.metrics.LatencyHistogram;
+import graph.model.Condensation;
+import graph.model.VertexOrder;
+import graph.scc.SccAlgorithm;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs the {@link Main} pipeline over many input files in one JVM, so start-up and JIT warm-up are
+ * paid once per batch instead of once per graph. Every input gets its own task on a virtual thread
+ * (on JDKs before 21, which have no virtual threads, on a fixed pool of 2 * parallelism platform
+ * threads, enough to keep every in-flight file busy). Parsing, analysis and
+ * writing the output hold a permit of a semaphore sized to the {@code parallelism}, so CPU-heavy
+ * work never oversubscribes the cores; reading the next inputs overlaps with it, but at most
+ * 2 * parallelism files are held in memory at once. A failing input is recorded in the summary and
+ * does not stop the batch.
+ */
+public final class BatchRunner {
+
+    /** Outcome of one input. */
+    public static final class Item {
+        public final Path input;
+        public final Path output;
+        public final String error;       // null when the input was processed
+        public final int n;
+        public final long edges;
+        public final long bytesWritten;
+        public final long waitNanos;     // submitted -> got a CPU permit
+        public final long runNanos;      // got a permit -> output closed
+
+        Item(Path input, Path output, String error, int n, long edges, long bytesWritten, long waitNanos, long runNanos) {
+            this.input = input;
+            this.output = output;
+            this.error = error;
+            this.n = n;
+            this.edges = edges;
+            this.bytesWritten = bytesWritten;
+            this.waitNanos = waitNanos;
+            this.runNanos = runNanos;
+        }
+
+        public boolean ok() { return error == null; }
+
+        public long latencyNanos() { return waitNanos + runNanos; }
+    }
+
+    /** Per-input results in input order, plus aggregate throughput and latency. */
+    public static final class Summary {
+        public final List<Item> items;
+        public final long wallNanos;
+        public final int parallelism;
+        public final boolean virtualThreads;
+        public final LatencyHistogram latency = new LatencyHistogram();
+
+        Summary(List<Item> items, long wallNanos, int parallelism, boolean virtualThreads) {
+            this.items = items;
+            this.wallNanos = wallNanos;
+            this.parallelism = parallelism;
+            this.virtualThreads = virtualThreads;
+            for (Item it : items) if (it.ok()) latency.record(it.latencyNanos());
+        }
+
+        public int failed() {
+            int f = 0;
+            for (Item it : items) if (!it.ok()) f++;
+            return f;
+        }
+
+        public long edges() {
+            long e = 0;
+            for (Item it : items) e += it.edges;
+            return e;
+        }
+
+        public double graphsPerSecond() { return wallNanos == 0 ? 0 : (items.size() - failed()) * 1e9 / wallNanos; }
+
+        public double edgesPerSecond() { return wallNanos == 0 ? 0 : edges() * 1e9 / wallNanos; }
+
+        /** Writes the summary as JSON (one entry per input plus the aggregate figures). */
+        public void writeTo(JsonResultWriter out) throws IOException {
+            out.beginObject()
+                    .name("files").value(items.size())
+                    .name("failed").value(failed())
+                    .name("parallelism").value(parallelism)
+                    .name("threads").value(virtualThreads ? "virtual" : "platform")
+                    .name("wall_ms").value(wallNanos / 1e6)
+                    .name("graphs_per_sec").value(graphsPerSecond())
+                    .name("edges_per_sec").value(edgesPerSecond())
+                    .name("latency_ms").beginObject()
+                    .name("p50").value(latency.percentileNanos(0.50) / 1e6)
+                    .name("p99").value(latency.percentileNanos(0.99) / 1e6)
+                    .name("max").value(latency.maxNanos() / 1e6)
+                    .name("mean").value(latency.meanNanos() / 1e6)
+                    .endObject();
+            out.name("items").beginArray();
+            for (Item it : items) {
+                out.beginObject().name("input").value(it.input.toString());
+                if (it.ok()) {
+                    out.name("output").value(it.output.toString())
+                            .name("n").value(it.n)
+                            .name("edges").value(it.edges)
+                            .name("bytes").value(it.bytesWritten)
+                            .name("wait_ms").value(it.waitNanos / 1e6)
+                            .name("run_ms").value(it.runNanos / 1e6);
+                } else {
+                    out.name("error").value(it.error);
+                }
+                out.endObject();
+            }
+            out.endArray().endObject();
+        }
+    }
+
+    private final int parallelism;
+    private final SccAlgorithm sccAlgo;
+    private final Condensation.WeightPolicy policy;
+    private final VertexOrder.Strategy reorder;
+    private final Main.PathEncoding paths;
+    private final PipelineCache cache; // null: no result cache
+
+    public BatchRunner(int parallelism, SccAlgorithm sccAlgo, Condensation.WeightPolicy policy, Main.PathEncoding paths) {
+        this(parallelism, sccAlgo, policy, paths, null);
+    }
+
+    public BatchRunner(int parallelism, SccAlgorithm sccAlgo, Condensation.WeightPolicy policy, Main.PathEncoding paths,
+                       PipelineCache cache) {
+        this(parallelism, sccAlgo, policy, VertexOrder.Strategy.NONE, paths, cache);
+    }
+
+    public BatchRunner(int parallelism, SccAlgorithm sccAlgo, Condensation.WeightPolicy policy,
+                       VertexOrder.Strategy reorder, Main.PathEncoding paths, PipelineCache cache) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        this.parallelism = parallelism;
+        this.sccAlgo = sccAlgo;
+        this.policy = policy;
+        this.reorder = reorder;
+        this.paths = paths;
+        this.cache = cache;
+    }
+
+    /** Processes every input; outputs go to {@code outDir} as {@code <name>.out.json}. */
+    public Summary run(List<Path> inputs, Path outDir) throws IOException, InterruptedException {
+        Files.createDirectories(outDir);
+        List<Path> outputs = outputNames(inputs, outDir);
+        Semaphore cpu = new Semaphore(parallelism), inFlight = new Semaphore(2 * parallelism);
+        boolean virtual = VIRTUAL_THREADS != null;
+
+        long t0 = System.nanoTime();
+        List<Future<Item>> futures = new ArrayList<>(inputs.size());
+        ExecutorService exec = newTaskExecutor(2 * parallelism);
+        try {
+            for (int i = 0; i < inputs.size(); i++) {
+                Path in = inputs.get(i), out = outputs.get(i);
+                long submitted = System.nanoTime();
+                futures.add(exec.submit(() -> process(in, out, cpu, inFlight, submitted)));
+            }
+        } finally {
+            exec.shutdown();
+        }
+        List<Item> items = new ArrayList<>(inputs.size());
+        for (Future<Item> f : futures) {
+            try {
+                items.add(f.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Batch task failed outside its error handling", e.getCause());
+            }
+        }
+        return new Summary(items, System.nanoTime() - t0, parallelism, virtual);
+    }
+
+    private Item process(Path in, Path out, Semaphore cpu, Semaphore inFlight, long submitted) {
+        long acquired = submitted;
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Item(in, out, "interrupted", 0, 0, 0, 0, 0);
+        }
+        try {
+            byte[] json = Files.readAllBytes(in); // I/O: no CPU permit needed
+            cpu.acquire();
+            acquired = System.nanoTime();
+            try {
+                JsonGraphLoader.Result g = JsonGraphLoader.load(new ByteArrayInputStream(json));
+                long bytes;
+                try (JsonResultWriter w = JsonResultWriter.open(out)) {
+                    Main.analyze(g, sccAlgo, policy, reorder, paths, cache, w);
+                    w.flush();
+                    bytes = w.bytesWritten();
+                }
+                return new Item(in, out, null, g.n, g.edgesRead, bytes, acquired - submitted, System.nanoTime() - acquired);
+            } finally {
+                cpu.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Item(in, out, "interrupted", 0, 0, 0, acquired - submitted, System.nanoTime() - acquired);
+        } catch (Exception e) {
+            try {
+                Files.deleteIfExists(out); // no half-written outputs
+            } catch (IOException ignored) {
+                // reported through the original error
+            }
+            return new Item(in, out, e.getClass().getSimpleName() + ": " + e.getMessage(), 0, 0, 0,
+                    acquired - submitted, System.nanoTime() - acquired);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    /**
+     * Inputs named by a directory (every *.json file in it, sorted by name) or a manifest file (one
+     * path per line, relative to the manifest's directory; blank lines and # comments are skipped).
+     */
+    public static List<Path> inputs(Path dirOrManifest) throws IOException {
+        List<Path> inputs = new ArrayList<>();
+        if (Files.isDirectory(dirOrManifest)) {
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(dirOrManifest, "*.json")) {
+                for (Path p : ds) if (Files.isRegularFile(p)) inputs.add(p);
+            }
+            inputs.sort(null);
+        } else {
+            Path base = dirOrManifest.toAbsolutePath().getParent();
+            for (String line : Files.readAllLines(dirOrManifest)) {
+                String s = line.trim();
+                if (s.isEmpty() || s.startsWith("#")) continue;
+                inputs.add(base.resolve(s));
+            }
+        }
+        return inputs;
+    }
+
+    /** {@code <name>.out.json}, with a numeric suffix when two inputs share a file name. */
+    static List<Path> outputNames(List<Path> inputs, Path outDir) {
+        Set<String> used = new HashSet<>();
+        List<Path> out = new ArrayList<>(inputs.size());
+        for (Path in : inputs) {
+            String name = in.getFileName().toString();
+            if (name.toLowerCase(Locale.ROOT).endsWith(".json")) name = name.substring(0, name.length() - 5);
+            String candidate = name + ".out.json";
+            for (int k = 2; !used.add(candidate); k++) candidate = name + "-" + k + ".out.json";
+            out.add(outDir.resolve(candidate));
+        }
+        return out;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() exists from JDK 21; compiled for 17, so look it up.
+    private static final MethodHandle VIRTUAL_THREADS = findVirtualThreadExecutor();
+
+    private static MethodHandle findVirtualThreadExecutor() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * One virtual thread per task where supported, otherwise a fixed pool of {@code platformThreads}:
+     * tasks beyond the in-flight bound would only block on the semaphore, so more threads buy nothing.
+     */
+    static ExecutorService newTaskExecutor(int platformThreads) {
+        if (VIRTUAL_THREADS != null) {
+            try {
+                return (ExecutorService) VIRTUAL_THREADS.invokeExact();
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot create virtual thread executor", e);
+            }
+        }
+        return Executors.newFixedThreadPool(platformThreads, r -> {
+            Thread t = new Thread(r, "batch");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
@@ -1,154 +1,339 @@
 package app;
 
-import graph.model.Graph;
-import graph.model.Edge;
+import graph.io.JsonGraphLoader;
+import graph.io.JsonResultWriter;
+import graph.io.PipelineCache;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.model.VertexOrder;
+import graph.metrics.LatencyHistogram;
 import graph.metrics.Metrics;
-import graph.scc.KosarajuSCC;
+import graph.scc.Components;
+import graph.scc.SccAlgorithm;
 import graph.topo.TopologicalSort;
 import graph.dagsp.DAGShortestPath;
 import graph.dagsp.DAGLongestPath;
+import graph.dagsp.CriticalPathMethod;
+import graph.dagsp.DAGPaths;
+import graph.dagsp.WeightModel;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-import org.json.JSONTokener;
-
-import java.io.*;
-import java.nio.file.Files;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.*;
 
 /**
  * Run:
- *  java -cp target/classes:~/.m2/repository/org/json/json/20231013/json-20231013.jar app.Main data/small1.json out_small1.json
+ *  java -cp target/classes app.Main data/small1.json out_small1.json
  *
- * If no args: uses data/input.json and out.json
+ * If no args: uses src/main/resources/data/input.json and out.json
+ * Batch mode: app.Main --batch <directory|manifest> [outDir=out]  (every input processed concurrently in one JVM;
+ *   -Dbatch.parallelism=N bounds the CPU-heavy phases, default: available processors)
+ * SCC implementation: -Dscc=kosaraju (default), tarjan or parallel
+ * Parallel condensation edges: -Dcondensation.weights=first (default; first arc in CSR order), min or max
+ * Instrumentation: -Dmetrics=off disables counters and timings, -Dmetrics.jfr=true adds JFR phase events
+ * Weight model: from the input's weight_model, "edge" (arc weights) or "node" (per-vertex "durations")
+ * Path output: -Doutput.paths=expanded (default, one path per target) or parents (parent arrays only)
+ * Vertex relabeling for locality before SCC: -Dreorder=none (default), bfs, rcm or degree (output keeps the input ids)
+ * Result cache: -Dcache.dir=DIR keeps SCC, condensation and topological order per input graph in DIR and reuses them
  */
 public class Main {
 
+    /** How shortest and critical paths appear in the output. */
+    public enum PathEncoding {
+        /** {@code paths_examples}: both paths spelled out for every target component (quadratic size). */
+        EXPANDED,
+        /**
+         * Only the {@code parent} arrays of the two path trees (linear size); the path to t is
+         * t, parent[t], parent[parent[t]], ... up to the source, reversed. -1 ends the chain; an
+         * unreachable target has parent -1 and a sentinel distance.
+         */
+        PARENTS;
+
+        public static PathEncoding fromName(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
     public static void main(String[] args) {
-        String inPath  = args.length >= 1 ? args[0] : "data/input.json";
+        if (args.length >= 1 && args[0].equals("--batch")) {
+            batch(args);
+            return;
+        }
+        String inPath  = args.length >= 1 ? args[0] : "src/main/resources/data/input.json";
         String outPath = args.length >= 2 ? args[1] : "out.json";
 
-        try (FileInputStream fis = new FileInputStream("src/main/resources/data/input.json")) {
-            JSONObject root = new JSONObject(new JSONTokener(fis));
+        try {
+            // 0) Streaming load straight into the CSR builder
+            JsonGraphLoader.Result in = JsonGraphLoader.load(Path.of(inPath));
+            System.out.printf("Loaded %d edges in %.3f ms (%.0f edges/s)%n",
+                    in.edgesRead, in.loadNanos / 1e6, in.edgesPerSecond());
+            // write file section by section
+            try (JsonResultWriter out = JsonResultWriter.open(Path.of(outPath))) {
+                analyze(in, sccAlgorithm(), weightPolicy(), vertexOrder(), pathEncoding(), pipelineCache(), out);
+            }
+            System.out.println("Done. Output saved to " + outPath);
 
-            boolean directed = root.optBoolean("directed", true);
-            int n = root.getInt("n");
-            JSONArray E = root.getJSONArray("edges");
-            int source = root.optInt("source", 0);
-            String weightModel = root.optString("weight_model", "edge"); // we use "edge"
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
 
-            Graph g = new Graph(n, directed);
-            for (int i = 0; i < E.length(); i++) {
-                JSONObject e = E.getJSONObject(i);
-                g.addEdge(e.getInt("u"), e.getInt("v"), e.getInt("w"));
+    private static void batch(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: app.Main --batch <directory|manifest> [outDir]");
+            System.exit(2);
+        }
+        try {
+            Path outDir = Path.of(args.length >= 3 ? args[2] : "out");
+            int parallelism = Integer.getInteger("batch.parallelism", Runtime.getRuntime().availableProcessors());
+            List<Path> inputs = BatchRunner.inputs(Path.of(args[1]));
+            BatchRunner.Summary s = new BatchRunner(parallelism, sccAlgorithm(), weightPolicy(), vertexOrder(),
+                    pathEncoding(), pipelineCache()).run(inputs, outDir);
+            Path summary = outDir.resolve("batch-summary.json");
+            try (JsonResultWriter out = JsonResultWriter.open(summary)) {
+                s.writeTo(out);
             }
+            for (BatchRunner.Item it : s.items)
+                if (!it.ok()) System.err.println("FAILED " + it.input + ": " + it.error);
+            System.out.printf("Batch: %d files (%d failed) in %.1f ms on %s threads, parallelism %d: %.1f graphs/s, "
+                            + "%.0f edges/s, latency p50 %.2f ms, p99 %.2f ms. Summary: %s%n",
+                    s.items.size(), s.failed(), s.wallNanos / 1e6, s.virtualThreads ? "virtual" : "platform",
+                    s.parallelism, s.graphsPerSecond(), s.edgesPerSecond(),
+                    s.latency.percentileNanos(0.5) / 1e6, s.latency.percentileNanos(0.99) / 1e6, summary);
+            if (s.failed() > 0) System.exit(1);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            System.exit(1);
+        }
+    }
 
-            // 1) SCC (Kosaraju)
-            Metrics sccM = new Metrics();
-            KosarajuSCC.Result sccRes = KosarajuSCC.run(g, sccM);
+    private static SccAlgorithm sccAlgorithm() {
+        return SccAlgorithm.fromName(System.getProperty("scc", "kosaraju"));
+    }
 
-            // 2) Condensation DAG
-            Graph dag = Graph.condensation(g, sccRes.compId, sccRes.compCount);
+    private static Condensation.WeightPolicy weightPolicy() {
+        return Condensation.WeightPolicy.valueOf(System.getProperty("condensation.weights", "first").toUpperCase(Locale.ROOT));
+    }
 
-            // 3) Topological order on condensation DAG
-            Metrics topoM = new Metrics();
-            List<Integer> topo = TopologicalSort.kahn(dag, topoM);
-
-            // 4) DAG shortest & longest from source's component
-            int sourceComp = sccRes.compId[source];
-            Metrics spM = new Metrics(), lpM = new Metrics();
-
-            DAGShortestPath.Result sp = DAGShortestPath.run(dag, topo, sourceComp, spM);
-            DAGLongestPath.Result  lp = DAGLongestPath.run(dag, topo, sourceComp, lpM);
-
-            // Build output JSON
-            JSONObject out = new JSONObject();
-
-            // SCC section
-            JSONObject sccObj = new JSONObject();
-            sccObj.put("components_count", sccRes.compCount);
-            JSONArray compsArr = new JSONArray();
-            for (List<Integer> comp : sccRes.comps) {
-                JSONArray arr = new JSONArray();
-                for (int v : comp) arr.put(v);
-                compsArr.put(arr);
-            }
-            sccObj.put("components", compsArr);
-            sccObj.put("metrics", metricsJson(sccM));
-
-            // Condensation DAG stats
-            JSONObject dagObj = new JSONObject();
-            dagObj.put("nodes", dag.n());
-            dagObj.put("edges", dag.edges().size());
-
-            // Topo section
-            JSONObject topoObj = new JSONObject();
-            JSONArray topoArr = new JSONArray();
-            for (int v : topo) topoArr.put(v);
-            topoObj.put("order", topoArr);
-            topoObj.put("metrics", metricsJson(topoM));
-
-            // Shortest paths
-            JSONObject spObj = new JSONObject();
-            spObj.put("source_component", sourceComp);
-            spObj.put("dist", toArray(sp.dist));
-            spObj.put("metrics", metricsJson(spM));
-
-            // Longest paths (critical path lengths)
-            JSONObject lpObj = new JSONObject();
-            lpObj.put("source_component", sourceComp);
-            lpObj.put("best", toArray(lp.best));
-            lpObj.put("metrics", metricsJson(lpM));
-
-            // Example: reconstruct one shortest and one longest path to every node
-            JSONArray paths = new JSONArray();
-            for (int t = 0; t < dag.n(); t++) {
-                JSONObject p = new JSONObject();
-                p.put("target_component", t);
-                p.put("shortest_path", toArray(sp.buildPathTo(t)));
-                p.put("longest_path",  toArray(lp.buildPathTo(t)));
-                paths.put(p);
+    private static PathEncoding pathEncoding() {
+        return PathEncoding.fromName(System.getProperty("output.paths", "expanded"));
+    }
+
+    private static VertexOrder.Strategy vertexOrder() {
+        return VertexOrder.Strategy.fromName(System.getProperty("reorder", "none"));
+    }
+
+    /** Null (no caching) unless -Dcache.dir is set. */
+    private static PipelineCache pipelineCache() throws IOException {
+        String dir = System.getProperty("cache.dir");
+        return dir == null || dir.isBlank() ? null : new PipelineCache(Path.of(dir));
+    }
+
+    /** Cache variant; without a reorder it stays the key used before reordering existed, so old entries still hit. */
+    private static String variant(SccAlgorithm sccAlgo, Condensation.WeightPolicy policy, VertexOrder.Strategy reorder) {
+        String v = sccAlgo.name() + "/" + policy.name();
+        return reorder == VertexOrder.Strategy.NONE ? v : v + "/" + reorder.name();
+    }
+
+    /** Runs the pipeline without a result cache. */
+    public static void analyze(JsonGraphLoader.Result in, SccAlgorithm sccAlgo, Condensation.WeightPolicy policy,
+                               PathEncoding paths, JsonResultWriter out) throws IOException {
+        analyze(in, sccAlgo, policy, paths, null, out);
+    }
+
+    /** Runs the pipeline on the input ids as given. */
+    public static void analyze(JsonGraphLoader.Result in, SccAlgorithm sccAlgo, Condensation.WeightPolicy policy,
+                               PathEncoding paths, PipelineCache cache, JsonResultWriter out) throws IOException {
+        analyze(in, sccAlgo, policy, VertexOrder.Strategy.NONE, paths, cache, out);
+    }
+
+    /**
+     * Runs the whole pipeline on a loaded graph and streams the output document to {@code out}
+     * (also used by the benchmarks). Nothing proportional to the output size is held in memory.
+     * Unless {@code reorder} is NONE, SCC runs on a copy of the graph relabeled for locality and
+     * its partition is mapped back, so every vertex id in the output is an input id.
+     * With a {@code cache}, steps 1-3 are read from it when this graph was analysed before (their
+     * metrics sections then report zeros) and stored in it otherwise.
+     */
+    public static void analyze(JsonGraphLoader.Result in, SccAlgorithm sccAlgo, Condensation.WeightPolicy policy,
+                               VertexOrder.Strategy reorder, PathEncoding paths, PipelineCache cache,
+                               JsonResultWriter out) throws IOException {
+        int source = in.source;
+        CsrGraph csr = in.graph;
+        Metrics sccM = newMetrics(), condM = newMetrics(), topoM = newMetrics();
+        long[] reorderNanos = {0};
+        PipelineCache.Stages stages = () -> {
+            // 1) SCC (Kosaraju, Tarjan or parallel FW-BW, all iterative over CSR), on relabeled ids if asked
+            Components scc;
+            if (reorder == VertexOrder.Strategy.NONE) {
+                scc = sccAlgo.run(csr, sccM);
+            } else {
+                long t0 = System.nanoTime();
+                VertexOrder order = VertexOrder.compute(reorder, csr);
+                CsrGraph local = order.apply(csr);
+                reorderNanos[0] = System.nanoTime() - t0;
+                scc = sccAlgo.run(local, sccM).toOriginal(order);
             }
 
-            out.put("input_meta", new JSONObject()
-                    .put("directed", directed)
-                    .put("n", n)
-                    .put("weight_model", weightModel)
-                    .put("source", source));
-            out.put("scc", sccObj);
-            out.put("condensation_dag", dagObj);
-            out.put("topological_sort", topoObj);
-            out.put("dag_shortest_paths", spObj);
-            out.put("dag_longest_paths", lpObj);
-            out.put("paths_examples", paths);
-
-            // write file
-            Files.writeString(Path.of(outPath), out.toString(2));
-            System.out.println("Done. Output saved to " + outPath);
+            // 2) Condensation DAG (compact CSR, linear memory)
+            Metrics.Span condSpan = condM.begin(Metrics.Phase.CONDENSATION);
+            CsrGraph condensed = Condensation.build(csr, scc.compId, scc.compCount, policy);
+            condSpan.end();
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
+            // 3) Topological order on condensation DAG
+            return new PipelineCache.Entry(scc, condensed, TopologicalSort.kahn(condensed, topoM));
+        };
+        PipelineCache.Result cached = cache == null ? null
+                : cache.get(csr, variant(sccAlgo, policy, reorder), stages);
+        PipelineCache.Entry entry = cached != null ? cached.entry : stages.compute();
+        Components sccRes = entry.scc;
+        CsrGraph dag = entry.dag;
+        int[] topo = entry.topo;
+
+        // 4) DAG shortest & longest from source's component, in one fused sweep
+        int sourceComp = sccRes.compId[source];
+        WeightModel model = WeightModel.fromName(in.weightModel, in.durations, sccRes);
+        Metrics pathM = newMetrics();
+        DAGPaths.Result both = DAGPaths.run(dag, topo, sourceComp, model, pathM);
+        DAGShortestPath.Result sp = both.shortest;
+        DAGLongestPath.Result  lp = both.longest;
+
+        // 5) CPM schedule over all components (every task without predecessors starts at 0)
+        Metrics cpmM = newMetrics();
+        CriticalPathMethod.Schedule cpm = CriticalPathMethod.run(dag, topo, model, cpmM);
+
+        out.beginObject();
+        out.name("input_meta").beginObject()
+                .name("directed").value(in.directed)
+                .name("n").value(in.n)
+                .name("weight_model").value(model.name())
+                .name("source").value(source)
+                .name("edges_read").value(in.edgesRead)
+                .name("load_ms").value(in.loadNanos / 1_000_000.0)
+                .name("load_edges_per_sec").value(in.edgesPerSecond())
+                .endObject();
+
+        if (cached != null) {
+            out.name("cache").beginObject()
+                    .name("status").value(cached.status.name().toLowerCase(Locale.ROOT))
+                    .name("key").value(cached.key)
+                    .name("hash_ms").value(cached.hashNanos / 1_000_000.0)
+                    .name("load_ms").value(cached.loadNanos / 1_000_000.0)
+                    .name("store_ms").value(cached.storeNanos / 1_000_000.0);
+            if (cached.problem != null) out.name("problem").value(cached.problem);
+            out.endObject();
         }
+
+        // SCC section
+        out.name("scc").beginObject()
+                .name("algorithm").value(sccAlgo.name().toLowerCase(Locale.ROOT))
+                .name("components_count").value(sccRes.compCount);
+        if (reorder != VertexOrder.Strategy.NONE)
+            out.name("vertex_order").value(reorder.name().toLowerCase(Locale.ROOT))
+                    .name("reorder_ms").value(reorderNanos[0] / 1_000_000.0);
+        out.name("components").beginArray();
+        for (int c = 0; c < sccRes.compCount; c++) out.array(sccRes.members, sccRes.offsets[c], sccRes.offsets[c + 1]);
+        out.endArray();
+        writeMetrics(out, sccM);
+        out.endObject();
+
+        // Condensation DAG stats
+        out.name("condensation_dag").beginObject()
+                .name("nodes").value(dag.n())
+                .name("edges").value(dag.m())
+                .name("weight_policy").value(policy.name().toLowerCase(Locale.ROOT));
+        writeMetrics(out, condM);
+        out.endObject();
+
+        // Topo section
+        out.name("topological_sort").beginObject().name("order").array(topo);
+        writeMetrics(out, topoM);
+        out.endObject();
+
+        // Shortest paths
+        out.name("dag_shortest_paths").beginObject()
+                .name("source_component").value(sourceComp)
+                .name("dist").array(sp.dist);
+        if (paths == PathEncoding.PARENTS) out.name("parent").array(sp.parent);
+        writeMetrics(out, pathM); // shared with the longest-path section: both come from the same pass
+        out.endObject();
+
+        // Longest paths (critical path lengths)
+        out.name("dag_longest_paths").beginObject()
+                .name("source_component").value(sourceComp)
+                .name("best").array(lp.best);
+        if (paths == PathEncoding.PARENTS) out.name("parent").array(lp.parent);
+        writeMetrics(out, pathM);
+        out.endObject();
+
+        // Critical path method
+        long[] slack = new long[cpm.size()];
+        for (int c = 0; c < slack.length; c++) slack[c] = cpm.slack(c);
+        int[] criticalPath = cpm.criticalPath().stream().mapToInt(Integer::intValue).toArray();
+        out.name("cpm").beginObject()
+                .name("makespan").value(cpm.makespan)
+                .name("earliest_start").array(cpm.earliestStart)
+                .name("latest_start").array(cpm.latestStart)
+                .name("slack").array(slack)
+                .name("free_float").array(cpm.freeFloat)
+                .name("critical_components").array(cpm.criticalTasks())
+                .name("critical_path").array(criticalPath);
+        writeMetrics(out, cpmM);
+        out.endObject();
+
+        out.name("paths_encoding").value(paths.name().toLowerCase(Locale.ROOT));
+        if (paths == PathEncoding.EXPANDED) {
+            // Example: reconstruct one shortest and one longest path to every node, one at a time
+            int[] scratch = new int[dag.n()];
+            out.name("paths_examples").beginArray();
+            for (int t = 0; t < dag.n(); t++) {
+                out.beginObject().name("target_component").value(t);
+                out.name("shortest_path");
+                writePath(out, sp.parent, t, sp.dist[t] != Long.MAX_VALUE, scratch);
+                out.name("longest_path");
+                writePath(out, lp.parent, t, lp.best[t] != Long.MIN_VALUE / 4, scratch);
+                out.endObject();
+            }
+            out.endArray();
+        }
+        out.endObject();
     }
 
-    private static JSONArray toArray(long[] a) {
-        JSONArray arr = new JSONArray();
-        for (long v : a) arr.put(v);
-        return arr;
+    /** Same sequence as {@code buildPathTo(t)}: the parent chain from t, reversed into source-first order. */
+    private static void writePath(JsonResultWriter out, int[] parent, int t, boolean reachable, int[] scratch) throws IOException {
+        int k = scratch.length;
+        if (reachable) for (int cur = t; cur != -1; cur = parent[cur]) scratch[--k] = cur;
+        out.array(scratch, k, scratch.length);
     }
-    private static JSONArray toArray(List<Integer> list) {
-        JSONArray arr = new JSONArray();
-        for (int v : list) arr.put(v);
-        return arr;
+
+    /** Instrumentation is on unless -Dmetrics=off; off uses Metrics.NOOP and exports zeros. */
+    private static Metrics newMetrics() {
+        return "off".equalsIgnoreCase(System.getProperty("metrics", "on")) ? Metrics.NOOP : new Metrics();
     }
-    private static JSONObject metricsJson(graph.metrics.Metrics m) {
-        return new JSONObject()
-                .put("dfsVisits", m.dfsVisits)
-                .put("dfsEdges", m.dfsEdges)
-                .put("pushes", m.pushes)
-                .put("pops", m.pops)
-                .put("relaxations", m.relaxations)
-                .put("time_ms", m.timeNanos / 1_000_000.0);
+
+    private static void writeMetrics(JsonResultWriter out, Metrics m) throws IOException {
+        out.name("metrics").beginObject()
+                .name("dfsVisits").value(m.dfsVisits())
+                .name("dfsEdges").value(m.dfsEdges())
+                .name("pushes").value(m.pushes())
+                .name("pops").value(m.pops())
+                .name("relaxations").value(m.relaxations())
+                .name("time_ms").value(m.timeNanos() / 1_000_000.0);
+        boolean any = false;
+        for (Metrics.Phase p : Metrics.Phase.values()) {
+            LatencyHistogram h = m.phase(p);
+            if (h == null) continue;
+            if (!any) out.name("phases").beginObject();
+            any = true;
+            out.name(p.name().toLowerCase(Locale.ROOT)).beginObject()
+                    .name("count").value(h.count())
+                    .name("total_ms").value(h.totalNanos() / 1_000_000.0)
+                    .name("p50_ms").value(h.percentileNanos(0.50) / 1_000_000.0)
+                    .name("p99_ms").value(h.percentileNanos(0.99) / 1_000_000.0)
+                    .name("max_ms").value(h.maxNanos() / 1_000_000.0)
+                    .endObject();
+        }
+        if (any) out.endObject();
+        out.endObject();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,145 @@
+package graph.dagsp;
+
+import graph.model.CsrGraph;
+import graph.model.Graph;
+import graph.model.GraphView;
+import graph.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Critical path method over a condensation DAG (activity on node). Node v is a task of duration
+ * {@code model.node(v)}; an arc u->v means v starts after u finishes, plus the arc weight as a lag
+ * when {@code model.arcWeights()}. Every task without predecessors may start at 0.
+ * <ul>
+ *   <li>forward pass in topological order: earliest start ES[v] = max over arcs u->v of EF[u] + lag;</li>
+ *   <li>backward pass in reverse order over the same out-arcs (no transpose): latest finish
+ *       LF[u] = min over arcs u->v of LS[v] - lag, or the makespan for tasks without successors.</li>
+ * </ul>
+ * Total float (slack) is LS - ES; free float is how far a task can slip without delaying any
+ * successor's earliest start. Tasks with zero slack are critical. Two sweeps, O(n + m) time,
+ * four primitive arrays of n longs.
+ */
+public class CriticalPathMethod {
+
+    /** Times of every task; finish times are start + duration. */
+    public static class Schedule {
+        public final long[] duration;
+        public final long[] earliestStart;
+        public final long[] latestStart;
+        public final long[] freeFloat;
+        /** Earliest finish of the whole project. */
+        public final long makespan;
+        private final GraphView dag;
+        private final int[] topoOrder;
+        private final boolean lags;
+
+        Schedule(long[] duration, long[] earliestStart, long[] latestStart, long[] freeFloat, long makespan,
+                 GraphView dag, int[] topoOrder, boolean lags) {
+            this.duration = duration;
+            this.earliestStart = earliestStart;
+            this.latestStart = latestStart;
+            this.freeFloat = freeFloat;
+            this.makespan = makespan;
+            this.dag = dag;
+            this.topoOrder = topoOrder;
+            this.lags = lags;
+        }
+
+        public int size() { return duration.length; }
+
+        public long earliestFinish(int v) { return earliestStart[v] + duration[v]; }
+
+        public long latestFinish(int v) { return latestStart[v] + duration[v]; }
+
+        /** Total float. */
+        public long slack(int v) { return latestStart[v] - earliestStart[v]; }
+
+        public boolean critical(int v) { return latestStart[v] == earliestStart[v]; }
+
+        /** All zero-slack tasks, in topological order. */
+        public int[] criticalTasks() {
+            int k = 0;
+            for (int v : topoOrder) if (critical(v)) k++;
+            int[] out = new int[k];
+            k = 0;
+            for (int v : topoOrder) if (critical(v)) out[k++] = v;
+            return out;
+        }
+
+        /**
+         * One chain of critical tasks from a task starting at 0 to one finishing at the makespan,
+         * each task starting exactly when its predecessor (plus lag) finishes. Empty for an empty DAG.
+         */
+        public List<Integer> criticalPath() {
+            List<Integer> path = new ArrayList<>();
+            int u = -1;
+            for (int v : topoOrder) {
+                if (critical(v) && earliestStart[v] == 0) { u = v; break; }
+            }
+            while (u != -1) {
+                path.add(u);
+                int next = -1;
+                for (int a = dag.begin(u); a < dag.end(u) && next == -1; a++) {
+                    int v = dag.target(a);
+                    if (critical(v) && earliestFinish(u) + (lags ? dag.weight(a) : 0) == earliestStart[v]) next = v;
+                }
+                u = next;
+            }
+            return path;
+        }
+    }
+
+    /** CPM over an object condensation (e.g. from {@link Graph#condensation}) and its {@code kahn} order. */
+    public static Schedule run(Graph dag, List<Integer> topoOrder, WeightModel model, Metrics metrics) {
+        int[] order = new int[topoOrder.size()];
+        for (int i = 0; i < order.length; i++) order[i] = topoOrder.get(i);
+        return run(CsrGraph.from(dag), order, model, metrics);
+    }
+
+    /** CPM over a CSR DAG given the int[] order from {@code TopologicalSort.kahn(GraphView, ...)}. */
+    public static Schedule run(GraphView dag, int[] topoOrder, WeightModel model, Metrics metrics) {
+        Metrics.Span span = metrics.begin(Metrics.Phase.CPM);
+        long relax = 0;
+
+        int n = dag.n();
+        if (topoOrder.length != n)
+            throw new IllegalArgumentException("Topological order has " + topoOrder.length + " of " + n + " nodes");
+        boolean lags = model.arcWeights();
+        long[] dur = new long[n], es = new long[n], ls = new long[n], ff = new long[n];
+
+        // forward: es[] starts at 0 for every node, so tasks without predecessors start at 0
+        long makespan = 0;
+        for (int u : topoOrder) {
+            long ef = es[u] + (dur[u] = model.node(u));
+            if (ef > makespan) makespan = ef;
+            for (int a = dag.begin(u); a < dag.end(u); a++) {
+                int v = dag.target(a);
+                long t = ef + (lags ? dag.weight(a) : 0);
+                relax++;
+                if (t > es[v]) es[v] = t;
+            }
+        }
+
+        // backward: successors are final before their predecessors
+        for (int i = n - 1; i >= 0; i--) {
+            int u = topoOrder[i];
+            long lf = makespan, free = makespan;
+            for (int a = dag.begin(u); a < dag.end(u); a++) {
+                int v = dag.target(a);
+                long lag = lags ? dag.weight(a) : 0;
+                relax++;
+                if (ls[v] - lag < lf) lf = ls[v] - lag;
+                if (es[v] - lag < free) free = es[v] - lag;
+            }
+            ls[u] = lf - dur[u];
+            ff[u] = free - es[u] - dur[u];
+        }
+
+        metrics.add(Metrics.Counter.RELAXATIONS, relax);
+        span.end();
+        return new Schedule(dur, es, ls, ff, makespan, dag, Arrays.copyOf(topoOrder, n), lags);
+    }
+}
@@ -1,6 +1,7 @@
 package graph.dagsp;
 
 import graph.model.Graph;
+import graph.model.GraphView;
 import graph.model.Edge;
 import graph.metrics.Metrics;
 
@@ -30,7 +31,8 @@ public class DAGLongestPath {
 
     /** Longest path on DAG via max-DP along topo order; counts relaxations. */
     public static Result run(Graph dag, List<Integer> topoOrder, int sourceComp, Metrics metrics) {
-        long t0 = System.nanoTime();
+        Metrics.Span span = metrics.begin(Metrics.Phase.LONGEST_PATHS);
+        long relax = 0;
 
         int n = dag.n();
         long NEG_INF = Long.MIN_VALUE / 4;
@@ -45,7 +47,7 @@ public class DAGLongestPath {
             if (best[u] == NEG_INF) continue;
             for (Edge e : dag.adj().get(u)) {
                 long nd = best[u] + e.w;
-                metrics.relaxations++;
+                relax++;
                 if (nd > best[e.v]) {
                     best[e.v] = nd;
                     parent[e.v] = u;
@@ -53,8 +55,40 @@ public class DAGLongestPath {
             }
         }
 
-        long t1 = System.nanoTime();
-        metrics.timeNanos += (t1 - t0);
+        metrics.add(Metrics.Counter.RELAXATIONS, relax);
+        span.end();
+        return new Result(sourceComp, best, parent);
+    }
+
+    /** Longest paths over a CSR DAG given the int[] order from {@code TopologicalSort.kahn(GraphView, ...)}. */
+    public static Result run(GraphView dag, int[] topoOrder, int sourceComp, Metrics metrics) {
+        Metrics.Span span = metrics.begin(Metrics.Phase.LONGEST_PATHS);
+        long relax = 0;
+
+        int n = dag.n();
+        long NEG_INF = Long.MIN_VALUE / 4;
+        long[] best = new long[n];
+        int[] parent = new int[n];
+        Arrays.fill(best, NEG_INF);
+        Arrays.fill(parent, -1);
+
+        best[sourceComp] = 0;
+
+        for (int u : topoOrder) {
+            if (best[u] == NEG_INF) continue;
+            for (int a = dag.begin(u); a < dag.end(u); a++) {
+                int v = dag.target(a);
+                long nd = best[u] + dag.weight(a);
+                relax++;
+                if (nd > best[v]) {
+                    best[v] = nd;
+                    parent[v] = u;
+                }
+            }
+        }
+
+        metrics.add(Metrics.Counter.RELAXATIONS, relax);
+        span.end();
         return new Result(sourceComp, best, parent);
     }
 }
\ No newline at end of file
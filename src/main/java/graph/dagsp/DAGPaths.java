@@ -0,0 +1,76 @@
+package graph.dagsp;
+
+import graph.model.GraphView;
+import graph.metrics.Metrics;
+
+import java.util.Arrays;
+
+/**
+ * Shortest and longest paths from one source in a single topological sweep: the topological
+ * order and the adjacency (targets and weights) are read once and every arc relaxes both
+ * objectives, instead of two full sweeps.
+ * <p>
+ * With the default {@link WeightModel#EDGE} the results are identical to running
+ * {@link DAGShortestPath} and {@link DAGLongestPath} separately, ties included.
+ */
+public class DAGPaths {
+
+    /** Both path trees from one source; unreachable targets use the usual sentinels. */
+    public static class Result {
+        public final DAGShortestPath.Result shortest;
+        public final DAGLongestPath.Result longest;
+
+        Result(DAGShortestPath.Result shortest, DAGLongestPath.Result longest) {
+            this.shortest = shortest;
+            this.longest = longest;
+        }
+
+        public boolean reachable(int v) { return shortest.dist[v] != Long.MAX_VALUE; }
+    }
+
+    public static Result run(GraphView dag, int[] topoOrder, int sourceComp, Metrics metrics) {
+        return run(dag, topoOrder, sourceComp, WeightModel.EDGE, metrics);
+    }
+
+    public static Result run(GraphView dag, int[] topoOrder, int sourceComp, WeightModel model, Metrics metrics) {
+        Metrics.Span span = metrics.begin(Metrics.Phase.PATHS);
+        long relax = 0;
+
+        int n = dag.n();
+        if (sourceComp < 0 || sourceComp >= n)
+            throw new IndexOutOfBoundsException("Source " + sourceComp + " out of range [0," + n + ")");
+        final long INF = Long.MAX_VALUE, NEG_INF = Long.MIN_VALUE / 4;
+        long[] dist = new long[n], best = new long[n];
+        int[] sp = new int[n], lp = new int[n];
+        Arrays.fill(dist, INF);
+        Arrays.fill(best, NEG_INF);
+        Arrays.fill(sp, -1);
+        Arrays.fill(lp, -1);
+        dist[sourceComp] = 0;
+        best[sourceComp] = 0;
+        boolean arcs = model.arcWeights();
+
+        for (int u : topoOrder) {
+            if (dist[u] == INF) continue;
+            long w = model.node(u); // u is final now: every predecessor has been swept
+            long lo = dist[u] += w, hi = best[u] += w;
+            for (int a = dag.begin(u); a < dag.end(u); a++) {
+                int v = dag.target(a);
+                long aw = arcs ? dag.weight(a) : 0;
+                relax++;
+                if (lo + aw < dist[v]) {
+                    dist[v] = lo + aw;
+                    sp[v] = u;
+                }
+                if (hi + aw > best[v]) {
+                    best[v] = hi + aw;
+                    lp[v] = u;
+                }
+            }
+        }
+
+        metrics.add(Metrics.Counter.RELAXATIONS, relax);
+        span.end();
+        return new Result(new DAGShortestPath.Result(sourceComp, dist, sp), new DAGLongestPath.Result(sourceComp, best, lp));
+    }
+}
@@ -0,0 +1,218 @@
+package graph.dagsp;
+
+import graph.model.CsrGraph;
+import graph.model.GraphView;
+import graph.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Single-source shortest or longest (critical) paths on a DAG whose structure is fixed but
+ * whose arc weights change. The first run is a normal topological sweep; after that a weight
+ * change re-derives the head of the changed arc from its in-arcs, and a vertex's successors
+ * are only queued when its value actually moved. Pending vertices are drained from a
+ * min-heap keyed by topological position, so every vertex is settled once per update after all
+ * of its predecessors, which makes increases and decreases equally correct.
+ * Values and sentinels are the same as {@link DAGShortestPath} / {@link DAGLongestPath}.
+ */
+public class IncrementalDAGPaths {
+
+    /** What one update did. */
+    public static class Update {
+        public final int touched;      // vertices re-derived from their in-arcs
+        public final int changed;      // vertices whose value or parent changed
+        public final long relaxations; // in-arcs scanned
+
+        Update(int touched, int changed, long relaxations) {
+            this.touched = touched;
+            this.changed = changed;
+            this.relaxations = relaxations;
+        }
+    }
+
+    private final GraphView dag;
+    private final MultiSourcePaths.Objective objective;
+    private final int source;
+    private final int[] weights;                 // current weight of each arc
+    private final CsrGraph in;                   // reverse arcs; weight() holds the forward arc index
+    private final int[] pos;                     // topological position of each vertex
+    private final long[] value;
+    private final int[] parent;
+    private final Metrics metrics;
+
+    // pending heap keyed by pos, stamped membership so nothing is cleared between updates
+    private final int[] heap;
+    private final int[] queued;
+    private int stamp;
+
+    /** Runs the initial sweep; {@code topoOrder} as returned by {@code TopologicalSort.kahn(GraphView, ...)}. */
+    public IncrementalDAGPaths(GraphView dag, int[] topoOrder, int sourceComp,
+                               MultiSourcePaths.Objective objective, Metrics metrics) {
+        int n = dag.n(), m = dag.m();
+        this.dag = dag;
+        this.objective = objective;
+        this.source = sourceComp;
+        this.metrics = metrics;
+        this.weights = new int[m];
+        for (int a = 0; a < m; a++) weights[a] = dag.weight(a);
+        this.pos = new int[n];
+        for (int i = 0; i < topoOrder.length; i++) pos[topoOrder[i]] = i;
+
+        CsrGraph.Builder rb = new CsrGraph.Builder(n, true, m);
+        for (int u = 0; u < n; u++)
+            for (int a = dag.begin(u); a < dag.end(u); a++) rb.addEdge(dag.target(a), u, a);
+        this.in = rb.build();
+
+        if (objective == MultiSourcePaths.Objective.SHORTEST) {
+            DAGShortestPath.Result r = DAGShortestPath.run(dag, topoOrder, sourceComp, metrics);
+            this.value = r.dist;
+            this.parent = r.parent;
+        } else {
+            DAGLongestPath.Result r = DAGLongestPath.run(dag, topoOrder, sourceComp, metrics);
+            this.value = r.best;
+            this.parent = r.parent;
+        }
+        this.heap = new int[n];
+        this.queued = new int[n];
+    }
+
+    public int sourceComp() { return source; }
+    public MultiSourcePaths.Objective objective() { return objective; }
+
+    /** Current distance (or longest length) to v; {@code objective().unreachable} if v is not reachable. */
+    public long value(int v) { return value[v]; }
+
+    public int parent(int v) { return parent[v]; }
+
+    public int weight(int arc) { return weights[arc]; }
+
+    /** Copy of the current value array, same shape as {@code DAGShortestPath.Result.dist}. */
+    public long[] values() { return value.clone(); }
+
+    /** Arc index of u->v in the underlying DAG, or -1. */
+    public int arcIndex(int u, int v) {
+        for (int a = dag.begin(u); a < dag.end(u); a++) if (dag.target(a) == v) return a;
+        return -1;
+    }
+
+    public List<Integer> pathTo(int target) {
+        if (value[target] == objective.unreachable) return Collections.emptyList();
+        List<Integer> path = new ArrayList<>();
+        for (int cur = target; cur != -1; cur = parent[cur]) path.add(cur);
+        Collections.reverse(path);
+        return path;
+    }
+
+    /** The DAG with its current weights, e.g. for a full recompute. */
+    public GraphView graph() {
+        return new GraphView() {
+            @Override public int n() { return dag.n(); }
+            @Override public int m() { return dag.m(); }
+            @Override public boolean directed() { return true; }
+            @Override public int begin(int u) { return dag.begin(u); }
+            @Override public int end(int u) { return dag.end(u); }
+            @Override public int target(int i) { return dag.target(i); }
+            @Override public int weight(int i) { return weights[i]; }
+        };
+    }
+
+    /** Changes one arc's weight and repairs everything downstream of it. */
+    public Update setWeight(int arc, int w) {
+        return setWeights(new int[]{arc}, new int[]{w});
+    }
+
+    /** Applies several weight changes and repairs them in a single pass over the affected region. */
+    public Update setWeights(int[] arcs, int[] ws) {
+        if (arcs.length != ws.length) throw new IllegalArgumentException("arcs and weights differ in length");
+        Metrics.Span span = metrics.begin(Metrics.Phase.PATH_UPDATE);
+        stamp++;
+        int size = 0;
+        for (int i = 0; i < arcs.length; i++) {
+            int a = arcs[i];
+            if (a < 0 || a >= weights.length)
+                throw new IndexOutOfBoundsException("Arc " + a + " out of range [0," + weights.length + ")");
+            if (weights[a] == ws[i]) continue;
+            weights[a] = ws[i];
+            size = offer(dag.target(a), size);
+        }
+
+        int touched = 0, changed = 0;
+        long relax = 0;
+        while (size > 0) {
+            int v = heap[0];
+            size = pop(size);
+            touched++;
+            relax += in.end(v) - in.begin(v);
+            int r = rederive(v);
+            if (r == UNCHANGED) continue;
+            changed++;
+            if (r == PARENT_ONLY) continue; // successors only read the value
+            for (int a = dag.begin(v); a < dag.end(v); a++) size = offer(dag.target(a), size);
+        }
+        metrics.add(Metrics.Counter.RELAXATIONS, relax);
+        span.end();
+        return new Update(touched, changed, relax);
+    }
+
+    private static final int UNCHANGED = 0, PARENT_ONLY = 1, VALUE = 2;
+
+    /** Recomputes v from its in-arcs. */
+    private int rederive(int v) {
+        if (v == source) return UNCHANGED;
+        boolean shortest = objective == MultiSourcePaths.Objective.SHORTEST;
+        long best = objective.unreachable;
+        int bestParent = -1;
+        for (int r = in.begin(v); r < in.end(v); r++) {
+            int u = in.target(r);
+            if (value[u] == objective.unreachable) continue;
+            long nd = value[u] + weights[in.weight(r)];
+            // ties keep the earliest predecessor in topological order, like the forward sweep
+            if (bestParent == -1 || (shortest ? nd < best : nd > best)
+                    || (nd == best && pos[u] < pos[bestParent])) {
+                best = nd;
+                bestParent = u;
+            }
+        }
+        if (best == value[v]) {
+            if (bestParent == parent[v]) return UNCHANGED;
+            parent[v] = bestParent;
+            return PARENT_ONLY;
+        }
+        value[v] = best;
+        parent[v] = bestParent;
+        return VALUE;
+    }
+
+    // ---- binary heap on topological position ----
+
+    private int offer(int v, int size) {
+        if (queued[v] == stamp) return size;
+        queued[v] = stamp;
+        int i = size++;
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (pos[heap[p]] <= pos[v]) break;
+            heap[i] = heap[p];
+            i = p;
+        }
+        heap[i] = v;
+        return size;
+    }
+
+    private int pop(int size) {
+        int last = heap[--size];
+        int i = 0;
+        while (true) {
+            int c = 2 * i + 1;
+            if (c >= size) break;
+            if (c + 1 < size && pos[heap[c + 1]] < pos[heap[c]]) c++;
+            if (pos[heap[c]] >= pos[last]) break;
+            heap[i] = heap[c];
+            i = c;
+        }
+        if (size > 0) heap[i] = last;
+        return size;
+    }
+}
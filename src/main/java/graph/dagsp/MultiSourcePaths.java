@@ -0,0 +1,210 @@
+package graph.dagsp;
+
+import graph.model.GraphView;
+import graph.metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shortest or longest distances from many source components in one topological sweep per
+ * block of up to {@link #BLOCK} sources. Inside a block each vertex owns a dense run of
+ * per-source distances (vertex-major), so relaxing an arc is a straight loop over the block.
+ * Blocks are independent and run in parallel on a ForkJoinPool.
+ * Unreachable entries use the same sentinels as {@link DAGShortestPath} (Long.MAX_VALUE)
+ * and {@link DAGLongestPath} (Long.MIN_VALUE / 4).
+ */
+public class MultiSourcePaths {
+    public static final int BLOCK = 64; // one bit per source in the reach mask
+    /** Largest block array a JVM reliably allocates; n * width must stay below it. */
+    static final int MAX_BLOCK_CELLS = Integer.MAX_VALUE - 8;
+
+    public enum Objective {
+        SHORTEST(Long.MAX_VALUE, Long.MAX_VALUE / 4),
+        LONGEST(Long.MIN_VALUE / 4, Long.MIN_VALUE / 4);
+
+        /** Value reported for unreachable targets. */
+        public final long unreachable;
+        /** Working sentinel; far enough from overflow that adding a weight stays ordered. */
+        final long seed;
+
+        Objective(long unreachable, long seed) {
+            this.unreachable = unreachable;
+            this.seed = seed;
+        }
+    }
+
+    /** Receives one finished source row; may be called concurrently from pool threads. */
+    public interface RowConsumer {
+        void accept(int sourceIndex, int sourceComp, long[] dist);
+    }
+
+    /** Distances from sources[i] to every vertex. */
+    public static class DistanceMatrix {
+        public final int[] sources;
+        public final Objective objective;
+        private final int n;
+        private final long[][] blocks; // blocks[b][v * width + s]
+
+        DistanceMatrix(int[] sources, Objective objective, int n, long[][] blocks) {
+            this.sources = sources;
+            this.objective = objective;
+            this.n = n;
+            this.blocks = blocks;
+        }
+
+        public long get(int sourceIndex, int v) {
+            long[] blk = blocks[sourceIndex / BLOCK];
+            return blk[v * width(sourceIndex / BLOCK) + sourceIndex % BLOCK];
+        }
+
+        /** Copy of one source's distance array, same shape as {@code DAGShortestPath.Result.dist}. */
+        public long[] row(int sourceIndex) {
+            long[] out = new long[n];
+            int b = sourceIndex / BLOCK, w = width(b), s = sourceIndex % BLOCK;
+            long[] blk = blocks[b];
+            for (int v = 0; v < n; v++) out[v] = blk[v * w + s];
+            return out;
+        }
+
+        private int width(int b) { return Math.min(BLOCK, sources.length - b * BLOCK); }
+    }
+
+    /** Full matrix on the common pool. */
+    public static DistanceMatrix run(GraphView dag, int[] topoOrder, int[] sources, Objective objective, Metrics metrics) {
+        return run(dag, topoOrder, sources, objective, ForkJoinPool.commonPool(), metrics);
+    }
+
+    /** Full matrix; memory is sources.length * n longs. */
+    public static DistanceMatrix run(GraphView dag, int[] topoOrder, int[] sources, Objective objective,
+                                     ForkJoinPool pool, Metrics metrics) {
+        checkBlockSize(dag.n(), sources.length);
+        Metrics.Span span = metrics.begin(Metrics.Phase.MULTI_SOURCE_PATHS);
+        int blockCount = (sources.length + BLOCK - 1) / BLOCK;
+        long[][] blocks = new long[blockCount][];
+        LongAdder relax = new LongAdder();
+        pool.invoke(new Sweep(dag, topoOrder, sources, objective, 0, blockCount, relax,
+                (b, dist) -> blocks[b] = dist));
+        metrics.add(Metrics.Counter.RELAXATIONS, relax.sum());
+        span.end();
+        return new DistanceMatrix(sources, objective, dag.n(), blocks);
+    }
+
+    /**
+     * Streams rows instead of keeping the matrix: at most one block (64 * n longs) per
+     * worker is alive at a time.
+     */
+    public static void forEachRow(GraphView dag, int[] topoOrder, int[] sources, Objective objective,
+                                  ForkJoinPool pool, Metrics metrics, RowConsumer consumer) {
+        checkBlockSize(dag.n(), sources.length);
+        Metrics.Span span = metrics.begin(Metrics.Phase.MULTI_SOURCE_PATHS);
+        int n = dag.n();
+        int blockCount = (sources.length + BLOCK - 1) / BLOCK;
+        LongAdder relax = new LongAdder();
+        pool.invoke(new Sweep(dag, topoOrder, sources, objective, 0, blockCount, relax, (b, dist) -> {
+            int width = Math.min(BLOCK, sources.length - b * BLOCK);
+            for (int s = 0; s < width; s++) {
+                long[] row = new long[n];
+                for (int v = 0; v < n; v++) row[v] = dist[v * width + s];
+                consumer.accept(b * BLOCK + s, sources[b * BLOCK + s], row);
+            }
+        }));
+        metrics.add(Metrics.Counter.RELAXATIONS, relax.sum());
+        span.end();
+    }
+
+    /**
+     * A block holds n * width distances in one array; reject inputs where that does not fit, so
+     * the int cell index v * width + s used by the sweeps cannot overflow.
+     */
+    static void checkBlockSize(int n, int sourceCount) {
+        long cells = (long) n * Math.min(BLOCK, sourceCount);
+        if (cells > MAX_BLOCK_CELLS)
+            throw new IllegalArgumentException("Block of " + Math.min(BLOCK, sourceCount) + " sources over " + n
+                    + " vertices needs " + cells + " distances, more than one array holds (" + MAX_BLOCK_CELLS
+                    + "); use fewer than " + (MAX_BLOCK_CELLS / Math.max(n, 1) + 1) + " sources per run");
+    }
+
+    private interface BlockSink {
+        void accept(int block, long[] dist);
+    }
+
+    /** Splits the block range in halves; a single block is one topological sweep. */
+    private static final class Sweep extends RecursiveAction {
+        private final GraphView dag;
+        private final int[] topo, sources;
+        private final Objective obj;
+        private final int lo, hi;
+        private final LongAdder relax;
+        private final BlockSink sink;
+
+        Sweep(GraphView dag, int[] topo, int[] sources, Objective obj, int lo, int hi,
+              LongAdder relax, BlockSink sink) {
+            this.dag = dag;
+            this.topo = topo;
+            this.sources = sources;
+            this.obj = obj;
+            this.lo = lo;
+            this.hi = hi;
+            this.relax = relax;
+            this.sink = sink;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Sweep(dag, topo, sources, obj, lo, mid, relax, sink),
+                          new Sweep(dag, topo, sources, obj, mid, hi, relax, sink));
+                return;
+            }
+            if (lo < hi) sink.accept(lo, sweep(lo));
+        }
+
+        private long[] sweep(int b) {
+            int n = dag.n();
+            int first = b * BLOCK, width = Math.min(BLOCK, sources.length - first);
+            boolean shortest = obj == Objective.SHORTEST;
+            long[] dist = new long[n * width];
+            long[] reach = new long[n]; // bit s set when source s reaches v
+            Arrays.fill(dist, obj.seed);
+            for (int s = 0; s < width; s++) {
+                int src = sources[first + s];
+                dist[src * width + s] = 0;
+                reach[src] |= 1L << s;
+            }
+
+            long relaxations = 0;
+            for (int u : topo) {
+                if (reach[u] == 0) continue;
+                int ub = u * width;
+                for (int a = dag.begin(u); a < dag.end(u); a++) {
+                    int v = dag.target(a), vb = v * width;
+                    long w = dag.weight(a);
+                    reach[v] |= reach[u];
+                    // branch-free over the whole block; lanes not reached by u only carry the seed
+                    if (shortest) {
+                        for (int s = 0; s < width; s++) dist[vb + s] = Math.min(dist[vb + s], dist[ub + s] + w);
+                    } else {
+                        for (int s = 0; s < width; s++) dist[vb + s] = Math.max(dist[vb + s], dist[ub + s] + w);
+                    }
+                    relaxations += width;
+                }
+            }
+
+            for (int v = 0; v < n; v++) {
+                long miss = ~reach[v];
+                if (width < 64) miss &= (1L << width) - 1;
+                while (miss != 0) {
+                    int s = Long.numberOfTrailingZeros(miss);
+                    dist[v * width + s] = obj.unreachable;
+                    miss &= miss - 1;
+                }
+            }
+            relax.add(relaxations);
+            return dist;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package graph.dagsp;
+
+import graph.model.GraphView;
+import graph.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The k best paths from one source to every vertex of a DAG, without enumerating paths. Vertices
+ * are finished in topological order; each one keeps only its k best labels (length, predecessor,
+ * predecessor's rank), stored best first. A vertex's labels are a k-way merge of its in-neighbours'
+ * already ranked lists (each shifted by the arc weight), driven by a candidate heap holding one
+ * entry per in-arc, so only labels that make the top k are ever generated. A path is recovered by
+ * following (predecessor, rank) links back to the source.
+ * <p>
+ * Time O(E + V·k·log(max in-degree)) after an O(V + E) transpose; memory 16·k bytes per vertex
+ * plus 8 per arc, i.e. O(k·V + E). Paths are distinct as arc sequences; on a condensation (no
+ * parallel arcs) they are distinct vertex sequences. Ties are broken by predecessor, then rank.
+ */
+public class TopKPaths {
+
+    /** Ranked paths from {@link #source}; rank 0 has the length DAGShortestPath / DAGLongestPath report. */
+    public static class Result {
+        public final int source;
+        public final int k;
+        public final MultiSourcePaths.Objective objective;
+        private final long[] value; // [v * k + rank]
+        private final int[] pred;
+        private final int[] predRank;
+        private final int[] count;
+
+        Result(int source, int k, MultiSourcePaths.Objective objective, long[] value, int[] pred, int[] predRank, int[] count) {
+            this.source = source;
+            this.k = k;
+            this.objective = objective;
+            this.value = value;
+            this.pred = pred;
+            this.predRank = predRank;
+            this.count = count;
+        }
+
+        /** Number of ranked paths to v (at most k; 0 if unreachable). */
+        public int count(int v) { return count[v]; }
+
+        /** Length of the rank-th best path to v. */
+        public long value(int v, int rank) {
+            check(v, rank);
+            return value[v * k + rank];
+        }
+
+        /** Vertices of the rank-th best path to v, source first. */
+        public List<Integer> path(int v, int rank) {
+            check(v, rank);
+            List<Integer> path = new ArrayList<>();
+            for (int cur = v, r = rank; cur != -1; ) {
+                path.add(cur);
+                int i = cur * k + r;
+                cur = pred[i];
+                r = predRank[i];
+            }
+            Collections.reverse(path);
+            return path;
+        }
+
+        /** All ranked paths to v, best first. */
+        public List<List<Integer>> paths(int v) {
+            List<List<Integer>> out = new ArrayList<>(count[v]);
+            for (int r = 0; r < count[v]; r++) out.add(path(v, r));
+            return out;
+        }
+
+        private void check(int v, int rank) {
+            if (rank < 0 || rank >= count[v])
+                throw new IndexOutOfBoundsException("Rank " + rank + " of " + count[v] + " paths to " + v);
+        }
+    }
+
+    /**
+     * Top-k paths over a CSR DAG given the int[] order from {@code TopologicalSort.kahn(GraphView, ...)}.
+     * SHORTEST ranks by increasing length, LONGEST (critical paths) by decreasing length.
+     */
+    public static Result run(GraphView dag, int[] topoOrder, int source, int k,
+                             MultiSourcePaths.Objective objective, Metrics metrics) {
+        if (k < 1) throw new IllegalArgumentException("k must be positive: " + k);
+        int n = dag.n();
+        if (source < 0 || source >= n) throw new IndexOutOfBoundsException("Source " + source + " out of range [0," + n + ")");
+        if ((long) n * k > Integer.MAX_VALUE) throw new IllegalArgumentException("n * k too large: " + n + " * " + k);
+        Metrics.Span span = metrics.begin(Metrics.Phase.TOP_K_PATHS);
+        long relax = 0;
+
+        // in-arcs grouped by head: inSrc/inW for arcs into v live in [inOff[v], inOff[v + 1])
+        int m = dag.m();
+        int[] inOff = new int[n + 1], inSrc = new int[m], inW = new int[m];
+        for (int i = 0; i < m; i++) inOff[dag.target(i) + 1]++;
+        int maxIn = 0;
+        for (int v = 0; v < n; v++) {
+            maxIn = Math.max(maxIn, inOff[v + 1]);
+            inOff[v + 1] += inOff[v];
+        }
+        int[] fill = Arrays.copyOf(inOff, n);
+        for (int u = 0; u < n; u++)
+            for (int a = dag.begin(u); a < dag.end(u); a++) {
+                int p = fill[dag.target(a)]++;
+                inSrc[p] = u;
+                inW[p] = dag.weight(a);
+            }
+
+        // keys are lengths (SHORTEST) or negated lengths (LONGEST): smaller is better
+        long sign = objective == MultiSourcePaths.Objective.SHORTEST ? 1 : -1;
+        long[] key = new long[n * k];
+        int[] pred = new int[n * k], rank = new int[n * k], count = new int[n];
+        key[source * k] = 0;
+        pred[source * k] = -1;
+        rank[source * k] = -1;
+        count[source] = 1;
+
+        Candidates h = new Candidates(maxIn);
+        for (int v : topoOrder) {
+            if (v == source) continue; // everything before the source in topological order is unreachable
+            h.clear();
+            for (int p = inOff[v]; p < inOff[v + 1]; p++) {
+                int u = inSrc[p];
+                if (count[u] > 0) h.push(key[u * k] + sign * inW[p], u, 0, p);
+            }
+            int base = v * k, c = 0;
+            while (c < k && h.size > 0) {
+                int u = h.pred[0], r = h.rank[0], p = h.arc[0];
+                key[base + c] = h.key[0];
+                pred[base + c] = u;
+                rank[base + c] = r;
+                c++;
+                relax++;
+                if (r + 1 < count[u]) h.replaceTop(key[u * k + r + 1] + sign * inW[p], u, r + 1, p);
+                else h.pop();
+            }
+            count[v] = c;
+        }
+        if (sign < 0) for (int i = 0; i < key.length; i++) key[i] = -key[i];
+
+        metrics.add(Metrics.Counter.RELAXATIONS, relax);
+        span.end();
+        return new Result(source, k, objective, key, pred, rank, count);
+    }
+
+    /** Min-heap of merge cursors, one per in-arc: (key, predecessor, rank in predecessor's list, in-arc). */
+    private static final class Candidates {
+        final long[] key;
+        final int[] pred, rank, arc;
+        int size;
+
+        Candidates(int capacity) {
+            key = new long[capacity];
+            pred = new int[capacity];
+            rank = new int[capacity];
+            arc = new int[capacity];
+        }
+
+        void clear() { size = 0; }
+
+        void push(long kk, int p, int r, int a) {
+            int i = size++;
+            set(i, kk, p, r, a);
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!better(i, parent)) return;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        void replaceTop(long kk, int p, int r, int a) {
+            set(0, kk, p, r, a);
+            down();
+        }
+
+        void pop() {
+            size--;
+            if (size == 0) return;
+            set(0, key[size], pred[size], rank[size], arc[size]);
+            down();
+        }
+
+        private void down() {
+            int i = 0;
+            for (;;) {
+                int l = 2 * i + 1;
+                if (l >= size) return;
+                int c = l + 1 < size && better(l + 1, l) ? l + 1 : l;
+                if (!better(c, i)) return;
+                swap(i, c);
+                i = c;
+            }
+        }
+
+        private boolean better(int i, int j) {
+            if (key[i] != key[j]) return key[i] < key[j];
+            if (pred[i] != pred[j]) return pred[i] < pred[j];
+            if (rank[i] != rank[j]) return rank[i] < rank[j];
+            return arc[i] < arc[j];
+        }
+
+        private void set(int i, long kk, int p, int r, int a) {
+            key[i] = kk;
+            pred[i] = p;
+            rank[i] = r;
+            arc[i] = a;
+        }
+
+        private void swap(int i, int j) {
+            long tk = key[i]; key[i] = key[j]; key[j] = tk;
+            int tp = pred[i]; pred[i] = pred[j]; pred[j] = tp;
+            int tr = rank[i]; rank[i] = rank[j]; rank[j] = tr;
+            int ta = arc[i]; arc[i] = arc[j]; arc[j] = ta;
+        }
+    }
+}
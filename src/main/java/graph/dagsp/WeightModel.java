@@ -0,0 +1,77 @@
+package graph.dagsp;
+
+import graph.scc.Components;
+
+import java.util.Locale;
+
+/**
+ * What a path through the DAG costs. A path v0 -> ... -> vk is charged the arc weights along it
+ * (if {@link #arcWeights()}) plus {@link #node(int)} for every vertex on it, v0 and vk included.
+ * <ul>
+ *   <li>{@link #EDGE}: arc weights only, the original input semantics;</li>
+ *   <li>{@link #durations(int[], Components)}: task durations, where a condensation node costs the
+ *       total duration of its component's members and arcs cost nothing.</li>
+ * </ul>
+ * {@link DAGPaths} asks for each node's weight exactly once, when the sweep reaches it, so per-component
+ * sums are formed inside the DP pass rather than in a pass of their own.
+ */
+public abstract class WeightModel {
+
+    /** Arc weights, no node weights. */
+    public static final WeightModel EDGE = new WeightModel() {
+        @Override public boolean arcWeights() { return true; }
+        @Override public long node(int v) { return 0; }
+        @Override public String name() { return "edge"; }
+    };
+
+    /** Whether arc weights count. */
+    public abstract boolean arcWeights();
+
+    /** Weight of DAG node v. */
+    public abstract long node(int v);
+
+    /** Name used in the input's {@code weight_model} field. */
+    public abstract String name();
+
+    /** Given node weights, no arc weights (weights[v] for DAG node v). */
+    public static WeightModel nodes(long[] weights) {
+        return new WeightModel() {
+            @Override public boolean arcWeights() { return false; }
+            @Override public long node(int v) { return weights[v]; }
+            @Override public String name() { return "node"; }
+        };
+    }
+
+    /** Node weights over the condensation: node c weighs the sum of {@code durations[v]} over c's members. */
+    public static WeightModel durations(int[] durations, Components comps) {
+        if (durations.length != comps.compId.length)
+            throw new IllegalArgumentException("durations has " + durations.length + " entries, graph has " + comps.compId.length);
+        return new WeightModel() {
+            @Override public boolean arcWeights() { return false; }
+
+            @Override public long node(int c) {
+                long sum = 0;
+                for (int i = comps.offsets[c]; i < comps.offsets[c + 1]; i++) sum += durations[comps.members[i]];
+                return sum;
+            }
+
+            @Override public String name() { return "node"; }
+        };
+    }
+
+    /**
+     * Model named by the input: "edge" or "node". The node model needs per-vertex durations
+     * (condensed through {@code comps}).
+     */
+    public static WeightModel fromName(String name, int[] durations, Components comps) {
+        switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "edge":
+                return EDGE;
+            case "node":
+                if (durations == null) throw new IllegalArgumentException("weight_model \"node\" needs a \"durations\" array");
+                return durations(durations, comps);
+            default:
+                throw new IllegalArgumentException("Unknown weight_model: " + name);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package graph.gen;
+
+import graph.io.BinaryGraphFile;
+import graph.model.CsrGraph;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Seeded synthetic graphs for stress and scale tests (up to ~10^7 vertices / 10^8 arcs).
+ * Every vertex draws its out-arcs from its own random stream derived from (seed, vertex), so the
+ * same graph can be produced in any order: out-degrees are counted in a parallel first pass, then
+ * arcs are written straight into CSR arrays, a {@link BinaryGraphFile} or the JSON schema of
+ * src/main/resources/data, without ever holding an edge list or boxed values.
+ */
+public final class GraphGenerator {
+
+    public enum Shape {
+        /** {@code layers} equal layers; each vertex has {@code degree} arcs into the next layer. */
+        LAYERED,
+        /**
+         * Dependency DAG: vertex u points at earlier vertices (its prerequisites), Pareto-distributed
+         * out-degree with mean {@code degree}, targets skewed to low ids so in-degrees are heavy-tailed.
+         */
+        SCALE_FREE,
+        /**
+         * Consecutive blocks of {@code sccSize} vertices closed into cycles, plus {@code degree}
+         * forward arcs per vertex into the following {@link #FORWARD_SPAN} vertices, so there are
+         * exactly ceil(n / sccSize) SCCs.
+         */
+        CLUSTERED,
+        /** 0 -> 1 -> ... -> n-1. */
+        CHAIN;
+
+        public static Shape fromName(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    /** Receives arcs in vertex order. */
+    public interface ArcSink {
+        void arc(int u, int v, int w) throws IOException;
+    }
+
+    static final int FORWARD_SPAN = 1024;
+    static final int MAX_SCALE_FREE_DEGREE = 4096;
+    private static final int CHUNK = 1 << 14; // vertices per parallel task
+
+    private final Shape shape;
+    private final int n;
+    private final int degree;
+    private final int layers;
+    private final int sccSize;
+    private final int maxWeight;
+    private final long seed;
+
+    private GraphGenerator(Shape shape, int n, int degree, int layers, int sccSize, int maxWeight, long seed) {
+        if (n < 0) throw new IllegalArgumentException("n must be non-negative: " + n);
+        if (degree < 0) throw new IllegalArgumentException("degree must be non-negative: " + degree);
+        if (layers < 1) throw new IllegalArgumentException("layers must be positive: " + layers);
+        if (sccSize < 1) throw new IllegalArgumentException("sccSize must be positive: " + sccSize);
+        if (maxWeight < 1) throw new IllegalArgumentException("maxWeight must be positive: " + maxWeight);
+        this.shape = shape;
+        this.n = n;
+        this.degree = degree;
+        this.layers = layers;
+        this.sccSize = sccSize;
+        this.maxWeight = maxWeight;
+        this.seed = seed;
+    }
+
+    public static GraphGenerator layered(int n, int layers, int degree, long seed) {
+        return new GraphGenerator(Shape.LAYERED, n, degree, layers, 1, 100, seed);
+    }
+
+    public static GraphGenerator scaleFree(int n, int avgDegree, long seed) {
+        return new GraphGenerator(Shape.SCALE_FREE, n, avgDegree, 1, 1, 100, seed);
+    }
+
+    public static GraphGenerator clustered(int n, int sccSize, int degree, long seed) {
+        return new GraphGenerator(Shape.CLUSTERED, n, degree, 1, sccSize, 100, seed);
+    }
+
+    public static GraphGenerator chain(int n, long seed) {
+        return new GraphGenerator(Shape.CHAIN, n, 1, 1, 1, 100, seed);
+    }
+
+    /** Same graph with weights drawn from [1, maxWeight] instead of [1, 100]. */
+    public GraphGenerator withMaxWeight(int maxWeight) {
+        return new GraphGenerator(shape, n, degree, layers, sccSize, maxWeight, seed);
+    }
+
+    public Shape shape() { return shape; }
+    public int n() { return n; }
+
+    /** CSR offsets (length n+1), from a parallel pass that only counts out-degrees. */
+    public int[] offsets() {
+        int[] off = new int[n + 1];
+        IntStream.range(0, chunks()).parallel().forEach(c -> {
+            Rng r = new Rng();
+            int[] t = new int[maxDegree()], w = new int[maxDegree()];
+            for (int u = c * CHUNK, end = Math.min(n, u + CHUNK); u < end; u++) off[u + 1] = emit(u, r, t, w);
+        });
+        long m = 0;
+        for (int u = 0; u < n; u++) {
+            m += off[u + 1];
+            if (m > Integer.MAX_VALUE) throw new IllegalStateException("More than 2^31-1 arcs");
+            off[u + 1] = (int) m;
+        }
+        return off;
+    }
+
+    /** Builds the graph in memory; arcs are written in parallel directly into their CSR slots. */
+    public CsrGraph toCsr() {
+        int[] off = offsets();
+        int[] targets = new int[off[n]], weights = new int[off[n]];
+        IntStream.range(0, chunks()).parallel().forEach(c -> {
+            Rng r = new Rng();
+            int[] t = new int[maxDegree()], w = new int[maxDegree()];
+            for (int u = c * CHUNK, end = Math.min(n, u + CHUNK); u < end; u++) {
+                int k = emit(u, r, t, w);
+                System.arraycopy(t, 0, targets, off[u], k);
+                System.arraycopy(w, 0, weights, off[u], k);
+            }
+        });
+        return CsrGraph.of(n, true, off, targets, weights);
+    }
+
+    /** Streams every arc in vertex order (single-threaded). */
+    public void forEachArc(ArcSink sink) throws IOException {
+        Rng r = new Rng();
+        int[] t = new int[maxDegree()], w = new int[maxDegree()];
+        for (int u = 0; u < n; u++) {
+            int k = emit(u, r, t, w);
+            for (int i = 0; i < k; i++) sink.arc(u, t[i], w[i]);
+        }
+    }
+
+    /** Writes the binary CSR format; memory use is the offsets array plus two 1 MiB buffers. */
+    public void writeBinary(Path file, int source) throws IOException {
+        checkSource(source);
+        try (BinaryGraphFile.StreamWriter out = BinaryGraphFile.stream(file, offsets(), true, source)) {
+            forEachArc((u, v, w) -> out.arc(v, w));
+        }
+    }
+
+    /** Writes the JSON input schema (one edge per line, as in the bundled datasets). */
+    public void writeJson(Path file, int source) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeJson(out, source);
+        }
+    }
+
+    public void writeJson(Writer out, int source) throws IOException {
+        checkSource(source);
+        out.write("{\n  \"directed\": true,\n  \"n\": " + n + ",\n  \"edges\": [");
+        StringBuilder line = new StringBuilder(64);
+        boolean[] first = {true};
+        forEachArc((u, v, w) -> {
+            line.setLength(0);
+            line.append(first[0] ? "\n    " : ",\n    ")
+                .append("{\"u\": ").append(u).append(", \"v\": ").append(v).append(", \"w\": ").append(w).append('}');
+            first[0] = false;
+            out.append(line);
+        });
+        out.write("\n  ],\n  \"source\": " + source + ",\n  \"weight_model\": \"edge\"\n}\n");
+    }
+
+    // ---- shapes ----
+
+    private int maxDegree() {
+        switch (shape) {
+            case SCALE_FREE: return MAX_SCALE_FREE_DEGREE;
+            case CLUSTERED: return degree + 1;
+            default: return Math.max(1, degree);
+        }
+    }
+
+    /** Writes u's out-arcs into t/w and returns how many there are. */
+    private int emit(int u, Rng r, int[] t, int[] w) {
+        r.reset(seed, u);
+        int k = 0;
+        switch (shape) {
+            case LAYERED: {
+                int width = (n + layers - 1) / layers;
+                int next = (u / width + 1) * width;
+                if (next >= n) break;
+                int nextWidth = Math.min(width, n - next);
+                for (; k < degree; k++) t[k] = next + r.nextInt(nextWidth);
+                break;
+            }
+            case SCALE_FREE: {
+                if (u == 0) break;
+                // Pareto(alpha = 2) has mean 2 * xm
+                double d = degree / 2.0 / Math.sqrt(1 - r.nextDouble());
+                int deg = (int) Math.min(Math.min(u, MAX_SCALE_FREE_DEGREE), Math.max(1, Math.round(d)));
+                for (; k < deg; k++) {
+                    double x = r.nextDouble();
+                    t[k] = (int) (u * x * x); // density ~ 1/sqrt(v): early vertices become hubs
+                }
+                break;
+            }
+            case CLUSTERED: {
+                int start = u - u % sccSize, end = (int) Math.min(n, (long) start + sccSize);
+                if (end - start > 1) t[k++] = u + 1 < end ? u + 1 : start;
+                if (end < n) {
+                    int span = Math.min(n - end, FORWARD_SPAN);
+                    for (int i = 0; i < degree; i++) t[k++] = end + r.nextInt(span);
+                }
+                break;
+            }
+            case CHAIN:
+                if (u + 1 < n) t[k++] = u + 1;
+                break;
+        }
+        for (int i = 0; i < k; i++) w[i] = 1 + r.nextInt(maxWeight);
+        return k;
+    }
+
+    private int chunks() { return (n + CHUNK - 1) / CHUNK; }
+
+    private void checkSource(int source) {
+        if (n > 0 && (source < 0 || source >= n))
+            throw new IndexOutOfBoundsException("Source " + source + " out of range [0," + n + ")");
+    }
+
+    /** SplitMix64, re-seeded per vertex. */
+    private static final class Rng {
+        private long state;
+
+        void reset(long seed, int u) {
+            state = seed * 0xBF58476D1CE4E5B9L ^ (u + 1L) * 0x94D049BB133111EBL;
+        }
+
+        long next() {
+            long z = (state += 0x9E3779B97F4A7C15L);
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+
+        /** Uniform in [0, bound) for 0 < bound < 2^31. */
+        int nextInt(int bound) {
+            return (int) (((next() >>> 33) * bound) >>> 31);
+        }
+
+        double nextDouble() {
+            return (next() >>> 11) * 0x1.0p-53;
+        }
+    }
+
+    /**
+     * Usage: GraphGenerator shape n output.(json|bin) [degree=4] [layers=100] [sccSize=16]
+     *        [maxWeight=100] [seed=1] [source=0]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: GraphGenerator <layered|scale_free|clustered|chain> <n> <out.json|out.bin>"
+                    + " [degree=4] [layers=100] [sccSize=16] [maxWeight=100] [seed=1] [source=0]");
+            System.exit(2);
+        }
+        Shape shape = Shape.fromName(args[0]);
+        int n = Integer.parseInt(args[1]);
+        Path out = Path.of(args[2]);
+        Map<String, Long> opt = new HashMap<>();
+        for (int i = 3; i < args.length; i++) {
+            String[] kv = args[i].split("=", 2);
+            if (kv.length != 2) throw new IllegalArgumentException("Expected key=value: " + args[i]);
+            opt.put(kv[0], Long.parseLong(kv[1]));
+        }
+        int degree = opt.getOrDefault("degree", 4L).intValue();
+        GraphGenerator gen = new GraphGenerator(shape, n, degree, opt.getOrDefault("layers", 100L).intValue(),
+                opt.getOrDefault("sccSize", 16L).intValue(), opt.getOrDefault("maxWeight", 100L).intValue(),
+                opt.getOrDefault("seed", 1L));
+        int source = opt.getOrDefault("source", 0L).intValue();
+
+        long t0 = System.nanoTime();
+        if (out.toString().endsWith(".json")) gen.writeJson(out, source);
+        else gen.writeBinary(out, source);
+        System.out.printf("Generated %s n=%d -> %s (%d bytes) in %.1f ms%n",
+                shape.name().toLowerCase(Locale.ROOT), n, out, Files.size(out), (System.nanoTime() - t0) / 1e6);
+    }
+}
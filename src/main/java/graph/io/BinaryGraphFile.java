@@ -0,0 +1,238 @@
+package graph.io;
+
+import graph.model.GraphView;
+import graph.model.OffHeapGraph;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact little-endian CSR graph file:
+ * <pre>
+ *  offset  size        field
+ *  0       4           magic "DAAG"
+ *  4       4           version (1)
+ *  8       4           flags (bit 0 = directed)
+ *  12      4           n
+ *  16      8           m
+ *  24      4           source vertex
+ *  28      4           reserved (0)
+ *  32      4*(n+1)     offsets
+ *  ..      4*m         targets
+ *  ..      4*m         weights
+ * </pre>
+ * Sections are int-aligned so each can be mapped as an {@link IntBuffer} view.
+ */
+public final class BinaryGraphFile {
+    public static final int MAGIC = 0x47414144; // "DAAG" read as little-endian
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 32;
+    private static final int FLAG_DIRECTED = 1;
+    private static final long MAX_SECTION_BYTES = Integer.MAX_VALUE; // one MappedByteBuffer per section
+
+    private BinaryGraphFile() { }
+
+    /** Converts a JSON input file (existing schema) to the binary format. */
+    public static void convert(Path json, Path bin) throws IOException {
+        JsonGraphLoader.Result in = JsonGraphLoader.load(json);
+        write(in.graph, in.source, bin);
+    }
+
+    /** Writes a graph in one sequential pass per section through a 1 MiB staging buffer. */
+    public static void write(GraphView g, int source, Path file) throws IOException {
+        int n = g.n(), m = g.m();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(g.directed() ? FLAG_DIRECTED : 0).putInt(n)
+               .putLong(m).putInt(source).putInt(0);
+
+            putInt(ch, buf, 0);
+            for (int u = 0; u < n; u++) putInt(ch, buf, g.end(u));
+            for (int i = 0; i < m; i++) putInt(ch, buf, g.target(i));
+            for (int i = 0; i < m; i++) putInt(ch, buf, g.weight(i));
+            drain(ch, buf);
+        }
+    }
+
+    private static void putInt(FileChannel ch, ByteBuffer buf, int v) throws IOException {
+        if (buf.remaining() < 4) drain(ch, buf);
+        buf.putInt(v);
+    }
+
+    private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    /**
+     * Opens a writer for arcs that arrive grouped by tail in vertex order, e.g. from a generator,
+     * so nothing but the offsets has to be held in memory. Targets and weights go to their own
+     * sections through separate staging buffers; close() fails if fewer arcs than offsets[n] came in.
+     */
+    public static StreamWriter stream(Path file, int[] offsets, boolean directed, int source) throws IOException {
+        return new StreamWriter(file, offsets, directed, source);
+    }
+
+    public static final class StreamWriter implements Closeable {
+        private final FileChannel ch;
+        private final ByteBuffer targets, weights;
+        private final long m;
+        private long targetPos, weightPos, written;
+
+        private StreamWriter(Path file, int[] offsets, boolean directed, int source) throws IOException {
+            int n = offsets.length - 1;
+            m = offsets[n];
+            ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(directed ? FLAG_DIRECTED : 0).putInt(n)
+               .putLong(m).putInt(source).putInt(0);
+            for (int off : offsets) putInt(ch, buf, off);
+            drain(ch, buf);
+            targetPos = HEADER_BYTES + 4L * (n + 1);
+            weightPos = targetPos + 4L * m;
+            targets = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            weights = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /** Appends the next arc (its tail is implied by the offsets). */
+        public void arc(int target, int weight) throws IOException {
+            if (written++ == m) throw new IllegalStateException("More arcs than offsets[n] = " + m);
+            if (!targets.hasRemaining()) targetPos = drainAt(targets, targetPos);
+            if (!weights.hasRemaining()) weightPos = drainAt(weights, weightPos);
+            targets.putInt(target);
+            weights.putInt(weight);
+        }
+
+        private long drainAt(ByteBuffer buf, long pos) throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) pos += ch.write(buf, pos);
+            buf.clear();
+            return pos;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                targetPos = drainAt(targets, targetPos);
+                weightPos = drainAt(weights, weightPos);
+                if (written != m) throw new IOException("Wrote " + written + " arcs, header says " + m);
+            } finally {
+                ch.close();
+            }
+        }
+    }
+
+    /** Maps a binary graph read-only; nothing but the header is read eagerly. */
+    public static MappedGraph map(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header h = Header.read(ch, file);
+            // the mappings stay valid after the channel is closed
+            IntBuffer offsets = section(ch, HEADER_BYTES, h.offBytes());
+            IntBuffer targets = section(ch, HEADER_BYTES + h.offBytes(), h.arcBytes());
+            IntBuffer weights = section(ch, HEADER_BYTES + h.offBytes() + h.arcBytes(), h.arcBytes());
+            return new MappedGraph(h.n, (int) h.m, h.directed, h.source, offsets, targets, weights);
+        }
+    }
+
+    /**
+     * Reads a binary graph into native memory. Unlike {@link #map} the sections stay resident
+     * however much the page cache is squeezed, and unlike a {@link graph.model.CsrGraph} they are
+     * not on the heap; the caller owns the result and must close it.
+     */
+    public static OffHeapGraph load(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header h = Header.read(ch, file);
+            ByteBuffer offsets = OffHeapGraph.allocate(h.n + 1L);
+            ByteBuffer targets = null, weights = null;
+            try {
+                targets = OffHeapGraph.allocate(h.m);
+                weights = OffHeapGraph.allocate(h.m);
+                readFully(ch, offsets, HEADER_BYTES, file);
+                readFully(ch, targets, HEADER_BYTES + h.offBytes(), file);
+                readFully(ch, weights, HEADER_BYTES + h.offBytes() + h.arcBytes(), file);
+                return OffHeapGraph.wrap(h.n, h.directed, offsets, targets, weights);
+            } catch (IOException | RuntimeException e) {
+                // the graph never took ownership: release what was allocated
+                OffHeapGraph.free(offsets, targets, weights);
+                throw e;
+            }
+        }
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer dst, long pos, Path file) throws IOException {
+        while (dst.hasRemaining()) {
+            int r = ch.read(dst, pos);
+            if (r < 0) throw new IOException(file + ": truncated section at " + pos);
+            pos += r;
+        }
+        dst.clear();
+        if (dst.order() != ByteOrder.LITTLE_ENDIAN) { // file is little-endian, sections are native order
+            ByteBuffer le = dst.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < dst.capacity(); i += 4) dst.putInt(i, le.getInt(i));
+        }
+    }
+
+    /** Validated header fields. */
+    static final class Header {
+        final boolean directed;
+        final int n, source;
+        final long m;
+
+        Header(boolean directed, int n, long m, int source) {
+            this.directed = directed;
+            this.n = n;
+            this.m = m;
+            this.source = source;
+        }
+
+        long offBytes() { return 4L * (n + 1); }
+
+        long arcBytes() { return 4L * m; }
+
+        static Header read(FileChannel ch, Path file) throws IOException {
+            ByteBuffer h = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (h.hasRemaining() && ch.read(h) >= 0) { }
+            if (h.hasRemaining()) throw new IOException(file + ": truncated header");
+            h.flip();
+            if (h.getInt() != MAGIC) throw new IOException(file + ": not a DAAG graph file");
+            int version = h.getInt();
+            if (version != VERSION) throw new IOException(file + ": unsupported version " + version);
+            boolean directed = (h.getInt() & FLAG_DIRECTED) != 0;
+            int n = h.getInt();
+            long m = h.getLong();
+            int source = h.getInt();
+            Header hd = new Header(directed, n, m, source);
+
+            if (n < 0 || m < 0 || hd.offBytes() > MAX_SECTION_BYTES || hd.arcBytes() > MAX_SECTION_BYTES)
+                throw new IOException(file + ": section too large for a single buffer (n=" + n + ", m=" + m + ")");
+            long expected = HEADER_BYTES + hd.offBytes() + 2 * hd.arcBytes();
+            if (ch.size() != expected)
+                throw new IOException(file + ": size " + ch.size() + " does not match header (expected " + expected + ")");
+            return hd;
+        }
+    }
+
+    private static IntBuffer section(FileChannel ch, long pos, long bytes) throws IOException {
+        return ch.map(FileChannel.MapMode.READ_ONLY, pos, bytes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    /** Usage: BinaryGraphFile input.json output.bin */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BinaryGraphFile <input.json> <output.bin>");
+            System.exit(2);
+        }
+        long t0 = System.nanoTime();
+        convert(Path.of(args[0]), Path.of(args[1]));
+        System.out.printf("Converted %s -> %s in %.1f ms%n", args[0], args[1], (System.nanoTime() - t0) / 1e6);
+    }
+}
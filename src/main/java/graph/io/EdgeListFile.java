@@ -0,0 +1,90 @@
+package graph.io;
+
+import graph.model.GraphView;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Unsorted arc list on disk, for graphs that arrive as a stream of edges rather than grouped by
+ * tail (the input of {@link ExternalCondensation}):
+ * <pre>
+ *  offset  size        field
+ *  0       4           magic "DAAE"
+ *  4       4           version (1)
+ *  8       4           flags (bit 0 = directed; undirected edges are read in both directions)
+ *  12      4           n
+ *  16      8           m
+ *  24      12*m        (u, v, w) triples
+ * </pre>
+ * Little-endian like {@link BinaryGraphFile}.
+ */
+public final class EdgeListFile {
+    public static final int MAGIC = 0x45414144; // "DAAE" read as little-endian
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 24;
+    static final int FLAG_DIRECTED = 1;
+
+    private EdgeListFile() { }
+
+    /** Writes every arc of a graph view (CSR order). */
+    public static void write(GraphView g, Path file) throws IOException {
+        try (Writer w = writer(file, g.n(), true)) {
+            for (int u = 0; u < g.n(); u++)
+                for (int a = g.begin(u); a < g.end(u); a++) w.edge(u, g.target(a), g.weight(a));
+        }
+    }
+
+    /** Opens a writer; m is filled into the header on close. */
+    public static Writer writer(Path file, int n, boolean directed) throws IOException {
+        return new Writer(file, n, directed);
+    }
+
+    public static final class Writer implements Closeable {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private final int n;
+        private long m;
+
+        private Writer(Path file, int n, boolean directed) throws IOException {
+            if (n < 0) throw new IllegalArgumentException("n must be non-negative: " + n);
+            this.n = n;
+            ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(directed ? FLAG_DIRECTED : 0).putInt(n).putLong(0);
+        }
+
+        public Writer edge(int u, int v, int w) throws IOException {
+            if (u < 0 || u >= n || v < 0 || v >= n)
+                throw new IndexOutOfBoundsException("Edge " + u + "->" + v + " out of range [0," + n + ")");
+            if (buf.remaining() < 12) drain();
+            buf.putInt(u).putInt(v).putInt(w);
+            m++;
+            return this;
+        }
+
+        public long size() { return m; }
+
+        private void drain() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+                ByteBuffer count = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, m);
+                while (count.hasRemaining()) ch.write(count, 16 + count.position());
+            } finally {
+                ch.close();
+            }
+        }
+    }
+}
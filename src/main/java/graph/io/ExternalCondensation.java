@@ -0,0 +1,771 @@
+package graph.io;
+
+import graph.metrics.Metrics;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.scc.Components;
+import graph.scc.TarjanSCC;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SCC and condensation of a graph whose arcs live on disk ({@link EdgeListFile} or
+ * {@link BinaryGraphFile}) and need not fit in memory. Only O(n) vertex state is held; arcs are
+ * streamed in full scans and at most {@code memoryBudget} bytes of them are buffered at a time.
+ * <ol>
+ *   <li>Contraction: each scan cuts the arcs into chunks that fit the budget, runs Tarjan on a
+ *       chunk (arcs mapped to current representatives) and merges every cycle it finds in a
+ *       union-find. Vertices strongly connected inside a chunk are so in the whole graph, so the
+ *       merges are always safe; each scan leaves fewer arcs between distinct representatives.</li>
+ *   <li>As soon as those arcs fit the budget, one more scan loads them and an in-memory Tarjan
+ *       finishes the job.</li>
+ *   <li>If contraction stalls (cycles spread over many chunks), forward-backward colouring takes
+ *       over: max-colour propagation forward, then backward from each colour's root inside its
+ *       colour, fixes at least one SCC per colour per round with scans only. It retries the
+ *       in-memory finish after every round.</li>
+ * </ol>
+ * The condensation is built by external sort: inter-component arcs are radix-sorted in
+ * budget-sized runs (stable, so FIRST keeps the first arc in scan order), merged with parallel
+ * arcs combined by the weight policy, and streamed into a {@link BinaryGraphFile}. Runs are
+ * merged in passes of bounded fan-in, so no merge opens more files or buffers than the budget allows.
+ * Component ids are written as a small int file ({@link #readCompIds}).
+ */
+public final class ExternalCondensation {
+    /** Smallest usable budget. */
+    public static final long MIN_BUDGET = 64L << 10;
+    public static final int COMP_MAGIC = 0x43414144; // "DAAC"
+    private static final int MAX_IO_BUFFER = 1 << 20;
+    // smallest read buffer per run in a merge (341 records), and most run files open at once
+    private static final int MIN_RUN_BUFFER = 4092;
+    private static final int MAX_FAN_IN = 512;
+    // chunk arc: two buffered ids, local CSR target + weight, Tarjan state of up to two local vertices
+    private static final int BYTES_PER_CHUNK_ARC = 52;
+    // sorted arc: key + weight, plus the radix sort's scratch copy
+    private static final int BYTES_PER_SORT_ARC = 24;
+
+    /** Output files and what it took to produce them. */
+    public static final class Result {
+        public final int n;
+        public final long arcs;
+        public final int compCount;
+        public final long dagArcs;
+        public final Path compIdFile;
+        public final Path dagFile;
+        public final int contractionPasses;
+        public final int coloringRounds;
+        public final int scans;
+        public final int sortRuns;
+        public final int mergePasses;
+        public final long bytesRead;
+        public final long bytesWritten;
+        public final long sccNanos;
+        public final long condensationNanos;
+
+        Result(int n, long arcs, int compCount, long dagArcs, Path compIdFile, Path dagFile, int contractionPasses,
+               int coloringRounds, int scans, int sortRuns, int mergePasses, long bytesRead, long bytesWritten,
+               long sccNanos, long condensationNanos) {
+            this.n = n;
+            this.arcs = arcs;
+            this.compCount = compCount;
+            this.dagArcs = dagArcs;
+            this.compIdFile = compIdFile;
+            this.dagFile = dagFile;
+            this.contractionPasses = contractionPasses;
+            this.coloringRounds = coloringRounds;
+            this.scans = scans;
+            this.sortRuns = sortRuns;
+            this.mergePasses = mergePasses;
+            this.bytesRead = bytesRead;
+            this.bytesWritten = bytesWritten;
+            this.sccNanos = sccNanos;
+            this.condensationNanos = condensationNanos;
+        }
+    }
+
+    private final long budget;
+    private final Condensation.WeightPolicy policy;
+    private final Metrics metrics;
+    private final int io; // bytes per I/O buffer; three are live at a time, all within the budget
+
+    /** {@code memoryBudget}: bytes for arc buffers and I/O buffers, on top of O(n) vertex arrays. */
+    public ExternalCondensation(long memoryBudget, Condensation.WeightPolicy policy, Metrics metrics) {
+        if (memoryBudget < MIN_BUDGET)
+            throw new IllegalArgumentException("Memory budget below " + MIN_BUDGET + " bytes: " + memoryBudget);
+        this.budget = memoryBudget;
+        this.policy = policy;
+        this.metrics = metrics;
+        this.io = (int) Math.min(MAX_IO_BUFFER, memoryBudget / 16) / 24 * 24; // whole records of 8 and 12 bytes
+    }
+
+    /** Writes {@code compId.bin} and {@code condensation.bin} (a BinaryGraphFile) into {@code outDir}. */
+    public Result run(Path input, Path outDir) throws IOException {
+        Files.createDirectories(outDir);
+        try (ArcInput in = ArcInput.open(input, io)) {
+            Job job = new Job(in, outDir);
+            return job.run();
+        }
+    }
+
+    /** Reads a component id file written by {@link #run}. */
+    public static int[] readCompIds(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer h = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(ch, h, 0, file);
+            if (h.getInt(0) != COMP_MAGIC) throw new IOException(file + ": not a component id file");
+            int n = h.getInt(8);
+            if (ch.size() != 16 + 4L * n) throw new IOException(file + ": size does not match n=" + n);
+            ByteBuffer body = ByteBuffer.allocate(4 * n).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(ch, body, 16, file);
+            int[] compId = new int[n];
+            body.asIntBuffer().get(compId);
+            return compId;
+        }
+    }
+
+    private final class Job {
+        final ArcInput in;
+        final Path outDir;
+        final int n;
+        final int chunkCap;
+        final int[] parent;          // union-find over vertices
+        boolean[] assigned;          // colouring: representative's SCC is final
+        long bytesWritten;
+        int contractionPasses, coloringRounds, sortRuns, mergePasses;
+
+        // chunk buffers, reused
+        int[] ca, cb, glob;
+        final int[] local;
+        int size;
+
+        Job(ArcInput in, Path outDir) {
+            this.in = in;
+            this.outDir = outDir;
+            this.n = in.n;
+            long cap = (budget - 3L * io) / BYTES_PER_CHUNK_ARC;
+            this.chunkCap = (int) Math.min(cap, Integer.MAX_VALUE / 2 - 8);
+            parent = new int[n];
+            for (int v = 0; v < n; v++) parent[v] = v;
+            int bufCap = (int) Math.min(chunkCap, Math.max(16, in.arcs()));
+            ca = new int[bufCap];
+            cb = new int[bufCap];
+            local = new int[n];
+            Arrays.fill(local, -1);
+            glob = new int[(int) Math.min(n, 2L * bufCap)];
+        }
+
+        Result run() throws IOException {
+            Metrics.Span span = metrics.begin(Metrics.Phase.SCC);
+            long t0 = System.nanoTime();
+            if (in.arcs() <= chunkCap) {
+                finishInMemory();
+            } else {
+                long previous = Long.MAX_VALUE;
+                for (;;) {
+                    long[] pass = contract(); // {arcs between distinct representatives, merges}
+                    contractionPasses++;
+                    if (pass[0] <= chunkCap && finishInMemory()) break;
+                    if (pass[1] == 0 || pass[0] > 0.95 * previous) {
+                        colour();
+                        break;
+                    }
+                    previous = pass[0];
+                }
+            }
+            int[] compId = new int[n];
+            int compCount = number(compId);
+            Path compFile = outDir.resolve("compId.bin");
+            writeCompIds(compFile, compId, compCount);
+            ca = cb = glob = null; // the sort runs get the whole budget
+            long t1 = System.nanoTime();
+            span.end();
+
+            Metrics.Span cspan = metrics.begin(Metrics.Phase.CONDENSATION);
+            Path dagFile = outDir.resolve("condensation.bin");
+            long dagArcs = condense(compId, compCount, dagFile);
+            long t2 = System.nanoTime();
+            cspan.end();
+            return new Result(n, in.arcs(), compCount, dagArcs, compFile, dagFile, contractionPasses, coloringRounds,
+                    in.scans, sortRuns, mergePasses, in.bytesRead, bytesWritten, t1 - t0, t2 - t1);
+        }
+
+        int find(int v) {
+            while (parent[v] != v) {
+                parent[v] = parent[parent[v]];
+                v = parent[v];
+            }
+            return v;
+        }
+
+        /** One contraction scan; returns {arcs between distinct live representatives, merges}. */
+        long[] contract() throws IOException {
+            long[] live = {0}, merges = {0};
+            size = 0;
+            in.scan((u, v, w) -> {
+                int a = find(u), b = find(v);
+                if (a == b) return;
+                live[0]++;
+                ca[size] = a;
+                cb[size] = b;
+                if (++size == ca.length) merges[0] += flushChunk();
+            });
+            merges[0] += flushChunk();
+            return new long[]{live[0], merges[0]};
+        }
+
+        /**
+         * Loads every arc between distinct unassigned representatives and finishes with one Tarjan,
+         * unless there are more than the chunk capacity (then nothing changes and false is returned).
+         */
+        boolean finishInMemory() throws IOException {
+            size = 0;
+            try {
+                in.scan((u, v, w) -> {
+                    int a = find(u), b = find(v);
+                    if (a == b || assigned != null && (assigned[a] || assigned[b])) return;
+                    if (size == ca.length) throw StopScan.INSTANCE;
+                    ca[size] = a;
+                    cb[size] = b;
+                    size++;
+                });
+            } catch (StopScan full) {
+                size = 0;
+                return false;
+            }
+            flushChunk();
+            return true;
+        }
+
+        /** Tarjan over the buffered arcs (re-mapped to current representatives); merges every cycle. */
+        int flushChunk() {
+            int ln = 0, k = 0;
+            for (int i = 0; i < size; i++) {
+                int a = find(ca[i]), b = find(cb[i]);
+                if (a == b) continue;
+                if (local[a] < 0) { local[a] = ln; glob[ln++] = a; }
+                if (local[b] < 0) { local[b] = ln; glob[ln++] = b; }
+                ca[k] = local[a];
+                cb[k] = local[b];
+                k++;
+            }
+            size = 0;
+            if (k == 0) return 0;
+            int[] off = new int[ln + 1], t = new int[k];
+            for (int i = 0; i < k; i++) off[ca[i] + 1]++;
+            for (int x = 0; x < ln; x++) off[x + 1] += off[x];
+            int[] pos = Arrays.copyOf(off, ln);
+            for (int i = 0; i < k; i++) t[pos[ca[i]]++] = cb[i];
+            Components c = TarjanSCC.run(CsrGraph.of(ln, true, off, t, new int[k]), Metrics.NOOP);
+
+            int merges = 0;
+            for (int comp = 0; comp < c.compCount; comp++) {
+                int first = find(glob[c.members[c.offsets[comp]]]);
+                for (int i = c.offsets[comp] + 1; i < c.offsets[comp + 1]; i++) {
+                    int r = find(glob[c.members[i]]);
+                    if (r == first) continue;
+                    parent[r] = first; // glob ids are representatives, so this is a plain link
+                    merges++;
+                }
+            }
+            for (int x = 0; x < ln; x++) local[glob[x]] = -1;
+            return merges;
+        }
+
+        /** Forward-backward colouring rounds, scan only, until the rest fits in memory. */
+        void colour() throws IOException {
+            assigned = new boolean[n];
+            int[] color = new int[n];
+            boolean[] inScc = new boolean[n];
+            boolean[] changed = new boolean[1];
+            while (!finishInMemory()) {
+                coloringRounds++;
+                for (int v = 0; v < n; v++) {
+                    color[v] = v;
+                    inScc[v] = false;
+                }
+                do {
+                    changed[0] = false;
+                    in.scan((u, v, w) -> {
+                        int a = find(u), b = find(v);
+                        if (a == b || assigned[a] || assigned[b]) return;
+                        if (color[a] > color[b]) {
+                            color[b] = color[a];
+                            changed[0] = true;
+                        }
+                    });
+                } while (changed[0]);
+                for (int v = 0; v < n; v++) if (parent[v] == v && !assigned[v] && color[v] == v) inScc[v] = true;
+                do {
+                    changed[0] = false;
+                    in.scan((u, v, w) -> {
+                        int a = find(u), b = find(v);
+                        if (a == b || assigned[a] || assigned[b]) return;
+                        if (color[a] == color[b] && inScc[b] && !inScc[a]) {
+                            inScc[a] = true;
+                            changed[0] = true;
+                        }
+                    });
+                } while (changed[0]);
+                for (int v = 0; v < n; v++) {
+                    if (parent[v] != v || assigned[v] || !inScc[v]) continue;
+                    assigned[v] = true;
+                    assigned[color[v]] = true;
+                    if (v != color[v]) parent[v] = color[v]; // the colour root is a representative too
+                }
+            }
+        }
+
+        /** Dense ids in order of each component's smallest vertex. */
+        int number(int[] compId) {
+            int[] id = new int[n];
+            Arrays.fill(id, -1);
+            int count = 0;
+            for (int v = 0; v < n; v++) {
+                int r = find(v);
+                if (id[r] < 0) id[r] = count++;
+                compId[v] = id[r];
+            }
+            return count;
+        }
+
+        void writeCompIds(Path file, int[] compId, int compCount) throws IOException {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buf = ByteBuffer.allocateDirect(io).order(ByteOrder.LITTLE_ENDIAN);
+                buf.putInt(COMP_MAGIC).putInt(1).putInt(n).putInt(compCount);
+                for (int c : compId) {
+                    if (!buf.hasRemaining()) drain(ch, buf);
+                    buf.putInt(c);
+                }
+                drain(ch, buf);
+            }
+            bytesWritten += 16 + 4L * n;
+        }
+
+        // ---- condensation by external sort ----
+
+        long condense(int[] compId, int compCount, Path dagFile) throws IOException {
+            int cap = (int) Math.min(Math.min((budget - 3L * io) / BYTES_PER_SORT_ARC, Integer.MAX_VALUE - 8),
+                    Math.max(16, in.arcs()));
+            long[] key = new long[cap], key2 = new long[cap];
+            int[] w = new int[cap], w2 = new int[cap];
+            List<Path> runs = new ArrayList<>();
+            int[] fill = {0};
+            in.scan((u, v, wt) -> {
+                int a = compId[u], b = compId[v];
+                if (a == b) return;
+                if (fill[0] == cap) { // spill only once another arc arrives, so a full buffer can stay in memory
+                    runs.add(spill(key, w, key2, w2, fill[0], runs.size()));
+                    fill[0] = 0;
+                }
+                key[fill[0]] = (long) a << 32 | b;
+                w[fill[0]] = wt;
+                fill[0]++;
+            });
+
+            int[] offsets = new int[compCount + 1];
+            Path arcs = outDir.resolve("condensation.arcs.tmp");
+            try {
+                long m;
+                if (runs.isEmpty()) { // everything fit: no temporary files
+                    int k = dedup(key, w, key2, w2, fill[0]);
+                    for (int i = 0; i < k; i++) offsets[(int) (key[i] >>> 32) + 1]++;
+                    m = k;
+                    prefix(offsets);
+                    try (BinaryGraphFile.StreamWriter out = BinaryGraphFile.stream(dagFile, offsets, true, source(compId))) {
+                        for (int i = 0; i < k; i++) out.arc((int) key[i], w[i]);
+                    }
+                } else {
+                    if (fill[0] > 0) runs.add(spill(key, w, key2, w2, fill[0], runs.size()));
+                    m = merge(runs, offsets, arcs);
+                    prefix(offsets);
+                    copyArcs(arcs, m, offsets, dagFile, source(compId));
+                }
+                bytesWritten += Files.size(dagFile);
+                return m;
+            } finally {
+                for (Path r : runs) Files.deleteIfExists(r);
+                Files.deleteIfExists(arcs);
+            }
+        }
+
+        int source(int[] compId) {
+            return in.source >= 0 && in.source < n ? compId[in.source] : 0;
+        }
+
+        /** Sorts, deduplicates and writes one run of (key, weight) records. */
+        Path spill(long[] key, int[] w, long[] key2, int[] w2, int size, int index) throws IOException {
+            int k = dedup(key, w, key2, w2, size);
+            Path run = outDir.resolve("condensation.run" + index + ".tmp");
+            sortRuns++;
+            try (FileChannel ch = FileChannel.open(run, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buf = ByteBuffer.allocateDirect(io).order(ByteOrder.LITTLE_ENDIAN);
+                for (int i = 0; i < k; i++) {
+                    if (buf.remaining() < 12) drain(ch, buf);
+                    buf.putLong(key[i]).putInt(w[i]);
+                }
+                drain(ch, buf);
+            }
+            bytesWritten += 12L * k;
+            return run;
+        }
+
+        /** Stable radix sort by key, then parallel arcs combined by the policy; returns the new size. */
+        int dedup(long[] key, int[] w, long[] key2, int[] w2, int size) {
+            long[] k1 = key, k2 = key2;
+            int[] v1 = w, v2 = w2;
+            int[] count = new int[1 << 16];
+            for (int shift = 0; shift < 64; shift += 16) {
+                Arrays.fill(count, 0);
+                for (int i = 0; i < size; i++) count[(int) (k1[i] >>> shift) & 0xFFFF]++;
+                if (size == 0 || count[(int) (k1[0] >>> shift) & 0xFFFF] == size) continue; // digit constant
+                for (int d = 0, sum = 0; d < count.length; d++) {
+                    int c = count[d];
+                    count[d] = sum;
+                    sum += c;
+                }
+                for (int i = 0; i < size; i++) {
+                    int p = count[(int) (k1[i] >>> shift) & 0xFFFF]++;
+                    k2[p] = k1[i];
+                    v2[p] = v1[i];
+                }
+                long[] tk = k1; k1 = k2; k2 = tk;
+                int[] tv = v1; v1 = v2; v2 = tv;
+            }
+            int k = 0;
+            for (int i = 0; i < size; i++) {
+                if (k > 0 && k1[i] == key[k - 1]) {
+                    w[k - 1] = policy.combine(w[k - 1], v1[i]);
+                } else {
+                    key[k] = k1[i];
+                    w[k] = v1[i];
+                    k++;
+                }
+            }
+            return k;
+        }
+
+        /**
+         * Merges the runs down to at most {@link #fanIn()} in as many passes as needed, each pass
+         * replacing groups of adjacent runs by one (so scan order among them is kept), then merges
+         * those into the (target, weight) arc file; returns the number of DAG arcs.
+         */
+        long merge(List<Path> runs, int[] offsets, Path arcs) throws IOException {
+            int fanIn = fanIn();
+            while (runs.size() > fanIn) {
+                mergePasses++;
+                for (int g = 0; g < runs.size(); g++) {
+                    int end = Math.min(runs.size(), g + fanIn);
+                    if (end - g < 2) continue;
+                    List<Path> group = new ArrayList<>(runs.subList(g, end));
+                    Path merged = outDir.resolve("condensation.merge" + mergePasses + "." + g + ".tmp");
+                    runs.add(end, merged); // listed before it exists, so the caller deletes it on failure
+                    bytesWritten += 12 * merge(group, merged, null);
+                    for (Path r : group) Files.delete(r);
+                    runs.subList(g, end).clear();
+                }
+            }
+            long m = merge(runs, arcs, offsets);
+            bytesWritten += 8 * m;
+            return m;
+        }
+
+        /** Runs merged at once: each gets at least {@link #MIN_RUN_BUFFER} bytes of the budget. */
+        int fanIn() {
+            return (int) Math.max(2, Math.min(MAX_FAN_IN, (budget - 2L * io) / MIN_RUN_BUFFER));
+        }
+
+        /**
+         * K-way merge of the runs (ties go to the earlier run, i.e. earlier in scan order), combining
+         * equal keys. With {@code offsets} it writes (target, weight) pairs in key order and counts
+         * out-degrees, otherwise (key, weight) records of a new run; returns the records written.
+         */
+        long merge(List<Path> runs, Path outFile, int[] offsets) throws IOException {
+            int r = runs.size();
+            int perRun = (int) (Math.max(MIN_RUN_BUFFER, Math.min(io, (budget - 2L * io) / r)) / 12 * 12);
+            RunReader[] readers = new RunReader[r];
+            try (FileChannel out = FileChannel.open(outFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                int[] heap = new int[r];
+                int hs = 0;
+                for (int i = 0; i < r; i++) {
+                    readers[i] = new RunReader(runs.get(i), perRun);
+                    if (readers[i].next()) heap[hs++] = i;
+                }
+                for (int i = hs / 2 - 1; i >= 0; i--) siftDown(heap, hs, i, readers);
+                ByteBuffer buf = ByteBuffer.allocateDirect(io).order(ByteOrder.LITTLE_ENDIAN);
+                long m = 0, lastKey = -1;
+                int lastW = 0;
+                while (hs > 0) {
+                    RunReader top = readers[heap[0]];
+                    long k = top.key;
+                    int wt = top.w;
+                    if (top.next()) siftDown(heap, hs, 0, readers);
+                    else {
+                        heap[0] = heap[--hs];
+                        siftDown(heap, hs, 0, readers);
+                    }
+                    if (k == lastKey) {
+                        lastW = policy.combine(lastW, wt);
+                        continue;
+                    }
+                    if (lastKey >= 0) m += emit(out, buf, lastKey, lastW, offsets);
+                    lastKey = k;
+                    lastW = wt;
+                }
+                if (lastKey >= 0) m += emit(out, buf, lastKey, lastW, offsets);
+                drain(out, buf);
+                return m;
+            } finally {
+                for (RunReader rr : readers) if (rr != null) rr.close();
+            }
+        }
+
+        int emit(FileChannel out, ByteBuffer buf, long key, int w, int[] offsets) throws IOException {
+            if (buf.remaining() < 12) drain(out, buf);
+            if (offsets == null) {
+                buf.putLong(key).putInt(w);
+            } else {
+                buf.putInt((int) key).putInt(w);
+                offsets[(int) (key >>> 32) + 1]++;
+            }
+            return 1;
+        }
+
+        void siftDown(int[] heap, int size, int i, RunReader[] readers) {
+            for (;;) {
+                int l = 2 * i + 1;
+                if (l >= size) return;
+                int c = l + 1 < size && before(readers, heap[l + 1], heap[l]) ? l + 1 : l;
+                if (!before(readers, heap[c], heap[i])) return;
+                int t = heap[i]; heap[i] = heap[c]; heap[c] = t;
+                i = c;
+            }
+        }
+
+        boolean before(RunReader[] readers, int x, int y) {
+            long kx = readers[x].key, ky = readers[y].key;
+            return kx != ky ? kx < ky : x < y;
+        }
+
+        void copyArcs(Path arcs, long m, int[] offsets, Path dagFile, int source) throws IOException {
+            try (FileChannel ch = FileChannel.open(arcs, StandardOpenOption.READ);
+                 BinaryGraphFile.StreamWriter out = BinaryGraphFile.stream(dagFile, offsets, true, source)) {
+                ByteBuffer buf = ByteBuffer.allocateDirect(io).order(ByteOrder.LITTLE_ENDIAN);
+                long pos = 0, end = 8 * m;
+                while (pos < end) {
+                    buf.clear().limit((int) Math.min(buf.capacity(), end - pos));
+                    readFully(ch, buf, pos, arcs);
+                    pos += buf.limit();
+                    in.bytesRead += buf.limit();
+                    while (buf.hasRemaining()) out.arc(buf.getInt(), buf.getInt());
+                }
+            }
+        }
+
+        /** Sequential reader of one sorted run. */
+        final class RunReader implements Closeable {
+            final Path file;
+            final FileChannel ch;
+            final ByteBuffer buf;
+            final long end;
+            long pos;
+            long key;
+            int w;
+
+            RunReader(Path file, int bufBytes) throws IOException {
+                this.file = file;
+                ch = FileChannel.open(file, StandardOpenOption.READ);
+                end = ch.size();
+                buf = ByteBuffer.allocateDirect(bufBytes).order(ByteOrder.LITTLE_ENDIAN);
+                buf.limit(0);
+            }
+
+            boolean next() throws IOException {
+                if (!buf.hasRemaining()) {
+                    if (pos >= end) return false;
+                    buf.clear().limit((int) Math.min(buf.capacity(), end - pos));
+                    readFully(ch, buf, pos, file);
+                    pos += buf.limit();
+                    in.bytesRead += buf.limit();
+                }
+                key = buf.getLong();
+                w = buf.getInt();
+                return true;
+            }
+
+            @Override public void close() throws IOException { ch.close(); }
+        }
+    }
+
+    private static void prefix(int[] offsets) {
+        for (int i = 0; i + 1 < offsets.length; i++) offsets[i + 1] += offsets[i];
+    }
+
+    /** Reads dst's remaining bytes from {@code pos}, then flips it for reading. */
+    private static void readFully(FileChannel ch, ByteBuffer dst, long pos, Path file) throws IOException {
+        int start = dst.position();
+        while (dst.hasRemaining()) {
+            int r = ch.read(dst, pos + dst.position() - start);
+            if (r < 0) throw new IOException(file + ": unexpected end of file");
+        }
+        dst.flip();
+    }
+
+    private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    /** Thrown (without a stack trace) to end a scan early. */
+    private static final class StopScan extends RuntimeException {
+        static final StopScan INSTANCE = new StopScan();
+
+        private StopScan() { super(null, null, false, false); }
+    }
+
+    @FunctionalInterface
+    interface ArcVisitor {
+        void arc(int u, int v, int w) throws IOException;
+    }
+
+    /** Streams the arcs of an edge-list or CSR file through fixed-size buffers; counts scans and bytes. */
+    abstract static class ArcInput implements Closeable {
+        final FileChannel ch;
+        final Path file;
+        final int n;
+        final int source;
+        long bytesRead;
+        int scans;
+
+        ArcInput(FileChannel ch, Path file, int n, int source) {
+            this.ch = ch;
+            this.file = file;
+            this.n = n;
+            this.source = source;
+        }
+
+        /** Arcs delivered per scan. */
+        abstract long arcs();
+
+        abstract void scan(ArcVisitor visitor) throws IOException;
+
+        @Override public void close() throws IOException { ch.close(); }
+
+        static ArcInput open(Path file, int bufferBytes) throws IOException {
+            FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(ch, magic, 0, file);
+                int mg = magic.getInt(0);
+                if (mg == EdgeListFile.MAGIC) return new EdgeList(ch, file, bufferBytes);
+                if (mg == BinaryGraphFile.MAGIC) return new Csr(ch, file, bufferBytes);
+                throw new IOException(file + ": neither an edge list nor a binary graph file");
+            } catch (IOException | RuntimeException e) {
+                ch.close();
+                throw e;
+            }
+        }
+    }
+
+    private static final class EdgeList extends ArcInput {
+        final long m;
+        final boolean directed;
+        final ByteBuffer buf;
+
+        EdgeList(FileChannel ch, Path file, int bufferBytes) throws IOException {
+            this(ch, file, header(ch, file), bufferBytes);
+        }
+
+        private EdgeList(FileChannel ch, Path file, ByteBuffer h, int bufferBytes) throws IOException {
+            super(ch, file, h.getInt(12), -1);
+            buf = ByteBuffer.allocateDirect(bufferBytes / 12 * 12).order(ByteOrder.LITTLE_ENDIAN);
+            if (h.getInt(4) != EdgeListFile.VERSION) throw new IOException(file + ": unsupported version " + h.getInt(4));
+            directed = (h.getInt(8) & EdgeListFile.FLAG_DIRECTED) != 0;
+            m = h.getLong(16);
+            if (n < 0 || m < 0 || ch.size() != EdgeListFile.HEADER_BYTES + 12 * m)
+                throw new IOException(file + ": size " + ch.size() + " does not match header (n=" + n + ", m=" + m + ")");
+        }
+
+        static ByteBuffer header(FileChannel ch, Path file) throws IOException {
+            ByteBuffer h = ByteBuffer.allocate(EdgeListFile.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(ch, h, 0, file);
+            return h;
+        }
+
+        @Override long arcs() { return directed ? m : 2 * m; }
+
+        @Override
+        void scan(ArcVisitor visitor) throws IOException {
+            scans++;
+            long pos = EdgeListFile.HEADER_BYTES, end = pos + 12 * m;
+            while (pos < end) {
+                buf.clear().limit((int) Math.min(buf.capacity(), end - pos));
+                readFully(ch, buf, pos, file);
+                pos += buf.limit();
+                bytesRead += buf.limit();
+                while (buf.hasRemaining()) {
+                    int u = buf.getInt(), v = buf.getInt(), w = buf.getInt();
+                    if (u < 0 || u >= n || v < 0 || v >= n)
+                        throw new IllegalStateException(file + ": edge " + u + "->" + v + " out of range [0," + n + ")");
+                    visitor.arc(u, v, w);
+                    if (!directed) visitor.arc(v, u, w);
+                }
+            }
+        }
+    }
+
+    private static final class Csr extends ArcInput {
+        final long m;
+        final int[] offsets; // O(n), kept for the tails
+        final ByteBuffer targets, weights;
+
+        Csr(FileChannel ch, Path file, int bufferBytes) throws IOException {
+            this(ch, file, BinaryGraphFile.Header.read(ch, file), bufferBytes);
+        }
+
+        private Csr(FileChannel ch, Path file, BinaryGraphFile.Header h, int bufferBytes) throws IOException {
+            super(ch, file, h.n, h.source);
+            targets = ByteBuffer.allocateDirect(bufferBytes / 8 * 4).order(ByteOrder.LITTLE_ENDIAN);
+            weights = ByteBuffer.allocateDirect(bufferBytes / 8 * 4).order(ByteOrder.LITTLE_ENDIAN);
+            m = h.m;
+            ByteBuffer off = ByteBuffer.allocate((int) h.offBytes()).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(ch, off, BinaryGraphFile.HEADER_BYTES, file);
+            bytesRead += h.offBytes();
+            offsets = new int[n + 1];
+            off.asIntBuffer().get(offsets);
+        }
+
+        @Override long arcs() { return m; }
+
+        @Override
+        void scan(ArcVisitor visitor) throws IOException {
+            scans++;
+            long tPos = BinaryGraphFile.HEADER_BYTES + 4L * (n + 1), wPos = tPos + 4 * m;
+            int u = 0;
+            for (long i = 0; i < m; ) {
+                int chunk = (int) Math.min(targets.capacity() / 4, m - i);
+                targets.clear().limit(4 * chunk);
+                weights.clear().limit(4 * chunk);
+                readFully(ch, targets, tPos + 4 * i, file);
+                readFully(ch, weights, wPos + 4 * i, file);
+                bytesRead += 8L * chunk;
+                for (int j = 0; j < chunk; j++, i++) {
+                    while (offsets[u + 1] <= i) u++;
+                    visitor.arc(u, targets.getInt(), weights.getInt());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package graph.io;
+
+import graph.model.CsrGraph;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Pull parser for the input schema {directed, n, edges:[{u,v,w}], source, weight_model, durations}.
+ * {@code durations} (one int per vertex) is optional; it carries the task durations of the
+ * {@code "node"} weight model.
+ * Edges go straight into a {@link CsrGraph.Builder} as they are read; no JSON document is
+ * built. Vertex ids are checked against n as soon as both are known.
+ */
+public final class JsonGraphLoader {
+
+    /** Parsed input: the graph plus the header fields and load statistics. */
+    public static class Result {
+        public final boolean directed;
+        public final int n;
+        public final int source;
+        public final String weightModel;
+        public final CsrGraph graph;
+        /** Per-vertex durations, or null when the input has none. */
+        public final int[] durations;
+        public final long edgesRead;
+        public final long loadNanos;
+
+        public Result(boolean directed, int n, int source, String weightModel,
+                      CsrGraph graph, long edgesRead, long loadNanos) {
+            this(directed, n, source, weightModel, graph, null, edgesRead, loadNanos);
+        }
+
+        public Result(boolean directed, int n, int source, String weightModel,
+                      CsrGraph graph, int[] durations, long edgesRead, long loadNanos) {
+            this.directed = directed;
+            this.n = n;
+            this.source = source;
+            this.weightModel = weightModel;
+            this.graph = graph;
+            this.durations = durations;
+            this.edgesRead = edgesRead;
+            this.loadNanos = loadNanos;
+        }
+
+        public double edgesPerSecond() {
+            return loadNanos == 0 ? 0 : edgesRead * 1e9 / loadNanos;
+        }
+    }
+
+    private final Reader in;
+    private final char[] buf = new char[1 << 16];
+    private int pos, lim;
+    private int line = 1;
+
+    // header state
+    private boolean directed = true;
+    private int n = -1;
+    private int source = 0;
+    private String weightModel = "edge";
+    private int[] durations;
+    private CsrGraph.Builder builder;
+    private int[] pending = new int[0];   // u,v,w triples read before "n" was seen
+    private int pendingSize;
+    private long edgesRead;
+
+    private JsonGraphLoader(Reader in) { this.in = in; }
+
+    public static Result load(Path file) throws IOException {
+        try (InputStream is = Files.newInputStream(file)) {
+            return load(is);
+        }
+    }
+
+    public static Result load(InputStream is) throws IOException {
+        return load(new InputStreamReader(is, StandardCharsets.UTF_8));
+    }
+
+    public static Result load(Reader reader) throws IOException {
+        long t0 = System.nanoTime();
+        JsonGraphLoader p = new JsonGraphLoader(reader);
+        p.parseRoot();
+        CsrGraph g = p.finish();
+        long t1 = System.nanoTime();
+        return new Result(p.directed, p.n, p.source, p.weightModel, g, p.durations, p.edgesRead, t1 - t0);
+    }
+
+    // ---- schema ----
+
+    private void parseRoot() throws IOException {
+        expect('{');
+        if (peekClean() == '}') { next(); return; }
+        do {
+            String key = readString();
+            expect(':');
+            switch (key) {
+                case "directed":     setDirected(readBoolean()); break;
+                case "n":            setN(readInt()); break;
+                case "source":       source = readInt(); break;
+                case "weight_model": weightModel = readString(); break;
+                case "edges":        readEdges(); break;
+                case "durations":    readDurations(); break;
+                default:             skipValue();
+            }
+        } while (commaOr('}'));
+        if (peekClean() != -1) throw error("Trailing content after root object");
+    }
+
+    private void setDirected(boolean value) {
+        if (builder != null && builder.size() > 0 && value != directed)
+            throw error("\"directed\" must come before the edges");
+        if (builder != null && value != directed) builder = new CsrGraph.Builder(n, value); // still empty
+        directed = value;
+    }
+
+    private void setN(int value) {
+        if (value < 0) throw error("n must be non-negative: " + value);
+        if (builder != null) throw error("Duplicate \"n\"");
+        n = value;
+        builder = new CsrGraph.Builder(n, directed, Math.max(pendingSize / 3, 16));
+        for (int i = 0; i < pendingSize; i += 3) addEdge(pending[i], pending[i + 1], pending[i + 2]);
+        pending = null;
+    }
+
+    private void readEdges() throws IOException {
+        expect('[');
+        if (peekClean() == ']') { next(); return; }
+        do {
+            expect('{');
+            int u = -1, v = -1, w = 0;
+            boolean hasU = false, hasV = false, hasW = false;
+            if (peekClean() != '}') {
+                do {
+                    String key = readString();
+                    expect(':');
+                    switch (key) {
+                        case "u": u = readInt(); hasU = true; break;
+                        case "v": v = readInt(); hasV = true; break;
+                        case "w": w = readInt(); hasW = true; break;
+                        default:  skipValue();
+                    }
+                } while (commaOr('}'));
+            } else {
+                next();
+            }
+            if (!hasU || !hasV || !hasW) throw error("Edge #" + edgesRead + " must have u, v and w");
+
+            if (builder != null) {
+                addEdge(u, v, w);
+            } else {
+                if (pendingSize + 3 > pending.length) pending = Arrays.copyOf(pending, Math.max(48, pending.length * 2));
+                pending[pendingSize++] = u;
+                pending[pendingSize++] = v;
+                pending[pendingSize++] = w;
+            }
+            edgesRead++;
+        } while (commaOr(']'));
+    }
+
+    private void readDurations() throws IOException {
+        int[] d = new int[n >= 0 ? n : 16];
+        int k = 0;
+        expect('[');
+        if (peekClean() == ']') {
+            next();
+        } else {
+            do {
+                if (k == d.length) d = Arrays.copyOf(d, Math.max(16, k * 2));
+                d[k++] = readInt();
+            } while (commaOr(']'));
+        }
+        durations = k == d.length ? d : Arrays.copyOf(d, k);
+    }
+
+    private void addEdge(int u, int v, int w) {
+        if (u < 0 || u >= n || v < 0 || v >= n)
+            throw error("Edge " + u + "->" + v + " out of range [0," + n + ")");
+        builder.addEdge(u, v, w);
+    }
+
+    private CsrGraph finish() {
+        if (builder == null) throw error("Missing \"n\"");
+        if (source < 0 || source >= n) throw error("source " + source + " out of range [0," + n + ")");
+        if (durations != null && durations.length != n)
+            throw error("durations has " + durations.length + " entries, expected n = " + n);
+        return builder.build();
+    }
+
+    // ---- tokens ----
+
+    private int peek() throws IOException {
+        if (pos == lim) {
+            lim = in.read(buf, 0, buf.length);
+            pos = 0;
+            if (lim <= 0) { lim = 0; return -1; }
+        }
+        return buf[pos];
+    }
+
+    private int next() throws IOException {
+        int c = peek();
+        if (c != -1) pos++;
+        return c;
+    }
+
+    private int peekClean() throws IOException {
+        for (;;) {
+            int c = peek();
+            if (c == '\n') line++;
+            else if (c != ' ' && c != '\t' && c != '\r') return c;
+            pos++;
+        }
+    }
+
+    private void expect(char c) throws IOException {
+        int got = peekClean();
+        if (got != c) throw error("Expected '" + c + "' but found " + describe(got));
+        pos++;
+    }
+
+    /** Consumes ',' (returns true) or the closing bracket (returns false). */
+    private boolean commaOr(char close) throws IOException {
+        int c = peekClean();
+        pos++;
+        if (c == ',') return true;
+        if (c == close) return false;
+        throw error("Expected ',' or '" + close + "' but found " + describe(c));
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        for (;;) {
+            int c = next();
+            if (c == -1) throw error("Unterminated string");
+            if (c == '"') return sb.toString();
+            if (c != '\\') { sb.append((char) c); continue; }
+            int e = next();
+            switch (e) {
+                case '"': case '\\': case '/': sb.append((char) e); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u': {
+                    int cp = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int d = Character.digit(next(), 16);
+                        if (d < 0) throw error("Bad \\u escape");
+                        cp = cp * 16 + d;
+                    }
+                    sb.append((char) cp);
+                    break;
+                }
+                default: throw error("Bad escape \\" + describe(e));
+            }
+        }
+    }
+
+    /** Integer fast path; accepts integral decimals such as 3.0 like JSONObject.getInt does. */
+    private int readInt() throws IOException {
+        int c = peekClean();
+        boolean neg = c == '-';
+        if (neg) { pos++; c = peek(); }
+        if (c < '0' || c > '9') throw error("Expected a number but found " + describe(c));
+        long val = 0;
+        while (c >= '0' && c <= '9') {
+            val = val * 10 + (c - '0');
+            if (val > Integer.MAX_VALUE + 1L) throw error("Integer overflow");
+            pos++;
+            c = peek();
+        }
+        if (c == '.' || c == 'e' || c == 'E') {
+            StringBuilder sb = new StringBuilder(neg ? "-" : "").append(val);
+            while (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-' || (c >= '0' && c <= '9')) {
+                sb.append((char) c);
+                pos++;
+                c = peek();
+            }
+            double d = Double.parseDouble(sb.toString());
+            if (d != Math.rint(d) || d < Integer.MIN_VALUE || d > Integer.MAX_VALUE)
+                throw error("Expected an integer but found " + sb);
+            return (int) d;
+        }
+        val = neg ? -val : val;
+        if (val > Integer.MAX_VALUE) throw error("Integer overflow");
+        return (int) val;
+    }
+
+    private boolean readBoolean() throws IOException {
+        int c = peekClean();
+        if (c == 't') { literal("true"); return true; }
+        if (c == 'f') { literal("false"); return false; }
+        throw error("Expected a boolean but found " + describe(c));
+    }
+
+    private void literal(String word) throws IOException {
+        for (int i = 0; i < word.length(); i++) {
+            if (next() != word.charAt(i)) throw error("Expected " + word);
+        }
+    }
+
+    private void skipValue() throws IOException {
+        int c = peekClean();
+        switch (c) {
+            case '"': readString(); break;
+            case '{':
+                pos++;
+                if (peekClean() == '}') { pos++; break; }
+                do { readString(); expect(':'); skipValue(); } while (commaOr('}'));
+                break;
+            case '[':
+                pos++;
+                if (peekClean() == ']') { pos++; break; }
+                do { skipValue(); } while (commaOr(']'));
+                break;
+            case 't': literal("true"); break;
+            case 'f': literal("false"); break;
+            case 'n': literal("null"); break;
+            default:
+                if (c != '-' && (c < '0' || c > '9')) throw error("Unexpected " + describe(c));
+                pos++;
+                while ((c = peek()) != -1 && "+-.eE0123456789".indexOf(c) >= 0) pos++;
+        }
+    }
+
+    private static String describe(int c) {
+        return c == -1 ? "end of input" : "'" + (char) c + "'";
+    }
+
+    private IllegalArgumentException error(String msg) {
+        return new IllegalArgumentException(msg + " (line " + line + ")");
+    }
+}
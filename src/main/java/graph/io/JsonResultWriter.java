@@ -0,0 +1,264 @@
+package graph.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streaming JSON emitter for result documents: values are encoded straight into a 1 MiB staging
+ * buffer that is drained to a channel whenever it fills, so memory use does not depend on the size
+ * of the document. Numbers are formatted without intermediate strings, and int/long arrays are
+ * written inline on one line. Objects are indented by two spaces per level.
+ * <p>
+ * Calls must describe a well-formed document ({@code name} before every object member, matching
+ * begin/end); misuse throws {@link IllegalStateException}.
+ */
+public final class JsonResultWriter implements Closeable {
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final WritableByteChannel ch;
+    private final ByteBuffer buf = ByteBuffer.allocate(BUFFER_BYTES);
+    private final byte[] digits = new byte[20];
+    private long bytesWritten;
+
+    // one entry per open container: object?, has members?
+    private boolean[] object = new boolean[16];
+    private boolean[] nonEmpty = new boolean[16];
+    private int depth;
+    private boolean afterName;
+    private boolean done;
+
+    private JsonResultWriter(WritableByteChannel ch) { this.ch = ch; }
+
+    /** Creates (or truncates) a file. */
+    public static JsonResultWriter open(Path file) throws IOException {
+        return new JsonResultWriter(FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    /** Writes to a stream; {@link #close()} closes the stream. */
+    public static JsonResultWriter to(OutputStream out) {
+        return new JsonResultWriter(Channels.newChannel(out));
+    }
+
+    // ---- structure ----
+
+    public JsonResultWriter beginObject() throws IOException { return open(true, '{'); }
+
+    public JsonResultWriter endObject() throws IOException { return close(true, '}'); }
+
+    public JsonResultWriter beginArray() throws IOException { return open(false, '['); }
+
+    public JsonResultWriter endArray() throws IOException { return close(false, ']'); }
+
+    /** Starts an object member; the next call writes its value. */
+    public JsonResultWriter name(String key) throws IOException {
+        if (depth == 0 || !object[depth - 1] || afterName) throw new IllegalStateException("name() outside an object: " + key);
+        separator();
+        string(key);
+        put(':');
+        put(' ');
+        afterName = true;
+        return this;
+    }
+
+    // ---- values ----
+
+    public JsonResultWriter value(long v) throws IOException {
+        beforeValue();
+        number(v);
+        return this;
+    }
+
+    /** Non-finite values are written as null, which is what JSON readers expect. */
+    public JsonResultWriter value(double v) throws IOException {
+        beforeValue();
+        if (Double.isNaN(v) || Double.isInfinite(v)) ascii("null");
+        else if (v == (long) v && Math.abs(v) < 1e15) number((long) v);
+        else ascii(Double.toString(v));
+        return this;
+    }
+
+    public JsonResultWriter value(boolean v) throws IOException {
+        beforeValue();
+        ascii(v ? "true" : "false");
+        return this;
+    }
+
+    public JsonResultWriter value(String v) throws IOException {
+        beforeValue();
+        if (v == null) ascii("null");
+        else string(v);
+        return this;
+    }
+
+    public JsonResultWriter nullValue() throws IOException {
+        beforeValue();
+        ascii("null");
+        return this;
+    }
+
+    /** Inline array of a[from .. to). */
+    public JsonResultWriter array(int[] a, int from, int to) throws IOException {
+        beforeValue();
+        put('[');
+        for (int i = from; i < to; i++) {
+            if (i > from) put(',');
+            number(a[i]);
+        }
+        put(']');
+        return this;
+    }
+
+    public JsonResultWriter array(int[] a) throws IOException { return array(a, 0, a.length); }
+
+    public JsonResultWriter array(long[] a) throws IOException {
+        beforeValue();
+        put('[');
+        for (int i = 0; i < a.length; i++) {
+            if (i > 0) put(',');
+            number(a[i]);
+        }
+        put(']');
+        return this;
+    }
+
+    /** Bytes handed to the channel so far, plus whatever is still staged. */
+    public long bytesWritten() { return bytesWritten + buf.position(); }
+
+    public void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) bytesWritten += ch.write(buf);
+        buf.clear();
+    }
+
+    /** Flushes and closes the channel; fails if the document was left unfinished. */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            ch.close();
+        }
+        if (depth != 0 || (!done && bytesWritten > 0)) throw new IllegalStateException("Unterminated JSON document");
+    }
+
+    // ---- internals ----
+
+    private JsonResultWriter open(boolean isObject, char bracket) throws IOException {
+        beforeValue();
+        if (depth == object.length) {
+            object = Arrays.copyOf(object, depth * 2);
+            nonEmpty = Arrays.copyOf(nonEmpty, depth * 2);
+        }
+        object[depth] = isObject;
+        nonEmpty[depth] = false;
+        depth++;
+        put(bracket);
+        return this;
+    }
+
+    private JsonResultWriter close(boolean isObject, char bracket) throws IOException {
+        if (depth == 0 || object[depth - 1] != isObject || afterName)
+            throw new IllegalStateException("Unbalanced " + bracket);
+        depth--;
+        if (nonEmpty[depth]) newline();
+        put(bracket);
+        if (depth == 0) {
+            put('\n');
+            done = true;
+        }
+        return this;
+    }
+
+    private void beforeValue() throws IOException {
+        if (done) throw new IllegalStateException("Document already complete");
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (object[depth - 1]) throw new IllegalStateException("Object member without name()");
+            separator();
+        }
+    }
+
+    private void separator() throws IOException {
+        if (nonEmpty[depth - 1]) put(',');
+        nonEmpty[depth - 1] = true;
+        newline();
+    }
+
+    private void newline() throws IOException {
+        put('\n');
+        for (int i = 0; i < depth; i++) {
+            put(' ');
+            put(' ');
+        }
+    }
+
+    private void number(long v) throws IOException {
+        if (v == Long.MIN_VALUE) {
+            ascii("-9223372036854775808");
+            return;
+        }
+        if (buf.remaining() < 20) flush();
+        if (v < 0) {
+            buf.put((byte) '-');
+            v = -v;
+        }
+        int k = digits.length;
+        do {
+            digits[--k] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        buf.put(digits, k, digits.length - k);
+    }
+
+    private void string(String s) throws IOException {
+        put('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                put('\\');
+                put(c);
+            } else if (c < 0x20) {
+                put('\\');
+                put('u');
+                put('0');
+                put('0');
+                put((char) HEX[c >> 4]);
+                put((char) HEX[c & 15]);
+            } else if (c < 0x80) {
+                put(c);
+            } else {
+                int end = i + 1;
+                while (end < s.length() && s.charAt(end) >= 0x80) end++;
+                for (byte b : s.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                    if (!buf.hasRemaining()) flush();
+                    buf.put(b);
+                }
+                i = end - 1;
+            }
+        }
+        put('"');
+    }
+
+    private void ascii(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) put(s.charAt(i));
+    }
+
+    private void put(char c) throws IOException {
+        if (!buf.hasRemaining()) flush();
+        buf.put((byte) c);
+    }
+}
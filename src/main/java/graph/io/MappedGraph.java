@@ -0,0 +1,41 @@
+package graph.io;
+
+import graph.model.GraphView;
+
+import java.nio.IntBuffer;
+
+/**
+ * Graph backed by the memory-mapped sections of a {@link BinaryGraphFile}. Pages are
+ * faulted in by the OS on first access, so opening costs O(1) regardless of graph size.
+ */
+public final class MappedGraph implements GraphView {
+    private final int n;
+    private final int m;
+    private final boolean directed;
+    private final int source;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+
+    MappedGraph(int n, int m, boolean directed, int source,
+                IntBuffer offsets, IntBuffer targets, IntBuffer weights) {
+        this.n = n;
+        this.m = m;
+        this.directed = directed;
+        this.source = source;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    @Override public int n() { return n; }
+    @Override public int m() { return m; }
+    @Override public boolean directed() { return directed; }
+    /** Source vertex recorded in the file header. */
+    public int source() { return source; }
+
+    @Override public int begin(int u) { return offsets.get(u); }
+    @Override public int end(int u) { return offsets.get(u + 1); }
+    @Override public int target(int i) { return targets.get(i); }
+    @Override public int weight(int i) { return weights.get(i); }
+}
@@ -0,0 +1,308 @@
+package graph.io;
+
+import graph.model.CsrGraph;
+import graph.model.GraphView;
+import graph.scc.Components;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32C;
+
+/**
+ * Persistent cache of the graph-only stages of the pipeline: the SCC partition, the condensation
+ * DAG and its topological order. Entries live in one directory, one file per key; the key is the
+ * SHA-256 of the normalized edge list (n, directedness and every arc as (target, weight),
+ * grouped by tail in CSR order, so JSON layout, whitespace and field order do not matter) plus a
+ * variant string naming whatever else shapes the result (SCC algorithm, weight policy). Arcs of one
+ * vertex are hashed in input order on purpose: component numbering and the {@code FIRST} weight
+ * policy depend on it.
+ * <p>
+ * Entry file, little-endian:
+ * <pre>
+ *  offset  size            field
+ *  0       4               magic "DAAR"
+ *  4       4               version (1)
+ *  8       32              key
+ *  40      4               n
+ *  44      4               compCount
+ *  48      4               DAG arcs (dm)
+ *  52      4               reserved (0)
+ *  56      4*n             compId
+ *  ..      4*(compCount+1) component offsets
+ *  ..      4*n             members
+ *  ..      4*(compCount+1) DAG offsets
+ *  ..      4*dm            DAG targets
+ *  ..      4*dm            DAG weights
+ *  ..      4*compCount     topological order
+ *  ..      4               CRC32C of everything before
+ * </pre>
+ * A file with a wrong magic, version, size, key or checksum is deleted and rebuilt; entries are
+ * written to a temporary file and moved into place, so readers (also other processes sharing the
+ * directory) never see a partial one. Entries are never evicted; deleting the directory is safe.
+ */
+public final class PipelineCache {
+    public static final int MAGIC = 0x52414144; // "DAAR" read as little-endian
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 56;
+    private static final int KEY_BYTES = 32;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    /** How a lookup went: REBUILT means an entry was there but stale or corrupted. */
+    public enum Status { HIT, MISS, REBUILT }
+
+    /** The cached stages. */
+    public static final class Entry {
+        public final Components scc;
+        public final CsrGraph dag;
+        public final int[] topo;
+
+        public Entry(Components scc, CsrGraph dag, int[] topo) {
+            this.scc = scc;
+            this.dag = dag;
+            this.topo = topo;
+        }
+    }
+
+    /** Computes the stages on a miss. */
+    @FunctionalInterface
+    public interface Stages {
+        Entry compute() throws IOException;
+    }
+
+    /** Outcome of {@link #get}. */
+    public static final class Result {
+        public final Entry entry;
+        public final Status status;
+        public final String key;        // hex
+        public final String problem;    // why an existing entry was rejected, null unless REBUILT
+        public final long hashNanos;
+        public final long loadNanos;    // reading (and validating) the entry file
+        public final long storeNanos;   // writing a new entry, 0 on a hit
+
+        Result(Entry entry, Status status, String key, String problem, long hashNanos, long loadNanos, long storeNanos) {
+            this.entry = entry;
+            this.status = status;
+            this.key = key;
+            this.problem = problem;
+            this.hashNanos = hashNanos;
+            this.loadNanos = loadNanos;
+            this.storeNanos = storeNanos;
+        }
+    }
+
+    private final Path dir;
+
+    public PipelineCache(Path dir) throws IOException {
+        this.dir = Files.createDirectories(dir);
+    }
+
+    public Path dir() { return dir; }
+
+    /** Entry file of a key. */
+    public Path file(byte[] key) { return dir.resolve(hex(key) + ".bin"); }
+
+    /**
+     * Returns the cached stages of {@code g} under {@code variant}, or computes them with
+     * {@code stages}, stores them and returns them. The computed entry must belong to g.
+     */
+    public Result get(GraphView g, String variant, Stages stages) throws IOException {
+        long t0 = System.nanoTime();
+        byte[] key = key(g, variant);
+        long t1 = System.nanoTime();
+        Path file = file(key);
+        String problem = null;
+        try {
+            Entry e = read(file, key);
+            return new Result(e, Status.HIT, hex(key), null, t1 - t0, System.nanoTime() - t1, 0);
+        } catch (NoSuchFileException e) {
+            // plain miss
+        } catch (IOException e) {
+            problem = e.getMessage();
+        }
+        if (problem != null) Files.deleteIfExists(file);
+        long t2 = System.nanoTime();
+
+        Entry e = stages.compute();
+        long t3 = System.nanoTime();
+        write(file, key, e);
+        return new Result(e, problem == null ? Status.MISS : Status.REBUILT, hex(key), problem,
+                t1 - t0, t2 - t1, System.nanoTime() - t3);
+    }
+
+    // ---- key ----
+
+    /** SHA-256 over the version, the variant and the normalized edge list. */
+    public static byte[] key(GraphView g, String variant) {
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required of every JRE", e);
+        }
+        byte[] v = variant.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buf = ByteBuffer.allocate(64 << 10).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(VERSION).putInt(v.length).put(v)
+           .putInt(g.n()).putInt(g.directed() ? 1 : 0).putLong(g.m());
+        for (int u = 0; u < g.n(); u++) { // the tail once per vertex, as its out-degree
+            if (buf.remaining() < 4) digest(sha, buf);
+            buf.putInt(g.outDegree(u));
+            for (int a = g.begin(u); a < g.end(u); a++) {
+                if (buf.remaining() < 8) digest(sha, buf);
+                buf.putInt(g.target(a)).putInt(g.weight(a));
+            }
+        }
+        digest(sha, buf);
+        return sha.digest();
+    }
+
+    private static void digest(MessageDigest sha, ByteBuffer buf) {
+        sha.update(buf.array(), 0, buf.position());
+        buf.clear();
+    }
+
+    static String hex(byte[] key) {
+        StringBuilder sb = new StringBuilder(2 * key.length);
+        for (byte b : key) sb.append(Character.forDigit(b >> 4 & 15, 16)).append(Character.forDigit(b & 15, 16));
+        return sb.toString();
+    }
+
+    // ---- entry files ----
+
+    static void write(Path file, byte[] key, Entry e) throws IOException {
+        Components scc = e.scc;
+        GraphView dag = e.dag;
+        int n = scc.compId.length, c = scc.compCount, dm = dag.m();
+        if (dag.n() != c || e.topo.length != c)
+            throw new IllegalArgumentException("Entry has " + c + " components, DAG " + dag.n() + ", order " + e.topo.length);
+        Path tmp = Files.createTempFile(dir(file), file.getFileName() + ".", ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                Sections out = new Sections(ch, tmp);
+                out.buf.putInt(MAGIC).putInt(VERSION).put(key).putInt(n).putInt(c).putInt(dm).putInt(0);
+                out.put(scc.compId);
+                out.put(scc.offsets);
+                out.put(scc.members);
+                out.putInt(0);
+                for (int u = 0; u < c; u++) out.putInt(dag.end(u));
+                for (int a = 0; a < dm; a++) out.putInt(dag.target(a));
+                for (int a = 0; a < dm; a++) out.putInt(dag.weight(a));
+                out.put(e.topo);
+                out.drain();
+                out.buf.putInt((int) out.crc.getValue());
+                out.buf.flip();
+                while (out.buf.hasRemaining()) ch.write(out.buf);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Reads and validates an entry; any mismatch is an IOException naming the problem. */
+    static Entry read(Path file, byte[] key) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES + 4) throw new IOException(file + ": truncated header");
+            Sections in = new Sections(ch, file);
+            in.fill(HEADER_BYTES);
+            in.crc.update(in.buf.array(), 0, HEADER_BYTES);
+            if (in.buf.getInt() != MAGIC) throw new IOException(file + ": not a cache entry");
+            int version = in.buf.getInt();
+            if (version != VERSION) throw new IOException(file + ": stale entry version " + version);
+            byte[] stored = new byte[KEY_BYTES];
+            in.buf.get(stored);
+            if (!MessageDigest.isEqual(stored, key)) throw new IOException(file + ": key does not match file name");
+            int n = in.buf.getInt(), c = in.buf.getInt(), dm = in.buf.getInt();
+            long expected = HEADER_BYTES + 4L * (2L * n + 3L * c + 2 + 2L * dm) + 4;
+            if (n < 0 || c < 0 || c > n || dm < 0 || size != expected)
+                throw new IOException(file + ": size " + size + " does not match header (n=" + n
+                        + ", components=" + c + ", DAG arcs=" + dm + ")");
+
+            int[] compId = in.ints(n), offsets = in.ints(c + 1), members = in.ints(n);
+            int[] dagOffsets = in.ints(c + 1), targets = in.ints(dm), weights = in.ints(dm), topo = in.ints(c);
+            int sum = (int) in.crc.getValue();
+            in.fill(4);
+            if (in.buf.getInt() != sum) throw new IOException(file + ": checksum mismatch");
+            if (offsets[c] != n || dagOffsets[c] != dm)
+                throw new IOException(file + ": inconsistent offsets");
+            return new Entry(new Components(c, compId, offsets, members),
+                    CsrGraph.of(c, true, dagOffsets, targets, weights), topo);
+        }
+    }
+
+    private static Path dir(Path file) {
+        Path parent = file.toAbsolutePath().getParent();
+        return parent != null ? parent : Path.of(".");
+    }
+
+    /** Sequential int sections through one staging buffer, with a running checksum. */
+    private static final class Sections {
+        final FileChannel ch;
+        final Path file;
+        final ByteBuffer buf = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        final CRC32C crc = new CRC32C();
+
+        Sections(FileChannel ch, Path file) {
+            this.ch = ch;
+            this.file = file;
+        }
+
+        void putInt(int v) throws IOException {
+            if (buf.remaining() < 4) drain();
+            buf.putInt(v);
+        }
+
+        void put(int[] a) throws IOException {
+            for (int i = 0; i < a.length; ) {
+                if (buf.remaining() < 4) drain();
+                int k = Math.min(a.length - i, buf.remaining() / 4);
+                IntBuffer view = buf.asIntBuffer();
+                view.put(a, i, k);
+                buf.position(buf.position() + 4 * k);
+                i += k;
+            }
+        }
+
+        void drain() throws IOException {
+            crc.update(buf.array(), 0, buf.position());
+            buf.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+        }
+
+        /** Reads exactly {@code bytes} into the buffer (checksummed) and leaves them ready to get. */
+        void fill(int bytes) throws IOException {
+            buf.clear().limit(bytes);
+            while (buf.hasRemaining()) if (ch.read(buf) < 0) throw new IOException(file + ": truncated");
+            buf.flip();
+        }
+
+        int[] ints(int count) throws IOException {
+            int[] a = new int[count];
+            for (int i = 0; i < count; ) {
+                int k = Math.min(count - i, BUFFER_BYTES / 4);
+                fill(4 * k);
+                crc.update(buf.array(), 0, 4 * k);
+                buf.asIntBuffer().get(a, i, k);
+                i += k;
+            }
+            return a;
+        }
+    }
+}
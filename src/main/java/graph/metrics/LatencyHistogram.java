@@ -0,0 +1,59 @@
+package graph.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear nanosecond histogram: four sub-buckets per power of two, so a reported
+ * percentile is at most 25% above the true value. Fixed 2 KB footprint, lock-free recording.
+ */
+public final class LatencyHistogram {
+    private static final int BUCKETS = 4 * 62 + 8;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(index(nanos));
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    public long count() { return count.sum(); }
+    public long totalNanos() { return total.sum(); }
+    public long maxNanos() { return max.get(); }
+
+    public double meanNanos() {
+        long c = count();
+        return c == 0 ? 0 : totalNanos() / (double) c;
+    }
+
+    /** Upper bound of the bucket holding the q-quantile (0 < q <= 1); 0 when empty. */
+    public long percentileNanos(double q) {
+        long c = count();
+        if (c == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * c)), seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) return Math.min(upper(i), maxNanos());
+        }
+        return maxNanos();
+    }
+
+    static int index(long v) {
+        if (v < 8) return (int) v;
+        int e = 63 - Long.numberOfLeadingZeros(v); // >= 3
+        return 4 * e - 8 + (int) (v >>> (e - 2)); // top three bits select the sub-bucket
+    }
+
+    static long upper(int i) {
+        if (i < 8) return i;
+        int e = i / 4 + 1, s = i % 4 + 4; // inverse of index()
+        return ((long) (s + 1) << (e - 2)) - 1;
+    }
+}
@@ -1,22 +1,128 @@
 package graph.metrics;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentation shared by all algorithms. Algorithms count in local variables inside their
+ * loops and publish once per phase ({@link #add}), wrapping the phase in {@link #begin}/{@link Span#end}:
+ * <ul>
+ *   <li>counters are {@link LongAdder}s, so one instance can be shared by parallel runs;</li>
+ *   <li>every phase feeds a {@link LatencyHistogram} (created on first use);</li>
+ *   <li>with JFR enabled every phase is also committed as a {@link PhaseEvent};</li>
+ *   <li>{@link #NOOP} ignores everything, so after inlining the JIT drops the local counters too.</li>
+ * </ul>
+ * {@code new Metrics()} enables JFR events when the system property {@code metrics.jfr} is true.
+ */
 public class Metrics {
-    // SCC (DFS)
-    public long dfsVisits = 0;
-    public long dfsEdges  = 0;
 
-    // Topo (Kahn)
-    public long pushes = 0;
-    public long pops   = 0;
+    public enum Counter { DFS_VISITS, DFS_EDGES, PUSHES, POPS, RELAXATIONS }
+
+    public enum Phase { SCC, CONDENSATION, TOPO, SHORTEST_PATHS, LONGEST_PATHS, PATHS, MULTI_SOURCE_PATHS, PATH_UPDATE, CPM, TOP_K_PATHS, REACHABILITY, EXECUTE }
+
+    private static final boolean JFR_DEFAULT = Boolean.getBoolean("metrics.jfr");
+    private static final Counter[] COUNTERS = Counter.values();
+    private static final Phase[] PHASES = Phase.values();
+
+    /** Discards everything; use where nobody reads the numbers (declared after COUNTERS, which the constructor reads). */
+    public static final Metrics NOOP = new Metrics(false) {
+        @Override public Span begin(Phase phase) { return Span.NONE; }
+        @Override public void add(Counter c, long delta) { }
+        @Override public boolean enabled() { return false; }
+    };
+
+    private final boolean jfr;
+    private final LongAdder[] counters = new LongAdder[COUNTERS.length];
+    private final AtomicReferenceArray<LatencyHistogram> phases = new AtomicReferenceArray<>(PHASES.length);
+
+    public Metrics() { this(JFR_DEFAULT); }
 
-    // DAG shortest/longest
-    public long relaxations = 0;
+    public Metrics(boolean jfrEvents) {
+        this.jfr = jfrEvents;
+        for (int i = 0; i < counters.length; i++) counters[i] = new LongAdder();
+    }
+
+    /** One timed execution of a phase. */
+    public static class Span {
+        static final Span NONE = new Span(null, null, 0, null);
+
+        private final Metrics owner;
+        private final Phase phase;
+        private final long t0;
+        private final PhaseEvent event;
 
-    // Timing
-    public long timeNanos = 0;
+        Span(Metrics owner, Phase phase, long t0, PhaseEvent event) {
+            this.owner = owner;
+            this.phase = phase;
+            this.t0 = t0;
+            this.event = event;
+        }
+
+        /** Records the elapsed time; returns it (0 for a no-op span). */
+        public long end() {
+            if (owner == null) return 0;
+            long nanos = System.nanoTime() - t0;
+            owner.histogram(phase).record(nanos);
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.phase = phase.name();
+                    event.commit();
+                }
+            }
+            return nanos;
+        }
+    }
+
+    /** Starts timing a phase; call {@link Span#end()} when it is done (also on the error path if it matters). */
+    public Span begin(Phase phase) {
+        PhaseEvent e = null;
+        if (jfr) {
+            e = new PhaseEvent();
+            e.begin();
+        }
+        return new Span(this, phase, System.nanoTime(), e);
+    }
+
+    /** Adds a per-phase total to a counter; thread-safe. */
+    public void add(Counter c, long delta) {
+        counters[c.ordinal()].add(delta);
+    }
+
+    public boolean enabled() { return true; }
+
+    public long count(Counter c) { return counters[c.ordinal()].sum(); }
+
+    public long dfsVisits()   { return count(Counter.DFS_VISITS); }
+    public long dfsEdges()    { return count(Counter.DFS_EDGES); }
+    public long pushes()      { return count(Counter.PUSHES); }
+    public long pops()        { return count(Counter.POPS); }
+    public long relaxations() { return count(Counter.RELAXATIONS); }
+
+    /** Total time over every recorded phase. */
+    public long timeNanos() {
+        long t = 0;
+        for (int i = 0; i < PHASES.length; i++) {
+            LatencyHistogram h = phases.get(i);
+            if (h != null) t += h.totalNanos();
+        }
+        return t;
+    }
+
+    /** Latency histogram of a phase, or null if the phase never ran against this instance. */
+    public LatencyHistogram phase(Phase p) { return phases.get(p.ordinal()); }
 
     public void reset() {
-        dfsVisits = dfsEdges = pushes = pops = relaxations = 0;
-        timeNanos = 0;
+        for (LongAdder c : counters) c.reset();
+        for (int i = 0; i < PHASES.length; i++) phases.set(i, null);
+    }
+
+    private LatencyHistogram histogram(Phase p) {
+        LatencyHistogram h = phases.get(p.ordinal());
+        if (h == null) {
+            phases.compareAndSet(p.ordinal(), null, new LatencyHistogram());
+            h = phases.get(p.ordinal());
+        }
+        return h;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package graph.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event for one algorithm phase; only created when {@link Metrics} has JFR enabled. */
+@Name("graph.Phase")
+@Label("Graph Phase")
+@Category("Graph")
+@Description("One SCC / condensation / topological sort / path phase")
+@StackTrace(false)
+class PhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+}
@@ -0,0 +1,108 @@
+package graph.model;
+
+import java.util.Arrays;
+
+/**
+ * Builds the condensation DAG in O(compCount + m) memory: arcs are bucketed by source
+ * component with a counting sort, then parallel arcs inside a bucket are merged with a
+ * per-target stamp array. Self-loops (intra-component arcs) are dropped.
+ */
+public final class Condensation {
+
+    /** How the weights of parallel inter-component arcs are combined. */
+    public enum WeightPolicy {
+        /**
+         * Keep the weight of the first arc in the order the overload sees them: CSR order (by tail
+         * vertex, then input order within a tail) for a {@link GraphView}, {@code edges()} order for a
+         * {@link Graph}. The two differ when parallel arcs leave a component from different members.
+         */
+        FIRST,
+        /** Keep the smallest weight (right for shortest-path queries). */
+        MIN,
+        /** Keep the largest weight (right for critical-path queries). */
+        MAX;
+
+        public int combine(int kept, int w) {
+            switch (this) {
+                case MIN: return Math.min(kept, w);
+                case MAX: return Math.max(kept, w);
+                default:  return kept;
+            }
+        }
+    }
+
+    private Condensation() { }
+
+    /** Condensation of a CSR-shaped graph; arcs are taken in CSR order (tail-major), which is what FIRST keeps. */
+    public static CsrGraph build(GraphView g, int[] compId, int compCount, WeightPolicy policy) {
+        int m = g.m();
+        int[] from = new int[m], to = new int[m], w = new int[m];
+        int k = 0;
+        for (int u = 0; u < g.n(); u++) {
+            int a = compId[u];
+            for (int i = g.begin(u); i < g.end(u); i++) {
+                int b = compId[g.target(i)];
+                if (a == b) continue;
+                from[k] = a;
+                to[k] = b;
+                w[k] = g.weight(i);
+                k++;
+            }
+        }
+        return fromArcs(compCount, from, to, w, k, policy);
+    }
+
+    /** Condensation of an object graph; arcs are taken in {@code g.edges()} order. */
+    public static CsrGraph build(Graph g, int[] compId, int compCount, WeightPolicy policy) {
+        int m = g.edges().size();
+        int[] from = new int[m], to = new int[m], w = new int[m];
+        int k = 0;
+        for (Edge e : g.edges()) {
+            int a = compId[e.u], b = compId[e.v];
+            if (a == b) continue;
+            from[k] = a;
+            to[k] = b;
+            w[k] = e.w;
+            k++;
+        }
+        return fromArcs(compCount, from, to, w, k, policy);
+    }
+
+    /** Deduplicates the first {@code m} arcs (all with from != to) into a CSR DAG. */
+    static CsrGraph fromArcs(int compCount, int[] from, int[] to, int[] w, int m, WeightPolicy policy) {
+        // 1) stable counting sort by source component
+        int[] off = new int[compCount + 1];
+        for (int i = 0; i < m; i++) off[from[i] + 1]++;
+        for (int c = 0; c < compCount; c++) off[c + 1] += off[c];
+        int[] pos = Arrays.copyOf(off, compCount);
+        int[] bt = new int[m], bw = new int[m];
+        for (int i = 0; i < m; i++) {
+            int p = pos[from[i]]++;
+            bt[p] = to[i];
+            bw[p] = w[i];
+        }
+
+        // 2) merge parallel arcs per bucket, compacting in place (write index never passes read index)
+        int[] stamp = pos;             // reuse: stamp[b] == a + 1 when a->b was already emitted
+        Arrays.fill(stamp, 0);
+        int[] slot = new int[compCount];
+        int[] outOff = new int[compCount + 1];
+        int k = 0;
+        for (int a = 0; a < compCount; a++) {
+            for (int i = off[a]; i < off[a + 1]; i++) {
+                int b = bt[i];
+                if (stamp[b] == a + 1) {
+                    bw[slot[b]] = policy.combine(bw[slot[b]], bw[i]);
+                } else {
+                    stamp[b] = a + 1;
+                    slot[b] = k;
+                    bt[k] = b;
+                    bw[k] = bw[i];
+                    k++;
+                }
+            }
+            outOff[a + 1] = k;
+        }
+        return new CsrGraph(compCount, true, outOff, Arrays.copyOf(bt, k), Arrays.copyOf(bw, k));
+    }
+}
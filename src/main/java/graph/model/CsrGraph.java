@@ -0,0 +1,148 @@
+package graph.model;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed-sparse-row graph: outgoing arcs of u are stored in
+ * targets/weights at indices [offsets[u], offsets[u+1]). No per-edge objects.
+ */
+public final class CsrGraph implements GraphView {
+    private final int n;
+    private final boolean directed;
+    private final int[] offsets;   // length n+1
+    private final int[] targets;   // length m
+    private final int[] weights;   // length m
+
+    CsrGraph(int n, boolean directed, int[] offsets, int[] targets, int[] weights) {
+        this.n = n;
+        this.directed = directed;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    @Override public int n() { return n; }
+    @Override public int m() { return targets.length; }
+    @Override public boolean directed() { return directed; }
+
+    @Override public int begin(int u) { return offsets[u]; }
+    @Override public int end(int u) { return offsets[u + 1]; }
+    @Override public int outDegree(int u) { return offsets[u + 1] - offsets[u]; }
+    @Override public int target(int i) { return targets[i]; }
+    @Override public int weight(int i) { return weights[i]; }
+
+    /** Heap held by the three arrays (array headers excluded): exactly 4*(n+1) + 8*m bytes. */
+    public long bytes() {
+        return 4L * offsets.length + 4L * targets.length + 4L * weights.length;
+    }
+
+    /** Transpose (arc u->v becomes v->u), keeping weights. */
+    public CsrGraph reverse() { return transpose(this); }
+
+    /** On-heap transpose of any graph view. */
+    public static CsrGraph transpose(GraphView g) {
+        int n = g.n(), m = g.m();
+        int[] off = new int[n + 1];
+        for (int i = 0; i < m; i++) off[g.target(i) + 1]++;
+        for (int v = 0; v < n; v++) off[v + 1] += off[v];
+        int[] pos = Arrays.copyOf(off, n);
+        int[] t = new int[m], w = new int[m];
+        for (int u = 0; u < n; u++) {
+            for (int i = g.begin(u); i < g.end(u); i++) {
+                int p = pos[g.target(i)]++;
+                t[p] = u;
+                w[p] = g.weight(i);
+            }
+        }
+        return new CsrGraph(n, g.directed(), off, t, w);
+    }
+
+    /** On-heap copy of any graph view. */
+    public static CsrGraph copyOf(GraphView g) {
+        if (g instanceof CsrGraph) return (CsrGraph) g;
+        int n = g.n(), m = g.m();
+        int[] off = new int[n + 1], t = new int[m], w = new int[m];
+        for (int u = 0; u < n; u++) off[u + 1] = g.end(u);
+        for (int i = 0; i < m; i++) { t[i] = g.target(i); w[i] = g.weight(i); }
+        return new CsrGraph(n, g.directed(), off, t, w);
+    }
+
+    /** Copies an object graph into CSR form (arcs keep their insertion order per vertex). */
+    public static CsrGraph from(Graph g) {
+        Builder b = new Builder(g.n(), true, g.edges().size());
+        for (Edge e : g.edges()) b.addEdge(e.u, e.v, e.w); // undirected graphs already hold both arcs
+        return b.build(g.directed());
+    }
+
+    /**
+     * Wraps ready CSR arrays without copying (for producers that already emit arcs grouped by
+     * tail); the arrays are owned by the graph afterwards.
+     */
+    public static CsrGraph of(int n, boolean directed, int[] offsets, int[] targets, int[] weights) {
+        if (offsets.length != n + 1 || offsets[0] != 0 || offsets[n] != targets.length
+                || weights.length != targets.length)
+            throw new IllegalArgumentException("Inconsistent CSR arrays: n=" + n + ", offsets=" + offsets.length
+                    + ", targets=" + targets.length + ", weights=" + weights.length);
+        return new CsrGraph(n, directed, offsets, targets, weights);
+    }
+
+    /** Accumulates arcs in flat primitive arrays and builds the CSR arrays with one counting sort. */
+    public static class Builder {
+        private final int n;
+        private final boolean directed;
+        private int[] us, vs, ws;
+        private int size;
+
+        public Builder(int n, boolean directed) { this(n, directed, 16); }
+
+        public Builder(int n, boolean directed, int expectedEdges) {
+            if (n < 0) throw new IllegalArgumentException("n must be non-negative: " + n);
+            this.n = n;
+            this.directed = directed;
+            int cap = Math.max(16, directed ? expectedEdges : 2 * expectedEdges);
+            us = new int[cap];
+            vs = new int[cap];
+            ws = new int[cap];
+        }
+
+        public int n() { return n; }
+        public int size() { return size; }
+
+        public Builder addEdge(int u, int v, int w) {
+            if (u < 0 || u >= n || v < 0 || v >= n)
+                throw new IndexOutOfBoundsException("Edge " + u + "->" + v + " out of range [0," + n + ")");
+            add(u, v, w);
+            if (!directed) add(v, u, w);
+            return this;
+        }
+
+        private void add(int u, int v, int w) {
+            if (size == us.length) {
+                int cap = us.length + (us.length >> 1);
+                us = Arrays.copyOf(us, cap);
+                vs = Arrays.copyOf(vs, cap);
+                ws = Arrays.copyOf(ws, cap);
+            }
+            us[size] = u;
+            vs[size] = v;
+            ws[size] = w;
+            size++;
+        }
+
+        public CsrGraph build() { return build(directed); }
+
+        private CsrGraph build(boolean directedFlag) {
+            int[] off = new int[n + 1];
+            for (int i = 0; i < size; i++) off[us[i] + 1]++;
+            for (int u = 0; u < n; u++) off[u + 1] += off[u];
+            int[] pos = Arrays.copyOf(off, n);
+            int[] t = new int[size], w = new int[size];
+            for (int i = 0; i < size; i++) {
+                int p = pos[us[i]]++;
+                t[p] = vs[i];
+                w[p] = ws[i];
+            }
+            return new CsrGraph(n, directedFlag, off, t, w);
+        }
+    }
+}
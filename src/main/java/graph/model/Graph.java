@@ -39,18 +39,17 @@ public class Graph {
         return g;
     }
 
-    /** Build condensation DAG from component ids [0..compCount-1] */
+    /** Build condensation DAG from component ids [0..compCount-1]; parallel edges keep the first weight */
     public static Graph condensation(Graph g, int[] compId, int compCount) {
+        return condensation(g, compId, compCount, Condensation.WeightPolicy.FIRST);
+    }
+
+    /** Build condensation DAG, merging parallel inter-component edges with the given policy (O(compCount + m) memory) */
+    public static Graph condensation(Graph g, int[] compId, int compCount, Condensation.WeightPolicy policy) {
+        CsrGraph csr = Condensation.build(g, compId, compCount, policy);
         Graph dag = new Graph(compCount, true);
-        // to avoid parallel duplicate edges, track seen pairs
-        boolean[][] seen = new boolean[compCount][compCount];
-        for (Edge e : g.edges()) {
-            int a = compId[e.u], b = compId[e.v];
-            if (a != b && !seen[a][b]) {
-                dag.addEdge(a, b, e.w); // weight optional for DAG topo, but keep it
-                seen[a][b] = true;
-            }
-        }
+        for (int a = 0; a < compCount; a++)
+            for (int i = csr.begin(a); i < csr.end(a); i++) dag.addEdge(a, csr.target(i), csr.weight(i));
         return dag;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,21 @@
+package graph.model;
+
+/**
+ * Read-only CSR-shaped access to a graph: the outgoing arcs of u are the arc indices
+ * [begin(u), end(u)), each with a target and a weight. Implemented by the on-heap
+ * {@link CsrGraph} and by storage backends that never materialize per-edge objects.
+ */
+public interface GraphView {
+    int n();
+    int m();
+    boolean directed();
+
+    /** First arc index of u. */
+    int begin(int u);
+    /** One past the last arc index of u. */
+    int end(int u);
+    int target(int i);
+    int weight(int i);
+
+    default int outDegree(int u) { return end(u) - begin(u); }
+}
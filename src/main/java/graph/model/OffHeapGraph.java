@@ -0,0 +1,231 @@
+package graph.model;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * CSR graph whose offsets, targets and weights live in direct (native) memory, so a graph with
+ * hundreds of millions of arcs adds nothing for the collector to copy or scan: the heap holds a
+ * few buffer headers. Same layout and accessors as {@link CsrGraph}, so every {@link GraphView}
+ * algorithm runs on it unchanged.
+ * <p>
+ * The memory is released by {@link #close()}, not by the GC. Closing is idempotent; any access
+ * afterwards throws {@link IndexOutOfBoundsException} (the sections are swapped for empty ones
+ * before being freed), but closing while another thread is still reading is not allowed.
+ * Each section is one buffer, so m is limited to about 536M arcs (2 GiB of targets).
+ */
+public final class OffHeapGraph implements GraphView, AutoCloseable {
+    private static final long MAX_SECTION_BYTES = Integer.MAX_VALUE;
+    private static final ByteBuffer NONE = ByteBuffer.allocateDirect(0);
+    private static final IntBuffer EMPTY = NONE.asIntBuffer();
+
+    private final int n;
+    private final int m;
+    private final boolean directed;
+    private ByteBuffer offsetMem, targetMem, weightMem; // owners, freed on close
+    private IntBuffer offsets, targets, weights;
+
+    private OffHeapGraph(int n, int m, boolean directed, ByteBuffer offsetMem, ByteBuffer targetMem, ByteBuffer weightMem) {
+        this.n = n;
+        this.m = m;
+        this.directed = directed;
+        this.offsetMem = offsetMem;
+        this.targetMem = targetMem;
+        this.weightMem = weightMem;
+        this.offsets = offsetMem.asIntBuffer();
+        this.targets = targetMem.asIntBuffer();
+        this.weights = weightMem.asIntBuffer();
+    }
+
+    @Override public int n() { return n; }
+    @Override public int m() { return m; }
+    @Override public boolean directed() { return directed; }
+
+    @Override public int begin(int u) { return offsets.get(u); }
+    @Override public int end(int u) { return offsets.get(u + 1); }
+    @Override public int target(int i) { return targets.get(i); }
+    @Override public int weight(int i) { return weights.get(i); }
+
+    /** Native memory held by the three sections (0 once closed). */
+    public long bytes() {
+        return (long) offsetMem.capacity() + targetMem.capacity() + weightMem.capacity();
+    }
+
+    public boolean isClosed() { return offsets == EMPTY; }
+
+    /** Frees the native memory now rather than whenever the buffers are collected. */
+    @Override
+    public synchronized void close() {
+        if (isClosed()) return;
+        ByteBuffer[] owned = {offsetMem, targetMem, weightMem};
+        offsets = targets = weights = EMPTY;
+        offsetMem = targetMem = weightMem = NONE;
+        free(owned);
+    }
+
+    /** Off-heap copy of any graph view, one sequential pass per section. */
+    public static OffHeapGraph copyOf(GraphView g) {
+        int n = g.n(), m = g.m();
+        ByteBuffer off = allocate(n + 1L), t = allocate(m), w = allocate(m);
+        IntBuffer o = off.asIntBuffer(), ti = t.asIntBuffer(), wi = w.asIntBuffer();
+        o.put(0, 0);
+        for (int u = 0; u < n; u++) o.put(u + 1, g.end(u));
+        for (int i = 0; i < m; i++) {
+            ti.put(i, g.target(i));
+            wi.put(i, g.weight(i));
+        }
+        return new OffHeapGraph(n, m, g.directed(), off, t, w);
+    }
+
+    /**
+     * Off-heap reverse graph (u->v becomes v->u, in-arcs in tail order), the counterpart of
+     * {@link CsrGraph#transpose}; only the sections are allocated, all in native memory.
+     */
+    public static OffHeapGraph transpose(GraphView g) {
+        int n = g.n(), m = g.m();
+        ByteBuffer off = allocate(n + 1L), t = allocate(m), w = allocate(m);
+        IntBuffer o = off.asIntBuffer(), ti = t.asIntBuffer(), wi = w.asIntBuffer();
+        for (int i = 0; i < m; i++) {
+            int v = g.target(i) + 1;
+            o.put(v, o.get(v) + 1);
+        }
+        for (int v = 0; v < n; v++) o.put(v + 1, o.get(v + 1) + o.get(v));
+        // o[v] doubles as the fill cursor of v, then is shifted back by one slot
+        for (int u = 0; u < n; u++) {
+            for (int i = g.begin(u); i < g.end(u); i++) {
+                int v = g.target(i), p = o.get(v);
+                o.put(v, p + 1);
+                ti.put(p, u);
+                wi.put(p, g.weight(i));
+            }
+        }
+        for (int v = n; v > 0; v--) o.put(v, o.get(v - 1));
+        o.put(0, 0);
+        return new OffHeapGraph(n, m, g.directed(), off, t, w);
+    }
+
+    /**
+     * Takes ownership of ready CSR sections in native byte order (e.g. read straight from a file),
+     * sized 4*(n+1), 4*m and 4*m bytes.
+     */
+    public static OffHeapGraph wrap(int n, boolean directed, ByteBuffer offsets, ByteBuffer targets, ByteBuffer weights) {
+        if (!offsets.isDirect() || !targets.isDirect() || !weights.isDirect())
+            throw new IllegalArgumentException("Sections must be direct buffers");
+        int m = targets.capacity() / 4;
+        if (offsets.capacity() != 4 * (n + 1) || weights.capacity() != targets.capacity()
+                || offsets.order(ByteOrder.nativeOrder()).getInt(4 * n) != m)
+            throw new IllegalArgumentException("Inconsistent CSR sections: n=" + n + ", offsets=" + offsets.capacity()
+                    + " B, targets=" + targets.capacity() + " B, weights=" + weights.capacity() + " B");
+        return new OffHeapGraph(n, m, directed, offsets, targets.order(ByteOrder.nativeOrder()),
+                weights.order(ByteOrder.nativeOrder()));
+    }
+
+    /** Direct buffer of {@code ints} ints in native order, for building sections. */
+    public static ByteBuffer allocate(long ints) {
+        if (ints < 0 || 4 * ints > MAX_SECTION_BYTES)
+            throw new IllegalArgumentException("Section of " + ints + " ints exceeds one direct buffer");
+        return ByteBuffer.allocateDirect((int) (4 * ints)).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Like {@link CsrGraph.Builder}, but the arcs are staged off-heap too, so building never needs
+     * heap proportional to m. Staged arcs take 12 bytes each in one buffer (at most about 178M arcs)
+     * and are freed by {@link #build()}.
+     */
+    public static final class Builder {
+        private final int n;
+        private final boolean directed;
+        private ByteBuffer staged; // (u, v, w) triples
+        private int size;
+
+        public Builder(int n, boolean directed) { this(n, directed, 16); }
+
+        public Builder(int n, boolean directed, int expectedEdges) {
+            if (n < 0) throw new IllegalArgumentException("n must be non-negative: " + n);
+            this.n = n;
+            this.directed = directed;
+            staged = allocate(3L * Math.max(16, directed ? expectedEdges : 2L * expectedEdges));
+        }
+
+        public int size() { return size; }
+
+        public Builder addEdge(int u, int v, int w) {
+            if (u < 0 || u >= n || v < 0 || v >= n)
+                throw new IndexOutOfBoundsException("Edge " + u + "->" + v + " out of range [0," + n + ")");
+            add(u, v, w);
+            if (!directed) add(v, u, w);
+            return this;
+        }
+
+        private void add(int u, int v, int w) {
+            if (staged == null) throw new IllegalStateException("Builder already built");
+            int at = 12 * size;
+            if (at + 12L > staged.capacity()) {
+                long cap = Math.min(MAX_SECTION_BYTES / 12, 3L * size / 2 + 16);
+                if (cap <= size) throw new IllegalStateException("Too many arcs for one staging buffer: " + size);
+                ByteBuffer grown = allocate(3 * cap);
+                grown.put(staged.duplicate().clear().limit(at));
+                free(staged);
+                staged = grown;
+            }
+            staged.putInt(at, u).putInt(at + 4, v).putInt(at + 8, w);
+            size++;
+        }
+
+        /** Counting sort by tail into off-heap CSR sections; arcs keep their insertion order per vertex. */
+        public OffHeapGraph build() {
+            if (staged == null) throw new IllegalStateException("Builder already built");
+            ByteBuffer off = allocate(n + 1L), t = allocate(size), w = allocate(size);
+            IntBuffer o = off.asIntBuffer(), ti = t.asIntBuffer(), wi = w.asIntBuffer();
+            for (int i = 0; i < size; i++) {
+                int u = staged.getInt(12 * i) + 1;
+                o.put(u, o.get(u) + 1);
+            }
+            for (int u = 0; u < n; u++) o.put(u + 1, o.get(u + 1) + o.get(u));
+            // o[u] doubles as the fill cursor of u, then is shifted back by one slot
+            for (int i = 0; i < size; i++) {
+                int u = staged.getInt(12 * i), p = o.get(u);
+                o.put(u, p + 1);
+                ti.put(p, staged.getInt(12 * i + 4));
+                wi.put(p, staged.getInt(12 * i + 8));
+            }
+            for (int u = n; u > 0; u--) o.put(u, o.get(u - 1));
+            o.put(0, 0);
+            free(staged);
+            staged = null;
+            return new OffHeapGraph(n, size, directed, off, t, w);
+        }
+    }
+
+    // Unsafe.invokeCleaner(ByteBuffer) frees a direct buffer at once (jdk.unsupported, present since 9).
+    private static final MethodHandle CLEANER = findCleaner();
+
+    private static MethodHandle findCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field f = unsafeClass.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            return MethodHandles.lookup().findVirtual(unsafeClass, "invokeCleaner",
+                    MethodType.methodType(void.class, ByteBuffer.class)).bindTo(f.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null; // left to the GC
+        }
+    }
+
+    /** Releases direct buffers from {@link #allocate} that no graph owns (nulls are skipped). */
+    public static void free(ByteBuffer... buffers) {
+        for (ByteBuffer b : buffers) {
+            if (CLEANER == null || b == null || b == NONE || b.capacity() == 0) continue;
+            try {
+                CLEANER.invokeExact(b);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot free direct buffer", e);
+            }
+        }
+    }
+}
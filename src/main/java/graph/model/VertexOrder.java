@@ -0,0 +1,222 @@
+package graph.model;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * A relabeling of vertex ids for memory locality. Ids from external systems are essentially
+ * random, so a traversal touching a vertex's neighbours ({@code vis[w]}, {@code dist[v]}) lands on
+ * a different cache line almost every time; renumbering so that neighbours get nearby ids makes
+ * those accesses (and the per-vertex CSR slices) mostly sequential.
+ * <ul>
+ *   <li>{@link Strategy#BFS}: breadth-first order along out-arcs, roots in id order (no transpose
+ *       needed, so it is the cheapest to compute);</li>
+ *   <li>{@link Strategy#RCM}: reverse Cuthill-McKee, i.e. BFS from a minimum-degree vertex of each
+ *       weak component that visits neighbours by increasing degree, reversed (small bandwidth);</li>
+ *   <li>{@link Strategy#DEGREE}: by decreasing total degree, so hubs share cache lines;</li>
+ *   <li>{@link #topological(int[])}: for a DAG, topological position, so a sweep in that order
+ *       walks its own state front to back and every arc points forward.</li>
+ * </ul>
+ * {@link #apply} builds the relabeled graph (the arcs of each vertex keep their order); the
+ * {@code toOriginal} methods map results computed on it back to the original ids.
+ */
+public final class VertexOrder {
+
+    public enum Strategy {
+        NONE, BFS, RCM, DEGREE;
+
+        public static Strategy fromName(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /** newId[v] = id of original vertex v in the relabeled graph. */
+    public final int[] newId;
+    /** oldId[x] = original id of relabeled vertex x. */
+    public final int[] oldId;
+
+    private VertexOrder(int[] newId, int[] oldId) {
+        this.newId = newId;
+        this.oldId = oldId;
+    }
+
+    public int n() { return newId.length; }
+
+    /** Relabeling that lists the original vertices in the given order: {@code order[x]} becomes x. */
+    public static VertexOrder of(int[] order) {
+        int n = order.length;
+        int[] newId = new int[n];
+        Arrays.fill(newId, -1);
+        for (int x = 0; x < n; x++) {
+            int v = order[x];
+            if (v < 0 || v >= n || newId[v] != -1)
+                throw new IllegalArgumentException("Not a permutation of [0," + n + "): " + v + " at " + x);
+            newId[v] = x;
+        }
+        return new VertexOrder(newId, order.clone());
+    }
+
+    public static VertexOrder identity(int n) {
+        int[] id = new int[n];
+        for (int v = 0; v < n; v++) id[v] = v;
+        return new VertexOrder(id, id);
+    }
+
+    public static VertexOrder compute(Strategy strategy, GraphView g) {
+        switch (strategy) {
+            case BFS:    return bfs(g);
+            case RCM:    return rcm(g);
+            case DEGREE: return degree(g);
+            default:     return identity(g.n());
+        }
+    }
+
+    /** Position in a topological order (of a DAG) becomes the id. */
+    public static VertexOrder topological(int[] topoOrder) {
+        return of(topoOrder);
+    }
+
+    public static VertexOrder bfs(GraphView g) {
+        int n = g.n();
+        int[] order = new int[n];
+        boolean[] seen = new boolean[n];
+        int tail = 0;
+        for (int s = 0; s < n; s++) {
+            if (seen[s]) continue;
+            seen[s] = true;
+            order[tail++] = s;
+            for (int head = tail - 1; head < tail; head++) {
+                int u = order[head];
+                for (int a = g.begin(u); a < g.end(u); a++) tail = visit(g.target(a), seen, order, tail);
+            }
+        }
+        return new VertexOrder(inverse(order), order);
+    }
+
+    public static VertexOrder rcm(GraphView g) {
+        int n = g.n();
+        CsrGraph in = CsrGraph.transpose(g);
+        int[] deg = new int[n];
+        for (int v = 0; v < n; v++) deg[v] = g.outDegree(v) + in.outDegree(v);
+        int[] byDegree = sortByDegree(deg, false);
+
+        int[] order = new int[n];
+        boolean[] seen = new boolean[n];
+        long[] keys = new long[16];
+        int tail = 0;
+        for (int s : byDegree) {
+            if (seen[s]) continue;
+            seen[s] = true;
+            order[tail++] = s;
+            for (int head = tail - 1; head < tail; head++) {
+                int u = order[head], from = tail;
+                for (int a = g.begin(u); a < g.end(u); a++) tail = visit(g.target(a), seen, order, tail);
+                for (int a = in.begin(u); a < in.end(u); a++) tail = visit(in.target(a), seen, order, tail);
+                int k = tail - from;
+                if (k < 2) continue;
+                if (keys.length < k) keys = new long[Math.max(k, 2 * keys.length)];
+                for (int i = 0; i < k; i++) keys[i] = (long) deg[order[from + i]] << 32 | order[from + i];
+                Arrays.sort(keys, 0, k); // by degree, ties by id
+                for (int i = 0; i < k; i++) order[from + i] = (int) keys[i];
+            }
+        }
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        return new VertexOrder(inverse(order), order);
+    }
+
+    public static VertexOrder degree(GraphView g) {
+        int n = g.n();
+        int[] deg = new int[n];
+        for (int v = 0; v < n; v++) deg[v] += g.outDegree(v);
+        for (int a = 0; a < g.m(); a++) deg[g.target(a)]++;
+        int[] order = sortByDegree(deg, true);
+        return new VertexOrder(inverse(order), order);
+    }
+
+    private static int visit(int w, boolean[] seen, int[] order, int tail) {
+        if (seen[w]) return tail;
+        seen[w] = true;
+        order[tail] = w;
+        return tail + 1;
+    }
+
+    /** Stable counting sort of the vertex ids by degree. */
+    private static int[] sortByDegree(int[] deg, boolean descending) {
+        int n = deg.length, max = 0;
+        for (int d : deg) max = Math.max(max, d);
+        int[] start = new int[max + 2];
+        for (int d : deg) start[(descending ? max - d : d) + 1]++;
+        for (int d = 0; d <= max; d++) start[d + 1] += start[d];
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++) order[start[descending ? max - deg[v] : deg[v]]++] = v;
+        return order;
+    }
+
+    private static int[] inverse(int[] order) {
+        int[] inv = new int[order.length];
+        for (int x = 0; x < order.length; x++) inv[order[x]] = x;
+        return inv;
+    }
+
+    // ---- relabeling ----
+
+    /** The graph with vertex v renamed newId[v]; the arcs of each vertex keep their order. */
+    public CsrGraph apply(GraphView g) {
+        int n = g.n();
+        if (n != n()) throw new IllegalArgumentException("Order has " + n() + " vertices, graph has " + n);
+        int[] offsets = new int[n + 1], targets = new int[g.m()], weights = new int[g.m()];
+        for (int x = 0; x < n; x++) offsets[x + 1] = offsets[x] + g.outDegree(oldId[x]);
+        for (int x = 0; x < n; x++) {
+            int u = oldId[x], k = offsets[x];
+            for (int a = g.begin(u); a < g.end(u); a++, k++) {
+                targets[k] = newId[g.target(a)];
+                weights[k] = g.weight(a);
+            }
+        }
+        return CsrGraph.of(n, g.directed(), offsets, targets, weights);
+    }
+
+    /** Per-vertex values of the relabeled graph, indexed by original id. */
+    public int[] toOriginal(int[] values) {
+        int[] out = new int[values.length];
+        for (int v = 0; v < out.length; v++) out[v] = values[newId[v]];
+        return out;
+    }
+
+    /** Per-vertex values of the relabeled graph, indexed by original id. */
+    public long[] toOriginal(long[] values) {
+        long[] out = new long[values.length];
+        for (int v = 0; v < out.length; v++) out[v] = values[newId[v]];
+        return out;
+    }
+
+    /** Relabeled vertex ids renamed to original ones, positions unchanged; negative entries (-1: none) stay. */
+    public int[] rename(int[] ids) {
+        int[] out = new int[ids.length];
+        for (int i = 0; i < out.length; i++) out[i] = ids[i] < 0 ? ids[i] : oldId[ids[i]];
+        return out;
+    }
+
+    /** A per-vertex array of vertex ids (e.g. a parent array) re-indexed and renamed; -1 stays -1. */
+    public int[] toOriginalIds(int[] ids) {
+        int[] out = new int[ids.length];
+        for (int v = 0; v < out.length; v++) {
+            int x = ids[newId[v]];
+            out[v] = x < 0 ? x : oldId[x];
+        }
+        return out;
+    }
+
+    /** Mean |u - v| over all arcs u->v: how far apart, in ids, a traversal's consecutive state accesses land. */
+    public static double meanArcSpan(GraphView g) {
+        if (g.m() == 0) return 0;
+        long sum = 0;
+        for (int u = 0; u < g.n(); u++)
+            for (int a = g.begin(u); a < g.end(u); a++) sum += Math.abs(u - g.target(a));
+        return sum / (double) g.m();
+    }
+}
@@ -0,0 +1,67 @@
+package graph.scc;
+
+import graph.model.VertexOrder;
+
+import java.util.*;
+
+/**
+ * Flat SCC partition: compId per vertex, and the members of component c stored in
+ * members[offsets[c] .. offsets[c+1]).
+ */
+public class Components {
+    public final int compCount;
+    public final int[] compId;   // compId[v] in [0..compCount-1]
+    public final int[] offsets;  // length compCount+1
+    public final int[] members;  // length n, grouped by component
+
+    public Components(int compCount, int[] compId, int[] offsets, int[] members) {
+        this.compCount = compCount;
+        this.compId = compId;
+        this.offsets = offsets;
+        this.members = members;
+    }
+
+    public int size(int c) { return offsets[c + 1] - offsets[c]; }
+
+    /** Groups vertices by component id with one counting sort (members ascending within a component). */
+    public static Components fromIds(int[] compId, int compCount) {
+        int[] offsets = new int[compCount + 1];
+        for (int c : compId) offsets[c + 1]++;
+        for (int c = 0; c < compCount; c++) offsets[c + 1] += offsets[c];
+        int[] pos = Arrays.copyOf(offsets, compCount);
+        int[] members = new int[compId.length];
+        for (int v = 0; v < compId.length; v++) members[pos[compId[v]]++] = v;
+        return new Components(compCount, compId, offsets, members);
+    }
+
+    /** Flattens a Kosaraju result, keeping its per-component discovery order. */
+    public static Components of(KosarajuSCC.Result r) {
+        int[] offsets = new int[r.compCount + 1];
+        int[] members = new int[r.compId.length];
+        int k = 0;
+        for (int c = 0; c < r.compCount; c++) {
+            for (int v : r.comps.get(c)) members[k++] = v;
+            offsets[c + 1] = k;
+        }
+        return new Components(r.compCount, r.compId, offsets, members);
+    }
+
+    /**
+     * This partition, computed on {@code order.apply(g)}, as a partition of g itself: same
+     * component ids and member order, original vertex ids.
+     */
+    public Components toOriginal(VertexOrder order) {
+        return new Components(compCount, order.toOriginal(compId), offsets, order.rename(members));
+    }
+
+    /** Boxed view, for JSON output and callers of the old List-based API. */
+    public List<List<Integer>> toLists() {
+        List<List<Integer>> comps = new ArrayList<>(compCount);
+        for (int c = 0; c < compCount; c++) {
+            List<Integer> comp = new ArrayList<>(size(c));
+            for (int i = offsets[c]; i < offsets[c + 1]; i++) comp.add(members[i]);
+            comps.add(comp);
+        }
+        return comps;
+    }
+}
@@ -1,5 +1,8 @@
 package graph.scc;
 
+import graph.model.CsrGraph;
+import graph.model.OffHeapGraph;
+import graph.model.GraphView;
 import graph.model.Graph;
 import graph.model.Edge;
 import graph.metrics.Metrics;
@@ -21,9 +24,10 @@ public class KosarajuSCC {
         }
     }
 
-    /** Computes SCC using Kosaraju (two DFS passes with stack). Counts metrics.dfsVisits/dfsEdges. */
+    /** Computes SCC using Kosaraju (two DFS passes with stack). Counts DFS visits/edges. */
     public static Result run(Graph g, Metrics metrics) {
-        long t0 = System.nanoTime();
+        Metrics.Span span = metrics.begin(Metrics.Phase.SCC);
+        long[] count = new long[2]; // visits, edges
 
         int n = g.n();
         List<List<Edge>> adj = g.adj();
@@ -33,7 +37,7 @@ public class KosarajuSCC {
 
         // 1) DFS on original graph, push vertices to stack after exploring
         for (int v = 0; v < n; v++) {
-            if (!vis[v]) dfs1(v, adj, vis, stack, metrics);
+            if (!vis[v]) dfs1(v, adj, vis, stack, count);
         }
 
         // 2) DFS on reversed graph in stack order -> components
@@ -48,35 +52,115 @@ public class KosarajuSCC {
             int v = stack.pop();
             if (!vis[v]) {
                 List<Integer> comp = new ArrayList<>();
-                dfs2(v, gr.adj(), vis, comp, metrics);
+                dfs2(v, gr.adj(), vis, comp, count);
                 for (int u : comp) compId[u] = cid;
                 comps.add(comp);
                 cid++;
             }
         }
 
-        long t1 = System.nanoTime();
-        metrics.timeNanos += (t1 - t0);
+        metrics.add(Metrics.Counter.DFS_VISITS, count[0]);
+        metrics.add(Metrics.Counter.DFS_EDGES, count[1]);
+        span.end();
         return new Result(cid, compId, comps);
     }
 
-    private static void dfs1(int v, List<List<Edge>> adj, boolean[] vis, Deque<Integer> stack, Metrics m) {
+    /** Kosaraju over a CSR-shaped graph: iterative DFS with an explicit edge cursor, no Edge objects. */
+    public static Result run(GraphView g, Metrics metrics) {
+        Metrics.Span span = metrics.begin(Metrics.Phase.SCC);
+        long visits = 0, edges = 0;
+
+        int n = g.n();
+        boolean[] vis = new boolean[n];
+        int[] order = new int[n];   // vertices by increasing finish time
+        int finished = 0;
+        int[] stack = new int[n];
+        int[] cursor = new int[n];  // next arc to scan for each vertex on the stack
+
+        // 1) DFS on original graph, record finish order
+        for (int s = 0; s < n; s++) {
+            if (vis[s]) continue;
+            int sp = 0;
+            stack[sp++] = s;
+            vis[s] = true;
+            cursor[s] = g.begin(s);
+            visits++;
+            while (sp > 0) {
+                int v = stack[sp - 1];
+                if (cursor[v] < g.end(v)) {
+                    int w = g.target(cursor[v]++);
+                    edges++;
+                    if (!vis[w]) {
+                        vis[w] = true;
+                        cursor[w] = g.begin(w);
+                        visits++;
+                        stack[sp++] = w;
+                    }
+                } else {
+                    order[finished++] = v;
+                    sp--;
+                }
+            }
+        }
+
+        // 2) DFS on transpose in decreasing finish time -> components; the transpose of an
+        // off-heap graph is built off-heap too (and freed here), so heap use stays O(n)
+        GraphView gr = g instanceof OffHeapGraph ? OffHeapGraph.transpose(g) : CsrGraph.transpose(g);
+        Arrays.fill(vis, false);
+        int[] compId = new int[n];
+        Arrays.fill(compId, -1);
+        List<List<Integer>> comps = new ArrayList<>();
+        int cid = 0;
+
+        try {
+            for (int i = n - 1; i >= 0; i--) {
+                int s = order[i];
+                if (vis[s]) continue;
+                List<Integer> comp = new ArrayList<>();
+                int sp = 0;
+                stack[sp++] = s;
+                vis[s] = true;
+                while (sp > 0) {
+                    int v = stack[--sp];
+                    comp.add(v);
+                    compId[v] = cid;
+                    visits++;
+                    for (int a = gr.begin(v); a < gr.end(v); a++) {
+                        int w = gr.target(a);
+                        edges++;
+                        if (!vis[w]) { vis[w] = true; stack[sp++] = w; }
+                    }
+                }
+                comps.add(comp);
+                cid++;
+            }
+        } finally {
+            if (gr instanceof OffHeapGraph) ((OffHeapGraph) gr).close();
+        }
+
+        metrics.add(Metrics.Counter.DFS_VISITS, visits);
+        metrics.add(Metrics.Counter.DFS_EDGES, edges);
+        span.end();
+        return new Result(cid, compId, comps);
+    }
+
+    private static void dfs1(int v, List<List<Edge>> adj, boolean[] vis, Deque<Integer> stack, long[] count) {
         vis[v] = true;
-        m.dfsVisits++;
+        count[0]++;
         for (Edge e : adj.get(v)) {
-            m.dfsEdges++;
-            if (!vis[e.v]) dfs1(e.v, adj, vis, stack, m);
+            count[1]++;
+            if (!vis[e.v]) dfs1(e.v, adj, vis, stack, count);
         }
         stack.push(v);
     }
 
-    private static void dfs2(int v, List<List<Edge>> adj, boolean[] vis, List<Integer> comp, Metrics m) {
+    private static void dfs2(int v, List<List<Edge>> adj, boolean[] vis, List<Integer> comp, long[] count) {
         vis[v] = true;
         comp.add(v);
-        m.dfsVisits++;
+        count[0]++;
         for (Edge e : adj.get(v)) {
-            m.dfsEdges++;
-            if (!vis[e.v]) dfs2(e.v, adj, vis, comp, m);
+            count[1]++;
+            if (!vis[e.v]) dfs2(e.v, adj, vis, comp, count);
         }
     }
 }
\ No newline at end of file
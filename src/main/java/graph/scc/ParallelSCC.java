@@ -0,0 +1,303 @@
+package graph.scc;
+
+import graph.model.CsrGraph;
+import graph.model.GraphView;
+import graph.metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel SCC on a ForkJoinPool:
+ * 1) trim: vertices with no remaining in- or out-arcs are singleton SCCs; peeled in
+ *    parallel rounds while the frontier is large, then by a sequential worklist;
+ * 2) forward-backward: pick a pivot, F = reach(pivot), B = reach^-1(pivot); F∩B is an SCC
+ *    and F\B, B\F and the rest are independent subproblems forked as separate tasks;
+ *    subproblems below {@link #SEQUENTIAL_THRESHOLD} vertices are finished by an iterative
+ *    Tarjan restricted to the subproblem.
+ * Subproblems own disjoint vertex sets, each tagged with a unique color, so tasks share the
+ * per-vertex arrays without locking. Component ids differ from the sequential algorithms,
+ * but the partition is the same.
+ */
+public class ParallelSCC {
+    static final int SEQUENTIAL_THRESHOLD = 4096;
+    static final int PARALLEL_TRIM_THRESHOLD = 8192;
+
+    /** Partition plus per-phase statistics. */
+    public static class Result {
+        public final Components components;
+        public final int threads;
+        public final int trimmed;          // singleton SCCs removed by trimming
+        public final int trimRounds;       // parallel trimming rounds
+        public final int pivots;           // forward-backward steps
+        public final int sequentialBlocks; // subproblems finished by Tarjan
+        public final long trimNanos;
+        public final long decompositionNanos;
+
+        public Result(Components components, int threads, int trimmed, int trimRounds, int pivots,
+                      int sequentialBlocks, long trimNanos, long decompositionNanos) {
+            this.components = components;
+            this.threads = threads;
+            this.trimmed = trimmed;
+            this.trimRounds = trimRounds;
+            this.pivots = pivots;
+            this.sequentialBlocks = sequentialBlocks;
+            this.trimNanos = trimNanos;
+            this.decompositionNanos = decompositionNanos;
+        }
+    }
+
+    /** Runs on the common pool. */
+    public static Components run(GraphView g, Metrics metrics) {
+        return run(g, ForkJoinPool.commonPool(), metrics).components;
+    }
+
+    /** Computes SCC on the given pool; adds dfsVisits/dfsEdges (vertices/arcs scanned) to metrics. */
+    public static Result run(GraphView g, ForkJoinPool pool, Metrics metrics) {
+        Metrics.Span span = metrics.begin(Metrics.Phase.SCC);
+        long t0 = System.nanoTime();
+        State s = new State(g, CsrGraph.transpose(g));
+        int trimmed = pool.invoke(task(s::trim));
+        long t1 = System.nanoTime();
+
+        int[] rest = pool.invoke(task(() ->
+                IntStream.range(0, s.n).parallel().filter(v -> s.comp[v] < 0).toArray()));
+        if (rest.length > 0) pool.invoke(new FwBw(s, rest, 0));
+        long t2 = System.nanoTime();
+
+        metrics.add(Metrics.Counter.DFS_VISITS, s.visits.sum());
+        metrics.add(Metrics.Counter.DFS_EDGES, s.edges.sum());
+        span.end();
+        Components c = Components.fromIds(s.comp, s.nextComp.get());
+        return new Result(c, pool.getParallelism(), trimmed, s.trimRounds, s.pivots.get(),
+                s.sequentialBlocks.get(), t1 - t0, t2 - t1);
+    }
+
+    /** Shared per-run state; each vertex is written only by the task that owns its color. */
+    private static final class State {
+        final GraphView g;
+        final CsrGraph gr;
+        final int n;
+        final int[] comp;     // final component id, -1 while unassigned
+        final int[] color;    // subproblem tag of unassigned vertices
+        final int[] local;    // scratch index used by the sequential finisher
+        final AtomicInteger nextComp = new AtomicInteger();
+        final AtomicInteger nextColor = new AtomicInteger();
+        final AtomicInteger pivots = new AtomicInteger();
+        final AtomicInteger sequentialBlocks = new AtomicInteger();
+        final LongAdder visits = new LongAdder();
+        final LongAdder edges = new LongAdder();
+        int trimRounds;
+
+        State(GraphView g, CsrGraph gr) {
+            this.g = g;
+            this.gr = gr;
+            this.n = g.n();
+            this.comp = new int[n];
+            this.color = new int[n];
+            this.local = new int[n];
+            Arrays.fill(comp, -1);
+        }
+
+        /** Peels zero in/out-degree vertices; returns how many were removed. */
+        int trim() {
+            AtomicIntegerArray in = new AtomicIntegerArray(n), out = new AtomicIntegerArray(n);
+            AtomicIntegerArray removed = new AtomicIntegerArray(n);
+            IntStream.range(0, n).parallel().forEach(v -> {
+                int o = 0, i = 0;
+                for (int a = g.begin(v); a < g.end(v); a++) if (g.target(a) != v) o++;
+                for (int a = gr.begin(v); a < gr.end(v); a++) if (gr.target(a) != v) i++;
+                out.set(v, o);
+                in.set(v, i);
+            });
+            int[] frontier = IntStream.range(0, n).parallel()
+                    .filter(v -> in.get(v) == 0 || out.get(v) == 0).toArray();
+
+            while (frontier.length >= PARALLEL_TRIM_THRESHOLD) {
+                trimRounds++;
+                frontier = Arrays.stream(frontier).parallel()
+                        .flatMap(v -> IntStream.of(peel(v, in, out, removed)))
+                        .toArray();
+            }
+            int[] work = Arrays.copyOf(frontier, Math.max(16, frontier.length));
+            int top = frontier.length;
+            while (top > 0) {
+                int[] next = peel(work[--top], in, out, removed);
+                if (top + next.length > work.length) work = Arrays.copyOf(work, 2 * (top + next.length));
+                System.arraycopy(next, 0, work, top, next.length);
+                top += next.length;
+            }
+            return nextComp.get();
+        }
+
+        private static final int[] NONE = new int[0];
+
+        /** Removes v if still trimmable and returns neighbours that just became trimmable. */
+        private int[] peel(int v, AtomicIntegerArray in, AtomicIntegerArray out, AtomicIntegerArray removed) {
+            if ((in.get(v) != 0 && out.get(v) != 0) || !removed.compareAndSet(v, 0, 1)) return NONE;
+            comp[v] = nextComp.getAndIncrement();
+            visits.increment();
+            int[] next = NONE;
+            int k = 0;
+            for (int a = g.begin(v); a < g.end(v); a++) {
+                int w = g.target(a);
+                if (w != v && in.decrementAndGet(w) == 0 && removed.get(w) == 0) {
+                    if (k == next.length) next = Arrays.copyOf(next, Math.max(4, 2 * k));
+                    next[k++] = w;
+                }
+            }
+            for (int a = gr.begin(v); a < gr.end(v); a++) {
+                int w = gr.target(a);
+                if (w != v && out.decrementAndGet(w) == 0 && removed.get(w) == 0) {
+                    if (k == next.length) next = Arrays.copyOf(next, Math.max(4, 2 * k));
+                    next[k++] = w;
+                }
+            }
+            edges.add(g.end(v) - g.begin(v) + gr.end(v) - gr.begin(v));
+            return k == next.length ? next : Arrays.copyOf(next, k);
+        }
+    }
+
+    /** One forward-backward step on the vertices tagged {@code c}. */
+    private static final class FwBw extends RecursiveAction {
+        private final State s;
+        private final int[] verts;
+        private final int c;
+
+        FwBw(State s, int[] verts, int c) {
+            this.s = s;
+            this.verts = verts;
+            this.c = c;
+        }
+
+        @Override
+        protected void compute() {
+            if (verts.length <= SEQUENTIAL_THRESHOLD) {
+                tarjan();
+                return;
+            }
+            s.pivots.incrementAndGet();
+            int[] color = s.color;
+            int f = s.nextColor.incrementAndGet();   // forward-only
+            int b = s.nextColor.incrementAndGet();   // backward-only
+            int done = s.nextColor.incrementAndGet(); // in the pivot's SCC
+            int cid = s.nextComp.getAndIncrement();
+            int pivot = verts[verts.length / 2];
+            long edges = 0;
+
+            int[] queue = new int[verts.length];
+            int head = 0, tail = 0;
+            color[pivot] = f;
+            queue[tail++] = pivot;
+            while (head < tail) {
+                int x = queue[head++];
+                for (int a = s.g.begin(x); a < s.g.end(x); a++) {
+                    int y = s.g.target(a);
+                    edges++;
+                    if (color[y] == c && s.comp[y] < 0) { color[y] = f; queue[tail++] = y; }
+                }
+            }
+
+            head = tail = 0;
+            color[pivot] = done;
+            s.comp[pivot] = cid;
+            queue[tail++] = pivot;
+            while (head < tail) {
+                int x = queue[head++];
+                for (int a = s.gr.begin(x); a < s.gr.end(x); a++) {
+                    int y = s.gr.target(a);
+                    edges++;
+                    if (s.comp[y] >= 0) continue;
+                    if (color[y] == f) { color[y] = done; s.comp[y] = cid; queue[tail++] = y; }
+                    else if (color[y] == c) { color[y] = b; queue[tail++] = y; }
+                }
+            }
+
+            int nf = 0, nb = 0, nr = 0, nd = 0;
+            for (int v : verts) {
+                int col = color[v];
+                if (col == f) nf++; else if (col == b) nb++; else if (col == c) nr++; else nd++;
+            }
+            s.visits.add(2L * nd + nf + nb);
+            s.edges.add(edges);
+            int[] fs = new int[nf], bs = new int[nb], rs = new int[nr];
+            nf = nb = nr = 0;
+            for (int v : verts) {
+                int col = color[v];
+                if (col == f) fs[nf++] = v; else if (col == b) bs[nb++] = v; else if (col == c) rs[nr++] = v;
+            }
+            invokeAll(new FwBw(s, fs, f), new FwBw(s, bs, b), new FwBw(s, rs, c));
+        }
+
+        /** Iterative Tarjan on the subgraph induced by this task's vertices. */
+        private void tarjan() {
+            int k = verts.length;
+            if (k == 0) return;
+            s.sequentialBlocks.incrementAndGet();
+            int[] local = s.local, color = s.color;
+            for (int i = 0; i < k; i++) local[verts[i]] = i;
+
+            int[] index = new int[k], low = new int[k], cursor = new int[k];
+            int[] call = new int[k], stack = new int[k];
+            boolean[] onStack = new boolean[k];
+            int next = 1, sp, top = 0;
+            long edges = 0;
+
+            for (int r = 0; r < k; r++) {
+                if (index[r] != 0) continue;
+                sp = 0;
+                call[sp++] = r;
+                index[r] = low[r] = next++;
+                cursor[r] = s.g.begin(verts[r]);
+                stack[top++] = r;
+                onStack[r] = true;
+                while (sp > 0) {
+                    int i = call[sp - 1], v = verts[i];
+                    if (cursor[i] < s.g.end(v)) {
+                        int w = s.g.target(cursor[i]++);
+                        edges++;
+                        if (color[w] != c || s.comp[w] >= 0) continue; // outside this subproblem
+                        int j = local[w];
+                        if (index[j] == 0) {
+                            index[j] = low[j] = next++;
+                            cursor[j] = s.g.begin(w);
+                            stack[top++] = j;
+                            onStack[j] = true;
+                            call[sp++] = j;
+                        } else if (onStack[j]) {
+                            low[i] = Math.min(low[i], index[j]);
+                        }
+                        continue;
+                    }
+                    sp--;
+                    if (sp > 0) low[call[sp - 1]] = Math.min(low[call[sp - 1]], low[i]);
+                    if (low[i] == index[i]) {
+                        int cid = s.nextComp.getAndIncrement();
+                        int j;
+                        do {
+                            j = stack[--top];
+                            onStack[j] = false;
+                            s.comp[verts[j]] = cid;
+                        } while (j != i);
+                    }
+                }
+            }
+            s.visits.add(k);
+            s.edges.add(edges);
+        }
+    }
+
+    /** Wraps a supplier as a ForkJoin task, so parallel streams inside it use the caller's pool. */
+    private static <T> RecursiveTask<T> task(Supplier<T> body) {
+        return new RecursiveTask<T>() {
+            @Override protected T compute() { return body.get(); }
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package graph.scc;
+
+import graph.model.GraphView;
+import graph.metrics.Metrics;
+
+import java.util.Locale;
+
+/** Selectable SCC implementations, so both can be run and compared on the same input. */
+public enum SccAlgorithm {
+    /** Two-pass Kosaraju (builds the transpose). */
+    KOSARAJU {
+        @Override public Components run(GraphView g, Metrics metrics) {
+            return Components.of(KosarajuSCC.run(g, metrics));
+        }
+    },
+    /** Single-pass iterative Tarjan/Pearce (no transpose). */
+    TARJAN {
+        @Override public Components run(GraphView g, Metrics metrics) {
+            return TarjanSCC.run(g, metrics);
+        }
+    },
+    /** Trim + forward-backward decomposition on the common ForkJoinPool. */
+    PARALLEL {
+        @Override public Components run(GraphView g, Metrics metrics) {
+            return ParallelSCC.run(g, metrics);
+        }
+    };
+
+    public abstract Components run(GraphView g, Metrics metrics);
+
+    /** Parses a case-insensitive name such as "tarjan". */
+    public static SccAlgorithm fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
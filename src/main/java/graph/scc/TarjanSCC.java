@@ -0,0 +1,85 @@
+package graph.scc;
+
+import graph.model.GraphView;
+import graph.metrics.Metrics;
+
+/**
+ * Single-pass SCC in the style of Pearce's space-efficient Tarjan variant, run with explicit
+ * stacks so recursion depth never depends on the input. No transpose graph is built.
+ * Component ids come out in topological order of the condensation (every inter-component
+ * edge goes from a lower id to a higher id).
+ */
+public class TarjanSCC {
+
+    /** Computes SCC; counts DFS visits/edges. */
+    public static Components run(GraphView g, Metrics metrics) {
+        Metrics.Span span = metrics.begin(Metrics.Phase.SCC);
+        long visits = 0, edges = 0;
+
+        int n = g.n();
+        // rindex[v]: 0 = unvisited, in [1, index) = DFS index / lowlink, >= c = final component slot
+        int[] rindex = new int[n];
+        boolean[] root = new boolean[n];
+        int[] call = new int[n];     // DFS call stack
+        int[] cursor = new int[n];   // next arc of each vertex on the call stack
+        int[] pending = new int[n];  // vertices visited but not yet assigned to a component
+        int sp = 0, pp = 0;
+        int index = 1, c = n - 1;
+
+        for (int s = 0; s < n; s++) {
+            if (rindex[s] != 0) continue;
+            rindex[s] = index++;
+            root[s] = true;
+            cursor[s] = g.begin(s);
+            call[sp++] = s;
+            visits++;
+
+            while (sp > 0) {
+                int v = call[sp - 1];
+                if (cursor[v] < g.end(v)) {
+                    int w = g.target(cursor[v]);
+                    if (rindex[w] == 0) {   // descend; the arc is finished when w returns
+                        rindex[w] = index++;
+                        root[w] = true;
+                        cursor[w] = g.begin(w);
+                        call[sp++] = w;
+                        visits++;
+                        continue;
+                    }
+                    edges++;
+                    if (rindex[w] < rindex[v]) { rindex[v] = rindex[w]; root[v] = false; }
+                    cursor[v]++;
+                    continue;
+                }
+
+                // v is finished
+                sp--;
+                if (root[v]) {
+                    index--;
+                    while (pp > 0 && rindex[v] <= rindex[pending[pp - 1]]) {
+                        rindex[pending[--pp]] = c;
+                        index--;
+                    }
+                    rindex[v] = c--;
+                } else {
+                    pending[pp++] = v;
+                }
+                if (sp > 0) {               // finish the tree arc parent -> v
+                    int p = call[sp - 1];
+                    edges++;
+                    if (rindex[v] < rindex[p]) { rindex[p] = rindex[v]; root[p] = false; }
+                    cursor[p]++;
+                }
+            }
+        }
+
+        // slots were handed out downward from n-1; shift so ids are [0, compCount) in topo order
+        int compCount = n - 1 - c;
+        for (int v = 0; v < n; v++) rindex[v] -= c + 1;
+
+        metrics.add(Metrics.Counter.DFS_VISITS, visits);
+        metrics.add(Metrics.Counter.DFS_EDGES, edges);
+        span.end();
+        return Components.fromIds(rindex, compCount);
+    }
+}
@@ -0,0 +1,226 @@
+package graph.service;
+
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGShortestPath;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.model.GraphView;
+import graph.metrics.Metrics;
+import graph.scc.Components;
+import graph.scc.SccAlgorithm;
+import graph.topo.TopologicalSort;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process "shortest / critical path from X to Y" queries. Each published graph version
+ * is analysed once (SCC, condensation, topological order); per-source results on its
+ * condensation are computed on first use and kept in a byte-bounded LRU, so repeated queries
+ * from the same source cost one array lookup plus the parent walk.
+ * Safe for concurrent queries; two threads missing on the same source may both compute it.
+ */
+public class PathQueryService {
+
+    /** Default cache budget: 64 MiB of distance/parent arrays. */
+    public static final long DEFAULT_CACHE_BYTES = 64L << 20;
+
+    private static final int SHORTEST = 0, LONGEST = 1;
+
+    /** Everything derived from one graph version that does not depend on the source. */
+    public static class Snapshot {
+        public final int version;
+        public final GraphView graph;
+        public final Components components;
+        public final CsrGraph dag;
+        public final int[] topoOrder;
+        public final long prepareNanos;
+
+        Snapshot(int version, GraphView graph, Components components, CsrGraph dag, int[] topoOrder,
+                 long prepareNanos) {
+            this.version = version;
+            this.graph = graph;
+            this.components = components;
+            this.dag = dag;
+            this.topoOrder = topoOrder;
+            this.prepareNanos = prepareNanos;
+        }
+    }
+
+    /** One answered query; the path is a list of condensation components, as in {@code buildPathTo}. */
+    public static class PathAnswer {
+        public final int version;
+        public final int fromComp;
+        public final int toComp;
+        public final long length;      // the result's sentinel when unreachable
+        public final List<Integer> path;
+
+        PathAnswer(int version, int fromComp, int toComp, long length, List<Integer> path) {
+            this.version = version;
+            this.fromComp = fromComp;
+            this.toComp = toComp;
+            this.length = length;
+            this.path = path;
+        }
+
+        public boolean reachable() { return !path.isEmpty(); }
+    }
+
+    /** Cache counters, for sizing the budget. */
+    public static class CacheStats {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final int entries;
+        public final long bytes;
+        public final long capacityBytes;
+
+        CacheStats(long hits, long misses, long evictions, int entries, long bytes, long capacityBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.entries = entries;
+            this.bytes = bytes;
+            this.capacityBytes = capacityBytes;
+        }
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : hits / (double) total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d (%.1f%% hit) evictions=%d entries=%d bytes=%d/%d",
+                    hits, misses, 100 * hitRate(), evictions, entries, bytes, capacityBytes);
+        }
+    }
+
+    private final SccAlgorithm scc;
+    private final Condensation.WeightPolicy policy;
+    private final ResultCache cache;
+    private final ConcurrentHashMap<Integer, Snapshot> versions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextVersion = new AtomicInteger();
+    private volatile Snapshot current;
+
+    public PathQueryService() {
+        this(DEFAULT_CACHE_BYTES, SccAlgorithm.TARJAN, Condensation.WeightPolicy.FIRST);
+    }
+
+    public PathQueryService(long cacheBytes, SccAlgorithm scc, Condensation.WeightPolicy policy) {
+        this.scc = scc;
+        this.policy = policy;
+        this.cache = new ResultCache(cacheBytes);
+    }
+
+    /** Analyses a graph and makes it the current version; older versions stay queryable until retired. */
+    public int publish(GraphView g) {
+        long t0 = System.nanoTime();
+        Components c = scc.run(g, Metrics.NOOP);
+        CsrGraph dag = Condensation.build(g, c.compId, c.compCount, policy);
+        int[] topo = TopologicalSort.kahn(dag, Metrics.NOOP);
+        int version = nextVersion.getAndIncrement();
+        Snapshot s = new Snapshot(version, g, c, dag, topo, System.nanoTime() - t0);
+        versions.put(version, s);
+        current = s;
+        return version;
+    }
+
+    /** Forgets a version and its cached results; queries still running on it do not repopulate the cache. */
+    public void retire(int version) {
+        Snapshot s = versions.remove(version); // before invalidating: cache puts check versions under the cache lock
+        if (s != null && current == s) current = null;
+        cache.invalidate(version);
+    }
+
+    public int currentVersion() { return current().version; }
+
+    public Snapshot snapshot(int version) {
+        Snapshot s = versions.get(version);
+        if (s == null) throw new IllegalArgumentException("Unknown or retired graph version " + version);
+        return s;
+    }
+
+    /** Shortest path between two vertices of the current version. */
+    public PathAnswer shortestPath(int from, int to) {
+        return shortestPath(current().version, from, to);
+    }
+
+    public PathAnswer shortestPath(int version, int from, int to) {
+        Snapshot s = snapshot(version);
+        int fc = compOf(s, from), tc = compOf(s, to);
+        DAGShortestPath.Result r = shortestFrom(s, fc);
+        return new PathAnswer(version, fc, tc, r.dist[tc], r.buildPathTo(tc));
+    }
+
+    /** Longest (critical) path between two vertices of the current version. */
+    public PathAnswer criticalPath(int from, int to) {
+        return criticalPath(current().version, from, to);
+    }
+
+    public PathAnswer criticalPath(int version, int from, int to) {
+        Snapshot s = snapshot(version);
+        int fc = compOf(s, from), tc = compOf(s, to);
+        DAGLongestPath.Result r = longestFrom(s, fc);
+        return new PathAnswer(version, fc, tc, r.best[tc], r.buildPathTo(tc));
+    }
+
+    /** Cached single-source shortest result on the condensation; callers must not modify its arrays. */
+    public DAGShortestPath.Result shortestFrom(int version, int sourceComp) {
+        return shortestFrom(snapshot(version), sourceComp);
+    }
+
+    /** Cached single-source longest result on the condensation; callers must not modify its arrays. */
+    public DAGLongestPath.Result longestFrom(int version, int sourceComp) {
+        return longestFrom(snapshot(version), sourceComp);
+    }
+
+    public CacheStats cacheStats() { return cache.stats(); }
+
+    // ---- internals ----
+
+    private DAGShortestPath.Result shortestFrom(Snapshot s, int comp) {
+        checkComp(s, comp);
+        long key = ResultCache.key(s.version, SHORTEST, comp);
+        DAGShortestPath.Result r = (DAGShortestPath.Result) cache.get(key);
+        if (r == null) {
+            r = DAGShortestPath.run(s.dag, s.topoOrder, comp, Metrics.NOOP);
+            cache.put(key, r, resultBytes(s.dag.n()), versions::containsKey);
+        }
+        return r;
+    }
+
+    private DAGLongestPath.Result longestFrom(Snapshot s, int comp) {
+        checkComp(s, comp);
+        long key = ResultCache.key(s.version, LONGEST, comp);
+        DAGLongestPath.Result r = (DAGLongestPath.Result) cache.get(key);
+        if (r == null) {
+            r = DAGLongestPath.run(s.dag, s.topoOrder, comp, Metrics.NOOP);
+            cache.put(key, r, resultBytes(s.dag.n()), versions::containsKey);
+        }
+        return r;
+    }
+
+    /** long[] values + int[] parent plus array and object headers. */
+    static long resultBytes(int n) {
+        return 12L * n + 64;
+    }
+
+    private Snapshot current() {
+        Snapshot s = current;
+        if (s == null) throw new IllegalStateException("No graph published");
+        return s;
+    }
+
+    private static int compOf(Snapshot s, int v) {
+        if (v < 0 || v >= s.graph.n())
+            throw new IndexOutOfBoundsException("Vertex " + v + " out of range [0," + s.graph.n() + ")");
+        return s.components.compId[v];
+    }
+
+    private static void checkComp(Snapshot s, int comp) {
+        if (comp < 0 || comp >= s.dag.n())
+            throw new IndexOutOfBoundsException("Component " + comp + " out of range [0," + s.dag.n() + ")");
+    }
+}
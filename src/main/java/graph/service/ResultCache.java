@@ -0,0 +1,83 @@
+package graph.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Least-recently-used cache bounded by an estimate of retained bytes rather than by entry
+ * count, since per-source arrays grow with the graph. Keys pack (version, objective, source)
+ * into one long. All methods are synchronized; callers compute misses outside the lock.
+ */
+final class ResultCache {
+
+    private static final class Entry {
+        final Object value;
+        final long bytes;
+
+        Entry(Object value, long bytes) {
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+
+    private final long capacityBytes;
+    private final LinkedHashMap<Long, Entry> map = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes, hits, misses, evictions;
+
+    ResultCache(long capacityBytes) {
+        if (capacityBytes < 0) throw new IllegalArgumentException("capacityBytes must be >= 0");
+        this.capacityBytes = capacityBytes;
+    }
+
+    static long key(int version, int objective, int source) {
+        return (long) version << 32 | (long) objective << 31 | source;
+    }
+
+    /** Returns the cached value and marks it most recently used, or null on a miss. */
+    synchronized Object get(long key) {
+        Entry e = map.get(key);
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return e.value;
+    }
+
+    /**
+     * Inserts a value and evicts from the cold end until the budget holds; oversized values are not
+     * kept, nor values of a version {@code live} rejects. Checking under the lock means a value
+     * computed while its version was being retired is either dropped here or by the invalidate that
+     * follows, never left behind.
+     */
+    synchronized void put(long key, Object value, long size, IntPredicate live) {
+        if (size > capacityBytes || !live.test((int) (key >>> 32))) return;
+        Entry old = map.put(key, new Entry(value, size));
+        if (old != null) bytes -= old.bytes;
+        bytes += size;
+        Iterator<Entry> it = map.values().iterator();
+        while (bytes > capacityBytes && it.hasNext()) {
+            bytes -= it.next().bytes;
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /** Drops every entry of one graph version (not counted as evictions). */
+    synchronized void invalidate(int version) {
+        Iterator<Map.Entry<Long, Entry>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Entry> e = it.next();
+            if ((int) (e.getKey() >>> 32) == version) {
+                bytes -= e.getValue().bytes;
+                it.remove();
+            }
+        }
+    }
+
+    synchronized PathQueryService.CacheStats stats() {
+        return new PathQueryService.CacheStats(hits, misses, evictions, map.size(), bytes, capacityBytes);
+    }
+}
@@ -0,0 +1,262 @@
+package graph.topo;
+
+import graph.dagsp.CriticalPathMethod;
+import graph.dagsp.WeightModel;
+import graph.metrics.Metrics;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.model.Graph;
+import graph.model.GraphView;
+import graph.scc.Components;
+import graph.scc.KosarajuSCC;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs one task per vertex so that a task starts only after every task it depends on (u->v: v
+ * after u) has finished. Vertices of one SCC depend on each other and run one after another, in
+ * member order, as a single component job; component jobs follow the condensation DAG.
+ * <ul>
+ *   <li>each component has an atomic count of unfinished predecessors; the job that brings it to
+ *       zero launches it, so there is no global lock or ready queue;</li>
+ *   <li>of the successors a job releases, the most urgent continues on the same thread and the
+ *       rest are handed to the executor (on a ForkJoinPool: pushed on the worker's own deque,
+ *       least urgent first, so the owner pops the urgent ones and thieves take the rest);</li>
+ *   <li>urgency is the CPM latest start over the condensation with per-vertex costs: critical
+ *       components (no slack) and long remaining chains go first.</li>
+ * </ul>
+ * The first failing task stops all callbacks not yet started; its exception is rethrown from
+ * {@link #run} once in-flight jobs have drained. A job the executor rejects counts as a failure
+ * too: the components behind it never run, and {@link #run} returns once the accepted jobs finish.
+ */
+public final class DependencyExecutor {
+
+    /** Work for one vertex; may run on any thread, concurrently with independent vertices. */
+    @FunctionalInterface
+    public interface Task {
+        void run(int vertex) throws Exception;
+    }
+
+    /** Timing of one run. Busy time is spent inside callbacks; overhead is the rest of each job. */
+    public static final class Report {
+        public final int tasks;
+        public final int components;
+        public final int criticalComponents;
+        public final int workers;
+        public final long makespanNanos;
+        public final long busyNanos;
+        public final long overheadNanos;
+
+        Report(int tasks, int components, int criticalComponents, int workers,
+               long makespanNanos, long busyNanos, long overheadNanos) {
+            this.tasks = tasks;
+            this.components = components;
+            this.criticalComponents = criticalComponents;
+            this.workers = workers;
+            this.makespanNanos = makespanNanos;
+            this.busyNanos = busyNanos;
+            this.overheadNanos = overheadNanos;
+        }
+
+        /** Share of workers x makespan spent inside callbacks. */
+        public double utilization() {
+            return makespanNanos == 0 ? 0 : busyNanos / ((double) makespanNanos * workers);
+        }
+
+        /** Scheduling cost per task: dependency bookkeeping and hand-off, outside the callbacks. */
+        public double overheadPerTaskNanos() {
+            return tasks == 0 ? 0 : overheadNanos / (double) tasks;
+        }
+    }
+
+    /** Object-graph version on the common pool. */
+    public static Report run(Graph g, KosarajuSCC.Result scc, int[] cost, Task task, Metrics metrics)
+            throws InterruptedException, ExecutionException {
+        return run(CsrGraph.from(g), scc, cost, task, ForkJoinPool.commonPool(), metrics);
+    }
+
+    /**
+     * Runs {@code task} for every vertex of {@code g}, partitioned by {@code scc}. {@code cost[v]}
+     * estimates vertex v's running time for prioritizing (null: every vertex costs 1). Any executor
+     * works; a ForkJoinPool (work stealing) or a virtual-thread-per-task executor are the intended ones.
+     */
+    public static Report run(GraphView g, KosarajuSCC.Result scc, int[] cost, Task task, Executor executor,
+                             Metrics metrics) throws InterruptedException, ExecutionException {
+        int n = g.n();
+        if (scc.compId.length != n)
+            throw new IllegalArgumentException("SCC result has " + scc.compId.length + " vertices, graph has " + n);
+        if (cost == null) {
+            cost = new int[n];
+            Arrays.fill(cost, 1);
+        }
+        Components comps = Components.of(scc);
+        CsrGraph dag = Condensation.build(g, comps.compId, comps.compCount, Condensation.WeightPolicy.FIRST);
+        int[] topo = TopologicalSort.kahn(dag, metrics);
+        CriticalPathMethod.Schedule cpm = CriticalPathMethod.run(dag, topo, WeightModel.durations(cost, comps), metrics);
+        int workers = executor instanceof ForkJoinPool ? ((ForkJoinPool) executor).getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+
+        Metrics.Span span = metrics.begin(Metrics.Phase.EXECUTE);
+        Run run = new Run(dag, comps, cpm.latestStart, task, executor);
+        long t0 = System.nanoTime();
+        run.start();
+        try {
+            run.done.await();
+        } catch (InterruptedException e) {
+            run.fail(e, -1); // let in-flight jobs skip their callbacks
+            throw e;
+        }
+        long makespan = System.nanoTime() - t0;
+        span.end();
+
+        Throwable failure = run.failure.get();
+        if (failure != null) throw new ExecutionException(run.failureMessage(), failure);
+        return new Report(n, comps.compCount, cpm.criticalTasks().length, workers,
+                makespan, run.busy.sum(), run.overhead.sum());
+    }
+
+    /** State shared by the jobs of one run. */
+    private static final class Run {
+        final GraphView dag;
+        final Components comps;
+        final long[] priority; // smaller is more urgent
+        final Task task;
+        final Executor executor;
+        final AtomicIntegerArray pending;
+        final AtomicInteger remaining;
+        final AtomicInteger jobs = new AtomicInteger(); // submitted and not finished, plus one while start() launches
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        volatile int failedVertex = -1;
+        final LongAdder busy = new LongAdder(), overhead = new LongAdder();
+
+        Run(GraphView dag, Components comps, long[] priority, Task task, Executor executor) {
+            this.dag = dag;
+            this.comps = comps;
+            this.priority = priority;
+            this.task = task;
+            this.executor = executor;
+            int c = dag.n();
+            this.pending = new AtomicIntegerArray(c);
+            for (int a = 0; a < dag.m(); a++) pending.incrementAndGet(dag.target(a));
+            this.remaining = new AtomicInteger(c);
+        }
+
+        void start() {
+            int c = dag.n();
+            if (c == 0) {
+                done.countDown();
+                return;
+            }
+            int[] roots = new int[c];
+            int k = 0;
+            for (int v = 0; v < c; v++) if (pending.get(v) == 0) roots[k++] = v;
+            jobs.incrementAndGet(); // no drain while roots are still being handed out
+            launch(byUrgency(roots, k), 0, k, false);
+            jobDone();
+        }
+
+        /** Runs component c, then keeps going with the most urgent successor it released. */
+        void runFrom(int c) {
+            int[] ready = null;
+            while (c != -1) {
+                long t0 = System.nanoTime(), inside = 0;
+                for (int i = comps.offsets[c]; i < comps.offsets[c + 1] && failure.get() == null; i++) {
+                    int v = comps.members[i];
+                    long s = System.nanoTime();
+                    try {
+                        task.run(v);
+                    } catch (Throwable e) {
+                        fail(e, v);
+                    }
+                    inside += System.nanoTime() - s;
+                }
+
+                int k = 0;
+                for (int a = dag.begin(c); a < dag.end(c); a++) {
+                    int w = dag.target(a);
+                    if (pending.decrementAndGet(w) != 0) continue;
+                    if (ready == null) ready = new int[Math.max(4, dag.outDegree(c))];
+                    else if (k == ready.length) ready = Arrays.copyOf(ready, Math.max(2 * k, dag.outDegree(c)));
+                    ready[k++] = w;
+                }
+                int next = -1;
+                if (k > 0) {
+                    byUrgency(ready, k);
+                    next = ready[0];
+                    launch(ready, 1, k, ForkJoinTask.inForkJoinPool());
+                }
+                busy.add(inside);
+                overhead.add(System.nanoTime() - t0 - inside);
+                if (remaining.decrementAndGet() == 0) done.countDown();
+                c = next;
+            }
+        }
+
+        /** Hands ready[from..to) (most urgent first) to the executor; reversed for a LIFO worker deque. */
+        void launch(int[] ready, int from, int to, boolean lifo) {
+            for (int i = 0; i < to - from; i++) {
+                int c = ready[lifo ? to - 1 - i : from + i];
+                jobs.incrementAndGet();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            runFrom(c);
+                        } finally {
+                            jobDone();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    fail(e, -1); // c and everything behind it never run, so remaining cannot reach zero
+                    jobDone();
+                }
+            }
+        }
+
+        /**
+         * Ends a job. After a failure the run is over once no job is left in flight: the launching
+         * job still counts while it hands out successors, so the count cannot touch zero early.
+         */
+        void jobDone() {
+            if (jobs.decrementAndGet() == 0 && failure.get() != null) done.countDown();
+        }
+
+        int[] byUrgency(int[] a, int k) {
+            if (k > 16) {
+                Integer[] boxed = new Integer[k];
+                for (int i = 0; i < k; i++) boxed[i] = a[i];
+                Arrays.sort(boxed, (x, y) -> Long.compare(priority[x], priority[y]));
+                for (int i = 0; i < k; i++) a[i] = boxed[i];
+                return a;
+            }
+            for (int i = 1; i < k; i++) { // typical successor lists are short: insertion sort
+                int x = a[i], j = i - 1;
+                while (j >= 0 && priority[a[j]] > priority[x]) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = x;
+            }
+            return a;
+        }
+
+        void fail(Throwable e, int vertex) {
+            if (failure.compareAndSet(null, e)) failedVertex = vertex;
+        }
+
+        String failureMessage() {
+            int v = failedVertex;
+            return v >= 0 ? "Task for vertex " + v + " failed" : "Execution aborted";
+        }
+    }
+}
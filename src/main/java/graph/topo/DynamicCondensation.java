@@ -0,0 +1,294 @@
+package graph.topo;
+
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.model.GraphView;
+import graph.metrics.Metrics;
+import graph.scc.Components;
+import graph.scc.TarjanSCC;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the SCC partition and a topological order of the condensation current while arcs
+ * are inserted (Pearce-Kelly). An arc a->b between components that already agrees with the
+ * order costs O(1). Otherwise only the affected region ord[b]..ord[a] is searched:
+ * forward from b and backward from a, then those components are reordered inside the
+ * positions they already held. If the new arc closes a cycle, the components on it
+ * (forward set ∩ backward set) are merged into one.
+ * Component ids are the initial Tarjan ids; a merged component keeps one of its members' ids.
+ */
+public class DynamicCondensation {
+
+    /** What one insertion changed. */
+    public static class Update {
+        public final boolean reordered;
+        public final boolean merged;
+        public final int component;   // component of the new arc's head after the update
+        public final int[] region;    // components whose order position changed (incl. merged one)
+        public final int visited;     // components touched by the searches
+
+        Update(boolean reordered, boolean merged, int component, int[] region, int visited) {
+            this.reordered = reordered;
+            this.merged = merged;
+            this.component = component;
+            this.region = region;
+            this.visited = visited;
+        }
+    }
+
+    /** Dense view of the current state: ids are order positions, so topo order is 0..count-1. */
+    public static class Snapshot {
+        public final Components components;
+        public final CsrGraph dag;
+        public final int[] topoOrder;
+
+        Snapshot(Components components, CsrGraph dag, int[] topoOrder) {
+            this.components = components;
+            this.dag = dag;
+            this.topoOrder = topoOrder;
+        }
+    }
+
+    private final int n;
+    private final int[] vertexComp;   // initial component of each vertex
+    private final int[] uf;           // union-find over initial component ids
+    private final int[] ord;          // order position of a live component
+    private final int[] slot;         // component at each position, -1 if the slot is dead
+    private final IntList[] out, outW, in;
+    private int live;
+
+    // search scratch, stamped so nothing is cleared between updates
+    private final int[] mark;
+    private int stamp;
+    private int[] stack = new int[16];
+
+    public DynamicCondensation(GraphView g, Metrics metrics) {
+        n = g.n();
+        Components c = TarjanSCC.run(g, metrics); // ids are already a topological order
+        int count = c.compCount;
+        vertexComp = c.compId;
+        live = count;
+        uf = new int[count];
+        ord = new int[count];
+        slot = new int[count];
+        mark = new int[count];
+        out = new IntList[count];
+        outW = new IntList[count];
+        in = new IntList[count];
+        for (int i = 0; i < count; i++) {
+            uf[i] = ord[i] = slot[i] = i;
+            out[i] = new IntList();
+            outW[i] = new IntList();
+            in[i] = new IntList();
+        }
+        for (int u = 0; u < n; u++) {
+            for (int a = g.begin(u); a < g.end(u); a++) {
+                int x = vertexComp[u], y = vertexComp[g.target(a)];
+                if (x != y) link(x, y, g.weight(a));
+            }
+        }
+    }
+
+    public int n() { return n; }
+    public int componentCount() { return live; }
+
+    /** Current component of vertex v. */
+    public int componentOf(int v) { return find(vertexComp[v]); }
+
+    /** Current order position of a component (not dense once components have merged). */
+    public int position(int comp) { return ord[find(comp)]; }
+
+    /** Inserts u->v and repairs the order; O(1) when the order already agrees. */
+    public Update addEdge(int u, int v, int w) {
+        if (u < 0 || u >= n || v < 0 || v >= n)
+            throw new IndexOutOfBoundsException("Edge " + u + "->" + v + " out of range [0," + n + ")");
+        int a = componentOf(u), b = componentOf(v);
+        if (a == b) return new Update(false, false, a, new int[0], 0);
+        link(a, b, w);
+        if (ord[a] < ord[b]) return new Update(false, false, b, new int[0], 0);
+
+        int lb = ord[b], ub = ord[a];
+        // forward from b within [lb, ub]; a is reached iff the arc closed a cycle
+        int fStamp = ++stamp;
+        int[] fwd = search(b, ub, true, fStamp);
+        boolean cycle = mark[a] == fStamp;
+        int bStamp = ++stamp;
+        int[] bwd = search(a, lb, false, bStamp);
+        int visited = fwd.length + bwd.length;
+
+        if (!cycle) {
+            // B before F, each keeping its relative order, inside the positions they held
+            sortByOrd(fwd);
+            sortByOrd(bwd);
+            int[] items = concat(bwd, fwd);
+            int[] positions = positionsOf(items);
+            for (int i = 0; i < items.length; i++) place(items[i], positions[i]);
+            return new Update(true, false, b, items, visited);
+        }
+
+        // cycle: C = F ∩ B collapses into one component
+        int cStamp = ++stamp;
+        int cCount = 0, rep = a;
+        for (int x : fwd) {
+            // the backward search re-marked exactly the forward components it also reached
+            if (mark[x] == bStamp) { mark[x] = cStamp; cCount++; }
+        }
+        int[] cyc = new int[cCount];
+        int k = 0;
+        for (int x : fwd) if (mark[x] == cStamp) cyc[k++] = x;
+        int[] fOnly = filter(fwd, cStamp), bOnly = filter(bwd, cStamp);
+        int[] positions = positionsOf(concat(fwd, bOnly));
+        for (int x : cyc) if (out[x].size + in[x].size > out[rep].size + in[rep].size) rep = x;
+        for (int x : cyc) if (x != rep) merge(rep, x);
+        live -= cCount - 1;
+
+        sortByOrd(fOnly);
+        sortByOrd(bOnly);
+        int[] items = new int[bOnly.length + 1 + fOnly.length];
+        System.arraycopy(bOnly, 0, items, 0, bOnly.length);
+        items[bOnly.length] = rep;
+        System.arraycopy(fOnly, 0, items, bOnly.length + 1, fOnly.length);
+        // B\C keeps the lowest pool positions and F\C the highest (as in plain Pearce-Kelly);
+        // the merged component goes right after B\C and the leftover slots die
+        for (int p : positions) slot[p] = -1;
+        for (int i = 0; i <= bOnly.length; i++) place(items[i], positions[i]);
+        int shift = positions.length - items.length;
+        for (int i = bOnly.length + 1; i < items.length; i++) place(items[i], positions[i + shift]);
+        return new Update(true, true, rep, items, visited);
+    }
+
+    /** Live components in topological order. */
+    public int[] order() {
+        int[] res = new int[live];
+        int k = 0;
+        for (int c : slot) if (c >= 0) res[k++] = c;
+        return res;
+    }
+
+    /** Renumbers live components densely by order position and rebuilds the condensation. */
+    public Snapshot snapshot(Condensation.WeightPolicy policy) {
+        int[] dense = new int[uf.length];
+        int k = 0;
+        for (int c : slot) if (c >= 0) dense[c] = k++;
+        int[] compId = new int[n];
+        for (int v = 0; v < n; v++) compId[v] = dense[componentOf(v)];
+
+        CsrGraph.Builder b = new CsrGraph.Builder(live, true);
+        for (int c : slot) {
+            if (c < 0) continue;
+            IntList t = out[c], w = outW[c];
+            for (int i = 0; i < t.size; i++) {
+                int d = find(t.data[i]);
+                if (d != c) b.addEdge(dense[c], dense[d], w.data[i]);
+            }
+        }
+        int[] identity = new int[live];
+        for (int i = 0; i < live; i++) identity[i] = i;
+        CsrGraph dag = Condensation.build(b.build(), identity, live, policy); // merges parallel arcs
+        return new Snapshot(Components.fromIds(compId, live), dag, identity);
+    }
+
+    // ---- internals ----
+
+    private int find(int c) {
+        while (uf[c] != c) {
+            uf[c] = uf[uf[c]];
+            c = uf[c];
+        }
+        return c;
+    }
+
+    private void link(int a, int b, int w) {
+        out[a].add(b);
+        outW[a].add(w);
+        in[b].add(a);
+    }
+
+    /** DFS over live components with ord inside the bound; marks and returns what it visited. */
+    private int[] search(int start, int bound, boolean forward, int st) {
+        int[] seen = new int[8];
+        int count = 0, sp = 0;
+        mark[start] = st;
+        stack = push(stack, sp++, start);
+        while (sp > 0) {
+            int x = stack[--sp];
+            if (count == seen.length) seen = Arrays.copyOf(seen, 2 * count);
+            seen[count++] = x;
+            IntList adj = forward ? out[x] : in[x];
+            for (int i = 0; i < adj.size; i++) {
+                int y = find(adj.data[i]);
+                adj.data[i] = y; // path-compress the stored endpoint
+                if (y == x || mark[y] == st) continue;
+                if (forward ? ord[y] > bound : ord[y] < bound) continue;
+                mark[y] = st;
+                stack = push(stack, sp++, y);
+            }
+        }
+        return Arrays.copyOf(seen, count);
+    }
+
+    private int[] filter(int[] xs, int cStamp) {
+        int k = 0;
+        int[] res = new int[xs.length];
+        for (int x : xs) if (mark[x] != cStamp) res[k++] = x;
+        return Arrays.copyOf(res, k);
+    }
+
+    private void merge(int rep, int x) {
+        uf[x] = rep;
+        out[rep].addAll(out[x]);
+        outW[rep].addAll(outW[x]);
+        in[rep].addAll(in[x]);
+        out[x] = outW[x] = in[x] = null;
+    }
+
+    private void place(int c, int p) {
+        ord[c] = p;
+        slot[p] = c;
+    }
+
+    private int[] positionsOf(int[] items) {
+        int[] p = new int[items.length];
+        for (int i = 0; i < items.length; i++) p[i] = ord[items[i]];
+        Arrays.sort(p);
+        return p;
+    }
+
+    private void sortByOrd(int[] items) {
+        // sort by position: pack (ord, id) into longs
+        long[] keys = new long[items.length];
+        for (int i = 0; i < items.length; i++) keys[i] = (long) ord[items[i]] << 32 | items[i];
+        Arrays.sort(keys);
+        for (int i = 0; i < items.length; i++) items[i] = (int) keys[i];
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] r = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, r, a.length, b.length);
+        return r;
+    }
+
+    private static int[] push(int[] st, int at, int v) {
+        if (at == st.length) st = Arrays.copyOf(st, 2 * at);
+        st[at] = v;
+        return st;
+    }
+
+    /** Growable int array (duplicates allowed; endpoints resolved through find() on use). */
+    private static final class IntList {
+        int[] data = new int[2];
+        int size;
+
+        void add(int v) {
+            if (size == data.length) data = Arrays.copyOf(data, 2 * size);
+            data[size++] = v;
+        }
+
+        void addAll(IntList o) {
+            if (size + o.size > data.length) data = Arrays.copyOf(data, Math.max(2 * data.length, size + o.size));
+            System.arraycopy(o.data, 0, data, size, o.size);
+            size += o.size;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package graph.topo;
+
+import graph.metrics.Metrics;
+import graph.model.GraphView;
+
+import java.util.Arrays;
+
+/**
+ * "Does u (transitively) reach v?" over a condensation DAG, built once in O(V + E) and answered in
+ * near-constant time for almost all pairs. Per component it stores 44 bytes instead of a closure row:
+ * <ul>
+ *   <li>topological position: u can only reach components placed after it;</li>
+ *   <li>{@value #LABELINGS} interval labels from randomized post-order DFS (GRAIL): if u reaches v then
+ *       v's interval [low, post] lies inside u's, so a non-nested pair is answered "no";</li>
+ *   <li>the interval of u's subtree in the first DFS's spanning forest: containment means "yes";</li>
+ *   <li>{@value #LANDMARKS} landmark components (highest (in+1)*(out+1) degree) with one bit per
+ *       landmark: {@code out[u]} = landmarks u reaches, {@code in[v]} = landmarks reaching v. A
+ *       shared landmark means "yes"; out[v] not within out[u] (or in[u] not within in[v]) means "no".</li>
+ * </ul>
+ * Pairs left undecided fall back to a DFS from u that prunes every vertex the same cuts exclude.
+ * Queries are read-only apart from per-thread scratch, so one index can be shared by threads.
+ */
+public final class ReachabilityIndex {
+    public static final int LABELINGS = 2;
+    public static final int LANDMARKS = 64;
+
+    private final GraphView dag;
+    private final int[] compId;       // vertex -> component, null when queries use component ids
+    private final int[] pos;          // topological position
+    private final int[][] low, post;  // [labeling][component]
+    private final int[] treeLow;      // first labeling: smallest post number in the DFS subtree
+    private final long[] out, in;     // landmark bits
+    private final int[] landmark;     // landmark bit of a component, -1 if it is not one
+    private final ThreadLocal<Scratch> scratch;
+
+    private static final class Scratch {
+        final int[] stamp, stack;
+        int epoch;
+
+        Scratch(int n) {
+            stamp = new int[n];
+            stack = new int[n];
+        }
+    }
+
+    private ReachabilityIndex(GraphView dag, int[] compId, int[] pos, int[][] low, int[][] post, int[] treeLow,
+                              long[] out, long[] in, int[] landmark) {
+        this.dag = dag;
+        this.compId = compId;
+        this.pos = pos;
+        this.low = low;
+        this.post = post;
+        this.treeLow = treeLow;
+        this.out = out;
+        this.in = in;
+        this.landmark = landmark;
+        int n = dag.n();
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(n));
+    }
+
+    /** Index over component ids of {@code dag} with the order from {@code TopologicalSort.kahn(GraphView, ...)}. */
+    public static ReachabilityIndex build(GraphView dag, int[] topoOrder, Metrics metrics) {
+        return build(dag, topoOrder, null, metrics);
+    }
+
+    /** Index whose {@link #reachable} takes original vertex ids, mapped through {@code compId}. */
+    public static ReachabilityIndex build(GraphView dag, int[] topoOrder, int[] compId, Metrics metrics) {
+        int n = dag.n();
+        if (topoOrder.length != n)
+            throw new IllegalArgumentException("Topological order has " + topoOrder.length + " of " + n + " nodes");
+        Metrics.Span span = metrics.begin(Metrics.Phase.REACHABILITY);
+        int[] pos = new int[n];
+        for (int i = 0; i < n; i++) pos[topoOrder[i]] = i;
+
+        int[][] low = new int[LABELINGS][], post = new int[LABELINGS][];
+        int[] treeLow = new int[n];
+        for (int l = 0; l < LABELINGS; l++) {
+            low[l] = new int[n];
+            post[l] = new int[n];
+            label(dag, topoOrder, l, low[l], post[l], l == 0 ? treeLow : null);
+        }
+
+        // landmarks: the LANDMARKS components with the largest (in+1)*(out+1)
+        int[] indeg = new int[n];
+        for (int i = 0; i < dag.m(); i++) indeg[dag.target(i)]++;
+        int[] landmark = new int[n];
+        Arrays.fill(landmark, -1);
+        int k = Math.min(LANDMARKS, n);
+        long[] score = new long[n];
+        for (int v = 0; v < n; v++) {
+            long deg = Math.min((long) (indeg[v] + 1) * (dag.outDegree(v) + 1), Integer.MAX_VALUE);
+            score[v] = deg << 32 | (n - 1 - v); // ties: lower id first
+        }
+        long[] top = topK(score, k);
+        for (int i = 0; i < k; i++) landmark[n - 1 - (int) top[i]] = i;
+
+        long[] out = new long[n], in = new long[n];
+        for (int v = 0; v < n; v++) if (landmark[v] >= 0) out[v] = in[v] = 1L << landmark[v];
+        for (int i = n - 1; i >= 0; i--) {
+            int u = topoOrder[i];
+            long bits = out[u];
+            for (int a = dag.begin(u); a < dag.end(u); a++) bits |= out[dag.target(a)];
+            out[u] = bits;
+        }
+        for (int u : topoOrder) {
+            long bits = in[u];
+            for (int a = dag.begin(u); a < dag.end(u); a++) in[dag.target(a)] |= bits;
+        }
+        span.end();
+        return new ReachabilityIndex(dag, compId, pos, low, post, treeLow, out, in, landmark);
+    }
+
+    /** Does vertex (or component, if built without compId) u reach v? Every vertex reaches itself. */
+    public boolean reachable(int u, int v) {
+        if (compId != null) {
+            u = compId[u];
+            v = compId[v];
+        }
+        return reachableComponents(u, v);
+    }
+
+    /** Component-level query. */
+    public boolean reachableComponents(int u, int v) {
+        if (u == v) return true;
+        int d = decide(u, v);
+        if (d != UNKNOWN) return d == YES;
+        return search(u, v);
+    }
+
+    /** Memory held by the labels, excluding the DAG itself and per-thread scratch. */
+    public long bytes() {
+        return (long) dag.n() * (4 + LABELINGS * 8 + 4 + 16 + 4);
+    }
+
+    // ---- queries ----
+
+    private static final int NO = 0, YES = 1, UNKNOWN = 2;
+
+    private int decide(int u, int v) {
+        if (pos[u] > pos[v]) return NO;
+        if (treeLow[u] <= post[0][v] && post[0][v] <= post[0][u]) return YES;
+        for (int l = 0; l < LABELINGS; l++)
+            if (low[l][v] < low[l][u] || post[l][v] > post[l][u]) return NO;
+        if ((out[u] & in[v]) != 0) return YES;
+        if ((out[v] & ~out[u]) != 0 || (in[u] & ~in[v]) != 0) return NO;
+        if (landmark[v] >= 0) return (out[u] >>> landmark[v] & 1) != 0 ? YES : NO;
+        if (landmark[u] >= 0) return (in[v] >>> landmark[u] & 1) != 0 ? YES : NO;
+        return UNKNOWN;
+    }
+
+    /** DFS from u, skipping every successor the cuts rule out for reaching v. */
+    private boolean search(int u, int v) {
+        Scratch s = scratch.get();
+        if (++s.epoch == 0) {
+            Arrays.fill(s.stamp, 0);
+            s.epoch = 1;
+        }
+        int ep = s.epoch, sp = 0;
+        s.stack[sp++] = u;
+        s.stamp[u] = ep;
+        while (sp > 0) {
+            int x = s.stack[--sp];
+            for (int a = dag.begin(x); a < dag.end(x); a++) {
+                int w = dag.target(a);
+                if (w == v) return true;
+                if (s.stamp[w] == ep) continue;
+                s.stamp[w] = ep;
+                int d = decide(w, v);
+                if (d == YES) return true;
+                if (d == UNKNOWN) s.stack[sp++] = w;
+            }
+        }
+        return false;
+    }
+
+    // ---- construction ----
+
+    /**
+     * Iterative post-order DFS over all roots. Labeling l visits roots and children in a rotated
+     * order derived from l so the labelings differ; low[u] is the smallest post number among u's
+     * descendants (u included), treeLow the same over the DFS subtree only.
+     */
+    private static void label(GraphView dag, int[] topoOrder, int l, int[] low, int[] post, int[] treeLow) {
+        int n = dag.n();
+        boolean[] seen = new boolean[n];
+        int[] stack = new int[n], next = new int[n], first = new int[n];
+        int counter = 0;
+        for (int i = 0; i < n; i++) {
+            int root = topoOrder[l % 2 == 0 ? i : n - 1 - i];
+            if (seen[root]) continue;
+            int sp = 0;
+            stack[sp++] = root;
+            seen[root] = true;
+            next[root] = 0;
+            first[root] = counter;
+            while (sp > 0) {
+                int u = stack[sp - 1];
+                int deg = dag.outDegree(u);
+                if (next[u] < deg) {
+                    int a = dag.begin(u) + rotate(u, l, deg, next[u]++);
+                    int w = dag.target(a);
+                    if (!seen[w]) {
+                        seen[w] = true;
+                        next[w] = 0;
+                        first[w] = counter;
+                        stack[sp++] = w;
+                    }
+                } else {
+                    sp--;
+                    int p = counter++;
+                    post[u] = p;
+                    int lo = p;
+                    for (int a = dag.begin(u); a < dag.end(u); a++) lo = Math.min(lo, low[dag.target(a)]);
+                    low[u] = lo;
+                    if (treeLow != null) treeLow[u] = first[u];
+                }
+            }
+        }
+    }
+
+    /** The j-th child to visit out of deg, for labeling l. */
+    private static int rotate(int u, int l, int deg, int j) {
+        if (l == 0) return j;
+        int h = (u * 0x9E3779B9 + l) >>> 1;
+        return (h % deg + (l % 2 == 1 ? deg - 1 - j : j)) % deg;
+    }
+
+    /** The k largest values, unordered (partial selection on a copy). */
+    private static long[] topK(long[] values, int k) {
+        long[] a = values.clone();
+        int lo = 0, hi = a.length - 1;
+        while (lo < hi) {
+            long pivot = a[(lo + hi) >>> 1];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (a[i] > pivot) i++;
+                while (a[j] < pivot) j--;
+                if (i <= j) {
+                    long t = a[i]; a[i] = a[j]; a[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k - 1 <= j) hi = j;
+            else if (k - 1 >= i) lo = i;
+            else break;
+        }
+        return Arrays.copyOf(a, k);
+    }
+}
@@ -1,16 +1,44 @@
 package graph.topo;
 
+import graph.model.GraphView;
 import graph.model.Graph;
 import graph.model.Edge;
 import graph.metrics.Metrics;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
 
 public class TopologicalSort {
+    static final int PARALLEL_FRONTIER = 4096; // smaller frontiers are expanded on the calling thread
+    static final int CHUNK = 1024;
+
+    /** Topological order split into waves: level l is order[levelStart[l] .. levelStart[l+1]). */
+    public static class Levels {
+        public final int[] order;
+        public final int[] levelStart; // length levelCount()+1
+
+        public Levels(int[] order, int[] levelStart) {
+            this.order = order;
+            this.levelStart = levelStart;
+        }
+
+        public int levelCount() { return levelStart.length - 1; }
+
+        /** Level of every vertex (0 = no predecessors). */
+        public int[] levelOf() {
+            int[] lvl = new int[order.length];
+            for (int l = 0; l < levelCount(); l++)
+                for (int i = levelStart[l]; i < levelStart[l + 1]; i++) lvl[order[i]] = l;
+            return lvl;
+        }
+    }
 
     /** Kahn's algorithm: returns topological order of DAG; counts pushes/pops. */
     public static List<Integer> kahn(Graph dag, Metrics metrics) {
-        long t0 = System.nanoTime();
+        Metrics.Span span = metrics.begin(Metrics.Phase.TOPO);
 
         int n = dag.n();
         int[] indeg = new int[n];
@@ -19,22 +47,167 @@ public class TopologicalSort {
                 indeg[e.v]++;
 
         Deque<Integer> q = new ArrayDeque<>();
+        long pushes = 0, pops = 0;
         for (int i = 0; i < n; i++) {
-            if (indeg[i] == 0) { q.add(i); metrics.pushes++; }
+            if (indeg[i] == 0) { q.add(i); pushes++; }
         }
 
         List<Integer> order = new ArrayList<>(n);
         while (!q.isEmpty()) {
-            int u = q.remove(); metrics.pops++;
+            int u = q.remove(); pops++;
             order.add(u);
             for (Edge e : dag.adj().get(u)) {
-                if (--indeg[e.v] == 0) { q.add(e.v); metrics.pushes++; }
+                if (--indeg[e.v] == 0) { q.add(e.v); pushes++; }
             }
         }
 
-        long t1 = System.nanoTime();
-        metrics.timeNanos += (t1 - t0);
+        metrics.add(Metrics.Counter.PUSHES, pushes);
+        metrics.add(Metrics.Counter.POPS, pops);
+        span.end();
         if (order.size() != n) throw new IllegalStateException("Graph is not a DAG (cycle detected in condensation).");
         return order;
     }
+
+    /** Kahn's algorithm over a CSR-shaped DAG with an int-array queue; returns the order as int[]. */
+    public static int[] kahn(GraphView dag, Metrics metrics) {
+        Metrics.Span span = metrics.begin(Metrics.Phase.TOPO);
+
+        int n = dag.n();
+        int[] indeg = new int[n];
+        for (int i = 0; i < dag.m(); i++) indeg[dag.target(i)]++;
+
+        // the order array doubles as the FIFO queue: [head, tail) are pending vertices
+        int[] order = new int[n];
+        int head = 0, tail = 0;
+        for (int i = 0; i < n; i++) {
+            if (indeg[i] == 0) { order[tail++] = i; }
+        }
+
+        while (head < tail) {
+            int u = order[head++];
+            for (int a = dag.begin(u); a < dag.end(u); a++) {
+                int v = dag.target(a);
+                if (--indeg[v] == 0) { order[tail++] = v; }
+            }
+        }
+
+        metrics.add(Metrics.Counter.PUSHES, tail); // every queued vertex is pushed and popped once
+        metrics.add(Metrics.Counter.POPS, head);
+        span.end();
+        if (tail != n) throw new IllegalStateException("Graph is not a DAG (cycle detected in condensation).");
+        return order;
+    }
+
+    /** Level-synchronous Kahn on the common pool. */
+    public static Levels levels(GraphView dag, Metrics metrics) {
+        return levels(dag, ForkJoinPool.commonPool(), metrics);
+    }
+
+    /**
+     * Level-synchronous Kahn: every vertex whose in-degree reaches zero while the current
+     * wave is expanded forms the next wave. Large waves are expanded in parallel chunks with
+     * atomic in-degree counters; each wave is sorted so the output is deterministic.
+     * Counts pushes/pops; throws if the graph has a cycle.
+     */
+    public static Levels levels(GraphView dag, ForkJoinPool pool, Metrics metrics) {
+        Metrics.Span span = metrics.begin(Metrics.Phase.TOPO);
+
+        int n = dag.n();
+        AtomicIntegerArray indeg = new AtomicIntegerArray(n);
+        pool.invoke(new RecursiveAction() {
+            @Override protected void compute() {
+                IntStream.range(0, n).parallel().forEach(u -> {
+                    for (int a = dag.begin(u); a < dag.end(u); a++) indeg.incrementAndGet(dag.target(a));
+                });
+            }
+        });
+
+        int[] order = new int[n];
+        int tail = 0;
+        for (int i = 0; i < n; i++) if (indeg.get(i) == 0) order[tail++] = i;
+        int[] levelStart = new int[16];
+        int levels = 0, head = 0;
+
+        while (head < tail) {
+            if (levels + 2 > levelStart.length) levelStart = Arrays.copyOf(levelStart, 2 * levelStart.length);
+            levelStart[levels++] = head;
+            int size = tail - head, next;
+            if (size < PARALLEL_FRONTIER) {
+                next = tail;
+                for (int i = head; i < tail; i++) {
+                    int u = order[i];
+                    for (int a = dag.begin(u); a < dag.end(u); a++) {
+                        int v = dag.target(a);
+                        if (indeg.decrementAndGet(v) == 0) order[next++] = v;
+                    }
+                }
+            } else {
+                int chunks = (size + CHUNK - 1) / CHUNK;
+                int[][] found = new int[chunks][];
+                pool.invoke(new Expand(dag, indeg, order, head, tail, found, 0, chunks));
+                next = tail;
+                for (int[] f : found) {
+                    System.arraycopy(f, 1, order, next, f[0]);
+                    next += f[0];
+                }
+            }
+            if (next - tail < PARALLEL_FRONTIER) Arrays.sort(order, tail, next);
+            else Arrays.parallelSort(order, tail, next);
+            head = tail;
+            tail = next;
+        }
+        levelStart[levels] = tail;
+        metrics.add(Metrics.Counter.PUSHES, tail);
+        metrics.add(Metrics.Counter.POPS, tail);
+        span.end();
+        if (tail != n) throw new IllegalStateException("Graph is not a DAG (cycle detected in condensation).");
+        return new Levels(order, Arrays.copyOf(levelStart, levels + 1));
+    }
+
+    /** Expands frontier chunks [lo, hi); chunk c writes {count, v1, v2, ...} into found[c]. */
+    private static final class Expand extends RecursiveAction {
+        private final GraphView dag;
+        private final AtomicIntegerArray indeg;
+        private final int[] order;
+        private final int head, tail;
+        private final int[][] found;
+        private final int lo, hi;
+
+        Expand(GraphView dag, AtomicIntegerArray indeg, int[] order, int head, int tail,
+               int[][] found, int lo, int hi) {
+            this.dag = dag;
+            this.indeg = indeg;
+            this.order = order;
+            this.head = head;
+            this.tail = tail;
+            this.found = found;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Expand(dag, indeg, order, head, tail, found, lo, mid),
+                          new Expand(dag, indeg, order, head, tail, found, mid, hi));
+                return;
+            }
+            int[] buf = new int[CHUNK + 1];
+            int k = 1;
+            int from = head + lo * CHUNK, to = Math.min(tail, from + CHUNK);
+            for (int i = from; i < to; i++) {
+                int u = order[i];
+                for (int a = dag.begin(u); a < dag.end(u); a++) {
+                    int v = dag.target(a);
+                    if (indeg.decrementAndGet(v) == 0) {
+                        if (k == buf.length) buf = Arrays.copyOf(buf, 2 * k);
+                        buf[k++] = v;
+                    }
+                }
+            }
+            buf[0] = k - 1;
+            found[lo] = buf;
+        }
+    }
 }
\ No newline at end of file
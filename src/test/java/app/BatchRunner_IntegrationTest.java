@@ -0,0 +1,137 @@
+package app;
+
+import graph.gen.GraphGenerator;
+import graph.io.JsonGraphLoader;
+import graph.io.JsonResultWriter;
+import graph.model.Condensation;
+import graph.scc.SccAlgorithm;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class BatchRunner_IntegrationTest {
+
+    private static final String[] FILES = {
+            "input.json",
+            "small1.json", "small2.json", "small3.json",
+            "medium1.json", "medium2.json", "medium3.json",
+            "large1.json", "large2.json", "large3.json"
+    };
+
+    @TempDir
+    Path tmp;
+
+    /** Every output of a concurrent batch equals the single-file run of the same input */
+    @Test
+    public void testBatchMatchesSingleRuns() throws Exception {
+        Path inDir = Files.createDirectories(tmp.resolve("in"));
+        for (String f : FILES) {
+            try (InputStream is = getClass().getResourceAsStream("/data/" + f)) {
+                assertNotNull(is, "File not found: " + f);
+                Files.copy(is, inDir.resolve(f));
+            }
+        }
+        List<Path> inputs = BatchRunner.inputs(inDir);
+        assertEquals(FILES.length, inputs.size());
+
+        BatchRunner runner = new BatchRunner(3, SccAlgorithm.TARJAN, Condensation.WeightPolicy.FIRST, Main.PathEncoding.EXPANDED);
+        BatchRunner.Summary s = runner.run(inputs, tmp.resolve("out"));
+        assertEquals(0, s.failed());
+        assertEquals(FILES.length, s.latency.count());
+
+        for (BatchRunner.Item it : s.items) {
+            assertTrue(it.ok(), it.input + ": " + it.error);
+            assertEquals(Files.size(it.output), it.bytesWritten);
+            Path single = tmp.resolve("single.json");
+            try (JsonResultWriter w = JsonResultWriter.open(single)) {
+                Main.analyze(JsonGraphLoader.load(it.input), SccAlgorithm.TARJAN, Condensation.WeightPolicy.FIRST,
+                        Main.PathEncoding.EXPANDED, w);
+            }
+            JSONObject a = withoutTimings(read(it.output)), b = withoutTimings(read(single));
+            assertTrue(a.similar(b), it.input + " differs from a single run");
+        }
+
+        Path summary = tmp.resolve("summary.json");
+        try (JsonResultWriter w = JsonResultWriter.open(summary)) {
+            s.writeTo(w);
+        }
+        JSONObject o = read(summary);
+        assertEquals(FILES.length, o.getInt("files"));
+        assertEquals(FILES.length, o.getJSONArray("items").length());
+    }
+
+    /** Manifest with relative paths, a duplicate name and a broken file: the rest still runs */
+    @Test
+    public void testManifestAndFailures() throws Exception {
+        Path a = Files.createDirectories(tmp.resolve("a")), b = Files.createDirectories(tmp.resolve("b"));
+        GraphGenerator.clustered(500, 4, 2, 1).writeJson(a.resolve("g.json"), 0);
+        GraphGenerator.chain(300, 1).writeJson(b.resolve("g.json"), 0);
+        Files.writeString(b.resolve("broken.json"), "{\"n\": 3, \"edges\": [{\"u\": 0, \"v\": 7, \"w\": 1}]}");
+        Path manifest = tmp.resolve("batch.txt");
+        Files.writeString(manifest, "# nightly\na/g.json\n\nb/g.json\nb/broken.json\n");
+
+        List<Path> inputs = BatchRunner.inputs(manifest);
+        assertEquals(3, inputs.size());
+        BatchRunner.Summary s = new BatchRunner(2, SccAlgorithm.KOSARAJU, Condensation.WeightPolicy.MIN,
+                Main.PathEncoding.PARENTS).run(inputs, tmp.resolve("out"));
+        assertEquals(1, s.failed());
+        assertEquals("g.out.json", s.items.get(0).output.getFileName().toString());
+        assertEquals("g-2.out.json", s.items.get(1).output.getFileName().toString());
+        assertTrue(s.items.get(2).error.contains("out of range"), s.items.get(2).error);
+        assertFalse(Files.exists(s.items.get(2).output), "no partial output for a failed input");
+        assertEquals(500, read(s.items.get(0).output).getJSONObject("input_meta").getInt("n"));
+        assertEquals(300, read(s.items.get(1).output).getJSONObject("input_meta").getInt("n"));
+    }
+
+    /** Without virtual threads the batch runs on a bounded pool, not one platform thread per input */
+    @Test
+    public void testPlatformFallbackIsBounded() throws Exception {
+        assumeTrue(Runtime.version().feature() < 21, "virtual threads available");
+        ExecutorService exec = BatchRunner.newTaskExecutor(6);
+        try {
+            ThreadPoolExecutor pool = assertInstanceOf(ThreadPoolExecutor.class, exec);
+            assertEquals(6, pool.getMaximumPoolSize());
+            CountDownLatch release = new CountDownLatch(1);
+            for (int i = 0; i < 20; i++) exec.submit(() -> { release.await(); return null; });
+            assertEquals(6, pool.getPoolSize());
+            assertEquals(14, pool.getQueue().size());
+            release.countDown();
+        } finally {
+            exec.shutdown();
+        }
+        assertTrue(exec.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private static JSONObject read(Path p) throws Exception {
+        try (Reader r = Files.newBufferedReader(p)) {
+            return new JSONObject(new JSONTokener(r));
+        }
+    }
+
+    /** Drops everything that depends on timing (load stats and metrics blocks) */
+    private static JSONObject withoutTimings(JSONObject o) {
+        o.getJSONObject("input_meta").remove("load_ms");
+        o.getJSONObject("input_meta").remove("load_edges_per_sec");
+        List<String> keys = new ArrayList<>(o.keySet());
+        for (String k : keys) {
+            Object v = o.get(k);
+            if (v instanceof JSONObject) ((JSONObject) v).remove("metrics");
+        }
+        return o;
+    }
+}
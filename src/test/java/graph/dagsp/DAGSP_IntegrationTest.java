@@ -1,7 +1,14 @@
 package graph.dagsp;
 
+import graph.gen.GraphGenerator;
+import graph.io.JsonGraphLoader;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
 import graph.model.Graph;
+import graph.model.GraphView;
 import graph.metrics.Metrics;
+import graph.scc.Components;
+import graph.scc.TarjanSCC;
 import graph.topo.TopologicalSort;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -9,7 +16,12 @@ import org.json.JSONTokener;
 import org.junit.jupiter.api.Test;
 
 import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -60,9 +72,362 @@ public class DAGSP_IntegrationTest {
                 System.out.println("  to " + i + " = " + (res.dist[i] == Long.MAX_VALUE ? "∞" : res.dist[i]));
             }
 
-            System.out.println("Relaxations: " + metricsSP.relaxations +
-                    ", Time (ms): " + metricsSP.timeNanos / 1_000_000.0);
+            System.out.println("Relaxations: " + metricsSP.relaxations() +
+                    ", Time (ms): " + metricsSP.timeNanos() / 1_000_000.0);
             System.out.println("-----------------------------------------");
         }
     }
+
+    /** Every row of the batched matrix must equal the single-source result */
+    @Test
+    public void testMultiSourceMatchesSingleSource() throws Exception {
+        String[] files = {"small1.json", "medium1.json", "large1.json"};
+        for (String file : files) {
+            CsrGraph g = CsrGraph.from(loadGraph(file));
+            int[] topo = TopologicalSort.kahn(g, new Metrics());
+            int[] sources = new int[g.n()];
+            for (int i = 0; i < sources.length; i++) sources[i] = i;
+            assertMatchesSingleSource(g, topo, sources, file);
+        }
+
+        CsrGraph big = randomDag(20_000, 4, 9);
+        int[] topo = TopologicalSort.kahn(big, new Metrics());
+        int[] sources = new Random(1).ints(150, 0, big.n()).toArray(); // spans 3 blocks, last one partial
+        assertMatchesSingleSource(big, topo, sources, "random DAG");
+    }
+
+    /** n * 64 distances must fit one block array; larger inputs fail up front instead of overflowing the index */
+    @Test
+    public void testMultiSourceRejectsOversizeBlocks() {
+        MultiSourcePaths.checkBlockSize(33_000_000, 64);
+        MultiSourcePaths.checkBlockSize(40_000_000, 53);
+        assertThrows(IllegalArgumentException.class, () -> MultiSourcePaths.checkBlockSize(40_000_000, 64));
+
+        GraphView huge = new GraphView() { // never swept: the check comes before any allocation
+            public int n() { return 40_000_000; }
+            public int m() { return 0; }
+            public boolean directed() { return true; }
+            public int begin(int u) { return 0; }
+            public int end(int u) { return 0; }
+            public int target(int i) { throw new AssertionError(); }
+            public int weight(int i) { throw new AssertionError(); }
+        };
+        int[] sources = new int[100];
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> MultiSourcePaths.run(
+                huge, new int[0], sources, MultiSourcePaths.Objective.SHORTEST, new Metrics()));
+        assertTrue(ex.getMessage().contains("40000000"), ex.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> MultiSourcePaths.forEachRow(huge, new int[0], sources,
+                MultiSourcePaths.Objective.LONGEST, ForkJoinPool.commonPool(), new Metrics(), (i, c, row) -> { }));
+    }
+
+    /** Random weight increases and decreases, checked against a full recompute after each batch */
+    @Test
+    public void testIncrementalMatchesFullRecompute() {
+        CsrGraph g = randomDag(5_000, 3, 11);
+        int[] topo = TopologicalSort.kahn(g, new Metrics());
+        Random rnd = new Random(4);
+        for (MultiSourcePaths.Objective obj : MultiSourcePaths.Objective.values()) {
+            IncrementalDAGPaths inc = new IncrementalDAGPaths(g, topo, 7, obj, new Metrics());
+            long touched = 0;
+            for (int step = 0; step < 300; step++) {
+                int batch = step % 10 == 0 ? 5 : 1;
+                int[] arcs = rnd.ints(batch, 0, g.m()).toArray();
+                int[] ws = rnd.ints(batch, 1, 60).toArray();
+                IncrementalDAGPaths.Update u = batch == 1 ? inc.setWeight(arcs[0], ws[0]) : inc.setWeights(arcs, ws);
+                touched += u.touched;
+                assertTrue(u.changed <= u.touched);
+
+                long[] full;
+                int[] parent;
+                if (obj == MultiSourcePaths.Objective.SHORTEST) {
+                    DAGShortestPath.Result r = DAGShortestPath.run(inc.graph(), topo, 7, new Metrics());
+                    full = r.dist;
+                    parent = r.parent;
+                } else {
+                    DAGLongestPath.Result r = DAGLongestPath.run(inc.graph(), topo, 7, new Metrics());
+                    full = r.best;
+                    parent = r.parent;
+                }
+                assertArrayEquals(full, inc.values(), obj + " step " + step);
+                for (int v = 0; v < g.n(); v++) assertEquals(parent[v], inc.parent(v), obj + " parent of " + v);
+            }
+            System.out.printf("incremental %s: %.1f vertices touched per update (n=%d)%n",
+                    obj, touched / 300.0, g.n());
+        }
+    }
+
+    private static void assertMatchesSingleSource(CsrGraph g, int[] topo, int[] sources, String file) {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            MultiSourcePaths.DistanceMatrix sp = MultiSourcePaths.run(g, topo, sources,
+                    MultiSourcePaths.Objective.SHORTEST, pool, new Metrics());
+            MultiSourcePaths.DistanceMatrix lp = MultiSourcePaths.run(g, topo, sources,
+                    MultiSourcePaths.Objective.LONGEST, pool, new Metrics());
+            long[][] streamed = new long[sources.length][];
+            MultiSourcePaths.forEachRow(g, topo, sources, MultiSourcePaths.Objective.SHORTEST, pool, new Metrics(),
+                    (i, src, dist) -> streamed[i] = dist);
+
+            for (int i = 0; i < sources.length; i++) {
+                long[] d = DAGShortestPath.run(g, topo, sources[i], new Metrics()).dist;
+                long[] b = DAGLongestPath.run(g, topo, sources[i], new Metrics()).best;
+                assertArrayEquals(d, sp.row(i), file + " → shortest row " + i);
+                assertArrayEquals(b, lp.row(i), file + " → longest row " + i);
+                assertArrayEquals(d, streamed[i], file + " → streamed row " + i);
+                assertEquals(d[g.n() - 1], sp.get(i, g.n() - 1));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** The fused sweep must reproduce both separate runs exactly, parents included */
+    @Test
+    public void testFusedMatchesSeparateRuns() throws Exception {
+        String[] files = {"small1.json", "medium1.json", "large1.json"};
+        for (String file : files) {
+            CsrGraph g = CsrGraph.from(loadGraph(file));
+            Components c = TarjanSCC.run(g, new Metrics());
+            CsrGraph dag = Condensation.build(g, c.compId, c.compCount, Condensation.WeightPolicy.FIRST);
+            int[] topo = TopologicalSort.kahn(dag, new Metrics());
+            for (int src = 0; src < dag.n(); src++) assertFusedMatches(dag, topo, src, file);
+        }
+        CsrGraph big = randomDag(20_000, 4, 21);
+        int[] topo = TopologicalSort.kahn(big, new Metrics());
+        for (int src : new Random(4).ints(20, 0, big.n()).toArray()) assertFusedMatches(big, topo, src, "random DAG");
+    }
+
+    /** Node model: a path costs the durations of the components it visits; arc weights are ignored */
+    @Test
+    public void testNodeWeightModel() {
+        int n = 30_000;
+        CsrGraph g = GraphGenerator.clustered(n, 5, 2, 17).toCsr();
+        int[] durations = new Random(8).ints(n, 1, 100).toArray();
+        Components c = TarjanSCC.run(g, new Metrics());
+        CsrGraph dag = Condensation.build(g, c.compId, c.compCount, Condensation.WeightPolicy.FIRST);
+        int[] topo = TopologicalSort.kahn(dag, new Metrics());
+
+        // reference: same DAG with every arc weighing its head component's total duration
+        long[] compDur = new long[c.compCount];
+        for (int v = 0; v < n; v++) compDur[c.compId[v]] += durations[v];
+        CsrGraph.Builder b = new CsrGraph.Builder(dag.n(), true, dag.m());
+        for (int u = 0; u < dag.n(); u++)
+            for (int a = dag.begin(u); a < dag.end(u); a++) b.addEdge(u, dag.target(a), (int) compDur[dag.target(a)]);
+        CsrGraph ref = b.build();
+
+        WeightModel model = WeightModel.fromName("node", durations, c);
+        for (int src : new int[]{0, c.compId[0], c.compId[n / 2], topo[0]}) {
+            DAGPaths.Result fused = DAGPaths.run(dag, topo, src, model, new Metrics());
+            DAGShortestPath.Result sp = DAGShortestPath.run(ref, topo, src, new Metrics());
+            DAGLongestPath.Result lp = DAGLongestPath.run(ref, topo, src, new Metrics());
+            for (int v = 0; v < dag.n(); v++) {
+                boolean reach = sp.dist[v] != Long.MAX_VALUE;
+                assertEquals(reach, fused.reachable(v));
+                if (!reach) continue;
+                assertEquals(sp.dist[v] + compDur[src], fused.shortest.dist[v], "min to " + v);
+                assertEquals(lp.best[v] + compDur[src], fused.longest.best[v], "max to " + v);
+            }
+            assertArrayEquals(sp.parent, fused.shortest.parent);
+            assertArrayEquals(lp.parent, fused.longest.parent);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> WeightModel.fromName("node", null, c));
+        assertThrows(IllegalArgumentException.class, () -> WeightModel.fromName("time", durations, c));
+        assertSame(WeightModel.EDGE, WeightModel.fromName("edge", null, c));
+    }
+
+    /** "durations" is read from the input and must have one entry per vertex */
+    @Test
+    public void testLoaderReadsDurations() throws Exception {
+        String doc = "{\"durations\": [4, 5, 6], \"directed\": true, \"n\": 3,"
+                + " \"edges\": [{\"u\": 0, \"v\": 1, \"w\": 1}], \"weight_model\": \"node\"}";
+        JsonGraphLoader.Result r = JsonGraphLoader.load(new StringReader(doc));
+        assertArrayEquals(new int[]{4, 5, 6}, r.durations);
+        assertEquals("node", r.weightModel);
+        assertNull(JsonGraphLoader.load(new StringReader("{\"n\": 2, \"edges\": []}")).durations);
+        assertThrows(IllegalArgumentException.class, () ->
+                JsonGraphLoader.load(new StringReader("{\"n\": 2, \"edges\": [], \"durations\": [1]}")));
+    }
+
+    @Test
+    public void testCriticalPathMethod() throws Exception {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random rnd = new Random(seed);
+            CsrGraph dag = randomDag(200 + rnd.nextInt(300), 1 + rnd.nextInt(4), seed);
+            int[] topo = TopologicalSort.kahn(dag, new Metrics());
+            long[] dur = rnd.longs(dag.n(), 0, 30).toArray();
+            for (WeightModel model : new WeightModel[]{WeightModel.nodes(dur), WeightModel.EDGE, withLags(dur)}) {
+                CriticalPathMethod.Schedule s = CriticalPathMethod.run(dag, topo, model, new Metrics());
+                assertMatchesReference(dag, topo, model, s, "seed " + seed + " " + model.name());
+            }
+        }
+
+        // object-graph entry point on a real condensation
+        Graph g = loadGraph("large2.json");
+        Components c = TarjanSCC.run(CsrGraph.from(g), new Metrics());
+        Graph cond = Graph.condensation(g, c.compId, c.compCount);
+        List<Integer> order = TopologicalSort.kahn(cond, new Metrics());
+        CriticalPathMethod.Schedule s = CriticalPathMethod.run(cond, order, WeightModel.EDGE, new Metrics());
+        CsrGraph csr = CsrGraph.from(cond);
+        assertMatchesReference(csr, order.stream().mapToInt(Integer::intValue).toArray(), WeightModel.EDGE, s, "large2");
+    }
+
+    @Test
+    public void testTopKMatchesEnumeration() {
+        for (long seed = 1; seed <= 30; seed++) {
+            Random rnd = new Random(seed);
+            int n = 8 + rnd.nextInt(25);
+            CsrGraph.Builder b = new CsrGraph.Builder(n, true);
+            for (int u = 0; u < n; u++)
+                for (int v = u + 1; v < n; v++)
+                    if (rnd.nextInt(3) == 0) b.addEdge(u, v, rnd.nextInt(4)); // many ties
+            CsrGraph dag = b.build();
+            int[] topo = TopologicalSort.kahn(dag, new Metrics());
+            int k = 1 + rnd.nextInt(12);
+            for (MultiSourcePaths.Objective obj : MultiSourcePaths.Objective.values()) {
+                TopKPaths.Result r = TopKPaths.run(dag, topo, 0, k, obj, new Metrics());
+                List<List<Long>> all = new ArrayList<>();
+                for (int v = 0; v < n; v++) all.add(new ArrayList<>());
+                enumerate(dag, 0, 0, all);
+                for (int v = 0; v < n; v++) {
+                    List<Long> lengths = all.get(v);
+                    lengths.sort(obj == MultiSourcePaths.Objective.SHORTEST ? Comparator.naturalOrder() : Comparator.reverseOrder());
+                    assertEquals(Math.min(k, lengths.size()), r.count(v), "seed " + seed + " count to " + v);
+                    List<List<Integer>> seen = new ArrayList<>();
+                    for (int rank = 0; rank < r.count(v); rank++) {
+                        assertEquals(lengths.get(rank), r.value(v, rank), "seed " + seed + " " + obj + " rank " + rank + " to " + v);
+                        List<Integer> p = r.path(v, rank);
+                        assertEquals(0, p.get(0));
+                        assertEquals(v, p.get(p.size() - 1));
+                        assertEquals(r.value(v, rank), pathLength(dag, p, obj));
+                        assertFalse(seen.contains(p), "duplicate path " + p);
+                        seen.add(p);
+                    }
+                }
+            }
+        }
+    }
+
+    /** k = 1 gives the single-source lengths; ranks are monotone */
+    @Test
+    public void testTopKOnDatasets() throws Exception {
+        for (String file : new String[]{"medium2.json", "large3.json"}) {
+            CsrGraph g = CsrGraph.from(loadGraph(file));
+            Components c = TarjanSCC.run(g, new Metrics());
+            CsrGraph dag = Condensation.build(g, c.compId, c.compCount, Condensation.WeightPolicy.FIRST);
+            int[] topo = TopologicalSort.kahn(dag, new Metrics());
+            int src = topo[0];
+            DAGPaths.Result one = DAGPaths.run(dag, topo, src, new Metrics());
+            TopKPaths.Result sp = TopKPaths.run(dag, topo, src, 5, MultiSourcePaths.Objective.SHORTEST, new Metrics());
+            TopKPaths.Result lp = TopKPaths.run(dag, topo, src, 5, MultiSourcePaths.Objective.LONGEST, new Metrics());
+            for (int v = 0; v < dag.n(); v++) {
+                assertEquals(one.reachable(v) ? 1 : 0, Math.min(1, sp.count(v)), file);
+                if (!one.reachable(v)) continue;
+                assertEquals(one.shortest.dist[v], sp.value(v, 0), file);
+                assertEquals(one.longest.best[v], lp.value(v, 0), file);
+                for (int rank = 1; rank < sp.count(v); rank++) {
+                    assertTrue(sp.value(v, rank - 1) <= sp.value(v, rank));
+                    assertTrue(lp.value(v, rank - 1) >= lp.value(v, rank));
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () ->
+                TopKPaths.run(randomDag(10, 2, 1), new int[0], 0, 0, MultiSourcePaths.Objective.SHORTEST, new Metrics()));
+    }
+
+    private static void enumerate(CsrGraph dag, int u, long len, List<List<Long>> all) {
+        all.get(u).add(len);
+        for (int a = dag.begin(u); a < dag.end(u); a++) enumerate(dag, dag.target(a), len + dag.weight(a), all);
+    }
+
+    /** Length of a vertex path; with parallel-free inputs the arc between consecutive vertices is unique */
+    private static long pathLength(CsrGraph dag, List<Integer> p, MultiSourcePaths.Objective obj) {
+        long len = 0;
+        for (int i = 0; i + 1 < p.size(); i++) {
+            int u = p.get(i), v = p.get(i + 1);
+            boolean found = false;
+            for (int a = dag.begin(u); a < dag.end(u) && !found; a++)
+                if (dag.target(a) == v) {
+                    len += dag.weight(a);
+                    found = true;
+                }
+            assertTrue(found, "no arc " + u + "->" + v);
+        }
+        return len;
+    }
+
+    /** Node durations plus the arc weights as lags */
+    private static WeightModel withLags(long[] dur) {
+        return new WeightModel() {
+            @Override public boolean arcWeights() { return true; }
+            @Override public long node(int v) { return dur[v]; }
+            @Override public String name() { return "node+lag"; }
+        };
+    }
+
+    private static void assertMatchesReference(CsrGraph dag, int[] topo, WeightModel model,
+                                               CriticalPathMethod.Schedule s, String what) {
+        int n = dag.n();
+        long[] dur = new long[n];
+        for (int v = 0; v < n; v++) dur[v] = model.node(v);
+        // ES[v] = longest S -> v, arcs u->v weigh dur[u] + lag and S reaches everything at 0
+        // tail[v] = longest T -> v in the transposed graph, arcs v->u weigh dur[u] + lag and T->v weighs dur[v]
+        CsrGraph.Builder fwd = new CsrGraph.Builder(n + 1, true), bwd = new CsrGraph.Builder(n + 1, true);
+        for (int v = 0; v < n; v++) {
+            fwd.addEdge(n, v, 0);
+            bwd.addEdge(n, v, (int) dur[v]);
+        }
+        for (int u = 0; u < n; u++)
+            for (int a = dag.begin(u); a < dag.end(u); a++) {
+                int lag = model.arcWeights() ? dag.weight(a) : 0;
+                fwd.addEdge(u, dag.target(a), (int) dur[u] + lag);
+                bwd.addEdge(dag.target(a), u, (int) dur[u] + lag);
+            }
+        int[] fo = new int[n + 1], bo = new int[n + 1];
+        fo[0] = n;
+        bo[0] = n;
+        for (int i = 0; i < n; i++) {
+            fo[i + 1] = topo[i];
+            bo[i + 1] = topo[n - 1 - i];
+        }
+        long[] es = DAGLongestPath.run(fwd.build(), fo, n, new Metrics()).best;
+        long[] tail = DAGLongestPath.run(bwd.build(), bo, n, new Metrics()).best;
+
+        long makespan = 0;
+        for (int v = 0; v < n; v++) makespan = Math.max(makespan, tail[v]);
+        assertEquals(makespan, s.makespan, what);
+        int critical = 0;
+        for (int v = 0; v < n; v++) {
+            assertEquals(es[v], s.earliestStart[v], what + " ES " + v);
+            assertEquals(makespan - tail[v], s.latestStart[v], what + " LS " + v);
+            assertTrue(s.slack(v) >= 0 && s.freeFloat[v] >= 0 && s.freeFloat[v] <= s.slack(v), what + " floats " + v);
+            if (s.critical(v)) critical++;
+        }
+        assertEquals(critical, s.criticalTasks().length);
+
+        List<Integer> path = s.criticalPath();
+        if (n == 0) return;
+        assertEquals(0, s.earliestStart[path.get(0)], what);
+        assertEquals(makespan, s.earliestFinish(path.get(path.size() - 1)), what + " path ends at the makespan");
+        for (int v : path) assertTrue(s.critical(v));
+    }
+
+    private static void assertFusedMatches(CsrGraph dag, int[] topo, int src, String what) {
+        DAGPaths.Result f = DAGPaths.run(dag, topo, src, new Metrics());
+        DAGShortestPath.Result sp = DAGShortestPath.run(dag, topo, src, new Metrics());
+        DAGLongestPath.Result lp = DAGLongestPath.run(dag, topo, src, new Metrics());
+        assertArrayEquals(sp.dist, f.shortest.dist, what + " dist from " + src);
+        assertArrayEquals(sp.parent, f.shortest.parent, what + " shortest parents from " + src);
+        assertArrayEquals(lp.best, f.longest.best, what + " best from " + src);
+        assertArrayEquals(lp.parent, f.longest.parent, what + " longest parents from " + src);
+    }
+
+    /** Random DAG: arcs only go from lower to higher vertex ids */
+    private static CsrGraph randomDag(int n, int outDegree, long seed) {
+        Random rnd = new Random(seed);
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true, n * outDegree);
+        for (int u = 0; u + 1 < n; u++)
+            for (int k = 0; k < outDegree; k++)
+                b.addEdge(u, u + 1 + rnd.nextInt(Math.min(n - u - 1, 1000)), 1 + rnd.nextInt(50));
+        return b.build();
+    }
 }
\ No newline at end of file
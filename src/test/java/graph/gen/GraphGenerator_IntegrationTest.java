@@ -0,0 +1,107 @@
+package graph.gen;
+
+import graph.io.BinaryGraphFile;
+import graph.io.JsonGraphLoader;
+import graph.io.MappedGraph;
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.model.GraphView;
+import graph.scc.Components;
+import graph.scc.TarjanSCC;
+import graph.topo.TopologicalSort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GraphGenerator_IntegrationTest {
+
+    @TempDir
+    Path tmp;
+
+    /** Same seed gives the same graph (regardless of parallel scheduling); another seed does not */
+    @Test
+    public void testDeterministic() {
+        GraphGenerator[] gens = {
+                GraphGenerator.layered(50_000, 20, 3, 7),
+                GraphGenerator.scaleFree(50_000, 4, 7),
+                GraphGenerator.clustered(50_000, 10, 2, 7),
+                GraphGenerator.chain(50_000, 7)
+        };
+        for (GraphGenerator gen : gens) {
+            CsrGraph a = gen.toCsr(), b = gen.toCsr();
+            assertSameGraph(a, b, gen.shape().name());
+        }
+        CsrGraph x = GraphGenerator.scaleFree(10_000, 4, 1).toCsr(), y = GraphGenerator.scaleFree(10_000, 4, 2).toCsr();
+        assertFalse(x.m() == y.m() && sameArcs(x, y), "different seeds should give different graphs");
+    }
+
+    @Test
+    public void testShapes() {
+        // clustered: exactly ceil(n / size) SCCs, all full-size but the last
+        int n = 100_003, size = 16;
+        CsrGraph cl = GraphGenerator.clustered(n, size, 2, 3).toCsr();
+        Components c = TarjanSCC.run(cl, new Metrics());
+        assertEquals((n + size - 1) / size, c.compCount);
+        int full = 0;
+        for (int i = 0; i < c.compCount; i++) if (c.size(i) == size) full++;
+        assertEquals(n / size, full);
+
+        // layered: acyclic, no deeper than the number of layers, arcs only into the next layer
+        CsrGraph lay = GraphGenerator.layered(100_000, 50, 4, 3).toCsr();
+        assertEquals(lay.n(), TopologicalSort.kahn(lay, new Metrics()).length);
+        assertTrue(TopologicalSort.levels(lay, new Metrics()).levelCount() <= 50);
+        assertEquals(4L * (100_000 - 2_000), lay.m());
+
+        // scale-free: acyclic, mean degree close to the request, a few heavy hubs
+        CsrGraph sf = GraphGenerator.scaleFree(200_000, 6, 3).toCsr();
+        assertEquals(sf.n(), TopologicalSort.kahn(sf, new Metrics()).length);
+        double mean = sf.m() / (double) sf.n();
+        assertTrue(mean > 4 && mean < 8, "mean out-degree " + mean);
+        int[] in = new int[sf.n()];
+        for (int i = 0; i < sf.m(); i++) in[sf.target(i)]++;
+        int maxIn = 0;
+        for (int d : in) maxIn = Math.max(maxIn, d);
+        assertTrue(maxIn > 100 * mean, "max in-degree " + maxIn);
+
+        CsrGraph ch = GraphGenerator.chain(1_000, 3).toCsr();
+        assertEquals(999, ch.m());
+        for (int u = 0; u + 1 < ch.n(); u++) assertEquals(u + 1, ch.target(ch.begin(u)));
+    }
+
+    /** JSON and binary output load back into exactly the in-memory graph */
+    @Test
+    public void testFileOutputsRoundTrip() throws Exception {
+        GraphGenerator gen = GraphGenerator.clustered(20_000, 5, 3, 9).withMaxWeight(1000);
+        CsrGraph g = gen.toCsr();
+
+        Path json = tmp.resolve("g.json"), bin = tmp.resolve("g.bin");
+        gen.writeJson(json, 17);
+        gen.writeBinary(bin, 17);
+
+        JsonGraphLoader.Result parsed = JsonGraphLoader.load(json);
+        assertEquals(17, parsed.source);
+        assertEquals("edge", parsed.weightModel);
+        assertSameGraph(g, parsed.graph, "json");
+
+        MappedGraph mapped = BinaryGraphFile.map(bin);
+        assertEquals(17, mapped.source());
+        assertSameGraph(g, mapped, "binary");
+        for (int i = 0; i < g.m(); i++) assertTrue(g.weight(i) >= 1 && g.weight(i) <= 1000);
+    }
+
+    private static void assertSameGraph(GraphView a, GraphView b, String what) {
+        assertEquals(a.n(), b.n(), what);
+        assertEquals(a.m(), b.m(), what);
+        for (int u = 0; u < a.n(); u++) assertEquals(a.end(u), b.end(u), what + " offsets");
+        assertTrue(sameArcs(a, b), what + " arcs");
+    }
+
+    private static boolean sameArcs(GraphView a, GraphView b) {
+        for (int i = 0; i < a.m(); i++)
+            if (a.target(i) != b.target(i) || a.weight(i) != b.weight(i)) return false;
+        return true;
+    }
+}
@@ -0,0 +1,92 @@
+package graph.io;
+
+import graph.metrics.Metrics;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.model.OffHeapGraph;
+import graph.scc.Components;
+import graph.scc.TarjanSCC;
+import graph.topo.TopologicalSort;
+import graph.dagsp.DAGShortestPath;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryGraphFile_IntegrationTest {
+
+    @TempDir
+    Path tmp;
+
+    /** JSON -> binary -> mmap (and off-heap load) must round-trip every dataset and give the same pipeline results */
+    @Test
+    public void testRoundTripOnAllDatasets() throws Exception {
+        String[] files = {
+                "small1.json", "small2.json", "small3.json",
+                "medium1.json", "medium2.json", "medium3.json",
+                "large1.json", "large2.json", "large3.json"
+        };
+        for (String file : files) {
+            Path json = tmp.resolve(file);
+            try (InputStream is = getClass().getResourceAsStream("/data/" + file)) {
+                assertNotNull(is, "File not found: " + file);
+                Files.copy(is, json);
+            }
+            Path bin = tmp.resolve(file + ".bin");
+            BinaryGraphFile.convert(json, bin);
+
+            JsonGraphLoader.Result heap = JsonGraphLoader.load(json);
+            MappedGraph mapped = BinaryGraphFile.map(bin);
+            assertEquals(heap.source, mapped.source());
+            assertEquals(heap.directed, mapped.directed());
+            assertEquals(heap.graph.n(), mapped.n());
+            assertEquals(heap.graph.m(), mapped.m());
+            for (int u = 0; u < mapped.n(); u++) {
+                assertEquals(heap.graph.begin(u), mapped.begin(u));
+                assertEquals(heap.graph.end(u), mapped.end(u));
+            }
+            for (int i = 0; i < mapped.m(); i++) {
+                assertEquals(heap.graph.target(i), mapped.target(i));
+                assertEquals(heap.graph.weight(i), mapped.weight(i));
+            }
+
+            try (OffHeapGraph loaded = BinaryGraphFile.load(bin)) {
+                assertEquals(mapped.m(), loaded.m());
+                for (int u = 0; u < mapped.n(); u++) assertEquals(mapped.end(u), loaded.end(u));
+                for (int i = 0; i < mapped.m(); i++) {
+                    assertEquals(mapped.target(i), loaded.target(i));
+                    assertEquals(mapped.weight(i), loaded.weight(i));
+                }
+            }
+
+            // the whole pipeline runs directly over the mapped buffers
+            Components a = TarjanSCC.run(heap.graph, new Metrics());
+            Components b = TarjanSCC.run(mapped, new Metrics());
+            assertArrayEquals(a.compId, b.compId, file);
+            CsrGraph dag = Condensation.build(mapped, b.compId, b.compCount, Condensation.WeightPolicy.MIN);
+            int[] topo = TopologicalSort.kahn(dag, new Metrics());
+            DAGShortestPath.Result sp = DAGShortestPath.run(dag, topo, b.compId[mapped.source()], new Metrics());
+            assertEquals(0, sp.dist[b.compId[mapped.source()]]);
+        }
+    }
+
+    @Test
+    public void testRejectsCorruptFiles() throws Exception {
+        Path bad = tmp.resolve("bad.bin");
+        Files.write(bad, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> BinaryGraphFile.map(bad));
+
+        CsrGraph g = new CsrGraph.Builder(3, true).addEdge(0, 1, 1).addEdge(1, 2, 1).build();
+        Path ok = tmp.resolve("ok.bin");
+        BinaryGraphFile.write(g, 0, ok);
+        byte[] bytes = Files.readAllBytes(ok);
+        Files.write(bad, Arrays.copyOf(bytes, bytes.length - 4));
+        assertThrows(IOException.class, () -> BinaryGraphFile.map(bad));
+    }
+}
@@ -0,0 +1,166 @@
+package graph.io;
+
+import graph.gen.GraphGenerator;
+import graph.metrics.Metrics;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.model.GraphView;
+import graph.scc.Components;
+import graph.scc.TarjanSCC;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExternalCondensation_IntegrationTest {
+
+    @TempDir
+    Path tmp;
+
+    /** Every dataset, as an edge list and as a binary CSR file, must match in-memory SCC + condensation */
+    @Test
+    public void testMatchesInMemoryOnAllDatasets() throws Exception {
+        String[] files = {
+                "small1.json", "small2.json", "small3.json",
+                "medium1.json", "medium2.json", "medium3.json",
+                "large1.json", "large2.json", "large3.json"
+        };
+        for (String file : files) {
+            CsrGraph g;
+            try (InputStream is = getClass().getResourceAsStream("/data/" + file)) {
+                assertNotNull(is, "File not found: " + file);
+                g = JsonGraphLoader.load(is).graph;
+            }
+            Path edges = tmp.resolve(file + ".edges"), bin = tmp.resolve(file + ".bin");
+            EdgeListFile.write(g, edges);
+            BinaryGraphFile.write(g, 0, bin);
+            for (Path input : new Path[]{edges, bin}) {
+                ExternalCondensation.Result r = new ExternalCondensation(ExternalCondensation.MIN_BUDGET,
+                        Condensation.WeightPolicy.FIRST, new Metrics()).run(input, tmp.resolve(input.getFileName() + ".out"));
+                assertMatchesInMemory(g, r, Condensation.WeightPolicy.FIRST, file);
+                assertEquals(2, r.scans, file + " → small inputs take one SCC scan and one condensation scan");
+            }
+        }
+    }
+
+    /** A budget far below the graph forces chunked contraction and a multi-run external sort */
+    @Test
+    public void testOutOfCoreContractionAndSort() throws Exception {
+        CsrGraph g = GraphGenerator.clustered(60_000, 6, 4, 9).toCsr();
+        Path edges = tmp.resolve("clustered.edges");
+        EdgeListFile.write(g, edges);
+        for (Condensation.WeightPolicy policy : Condensation.WeightPolicy.values()) {
+            ExternalCondensation.Result r = new ExternalCondensation(256 << 10, policy, new Metrics())
+                    .run(edges, tmp.resolve("out-" + policy));
+            assertTrue(r.contractionPasses >= 1, "should have contracted in chunks");
+            assertTrue(r.sortRuns > 1, "should have spilled several sorted runs");
+            assertMatchesInMemory(g, r, policy, "clustered/" + policy);
+            try (var files = Files.list(r.dagFile.getParent())) {
+                assertEquals(2, files.count(), "temporary runs must be deleted");
+            }
+        }
+    }
+
+    /** One long cycle in random arc order: no chunk holds a cycle, so colouring has to find it */
+    @Test
+    public void testColouringFallbackOnScatteredCycle() throws Exception {
+        int n = 12_000;
+        Random rnd = new Random(3);
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) perm[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1), t = perm[i];
+            perm[i] = perm[j];
+            perm[j] = t;
+        }
+        int[] order = perm.clone(); // arcs written in a shuffled order too
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1), t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        Path edges = tmp.resolve("cycle.edges");
+        CsrGraph.Builder b = new CsrGraph.Builder(n + 2, true);
+        try (EdgeListFile.Writer w = EdgeListFile.writer(edges, n + 2, true)) {
+            for (int i : order) {
+                int u = perm[i], v = perm[(i + 1) % n];
+                w.edge(u, v, 1);
+                b.addEdge(u, v, 1);
+            }
+            w.edge(n, perm[0], 2).edge(perm[5], n + 1, 3); // a tail into and out of the cycle
+            b.addEdge(n, perm[0], 2).addEdge(perm[5], n + 1, 3);
+        }
+        ExternalCondensation.Result r = new ExternalCondensation(ExternalCondensation.MIN_BUDGET,
+                Condensation.WeightPolicy.MIN, new Metrics()).run(edges, tmp.resolve("cycle.out"));
+        assertTrue(r.coloringRounds > 0, "contraction alone cannot see the cycle");
+        assertEquals(3, r.compCount);
+        assertMatchesInMemory(b.build(), r, Condensation.WeightPolicy.MIN, "cycle");
+    }
+
+    /**
+     * Every temporary byte written (sort runs, intermediate merges, the arc file) is read back once;
+     * the rest of the reads are input scans, whole ones with a large budget. Enough runs at the minimum budget need more than
+     * one merge pass.
+     */
+    @Test
+    public void testIoAccountingAndMultiPassMerge() throws Exception {
+        CsrGraph g = GraphGenerator.layered(20_000, 100, 4, 11).toCsr();
+        Path edges = tmp.resolve("layered.edges");
+        EdgeListFile.write(g, edges);
+        long input = 12L * g.m();
+
+        ExternalCondensation.Result mem = new ExternalCondensation(64L << 20, Condensation.WeightPolicy.MIN,
+                new Metrics()).run(edges, tmp.resolve("mem.out"));
+        assertEquals(2, mem.scans);
+        assertEquals(0, mem.sortRuns);
+        assertEquals(0, mem.mergePasses);
+        assertEquals(2 * input, mem.bytesRead);
+        assertEquals(Files.size(mem.compIdFile) + Files.size(mem.dagFile), mem.bytesWritten);
+
+        ExternalCondensation.Result ext = new ExternalCondensation(ExternalCondensation.MIN_BUDGET,
+                Condensation.WeightPolicy.MIN, new Metrics()).run(edges, tmp.resolve("ext.out"));
+        assertTrue(ext.mergePasses >= 1, "runs beyond the fan-in must be merged in passes: " + ext.sortRuns);
+        long temporary = ext.bytesWritten - Files.size(ext.compIdFile) - Files.size(ext.dagFile);
+        assertTrue(temporary >= 20 * ext.dagArcs, "each DAG arc is in a run and in the arc file");
+        long scanned = ext.bytesRead - temporary; // a scan may stop early once the in-memory buffer is full
+        assertEquals(0, scanned % 12);
+        assertTrue(scanned >= input && scanned <= ext.scans * input, scanned + " bytes in " + ext.scans + " scans");
+        assertMatchesInMemory(g, ext, Condensation.WeightPolicy.MIN, "layered");
+        try (var files = Files.list(ext.dagFile.getParent())) {
+            assertEquals(2, files.count(), "temporary runs must be deleted");
+        }
+    }
+
+    /** Same partition as Tarjan, and the written DAG equals the in-memory condensation under that partition */
+    private static void assertMatchesInMemory(CsrGraph g, ExternalCondensation.Result r,
+                                              Condensation.WeightPolicy policy, String label) throws Exception {
+        int[] ext = ExternalCondensation.readCompIds(r.compIdFile);
+        Components c = TarjanSCC.run(g, new Metrics());
+        assertEquals(c.compCount, r.compCount, label + " → component count");
+        Map<Integer, Integer> map = new HashMap<>();
+        for (int v = 0; v < g.n(); v++) {
+            int id = ext[v];
+            assertEquals(id, (int) map.computeIfAbsent(c.compId[v], k -> id), label + " → partition differs at " + v);
+        }
+
+        CsrGraph expected = Condensation.build(g, ext, r.compCount, policy);
+        GraphView actual = BinaryGraphFile.map(r.dagFile);
+        assertEquals(expected.n(), actual.n());
+        assertEquals(expected.m(), actual.m(), label + " → DAG arc count");
+        assertEquals(expected.m(), r.dagArcs);
+        for (int a = 0; a < expected.n(); a++) {
+            Map<Integer, Integer> arcs = new HashMap<>();
+            for (int i = expected.begin(a); i < expected.end(a); i++) arcs.put(expected.target(i), expected.weight(i));
+            assertEquals(arcs.size(), actual.outDegree(a));
+            for (int i = actual.begin(a); i < actual.end(a); i++)
+                assertEquals(arcs.get(actual.target(i)), actual.weight(i), label + " → arc " + a + "->" + actual.target(i));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package graph.io;
+
+import graph.model.CsrGraph;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonGraphLoader_IntegrationTest {
+
+    private static final String[] FILES = {
+            "input.json",
+            "small1.json", "small2.json", "small3.json",
+            "medium1.json", "medium2.json", "medium3.json",
+            "large1.json", "large2.json", "large3.json"
+    };
+
+    /** Streaming loader must agree with the org.json DOM on every dataset */
+    @Test
+    public void testMatchesDomParserOnAllDatasets() throws Exception {
+        for (String file : FILES) {
+            JSONObject obj;
+            try (InputStream is = getClass().getResourceAsStream("/data/" + file)) {
+                assertNotNull(is, "File not found: " + file);
+                obj = new JSONObject(new JSONTokener(is));
+            }
+            JsonGraphLoader.Result r;
+            try (InputStream is = getClass().getResourceAsStream("/data/" + file)) {
+                r = JsonGraphLoader.load(is);
+            }
+
+            JSONArray edges = obj.getJSONArray("edges");
+            assertEquals(obj.getInt("n"), r.n);
+            assertEquals(obj.optBoolean("directed", true), r.directed);
+            assertEquals(obj.optInt("source", 0), r.source);
+            assertEquals(obj.optString("weight_model", "edge"), r.weightModel);
+            assertEquals(edges.length(), r.edgesRead);
+
+            CsrGraph.Builder b = new CsrGraph.Builder(r.n, r.directed);
+            for (int i = 0; i < edges.length(); i++) {
+                JSONObject e = edges.getJSONObject(i);
+                b.addEdge(e.getInt("u"), e.getInt("v"), e.getInt("w"));
+            }
+            assertSameGraph(b.build(), r.graph, file);
+        }
+    }
+
+    @Test
+    public void testKeyOrderAndUnknownFields() throws Exception {
+        String json = "{\"edges\":[{\"w\":5,\"note\":{\"a\":[1,2,null]},\"v\":1,\"u\":0},{\"u\":1,\"v\":2,\"w\":2.0}],"
+                + "\"meta\":\"x\\\"y\",\"n\":3,\"source\":1}";
+        JsonGraphLoader.Result r = JsonGraphLoader.load(new StringReader(json));
+        assertEquals(3, r.n);
+        assertEquals(1, r.source);
+        assertEquals(2, r.graph.m());
+        assertEquals(1, r.graph.target(r.graph.begin(0)));
+        assertEquals(5, r.graph.weight(r.graph.begin(0)));
+        assertEquals(2, r.graph.weight(r.graph.begin(1)));
+    }
+
+    /** "directed" after "n" or after the edges must keep the edges already read */
+    @Test
+    public void testDirectedAfterEdges() throws Exception {
+        String[] jsons = {
+                "{\"n\": 3, \"edges\": [{\"u\":0,\"v\":1,\"w\":4}, {\"u\":1,\"v\":2,\"w\":5}], \"directed\": true}",
+                "{\"edges\": [{\"u\":0,\"v\":1,\"w\":4}, {\"u\":1,\"v\":2,\"w\":5}], \"n\": 3, \"directed\": true}",
+                "{\"n\": 3, \"directed\": true, \"edges\": [{\"u\":0,\"v\":1,\"w\":4}, {\"u\":1,\"v\":2,\"w\":5}]}"
+        };
+        for (String json : jsons) {
+            JsonGraphLoader.Result r = JsonGraphLoader.load(new StringReader(json));
+            assertTrue(r.directed, json);
+            assertEquals(2, r.graph.m(), json);
+            assertEquals(1, r.graph.target(r.graph.begin(0)), json);
+            assertEquals(5, r.graph.weight(r.graph.begin(1)), json);
+        }
+        JsonGraphLoader.Result u = JsonGraphLoader.load(new StringReader(
+                "{\"n\": 3, \"directed\": false, \"edges\": [{\"u\":0,\"v\":1,\"w\":4}]}"));
+        assertFalse(u.directed);
+        assertEquals(2, u.graph.m());
+        assertThrows(IllegalArgumentException.class, () -> JsonGraphLoader.load(new StringReader(
+                "{\"n\": 3, \"edges\": [{\"u\":0,\"v\":1,\"w\":4}], \"directed\": false}")));
+    }
+
+    @Test
+    public void testRejectsBadInput() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> JsonGraphLoader.load(
+                new StringReader("{\"n\": 2,\n \"edges\": [\n {\"u\":0,\"v\":1,\"w\":1},\n {\"u\":0,\"v\":7,\"w\":1}]}")));
+        assertTrue(ex.getMessage().contains("out of range"), ex.getMessage());
+        assertTrue(ex.getMessage().contains("line 4"), ex.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> JsonGraphLoader.load(
+                new StringReader("{\"edges\": [{\"u\":0,\"v\":1}], \"n\": 2}")));
+        assertThrows(IllegalArgumentException.class, () -> JsonGraphLoader.load(
+                new StringReader("{\"edges\": [], \"source\": 0}")));
+        assertThrows(IllegalArgumentException.class, () -> JsonGraphLoader.load(
+                new StringReader("{\"n\": 2, \"edges\": [{\"u\":0,\"v\":1,\"w\":1}")));
+    }
+
+    /** A document spanning many read buffers loads every edge, in order */
+    @Test
+    public void testLargeDocumentAcrossBuffers() throws Exception {
+        int n = 1_000, m = 20_000;
+        Random rnd = new Random(7);
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true, m);
+        StringBuilder sb = new StringBuilder(m * 32);
+        sb.append("{\"directed\": true, \"n\": ").append(n).append(", \"edges\": [\n");
+        for (int i = 0; i < m; i++) {
+            int u = rnd.nextInt(n), v = rnd.nextInt(n), w = 1 + rnd.nextInt(100);
+            if (i > 0) sb.append(",\n");
+            sb.append("{\"u\": ").append(u).append(", \"v\": ").append(v).append(", \"w\": ").append(w).append('}');
+            b.addEdge(u, v, w);
+        }
+        sb.append("\n], \"source\": 0, \"weight_model\": \"edge\"}");
+
+        JsonGraphLoader.Result r = JsonGraphLoader.load(new StringReader(sb.toString()));
+        assertEquals(m, r.edgesRead);
+        assertSameGraph(b.build(), r.graph, "synthetic");
+    }
+
+    private static void assertSameGraph(CsrGraph a, CsrGraph b, String file) {
+        assertEquals(a.n(), b.n(), file);
+        assertEquals(a.m(), b.m(), file);
+        for (int u = 0; u < a.n(); u++) {
+            assertEquals(a.begin(u), b.begin(u), file);
+            for (int i = a.begin(u); i < a.end(u); i++) {
+                assertEquals(a.target(i), b.target(i), file);
+                assertEquals(a.weight(i), b.weight(i), file);
+            }
+        }
+    }
+}
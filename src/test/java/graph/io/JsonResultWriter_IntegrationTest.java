@@ -0,0 +1,151 @@
+package graph.io;
+
+import app.Main;
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGShortestPath;
+import graph.metrics.Metrics;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.scc.Components;
+import graph.scc.SccAlgorithm;
+import graph.topo.TopologicalSort;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonResultWriter_IntegrationTest {
+
+    private static final String[] FILES = {
+            "input.json",
+            "small1.json", "small2.json", "small3.json",
+            "medium1.json", "medium2.json", "medium3.json",
+            "large1.json", "large2.json", "large3.json"
+    };
+
+    /** org.json must read back exactly what was written, including escapes and extreme numbers */
+    @Test
+    public void testDocumentRoundTrip() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonResultWriter w = JsonResultWriter.to(bytes)) {
+            w.beginObject()
+                    .name("text").value("quote \" slash \\ tab \t nl \n ctl \u0001 é ∑ 😀")
+                    .name("min").value(Long.MIN_VALUE)
+                    .name("max").value(Long.MAX_VALUE)
+                    .name("ms").value(0.125)
+                    .name("whole").value(3.0)
+                    .name("nan").value(Double.NaN)
+                    .name("flag").value(false)
+                    .name("none").nullValue()
+                    .name("empty_obj").beginObject().endObject()
+                    .name("empty_arr").array(new int[0])
+                    .name("slice").array(new int[]{9, 1, 2, 3, 9}, 1, 4)
+                    .name("longs").array(new long[]{-5, 0, Long.MAX_VALUE})
+                    .name("nested").beginArray().beginObject().name("k").value(1).endObject().value("x").endArray()
+                    .endObject();
+        }
+        JSONObject o = new JSONObject(new JSONTokener(bytes.toString(StandardCharsets.UTF_8)));
+        assertEquals("quote \" slash \\ tab \t nl \n ctl \u0001 é ∑ 😀", o.getString("text"));
+        assertEquals(Long.MIN_VALUE, o.getLong("min"));
+        assertEquals(Long.MAX_VALUE, o.getLong("max"));
+        assertEquals(0.125, o.getDouble("ms"));
+        assertEquals(3, o.getInt("whole"));
+        assertTrue(o.isNull("nan"));
+        assertFalse(o.getBoolean("flag"));
+        assertTrue(o.isNull("none"));
+        assertTrue(o.getJSONObject("empty_obj").isEmpty());
+        assertTrue(o.getJSONArray("empty_arr").isEmpty());
+        assertEquals("[1,2,3]", o.getJSONArray("slice").toString());
+        assertEquals(Long.MAX_VALUE, o.getJSONArray("longs").getLong(2));
+        assertEquals(1, o.getJSONArray("nested").getJSONObject(0).getInt("k"));
+        assertEquals("x", o.getJSONArray("nested").getString(1));
+    }
+
+    @Test
+    public void testMisuseIsRejected() throws Exception {
+        JsonResultWriter w = JsonResultWriter.to(OutputStream.nullOutputStream());
+        w.beginObject();
+        assertThrows(IllegalStateException.class, () -> w.value(1));
+        assertThrows(IllegalStateException.class, w::endArray);
+        w.name("a");
+        assertThrows(IllegalStateException.class, () -> w.name("b"));
+        w.value(1);
+        assertThrows(IllegalStateException.class, w::close, "unterminated document");
+
+        JsonResultWriter done = JsonResultWriter.to(OutputStream.nullOutputStream());
+        done.beginArray().endArray();
+        assertThrows(IllegalStateException.class, () -> done.value(1));
+        done.close();
+    }
+
+    /** Both encodings describe the same paths as the one-shot algorithms, on every dataset */
+    @Test
+    public void testPipelineOutputInBothEncodings() throws Exception {
+        for (String file : FILES) {
+            JsonGraphLoader.Result in;
+            try (InputStream is = getClass().getResourceAsStream("/data/" + file)) {
+                assertNotNull(is, "File not found: " + file);
+                in = JsonGraphLoader.load(is);
+            }
+            JSONObject expanded = run(in, Main.PathEncoding.EXPANDED);
+            JSONObject parents = run(in, Main.PathEncoding.PARENTS);
+
+            Components c = SccAlgorithm.KOSARAJU.run(in.graph, new Metrics());
+            CsrGraph dag = Condensation.build(in.graph, c.compId, c.compCount, Condensation.WeightPolicy.FIRST);
+            int[] topo = TopologicalSort.kahn(dag, new Metrics());
+            int sc = c.compId[in.source];
+            DAGShortestPath.Result sp = DAGShortestPath.run(dag, topo, sc, new Metrics());
+            DAGLongestPath.Result lp = DAGLongestPath.run(dag, topo, sc, new Metrics());
+
+            assertEquals(c.compCount, expanded.getJSONObject("scc").getJSONArray("components").length(), file);
+            assertFalse(parents.has("paths_examples"), file);
+            assertEquals("parents", parents.getString("paths_encoding"));
+            JSONArray examples = expanded.getJSONArray("paths_examples");
+            JSONArray spParent = parents.getJSONObject("dag_shortest_paths").getJSONArray("parent");
+            JSONArray lpParent = parents.getJSONObject("dag_longest_paths").getJSONArray("parent");
+            JSONArray dist = parents.getJSONObject("dag_shortest_paths").getJSONArray("dist");
+            JSONArray best = parents.getJSONObject("dag_longest_paths").getJSONArray("best");
+            for (int t = 0; t < dag.n(); t++) {
+                JSONObject ex = examples.getJSONObject(t);
+                assertEquals(t, ex.getInt("target_component"));
+                assertEquals(sp.buildPathTo(t), ints(ex.getJSONArray("shortest_path")), file + " shortest " + t);
+                assertEquals(lp.buildPathTo(t), ints(ex.getJSONArray("longest_path")), file + " longest " + t);
+                assertEquals(sp.buildPathTo(t), expand(spParent, t, dist.getLong(t) != Long.MAX_VALUE));
+                assertEquals(lp.buildPathTo(t), expand(lpParent, t, best.getLong(t) != Long.MIN_VALUE / 4));
+            }
+        }
+    }
+
+    private static JSONObject run(JsonGraphLoader.Result in, Main.PathEncoding enc) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonResultWriter w = JsonResultWriter.to(bytes)) {
+            Main.analyze(in, SccAlgorithm.KOSARAJU, Condensation.WeightPolicy.FIRST, enc, w);
+        }
+        return new JSONObject(new JSONTokener(bytes.toString(StandardCharsets.UTF_8)));
+    }
+
+    /** What a reader of the parents encoding does */
+    private static List<Integer> expand(JSONArray parent, int t, boolean reachable) {
+        if (!reachable) return Collections.emptyList();
+        List<Integer> path = new ArrayList<>();
+        for (int cur = t; cur != -1; cur = parent.getInt(cur)) path.add(cur);
+        Collections.reverse(path);
+        return path;
+    }
+
+    private static List<Integer> ints(JSONArray a) {
+        List<Integer> l = new ArrayList<>(a.length());
+        for (int i = 0; i < a.length(); i++) l.add(a.getInt(i));
+        return l;
+    }
+}
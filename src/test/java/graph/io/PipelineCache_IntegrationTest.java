@@ -0,0 +1,175 @@
+package graph.io;
+
+import app.Main;
+import graph.gen.GraphGenerator;
+import graph.metrics.Metrics;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.scc.Components;
+import graph.scc.SccAlgorithm;
+import graph.topo.TopologicalSort;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PipelineCache_IntegrationTest {
+
+    @TempDir
+    Path tmp;
+
+    /** A miss stores the entry, the second run reads it back, and Main's output is the same either way */
+    @Test
+    public void testHitMatchesFreshRunOnAllDatasets() throws Exception {
+        String[] files = {
+                "small1.json", "small2.json", "small3.json",
+                "medium1.json", "medium2.json", "medium3.json",
+                "large1.json", "large2.json", "large3.json"
+        };
+        PipelineCache cache = new PipelineCache(tmp.resolve("cache"));
+        for (String file : files) {
+            JsonGraphLoader.Result in;
+            try (InputStream is = getClass().getResourceAsStream("/data/" + file)) {
+                assertNotNull(is, "File not found: " + file);
+                in = JsonGraphLoader.load(is);
+            }
+            JSONObject fresh = run(in, null);
+            JSONObject miss = run(in, cache), hit = run(in, cache);
+            assertFalse(fresh.has("cache"), file);
+            assertEquals("miss", miss.getJSONObject("cache").getString("status"), file);
+            assertEquals("hit", hit.getJSONObject("cache").getString("status"), file);
+            assertEquals(miss.getJSONObject("cache").getString("key"), hit.getJSONObject("cache").getString("key"), file);
+            for (JSONObject o : new JSONObject[]{miss, hit}) {
+                assertEquals(fresh.getJSONObject("scc").getJSONArray("components").toString(),
+                        o.getJSONObject("scc").getJSONArray("components").toString(), file + " components");
+                assertEquals(fresh.getJSONObject("condensation_dag").getInt("edges"),
+                        o.getJSONObject("condensation_dag").getInt("edges"), file + " DAG arcs");
+                assertEquals(fresh.getJSONObject("topological_sort").getJSONArray("order").toString(),
+                        o.getJSONObject("topological_sort").getJSONArray("order").toString(), file + " order");
+                for (String section : new String[]{"dag_shortest_paths", "dag_longest_paths", "cpm"}) {
+                    JSONObject a = fresh.getJSONObject(section), b = o.getJSONObject(section);
+                    a.remove("metrics");
+                    b.remove("metrics");
+                    assertEquals(a.toString(), b.toString(), file + " " + section);
+                }
+            }
+        }
+    }
+
+    /** Flipped bytes, truncation and a foreign file are detected, deleted and rebuilt; the next lookup hits */
+    @Test
+    public void testCorruptedEntriesAreRebuilt() throws Exception {
+        CsrGraph g = GraphGenerator.clustered(5_000, 5, 3, 7).toCsr();
+        PipelineCache cache = new PipelineCache(tmp.resolve("cache"));
+        AtomicInteger computed = new AtomicInteger();
+        PipelineCache.Stages stages = () -> {
+            computed.incrementAndGet();
+            return compute(g);
+        };
+        PipelineCache.Result first = cache.get(g, "test", stages);
+        assertEquals(PipelineCache.Status.MISS, first.status);
+        Path file = cache.file(PipelineCache.key(g, "test"));
+        byte[] good = Files.readAllBytes(file);
+
+        for (int damage = 0; damage < 4; damage++) {
+            byte[] bad = good.clone();
+            switch (damage) {
+                case 0: bad[bad.length / 2] ^= 0x10; break;                    // payload bit flip
+                case 1: bad[PipelineCache.HEADER_BYTES + 3] ^= 1; break;        // compId[0]
+                case 2: bad = Arrays.copyOf(bad, bad.length - 100); break;
+                default: bad[4] = 9; break;                                     // unknown version
+            }
+            Files.write(file, bad);
+            PipelineCache.Result r = cache.get(g, "test", stages);
+            assertEquals(PipelineCache.Status.REBUILT, r.status, "damage " + damage);
+            assertNotNull(r.problem);
+            assertSameEntry(first.entry, r.entry);
+            assertArrayEquals(good, Files.readAllBytes(file), "rebuilt entry is rewritten");
+            assertEquals(PipelineCache.Status.HIT, cache.get(g, "test", stages).status);
+        }
+        assertEquals(5, computed.get(), "one miss and four rebuilds");
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(10);
+        }
+        assertEquals(PipelineCache.Status.REBUILT, cache.get(g, "test", stages).status);
+        try (var files = Files.list(cache.dir())) {
+            assertEquals(1, files.count(), "no temporary files are left behind");
+        }
+    }
+
+    /** The key follows the graph and the variant, not the JSON layout */
+    @Test
+    public void testKeyIsContentHash() throws Exception {
+        String a = "{\"directed\": true, \"n\": 4, \"edges\": [{\"u\": 0, \"v\": 1, \"w\": 2}, {\"u\": 1, \"v\": 0, \"w\": 3},"
+                + " {\"u\": 2, \"v\": 3, \"w\": 1}, {\"u\": 1, \"v\": 2, \"w\": 5}], \"source\": 0}";
+        // same arcs, tails interleaved differently, keys reordered, another source, no whitespace
+        String b = "{\"directed\":true,\"source\":1,\"n\":4,\"edges\":[{\"w\":2,\"v\":1,\"u\":0},{\"u\":2,\"v\":3,\"w\":1},"
+                + "{\"u\":1,\"v\":0,\"w\":3},{\"u\":1,\"v\":2,\"w\":5}]}";
+        String c = a.replace("\"w\": 5", "\"w\": 6");
+        byte[] ka = PipelineCache.key(JsonGraphLoader.load(new StringReader(a)).graph, "v");
+        assertArrayEquals(ka, PipelineCache.key(JsonGraphLoader.load(new StringReader(b)).graph, "v"));
+        assertFalse(Arrays.equals(ka, PipelineCache.key(JsonGraphLoader.load(new StringReader(c)).graph, "v")),
+                "a changed weight is a different graph");
+        assertFalse(Arrays.equals(ka, PipelineCache.key(JsonGraphLoader.load(new StringReader(a)).graph, "w")),
+                "a different variant is a different entry");
+
+        PipelineCache cache = new PipelineCache(tmp.resolve("cache"));
+        CsrGraph ga = JsonGraphLoader.load(new StringReader(a)).graph, gc = JsonGraphLoader.load(new StringReader(c)).graph;
+        assertEquals(PipelineCache.Status.MISS, cache.get(ga, "v", () -> compute(ga)).status);
+        assertEquals(PipelineCache.Status.MISS, cache.get(gc, "v", () -> compute(gc)).status);
+        assertEquals(PipelineCache.Status.HIT, cache.get(ga, "v", () -> fail("must not recompute")).status);
+    }
+
+    /** A larger entry (several I/O buffers) reads back equal to what was stored */
+    @Test
+    public void testHitOnLargeGraph() throws Exception {
+        CsrGraph g = GraphGenerator.clustered(200_000, 4, 3, 13).toCsr();
+        PipelineCache cache = new PipelineCache(tmp.resolve("cache"));
+        PipelineCache.Result miss = cache.get(g, "large", () -> compute(g));
+        assertEquals(PipelineCache.Status.MISS, miss.status);
+        PipelineCache.Result hit = cache.get(g, "large", () -> fail("must not recompute"));
+        assertEquals(PipelineCache.Status.HIT, hit.status);
+        assertSameEntry(miss.entry, hit.entry);
+    }
+
+    private static PipelineCache.Entry compute(CsrGraph g) {
+        Components c = SccAlgorithm.TARJAN.run(g, new Metrics());
+        CsrGraph dag = Condensation.build(g, c.compId, c.compCount, Condensation.WeightPolicy.FIRST);
+        return new PipelineCache.Entry(c, dag, TopologicalSort.kahn(dag, new Metrics()));
+    }
+
+    private static void assertSameEntry(PipelineCache.Entry a, PipelineCache.Entry b) {
+        assertArrayEquals(a.scc.compId, b.scc.compId);
+        assertArrayEquals(a.scc.offsets, b.scc.offsets);
+        assertArrayEquals(a.scc.members, b.scc.members);
+        assertEquals(a.dag.n(), b.dag.n());
+        assertEquals(a.dag.m(), b.dag.m());
+        for (int u = 0; u < a.dag.n(); u++) assertEquals(a.dag.end(u), b.dag.end(u));
+        for (int i = 0; i < a.dag.m(); i++) {
+            assertEquals(a.dag.target(i), b.dag.target(i));
+            assertEquals(a.dag.weight(i), b.dag.weight(i));
+        }
+        assertArrayEquals(a.topo, b.topo);
+    }
+
+    private static JSONObject run(JsonGraphLoader.Result in, PipelineCache cache) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonResultWriter w = JsonResultWriter.to(bytes)) {
+            Main.analyze(in, SccAlgorithm.KOSARAJU, Condensation.WeightPolicy.FIRST, Main.PathEncoding.PARENTS, cache, w);
+        }
+        return new JSONObject(new JSONTokener(bytes.toString(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,102 @@
+package graph.metrics;
+
+import graph.dagsp.DAGShortestPath;
+import graph.gen.GraphGenerator;
+import graph.model.CsrGraph;
+import graph.scc.TarjanSCC;
+import graph.topo.TopologicalSort;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Metrics_IntegrationTest {
+
+    @TempDir
+    Path tmp;
+
+    /** Percentiles stay within one sub-bucket (25%) of the exact value */
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) h.record(v * 10);
+        assertEquals(100_000, h.count());
+        assertEquals(1_000_000, h.maxNanos());
+        assertEquals(10 * 100_000L * 100_001 / 2, h.totalNanos());
+        for (double q : new double[]{0.5, 0.9, 0.99}) {
+            long exact = (long) (q * 100_000) * 10, p = h.percentileNanos(q);
+            assertTrue(p >= exact && p <= exact * 1.25, q + " → " + p + " vs " + exact);
+        }
+        for (long v = 0; v < 1 << 20; v = v * 3 + 1) {
+            assertTrue(LatencyHistogram.upper(LatencyHistogram.index(v)) >= v);
+            if (LatencyHistogram.index(v) > 0)
+                assertTrue(LatencyHistogram.upper(LatencyHistogram.index(v) - 1) < v);
+        }
+    }
+
+    /** One instance shared by parallel runs sums exactly; NOOP records nothing */
+    @Test
+    public void testSharedCountersAndNoop() {
+        CsrGraph g = GraphGenerator.clustered(50_000, 8, 2, 1).toCsr();
+        Metrics single = new Metrics();
+        TarjanSCC.run(g, single);
+
+        Metrics shared = new Metrics();
+        IntStream.range(0, 16).parallel().forEach(i -> TarjanSCC.run(g, shared));
+        assertEquals(16 * single.dfsVisits(), shared.dfsVisits());
+        assertEquals(16 * single.dfsEdges(), shared.dfsEdges());
+        assertEquals(16, shared.phase(Metrics.Phase.SCC).count());
+        assertTrue(shared.timeNanos() > 0);
+        assertNull(shared.phase(Metrics.Phase.TOPO));
+
+        TarjanSCC.run(g, Metrics.NOOP);
+        assertEquals(0, Metrics.NOOP.dfsVisits());
+        assertEquals(0, Metrics.NOOP.timeNanos());
+        assertNull(Metrics.NOOP.phase(Metrics.Phase.SCC));
+
+        shared.reset();
+        assertEquals(0, shared.dfsVisits());
+        assertNull(shared.phase(Metrics.Phase.SCC));
+    }
+
+    /** With JFR on, every phase is committed as a graph.Phase event */
+    @Test
+    public void testJfrPhaseEvents() throws Exception {
+        CsrGraph dag = GraphGenerator.layered(20_000, 20, 3, 2).toCsr();
+        Path file = tmp.resolve("phases.jfr");
+        try (Recording r = new Recording()) {
+            r.enable("graph.Phase");
+            r.start();
+            Metrics m = new Metrics(true);
+            int[] topo = TopologicalSort.kahn(dag, m);
+            DAGShortestPath.run(dag, topo, 0, m);
+            r.stop();
+            r.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertTrue(events.stream().anyMatch(e -> "TOPO".equals(e.getString("phase"))));
+        assertTrue(events.stream().anyMatch(e -> "SHORTEST_PATHS".equals(e.getString("phase"))));
+    }
+
+    /** Repeated runs into one Metrics add one histogram sample and their own counters each time */
+    @Test
+    public void testRepeatedRunsAccumulate() {
+        CsrGraph dag = GraphGenerator.layered(20_000, 50, 4, 3).toCsr();
+        int[] topo = TopologicalSort.kahn(dag, Metrics.NOOP);
+        Metrics m = new Metrics();
+        for (int rep = 0; rep < 10; rep++) DAGShortestPath.run(dag, topo, 0, m);
+        LatencyHistogram h = m.phase(Metrics.Phase.SHORTEST_PATHS);
+        assertEquals(10, h.count());
+        assertTrue(h.percentileNanos(0.5) <= h.maxNanos());
+        Metrics once = new Metrics();
+        DAGShortestPath.run(dag, topo, 0, once);
+        assertEquals(10 * once.relaxations(), m.relaxations(), "each run adds its own relaxations exactly once");
+    }
+}
@@ -0,0 +1,313 @@
+package graph.model;
+
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGPaths;
+import graph.dagsp.DAGShortestPath;
+import graph.metrics.Metrics;
+import graph.scc.Components;
+import graph.scc.KosarajuSCC;
+import graph.scc.SccAlgorithm;
+import graph.topo.TopologicalSort;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsrGraph_IntegrationTest {
+
+    private Graph loadGraph(String file) throws Exception {
+        InputStream is = getClass().getResourceAsStream("/data/" + file);
+        assertNotNull(is, "File not found: " + file);
+        JSONObject obj = new JSONObject(new JSONTokener(is));
+
+        int n = obj.getInt("n");
+        JSONArray edges = obj.getJSONArray("edges");
+        Graph g = new Graph(n, true);
+        for (int i = 0; i < edges.length(); i++) {
+            JSONObject e = edges.getJSONObject(i);
+            g.addEdge(e.getInt("u"), e.getInt("v"), e.getInt("w"));
+        }
+        return g;
+    }
+
+    /** CSR and object graph must give identical SCC, topo and path results. */
+    @Test
+    public void testCsrMatchesGraphOnAllDatasets() throws Exception {
+        String[] files = {
+                "small1.json", "small2.json", "small3.json",
+                "medium1.json", "medium2.json", "medium3.json",
+                "large1.json", "large2.json", "large3.json"
+        };
+
+        for (String file : files) {
+            Graph g = loadGraph(file);
+            CsrGraph csr = CsrGraph.from(g);
+            assertEquals(g.n(), csr.n());
+            assertEquals(g.edges().size(), csr.m());
+            for (int u = 0; u < g.n(); u++) {
+                List<Edge> out = g.adj().get(u);
+                assertEquals(out.size(), csr.outDegree(u), file + " → degree mismatch at " + u);
+                for (int k = 0; k < out.size(); k++) {
+                    assertEquals(out.get(k).v, csr.target(csr.begin(u) + k));
+                    assertEquals(out.get(k).w, csr.weight(csr.begin(u) + k));
+                }
+            }
+
+            KosarajuSCC.Result a = KosarajuSCC.run(g, new Metrics());
+            KosarajuSCC.Result b = KosarajuSCC.run(csr, new Metrics());
+            assertEquals(a.compCount, b.compCount, file + " → SCC count mismatch");
+            assertArrayEquals(a.compId, b.compId, file + " → compId mismatch");
+
+            Graph dag = Graph.condensation(g, a.compId, a.compCount);
+            CsrGraph csrDag = CsrGraph.from(dag);
+            List<Integer> topo = TopologicalSort.kahn(dag, new Metrics());
+            int[] csrTopo = TopologicalSort.kahn(csrDag, new Metrics());
+            assertArrayEquals(topo.stream().mapToInt(Integer::intValue).toArray(), csrTopo);
+
+            int src = a.compId[0];
+            assertArrayEquals(DAGShortestPath.run(dag, topo, src, new Metrics()).dist,
+                    DAGShortestPath.run(csrDag, csrTopo, src, new Metrics()).dist);
+            assertArrayEquals(DAGLongestPath.run(dag, topo, src, new Metrics()).best,
+                    DAGLongestPath.run(csrDag, csrTopo, src, new Metrics()).best);
+
+            System.out.println(file + " → CSR results match (n=" + csr.n() + ", m=" + csr.m() + ")");
+        }
+    }
+
+    /** Linear condensation must keep exactly one arc per distinct component pair. */
+    @Test
+    public void testCondensationOnAllDatasets() throws Exception {
+        String[] files = {
+                "small1.json", "small2.json", "small3.json",
+                "medium1.json", "medium2.json", "medium3.json",
+                "large1.json", "large2.json", "large3.json"
+        };
+
+        for (String file : files) {
+            Graph g = loadGraph(file);
+            KosarajuSCC.Result scc = KosarajuSCC.run(g, new Metrics());
+            Set<Long> expected = new HashSet<>();
+            for (Edge e : g.edges()) {
+                int a = scc.compId[e.u], b = scc.compId[e.v];
+                if (a != b) expected.add((long) a << 32 | b);
+            }
+
+            CsrGraph dag = Condensation.build(CsrGraph.from(g), scc.compId, scc.compCount,
+                    Condensation.WeightPolicy.FIRST);
+            Set<Long> actual = new HashSet<>();
+            for (int a = 0; a < dag.n(); a++)
+                for (int i = dag.begin(a); i < dag.end(a); i++) actual.add((long) a << 32 | dag.target(i));
+
+            assertEquals(scc.compCount, dag.n());
+            assertEquals(expected.size(), dag.m(), file + " → duplicate or missing condensation arcs");
+            assertEquals(expected, actual, file + " → condensation arcs differ");
+            assertEquals(dag.m(), Graph.condensation(g, scc.compId, scc.compCount).edges().size());
+        }
+    }
+
+    /** Parallel inter-component arcs are merged according to the weight policy. */
+    @Test
+    public void testCondensationWeightPolicies() {
+        // components: {0,1} -> {2} via three arcs with weights 7, 3, 9
+        Graph g = new Graph(3, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 0, 1);
+        g.addEdge(0, 2, 7);
+        g.addEdge(1, 2, 3);
+        g.addEdge(0, 2, 9);
+        int[] compId = {0, 0, 1};
+
+        assertEquals(7, Condensation.build(g, compId, 2, Condensation.WeightPolicy.FIRST).weight(0));
+        assertEquals(3, Condensation.build(g, compId, 2, Condensation.WeightPolicy.MIN).weight(0));
+        assertEquals(9, Condensation.build(g, compId, 2, Condensation.WeightPolicy.MAX).weight(0));
+        assertEquals(1, Condensation.build(g, compId, 2, Condensation.WeightPolicy.MIN).m());
+        assertEquals(3, Graph.condensation(g, compId, 2, Condensation.WeightPolicy.MIN).edges().get(0).w);
+    }
+
+    /** 200k singleton components: the old boolean matrix would need ~40 GB here. */
+    @Test
+    public void testCondensationOfManySingletons() {
+        int n = 200_000;
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true, 2 * n);
+        for (int i = 0; i + 1 < n; i++) {
+            b.addEdge(i, i + 1, 2);
+            b.addEdge(i, i + 1, 1);
+        }
+        int[] compId = new int[n];
+        for (int i = 0; i < n; i++) compId[i] = i;
+        CsrGraph dag = Condensation.build(b.build(), compId, n, Condensation.WeightPolicy.MIN);
+        assertEquals(n - 1, dag.m());
+        assertEquals(1, dag.weight(0));
+    }
+
+    /** Deep chain: the CSR Kosaraju must not overflow the thread stack. */
+    @Test
+    public void testCsrKosarajuOnLongChain() {
+        int n = 200_000;
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true, n);
+        for (int i = 0; i + 1 < n; i++) b.addEdge(i, i + 1, 1);
+        KosarajuSCC.Result r = KosarajuSCC.run(b.build(), new Metrics());
+        assertEquals(n, r.compCount);
+    }
+
+    /**
+     * Every relabeling is a permutation; SCC on the relabeled graph, mapped back, gives the same
+     * partition, and the path sweep over a topologically relabeled DAG the same distances.
+     */
+    @Test
+    public void testVertexOrdersPreserveResultsOnAllDatasets() throws Exception {
+        String[] files = {
+                "small1.json", "small2.json", "small3.json",
+                "medium1.json", "medium2.json", "medium3.json",
+                "large1.json", "large2.json", "large3.json"
+        };
+        for (String file : files) {
+            CsrGraph g = CsrGraph.from(loadGraph(file));
+            Components expected = SccAlgorithm.TARJAN.run(g, new Metrics());
+            for (VertexOrder.Strategy s : VertexOrder.Strategy.values()) {
+                VertexOrder order = VertexOrder.compute(s, g);
+                int[] sorted = order.oldId.clone();
+                Arrays.sort(sorted);
+                for (int v = 0; v < g.n(); v++) {
+                    assertEquals(v, sorted[v], file + " " + s + " → not a permutation");
+                    assertEquals(v, order.oldId[order.newId[v]]);
+                }
+                CsrGraph local = order.apply(g);
+                assertEquals(g.m(), local.m());
+                for (int u = 0; u < g.n(); u++) {
+                    int x = order.newId[u];
+                    assertEquals(g.outDegree(u), local.outDegree(x));
+                    for (int k = 0; k < g.outDegree(u); k++) {
+                        assertEquals(order.newId[g.target(g.begin(u) + k)], local.target(local.begin(x) + k));
+                        assertEquals(g.weight(g.begin(u) + k), local.weight(local.begin(x) + k));
+                    }
+                }
+                for (SccAlgorithm algo : SccAlgorithm.values()) {
+                    Components c = algo.run(local, new Metrics()).toOriginal(order);
+                    assertSamePartition(expected, c, file + " " + s + " " + algo);
+                }
+            }
+
+            KosarajuSCC.Result r = KosarajuSCC.run(g, new Metrics());
+            CsrGraph dag = Condensation.build(g, r.compId, r.compCount, Condensation.WeightPolicy.FIRST);
+            int[] topo = TopologicalSort.kahn(dag, new Metrics());
+            VertexOrder byTopo = VertexOrder.topological(topo);
+            CsrGraph forward = byTopo.apply(dag);
+            for (int u = 0; u < forward.n(); u++)
+                for (int a = forward.begin(u); a < forward.end(u); a++)
+                    assertTrue(forward.target(a) > u, file + " → topological relabeling must point every arc forward");
+            int[] identity = new int[dag.n()];
+            for (int i = 0; i < identity.length; i++) identity[i] = i;
+            int src = r.compId[0];
+            DAGPaths.Result want = DAGPaths.run(dag, topo, src, new Metrics());
+            DAGPaths.Result got = DAGPaths.run(forward, identity, byTopo.newId[src], new Metrics());
+            assertArrayEquals(want.shortest.dist, byTopo.toOriginal(got.shortest.dist), file);
+            assertArrayEquals(want.shortest.parent, byTopo.toOriginalIds(got.shortest.parent), file);
+            assertArrayEquals(want.longest.best, byTopo.toOriginal(got.longest.best), file);
+            assertArrayEquals(want.longest.parent, byTopo.toOriginalIds(got.longest.parent), file);
+        }
+    }
+
+    private static void assertSamePartition(Components a, Components b, String label) {
+        assertEquals(a.compCount, b.compCount, label + " → component count");
+        int[] map = new int[a.compCount];
+        Arrays.fill(map, -1);
+        for (int v = 0; v < a.compId.length; v++) {
+            int c = a.compId[v];
+            if (map[c] == -1) map[c] = b.compId[v];
+            assertEquals(map[c], b.compId[v], label + " → partition differs at " + v);
+        }
+        for (int c = 0; c < b.compCount; c++)
+            for (int i = b.offsets[c]; i < b.offsets[c + 1]; i++)
+                assertEquals(c, b.compId[b.members[i]], label + " → members of " + c);
+    }
+
+    /** The builder's staging arrays grow, but the built arrays hold exactly n+1 offsets and m arcs. */
+    @Test
+    public void testCsrArraysAreExactlySized() {
+        int n = 1_000, m = 5_000;
+        Random rnd = new Random(42);
+        CsrGraph.Builder directed = new CsrGraph.Builder(n, true, 4);
+        CsrGraph.Builder undirected = new CsrGraph.Builder(n, false, 4);
+        for (int i = 0; i < m; i++) {
+            int u = rnd.nextInt(n), v = rnd.nextInt(n), w = 1 + rnd.nextInt(100);
+            directed.addEdge(u, v, w);
+            undirected.addEdge(u, v, w);
+        }
+        CsrGraph d = directed.build(), u = undirected.build();
+        assertEquals(m, d.m());
+        assertEquals(4L * (n + 1) + 8L * m, d.bytes());
+        assertEquals(2 * m, u.m());
+        assertEquals(4L * (n + 1) + 8L * 2 * m, u.bytes());
+        assertEquals(4L * (n + 1) + 8L * m, CsrGraph.transpose(d).bytes());
+    }
+
+    /** Off-heap copies (copied and built) must hold the same arcs and give the same SCC, topo and path results. */
+    @Test
+    public void testOffHeapGraphMatchesCsr() throws Exception {
+        for (String file : new String[]{"small1.json", "medium2.json", "large3.json"}) {
+            Graph g = loadGraph(file);
+            CsrGraph csr = CsrGraph.from(g);
+            OffHeapGraph.Builder b = new OffHeapGraph.Builder(g.n(), true, 2); // forces the staging buffer to grow
+            for (Edge e : g.edges()) b.addEdge(e.u, e.v, e.w);
+            try (OffHeapGraph copied = OffHeapGraph.copyOf(csr); OffHeapGraph built = b.build()) {
+                for (GraphView off : new GraphView[]{copied, built}) {
+                    assertEquals(csr.n(), off.n());
+                    assertEquals(csr.m(), off.m());
+                    for (int u = 0; u <= csr.n(); u++)
+                        assertEquals(u < csr.n() ? csr.begin(u) : csr.m(), u < csr.n() ? off.begin(u) : off.end(u - 1));
+                    for (int i = 0; i < csr.m(); i++) {
+                        assertEquals(csr.target(i), off.target(i));
+                        assertEquals(csr.weight(i), off.weight(i));
+                    }
+                }
+
+                CsrGraph rev = CsrGraph.transpose(csr);
+                try (OffHeapGraph offRev = OffHeapGraph.transpose(copied)) {
+                    for (int u = 0; u < rev.n(); u++) assertEquals(rev.end(u), offRev.end(u), file + " → transpose offsets");
+                    for (int i = 0; i < rev.m(); i++) {
+                        assertEquals(rev.target(i), offRev.target(i), file + " → transpose targets");
+                        assertEquals(rev.weight(i), offRev.weight(i), file + " → transpose weights");
+                    }
+                }
+
+                KosarajuSCC.Result a = KosarajuSCC.run(csr, new Metrics());
+                KosarajuSCC.Result c = KosarajuSCC.run(copied, new Metrics());
+                assertArrayEquals(a.compId, c.compId, file + " → compId mismatch");
+                assertFalse(copied.isClosed(), "only Kosaraju's own transpose is freed");
+                CsrGraph dag = Condensation.build(csr, a.compId, a.compCount, Condensation.WeightPolicy.FIRST);
+                try (OffHeapGraph offDag = OffHeapGraph.copyOf(dag)) {
+                    int[] topo = TopologicalSort.kahn(dag, new Metrics());
+                    assertArrayEquals(topo, TopologicalSort.kahn(offDag, new Metrics()));
+                    int src = a.compId[0];
+                    assertArrayEquals(DAGShortestPath.run(dag, topo, src, new Metrics()).dist,
+                            DAGShortestPath.run(offDag, topo, src, new Metrics()).dist);
+                    assertArrayEquals(DAGLongestPath.run(dag, topo, src, new Metrics()).best,
+                            DAGLongestPath.run(offDag, topo, src, new Metrics()).best);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOffHeapGraphClose() {
+        OffHeapGraph g = new OffHeapGraph.Builder(3, false).addEdge(0, 1, 5).addEdge(1, 2, 6).build();
+        assertEquals(4, g.m());
+        assertEquals(4 * (4 + 4 + 4), g.bytes());
+        g.close();
+        g.close(); // idempotent
+        assertTrue(g.isClosed());
+        assertEquals(0, g.bytes());
+        assertThrows(IndexOutOfBoundsException.class, () -> g.target(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> g.begin(0));
+    }
+}
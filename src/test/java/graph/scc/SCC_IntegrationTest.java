@@ -1,5 +1,6 @@
 package graph.scc;
 
+import graph.model.CsrGraph;
 import graph.model.Graph;
 import graph.metrics.Metrics;
 import org.json.JSONArray;
@@ -8,6 +9,11 @@ import org.json.JSONTokener;
 import org.junit.jupiter.api.Test;
 
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class SCC_IntegrationTest {
@@ -58,9 +64,107 @@ public class SCC_IntegrationTest {
             for (int i = 0; i < result.comps.size(); i++) {
                 System.out.println("  Component " + (i + 1) + ": " + result.comps.get(i));
             }
-            System.out.println("DFS visits: " + metrics.dfsVisits + ", DFS edges: " + metrics.dfsEdges +
-                    ", Time (ms): " + metrics.timeNanos / 1_000_000.0);
+            System.out.println("DFS visits: " + metrics.dfsVisits() + ", DFS edges: " + metrics.dfsEdges() +
+                    ", Time (ms): " + metrics.timeNanos() / 1_000_000.0);
             System.out.println("───────────────────────────────────────────────");
         }
     }
-}
\ No newline at end of file
+
+    /** Tarjan and Kosaraju must produce the same partition (up to relabeling) */
+    @Test
+    public void testTarjanMatchesKosaraju() throws Exception {
+        String[] files = {
+                "small1.json", "small2.json", "small3.json",
+                "medium1.json", "medium2.json", "medium3.json",
+                "large1.json", "large2.json", "large3.json"
+        };
+
+        for (String file : files) {
+            CsrGraph g = CsrGraph.from(loadGraph(file));
+            Components k = SccAlgorithm.KOSARAJU.run(g, new Metrics());
+            Components t = SccAlgorithm.TARJAN.run(g, new Metrics());
+
+            assertEquals(k.compCount, t.compCount, file + " → SCC count mismatch");
+            assertSamePartition(k.compId, t.compId, file);
+            assertEquals(g.n(), t.members.length);
+            assertEquals(g.n(), t.offsets[t.compCount]);
+
+            // Tarjan ids are topological: every inter-component arc goes to a higher id
+            for (int u = 0; u < g.n(); u++)
+                for (int a = g.begin(u); a < g.end(u); a++)
+                    assertTrue(t.compId[u] <= t.compId[g.target(a)], file + " → ids not topological");
+        }
+    }
+
+    /** A 10^6-long cycle plus a 10^6-long tail must not overflow the stack */
+    @Test
+    public void testTarjanOnDeepGraph() {
+        int n = 2_000_000, half = n / 2;
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true, n);
+        for (int i = 0; i + 1 < half; i++) b.addEdge(i, i + 1, 1);
+        b.addEdge(half - 1, 0, 1);                                // one big cycle
+        for (int i = half - 1; i + 1 < n; i++) b.addEdge(i, i + 1, 1); // then a chain
+        Components c = TarjanSCC.run(b.build(), new Metrics());
+        assertEquals(1 + (n - half), c.compCount);
+        assertEquals(half, c.size(c.compId[0]));
+    }
+
+    /** Parallel FW-BW must find the same partition as Tarjan */
+    @Test
+    public void testParallelMatchesTarjan() throws Exception {
+        String[] files = {
+                "small1.json", "small2.json", "small3.json",
+                "medium1.json", "medium2.json", "medium3.json",
+                "large1.json", "large2.json", "large3.json"
+        };
+        for (String file : files) {
+            CsrGraph g = CsrGraph.from(loadGraph(file));
+            Components t = TarjanSCC.run(g, new Metrics());
+            Components p = SccAlgorithm.PARALLEL.run(g, new Metrics());
+            assertEquals(t.compCount, p.compCount, file + " → SCC count mismatch");
+            assertSamePartition(t.compId, p.compId, file);
+        }
+
+        CsrGraph big = clusteredGraph(300_000, 7);
+        Components t = TarjanSCC.run(big, new Metrics());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelSCC.Result p = ParallelSCC.run(big, pool, new Metrics());
+            assertEquals(t.compCount, p.components.compCount);
+            assertSamePartition(t.compId, p.components.compId, "clustered graph");
+            assertTrue(p.pivots > 0 && p.trimmed > 0, "both phases should run");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Shuffled clusters (each one SCC) of mixed sizes, joined by forward-only DAG arcs, plus singletons */
+    private static CsrGraph clusteredGraph(int n, long seed) {
+        Random rnd = new Random(seed);
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) perm[i] = i;
+        for (int i = n - 1; i > 0; i--) { int j = rnd.nextInt(i + 1); int x = perm[i]; perm[i] = perm[j]; perm[j] = x; }
+
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true, 4 * n);
+        int start = 0;
+        while (start < n) {
+            int size = rnd.nextInt(4) == 0 ? 1 : 1 + rnd.nextInt(rnd.nextBoolean() ? 20 : 20_000);
+            int end = Math.min(n, start + size);
+            for (int i = start; i < end; i++) {
+                if (end - start > 1) b.addEdge(perm[i], perm[i + 1 < end ? i + 1 : start], 1 + rnd.nextInt(10));
+                if (end - start > 2) b.addEdge(perm[i], perm[start + rnd.nextInt(end - start)], 1 + rnd.nextInt(10));
+                if (end < n) b.addEdge(perm[i], perm[end + rnd.nextInt(n - end)], 1 + rnd.nextInt(10));
+            }
+            start = end;
+        }
+        return b.build();
+    }
+
+    private static void assertSamePartition(int[] a, int[] b, String file) {
+        Map<Integer, Integer> ab = new HashMap<>(), ba = new HashMap<>();
+        for (int v = 0; v < a.length; v++) {
+            assertEquals(b[v], (int) ab.merge(a[v], b[v], (old, cur) -> old), file + " → partition differs");
+            assertEquals(a[v], (int) ba.merge(b[v], a[v], (old, cur) -> old), file + " → partition differs");
+        }
+    }
+}
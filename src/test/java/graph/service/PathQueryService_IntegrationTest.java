@@ -0,0 +1,163 @@
+package graph.service;
+
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGShortestPath;
+import graph.io.JsonGraphLoader;
+import graph.metrics.Metrics;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
+import graph.scc.Components;
+import graph.scc.SccAlgorithm;
+import graph.topo.TopologicalSort;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PathQueryService_IntegrationTest {
+
+    private CsrGraph load(String file) throws Exception {
+        try (InputStream is = getClass().getResourceAsStream("/data/" + file)) {
+            assertNotNull(is, "File not found: " + file);
+            return JsonGraphLoader.load(is).graph;
+        }
+    }
+
+    /** Every (from, to) answer must match a fresh run of the one-shot pipeline */
+    @Test
+    public void testAnswersMatchDirectRuns() throws Exception {
+        String[] files = {"small1.json", "medium2.json", "large3.json"};
+        for (String file : files) {
+            CsrGraph g = load(file);
+            PathQueryService svc = new PathQueryService();
+            int version = svc.publish(g);
+
+            Components c = SccAlgorithm.TARJAN.run(g, new Metrics());
+            CsrGraph dag = Condensation.build(g, c.compId, c.compCount, Condensation.WeightPolicy.FIRST);
+            int[] topo = TopologicalSort.kahn(dag, new Metrics());
+            for (int from = 0; from < g.n(); from++) {
+                DAGShortestPath.Result sp = DAGShortestPath.run(dag, topo, c.compId[from], new Metrics());
+                DAGLongestPath.Result lp = DAGLongestPath.run(dag, topo, c.compId[from], new Metrics());
+                for (int to = 0; to < g.n(); to++) {
+                    int tc = c.compId[to];
+                    PathQueryService.PathAnswer s = svc.shortestPath(version, from, to);
+                    PathQueryService.PathAnswer l = svc.criticalPath(from, to);
+                    assertEquals(sp.dist[tc], s.length, file + " shortest " + from + "->" + to);
+                    assertEquals(sp.buildPathTo(tc), s.path);
+                    assertEquals(lp.best[tc], l.length, file + " critical " + from + "->" + to);
+                    assertEquals(lp.buildPathTo(tc), l.path);
+                }
+            }
+            PathQueryService.CacheStats st = svc.cacheStats();
+            // one miss per (source component, objective), everything else is a hit
+            assertEquals(2L * c.compCount, st.misses, file);
+            assertEquals(2L * g.n() * g.n() - st.misses, st.hits, file);
+            assertEquals(0, st.evictions);
+            System.out.println(file + ": " + st);
+        }
+    }
+
+    /** A budget of a few results keeps only the most recently used sources */
+    @Test
+    public void testLruEvictionBySize() throws Exception {
+        CsrGraph g = load("large1.json");
+        PathQueryService probe = new PathQueryService();
+        int dagN = probe.snapshot(probe.publish(g)).dag.n();
+        long entry = PathQueryService.resultBytes(dagN);
+
+        PathQueryService svc = new PathQueryService(3 * entry, SccAlgorithm.TARJAN, Condensation.WeightPolicy.FIRST);
+        int v = svc.publish(g);
+        svc.shortestFrom(v, 0);
+        svc.shortestFrom(v, 1);
+        svc.shortestFrom(v, 2);
+        svc.shortestFrom(v, 0);            // 0 becomes most recent, 1 is now the coldest
+        svc.shortestFrom(v, 3);            // evicts 1
+        assertEquals(1, svc.cacheStats().evictions);
+        assertEquals(3, svc.cacheStats().entries);
+        assertTrue(svc.cacheStats().bytes <= 3 * entry);
+
+        long misses = svc.cacheStats().misses;
+        svc.shortestFrom(v, 0);
+        svc.shortestFrom(v, 2);
+        assertEquals(misses, svc.cacheStats().misses, "0 and 2 should still be cached");
+        svc.shortestFrom(v, 1);
+        assertEquals(misses + 1, svc.cacheStats().misses, "1 should have been evicted");
+
+        PathQueryService none = new PathQueryService(0, SccAlgorithm.TARJAN, Condensation.WeightPolicy.FIRST);
+        none.shortestFrom(none.publish(g), 0);
+        assertEquals(0, none.cacheStats().entries, "results larger than the budget are not kept");
+    }
+
+    /** Versions are isolated: publishing a new graph does not change answers for the old one */
+    @Test
+    public void testVersionsAreIsolated() throws Exception {
+        CsrGraph g1 = load("medium1.json");
+        CsrGraph.Builder b = new CsrGraph.Builder(g1.n(), true);
+        for (int u = 0; u < g1.n(); u++)
+            for (int a = g1.begin(u); a < g1.end(u); a++) b.addEdge(u, g1.target(a), g1.weight(a) * 10);
+        CsrGraph g2 = b.build();
+
+        PathQueryService svc = new PathQueryService();
+        int v1 = svc.publish(g1);
+        int v2 = svc.publish(g2);
+        assertEquals(v2, svc.currentVersion());
+
+        Random rnd = new Random(3);
+        for (int i = 0; i < 200; i++) {
+            int from = rnd.nextInt(g1.n()), to = rnd.nextInt(g1.n());
+            PathQueryService.PathAnswer a1 = svc.shortestPath(v1, from, to);
+            PathQueryService.PathAnswer a2 = svc.shortestPath(from, to);
+            assertEquals(a1.path, a2.path);
+            if (a1.reachable()) assertEquals(a1.length * 10, a2.length);
+        }
+
+        svc.retire(v1);
+        assertThrows(IllegalArgumentException.class, () -> svc.shortestPath(v1, 0, 0));
+        assertEquals(v2, svc.currentVersion());
+        assertThrows(IndexOutOfBoundsException.class, () -> svc.criticalPath(0, g1.n()));
+    }
+
+    /** Results computed while their version is retired must not stay in the cache */
+    @Test
+    public void testRetireDuringQueriesLeavesNoEntries() throws Exception {
+        ResultCache cache = new ResultCache(1 << 20);
+        cache.put(ResultCache.key(3, 0, 1), "dead", 100, v -> v != 3);
+        cache.put(ResultCache.key(4, 0, 1), "live", 100, v -> v != 3);
+        assertNull(cache.get(ResultCache.key(3, 0, 1)));
+        assertEquals(1, cache.stats().entries);
+
+        CsrGraph g = load("large1.json");
+        PathQueryService svc = new PathQueryService();
+        Thread[] readers = new Thread[3];
+        AtomicBoolean stop = new AtomicBoolean();
+        for (int t = 0; t < readers.length; t++) {
+            int seed = t;
+            readers[t] = new Thread(() -> {
+                Random rnd = new Random(seed);
+                while (!stop.get()) {
+                    try {
+                        svc.shortestPath(rnd.nextInt(g.n()), rnd.nextInt(g.n()));
+                        svc.criticalPath(rnd.nextInt(g.n()), rnd.nextInt(g.n()));
+                    } catch (IllegalArgumentException | IllegalStateException retired) {
+                        // the version went away between current() and the lookup
+                    }
+                }
+            });
+        }
+        int v = svc.publish(g);
+        for (Thread r : readers) r.start();
+        for (int round = 0; round < 200; round++) {
+            int next = svc.publish(g);
+            svc.retire(v);
+            v = next;
+        }
+        stop.set(true);
+        for (Thread r : readers) r.join();
+        svc.retire(v);
+        assertEquals(0, svc.cacheStats().entries, svc.cacheStats().toString());
+        assertEquals(0, svc.cacheStats().bytes);
+    }
+}
@@ -1,14 +1,32 @@
 package graph.topo;
 
+import graph.gen.GraphGenerator;
+import graph.model.Condensation;
+import graph.model.CsrGraph;
 import graph.model.Graph;
 import graph.metrics.Metrics;
+import graph.scc.Components;
+import graph.scc.KosarajuSCC;
+import graph.scc.TarjanSCC;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.json.JSONTokener;
 import org.junit.jupiter.api.Test;
 
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -43,8 +61,281 @@ public class Topo_IntegrationTest {
             assertEquals(g.n(), order.size(), file + " → invalid topo order size");
 
             System.out.println(file + " → Topological order: " + order);
-            System.out.println("Pushes: " + metrics.pushes + ", Pops: " + metrics.pops +
-                    ", Time (ms): " + metrics.timeNanos / 1_000_000.0);
+            System.out.println("Pushes: " + metrics.pushes() + ", Pops: " + metrics.pops() +
+                    ", Time (ms): " + metrics.timeNanos() / 1_000_000.0);
         }
     }
+
+    @Test
+    public void testLevelsOnDAGs() throws Exception {
+        String[] files = {"small1.json", "medium1.json", "large1.json"};
+        for (String file : files) {
+            CsrGraph g = CsrGraph.from(loadGraph(file));
+            Metrics metrics = new Metrics();
+            TopologicalSort.Levels lv = TopologicalSort.levels(g, metrics);
+
+            assertEquals(g.n(), lv.order.length, file + " → invalid order size");
+            assertEquals(g.n(), metrics.pops());
+            assertLevelsValid(g, lv, file);
+
+            System.out.println(file + " → " + lv.levelCount() + " waves, level starts " +
+                    Arrays.toString(lv.levelStart));
+        }
+    }
+
+    @Test
+    public void testLevelsDetectCycle() {
+        CsrGraph g = new CsrGraph.Builder(3, true).addEdge(0, 1, 1).addEdge(1, 2, 1).addEdge(2, 1, 1).build();
+        assertThrows(IllegalStateException.class, () -> TopologicalSort.levels(g, new Metrics()));
+    }
+
+    /** Wide layered DAG, so waves are large enough to be expanded in parallel */
+    @Test
+    public void testParallelLevelsOnLargeDAG() {
+        int layers = 20, width = 50_000, n = layers * width;
+        Random rnd = new Random(5);
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true, 3 * n);
+        for (int l = 0; l + 1 < layers; l++)
+            for (int i = 0; i < width; i++)
+                for (int k = 0; k < 3; k++) {
+                    int to = (l + 1 + (k == 2 ? rnd.nextInt(layers - l - 1) : 0)) * width + rnd.nextInt(width);
+                    b.addEdge(l * width + i, to, 1);
+                }
+        CsrGraph g = b.build();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            int[] kahn = TopologicalSort.kahn(g, new Metrics());
+            TopologicalSort.Levels a = TopologicalSort.levels(g, pool, new Metrics());
+            TopologicalSort.Levels c = TopologicalSort.levels(g, pool, new Metrics());
+            assertEquals(kahn.length, a.order.length);
+            assertArrayEquals(a.order, c.order, "wave order must be deterministic");
+            assertArrayEquals(a.levelStart, c.levelStart);
+            assertLevelsValid(g, a, "layered");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Random insertions: incremental state must match a full recompute after every step */
+    @Test
+    public void testDynamicCondensationMatchesRecompute() {
+        int n = 400;
+        Random rnd = new Random(21);
+        CsrGraph.Builder all = new CsrGraph.Builder(n, true);
+        for (int i = 0; i < n; i++) { // start from a sparse DAG
+            int u = rnd.nextInt(n - 1), v = u + 1 + rnd.nextInt(n - u - 1);
+            all.addEdge(u, v, 1 + rnd.nextInt(9));
+        }
+        DynamicCondensation dyn = new DynamicCondensation(all.build(), new Metrics());
+
+        int merges = 0, reorders = 0;
+        for (int step = 0; step < 600; step++) {
+            int u = rnd.nextInt(n), v = rnd.nextInt(n), w = 1 + rnd.nextInt(9);
+            all.addEdge(u, v, w);
+            DynamicCondensation.Update up = dyn.addEdge(u, v, w);
+            if (up.merged) merges++;
+            if (up.reordered) reorders++;
+            if (step % 50 == 0 || up.merged) assertConsistent(all.build(), dyn);
+        }
+        assertConsistent(all.build(), dyn);
+        assertTrue(merges > 0 && reorders > 0, "test should exercise both repair paths");
+        System.out.println("dynamic condensation → " + reorders + " reorders, " + merges + " merges, " +
+                dyn.componentCount() + " components left");
+    }
+
+    /** One insertion closing a short cycle in a long chain only searches that cycle; timing is in DynamicCondensationBenchmark */
+    @Test
+    public void testIncrementalUpdateIsLocal() {
+        int n = 50_000;
+        CsrGraph.Builder b = new CsrGraph.Builder(n, true, n);
+        for (int i = 0; i + 1 < n; i++) b.addEdge(i, i + 1, 1);
+        DynamicCondensation dyn = new DynamicCondensation(b.build(), new Metrics());
+
+        DynamicCondensation.Update local = dyn.addEdge(n / 2 + 10, n / 2, 1); // short back arc -> 11-cycle
+        Components c = TarjanSCC.run(b.addEdge(n / 2 + 10, n / 2, 1).build(), new Metrics());
+
+        assertTrue(local.merged);
+        assertEquals(c.compCount, dyn.componentCount());
+        assertEquals(2 * 11, local.visited, "only the 11-cycle should be searched, once in each direction");
+        assertConsistent(b.build(), dyn);
+    }
+
+    /** Index answers must equal BFS on random DAGs, a generated cyclic graph (through compId) and the datasets */
+    @Test
+    public void testReachabilityIndexMatchesBfs() throws Exception {
+        Random rnd = new Random(8);
+        for (int trial = 0; trial < 30; trial++) {
+            int n = 1 + rnd.nextInt(300), m = rnd.nextInt(4 * n + 1);
+            CsrGraph.Builder b = new CsrGraph.Builder(n, true);
+            for (int i = 0; i < m && n > 1; i++) {
+                int u = rnd.nextInt(n - 1), v = u + 1 + rnd.nextInt(n - u - 1);
+                b.addEdge(u, v, 1);
+            }
+            CsrGraph dag = b.build();
+            ReachabilityIndex idx = ReachabilityIndex.build(dag, TopologicalSort.kahn(dag, new Metrics()), new Metrics());
+            assertEquals(44L * n, idx.bytes(), "44 bytes of labels per component");
+            for (int u = 0; u < n; u++) {
+                boolean[] seen = bfs(dag, u);
+                for (int v = 0; v < n; v++) assertEquals(seen[v], idx.reachable(u, v), "trial " + trial + ": " + u + "->" + v);
+            }
+        }
+
+        CsrGraph g = GraphGenerator.clustered(3_000, 6, 3, 13).toCsr();
+        assertVertexQueriesMatchBfs(g, 200, "clustered");
+        for (String file : new String[]{"small1.json", "medium1.json", "large1.json"})
+            assertVertexQueriesMatchBfs(CsrGraph.from(loadGraph(file)), Integer.MAX_VALUE, file);
+    }
+
+    /** Every task runs once, after all tasks of predecessor components, on both executor kinds */
+    @Test
+    public void testDependencyExecutorRespectsDependencies() throws Exception {
+        CsrGraph g = GraphGenerator.clustered(20_000, 5, 3, 17).toCsr();
+        KosarajuSCC.Result scc = KosarajuSCC.run(g, new Metrics());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ExecutorService threads = Executors.newCachedThreadPool();
+        try {
+            for (Executor exec : new Executor[]{pool, threads}) {
+                AtomicInteger clock = new AtomicInteger();
+                AtomicIntegerArray start = new AtomicIntegerArray(g.n()), finish = new AtomicIntegerArray(g.n());
+                DependencyExecutor.Report r = DependencyExecutor.run(g, scc, null, v -> {
+                    assertTrue(start.compareAndSet(v, 0, clock.incrementAndGet()), "vertex " + v + " ran twice");
+                    finish.set(v, clock.incrementAndGet());
+                }, exec, new Metrics());
+
+                assertEquals(g.n(), r.tasks);
+                assertEquals(scc.compCount, r.components);
+                for (int u = 0; u < g.n(); u++) {
+                    assertTrue(finish.get(u) > 0, "vertex " + u + " never ran");
+                    for (int a = g.begin(u); a < g.end(u); a++) {
+                        int v = g.target(a);
+                        if (scc.compId[u] != scc.compId[v])
+                            assertTrue(finish.get(u) < start.get(v), u + "->" + v + " started too early");
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+            threads.shutdown();
+        }
+    }
+
+    /** A failing task is reported, and nothing downstream of it starts */
+    @Test
+    public void testDependencyExecutorStopsOnFailure() {
+        CsrGraph g = new CsrGraph.Builder(4, true).addEdge(0, 1, 1).addEdge(1, 2, 1).addEdge(2, 3, 1).build();
+        KosarajuSCC.Result scc = KosarajuSCC.run(g, new Metrics());
+        AtomicIntegerArray ran = new AtomicIntegerArray(4);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> DependencyExecutor.run(g, scc, null, v -> {
+            ran.set(v, 1);
+            if (v == 1) throw new IllegalStateException("boom");
+        }, ForkJoinPool.commonPool(), new Metrics()));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertTrue(e.getMessage().contains("vertex 1"), e.getMessage());
+        assertEquals(0, ran.get(2) + ran.get(3));
+    }
+
+    /** A saturated executor rejects a job: run fails, but only after the accepted jobs have finished */
+    @Test
+    public void testDependencyExecutorDrainsAfterRejection() throws Exception {
+        CsrGraph g = new CsrGraph.Builder(8, true).build(); // eight independent components
+        KosarajuSCC.Result scc = KosarajuSCC.run(g, new Metrics());
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        CountDownLatch firstCallback = new CountDownLatch(1);
+        AtomicInteger submitted = new AtomicInteger(), active = new AtomicInteger(), started = new AtomicInteger();
+        Executor saturated = job -> { // takes two jobs, rejects the third once the first is inside its callback
+            if (submitted.incrementAndGet() > 2) {
+                try {
+                    firstCallback.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new RejectedExecutionException("saturated");
+            }
+            worker.execute(job);
+        };
+        try {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> DependencyExecutor.run(g, scc, null, v -> {
+                active.incrementAndGet();
+                started.incrementAndGet();
+                firstCallback.countDown();
+                Thread.sleep(100);
+                active.decrementAndGet();
+            }, saturated, new Metrics()));
+            assertTrue(e.getCause() instanceof RejectedExecutionException, String.valueOf(e.getCause()));
+            assertEquals(0, active.get(), "run returned while a callback was still running");
+            assertEquals(1, started.get(), "the queued job must skip its callback after the rejection");
+            worker.shutdown();
+            assertTrue(worker.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(1, started.get(), "no callback may start after run returned");
+        } finally {
+            worker.shutdownNow();
+        }
+
+        ExecutorService closed = Executors.newSingleThreadExecutor();
+        closed.shutdown();
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> DependencyExecutor.run(g, scc, null, v -> fail("must not run"), closed, new Metrics()));
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+
+    private static void assertVertexQueriesMatchBfs(CsrGraph g, int sources, String label) {
+        Components c = TarjanSCC.run(g, new Metrics());
+        CsrGraph dag = Condensation.build(g, c.compId, c.compCount, Condensation.WeightPolicy.FIRST);
+        ReachabilityIndex idx = ReachabilityIndex.build(dag, TopologicalSort.kahn(dag, new Metrics()), c.compId, new Metrics());
+        for (int u = 0; u < Math.min(sources, g.n()); u++) {
+            boolean[] seen = bfs(g, u);
+            for (int v = 0; v < g.n(); v++) assertEquals(seen[v], idx.reachable(u, v), label + ": " + u + "->" + v);
+        }
+    }
+
+    private static boolean[] bfs(CsrGraph g, int s) {
+        boolean[] seen = new boolean[g.n()];
+        int[] queue = new int[g.n()];
+        int head = 0, tail = 0;
+        queue[tail++] = s;
+        seen[s] = true;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int a = g.begin(u); a < g.end(u); a++) {
+                int w = g.target(a);
+                if (!seen[w]) {
+                    seen[w] = true;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return seen;
+    }
+
+    private static void assertConsistent(CsrGraph g, DynamicCondensation dyn) {
+        Components full = TarjanSCC.run(g, new Metrics());
+        assertEquals(full.compCount, dyn.componentCount(), "component count");
+        for (int v = 0; v < g.n(); v++)
+            for (int x = v + 1; x < g.n(); x += 37)
+                assertEquals(full.compId[v] == full.compId[x], dyn.componentOf(v) == dyn.componentOf(x));
+        for (int u = 0; u < g.n(); u++)
+            for (int a = g.begin(u); a < g.end(u); a++) {
+                int cu = dyn.componentOf(u), cv = dyn.componentOf(g.target(a));
+                if (cu != cv) assertTrue(dyn.position(cu) < dyn.position(cv), "order violated by " + u + "->" + g.target(a));
+            }
+        DynamicCondensation.Snapshot snap = dyn.snapshot(Condensation.WeightPolicy.MIN);
+        assertEquals(full.compCount, snap.dag.n());
+        assertEquals(full.compCount, TopologicalSort.kahn(snap.dag, new Metrics()).length);
+        for (int u = 0; u < snap.dag.n(); u++)
+            for (int a = snap.dag.begin(u); a < snap.dag.end(u); a++) assertTrue(u < snap.dag.target(a));
+    }
+
+    /** Every arc goes to a later wave, and each vertex sits exactly one wave after its latest predecessor */
+    private static void assertLevelsValid(CsrGraph g, TopologicalSort.Levels lv, String file) {
+        int[] lvl = lv.levelOf();
+        int[] expected = new int[g.n()];
+        for (int v : lv.order)
+            for (int a = g.begin(v); a < g.end(v); a++) {
+                int w = g.target(a);
+                assertTrue(lvl[v] < lvl[w], file + " → arc " + v + "->" + w + " does not go forward");
+                expected[w] = Math.max(expected[w], lvl[v] + 1);
+            }
+        assertArrayEquals(expected, lvl, file + " → vertex released in the wrong wave");
+    }
 }
\ No newline at end of file